@@ -15,6 +15,31 @@ CREATE TABLE users (
     updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
 );
 
+-- Append-only wallet history (negative amounts are debits). Every entry is written together with the
+-- running balance in wallet_snapshots.
+CREATE TABLE wallet_ledger (
+    entry_id BIGINT PRIMARY KEY AUTO_INCREMENT,
+    user_id INT NOT NULL,
+    amount DECIMAL(10,2) NOT NULL,
+    entry_type ENUM('TOP_UP', 'PAYMENT', 'ADJUSTMENT') NOT NULL,
+    order_id INT NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    INDEX idx_wallet_ledger_user (user_id, entry_id),
+    FOREIGN KEY (user_id) REFERENCES users(user_id) ON DELETE CASCADE
+);
+
+-- Running wallet balance, created from users.balance on a wallet's first write. Every wallet write locks
+-- its user's row here and updates the balance in place, so balances are checked across all kiosks.
+-- synced turns true once a background task has copied the balance to users.balance.
+CREATE TABLE wallet_snapshots (
+    user_id INT PRIMARY KEY,
+    balance DECIMAL(10,2) NOT NULL,
+    synced BOOLEAN NOT NULL DEFAULT FALSE,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    INDEX idx_wallet_unsynced (synced, user_id),
+    FOREIGN KEY (user_id) REFERENCES users(user_id) ON DELETE CASCADE
+);
+
 -- Admin table
 CREATE TABLE admin (
     admin_id INT PRIMARY KEY AUTO_INCREMENT,
@@ -43,6 +68,42 @@ CREATE TABLE ingredients (
     updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
 );
 
+-- Recipes: amount of each ingredient one cup uses, per size. Rows with no coffee_id are the
+-- sugar and milk additions and apply to every coffee; NULL levels match any level.
+CREATE TABLE recipe_ingredients (
+    recipe_line_id INT PRIMARY KEY AUTO_INCREMENT,
+    coffee_id INT NULL,
+    size ENUM('SMALL', 'MEDIUM', 'LARGE') NOT NULL,
+    sugar_level ENUM('NO_SUGAR', 'LOW', 'MEDIUM', 'HIGH') NULL,
+    milk_level ENUM('NO_MILK', 'LOW', 'MEDIUM', 'HIGH') NULL,
+    ingredient_id INT NOT NULL,
+    amount INT NOT NULL,
+    FOREIGN KEY (coffee_id) REFERENCES coffee_menu(coffee_id) ON DELETE CASCADE,
+    FOREIGN KEY (ingredient_id) REFERENCES ingredients(ingredient_id) ON DELETE CASCADE
+);
+
+-- Stock each node has claimed from ingredients.quantity and not yet sold. A node sells only from its
+-- own lease, so nodes sharing the database can't oversell; the row stays with the node across restarts.
+CREATE TABLE stock_leases (
+    node_id VARCHAR(64) NOT NULL,
+    ingredient_id INT NOT NULL,
+    amount INT NOT NULL,
+    PRIMARY KEY (node_id, ingredient_id),
+    FOREIGN KEY (ingredient_id) REFERENCES ingredients(ingredient_id) ON DELETE CASCADE
+);
+
+-- Stock sold since the last flush. Sales append here in the order's transaction; InventoryEngine
+-- folds each node's rows into its stock_leases row in batches.
+CREATE TABLE inventory_journal (
+    journal_id BIGINT PRIMARY KEY AUTO_INCREMENT,
+    node_id VARCHAR(64) NOT NULL,
+    ingredient_id INT NOT NULL,
+    amount INT NOT NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    INDEX idx_journal_node (node_id, journal_id),
+    FOREIGN KEY (ingredient_id) REFERENCES ingredients(ingredient_id) ON DELETE CASCADE
+);
+
 -- Orders table
 CREATE TABLE orders (
     order_id INT PRIMARY KEY AUTO_INCREMENT,
@@ -51,7 +112,13 @@ CREATE TABLE orders (
     payment_status ENUM('PENDING', 'COMPLETED', 'FAILED', 'REFUNDED') DEFAULT 'PENDING',
     order_status ENUM('PLACED', 'PREPARING', 'READY', 'DELIVERED', 'CANCELLED') DEFAULT 'PLACED',
     order_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-    FOREIGN KEY (user_id) REFERENCES users(user_id) ON DELETE CASCADE
+    updated_at TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3),
+    -- Node whose brew line has claimed the order; NULL until one does
+    prep_node VARCHAR(64) NULL,
+    FOREIGN KEY (user_id) REFERENCES users(user_id) ON DELETE CASCADE,
+    INDEX idx_orders_time_status (order_time, order_status, payment_status, total_amount),
+    INDEX idx_orders_time_id (order_time, order_id),
+    INDEX idx_orders_updated (updated_at, order_id)
 );
 
 -- Order items table
@@ -80,6 +147,47 @@ CREATE TABLE payments (
     FOREIGN KEY (order_id) REFERENCES orders(order_id) ON DELETE CASCADE
 );
 
+-- Hourly order rollup (maintained with every order insert/status change, striped by order_id % 16)
+CREATE TABLE order_rollup_hourly (
+    bucket_hour TIMESTAMP NOT NULL,
+    order_status ENUM('PLACED', 'PREPARING', 'READY', 'DELIVERED', 'CANCELLED') NOT NULL,
+    payment_status ENUM('PENDING', 'COMPLETED', 'FAILED', 'REFUNDED') NOT NULL,
+    shard TINYINT NOT NULL DEFAULT 0,
+    order_count INT NOT NULL DEFAULT 0,
+    revenue_cents BIGINT NOT NULL DEFAULT 0,
+    PRIMARY KEY (bucket_hour, order_status, payment_status, shard)
+);
+
+-- Hourly sales rollup per coffee and size
+CREATE TABLE sales_rollup_hourly (
+    bucket_hour TIMESTAMP NOT NULL,
+    coffee_id INT NOT NULL,
+    size ENUM('SMALL', 'MEDIUM', 'LARGE') NOT NULL,
+    payment_status ENUM('PENDING', 'COMPLETED', 'FAILED', 'REFUNDED') NOT NULL,
+    shard TINYINT NOT NULL DEFAULT 0,
+    order_count INT NOT NULL DEFAULT 0,
+    quantity INT NOT NULL DEFAULT 0,
+    revenue_cents BIGINT NOT NULL DEFAULT 0,
+    PRIMARY KEY (bucket_hour, coffee_id, size, payment_status, shard)
+);
+
+-- Cache versions table (bumped on writes so every node can revalidate its cache)
+CREATE TABLE cache_versions (
+    cache_name VARCHAR(50) PRIMARY KEY,
+    version BIGINT NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
+);
+
+-- Idempotency keys for order submission (written in the order's transaction)
+CREATE TABLE idempotency_keys (
+    idem_key VARCHAR(64) PRIMARY KEY,
+    user_id INT NOT NULL,
+    order_id INT NOT NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    FOREIGN KEY (order_id) REFERENCES orders(order_id) ON DELETE CASCADE,
+    INDEX idx_idempotency_created (created_at)
+);
+
 -- Insert sample data
 INSERT INTO admin (username, password) VALUES 
 ('admin', 'admin123'),
@@ -92,6 +200,9 @@ INSERT INTO coffee_menu (name, price, description) VALUES
 ('Americano', 3.00, 'Espresso with hot water'),
 ('Mocha', 4.50, 'Chocolate flavored coffee');
 
+INSERT INTO cache_versions (cache_name, version) VALUES
+('coffee_menu', 0);
+
 INSERT INTO ingredients (name, quantity, unit, min_threshold) VALUES 
 ('Coffee Beans', 1000, 'grams', 100),
 ('Milk', 2000, 'ml', 200),
@@ -99,6 +210,69 @@ INSERT INTO ingredients (name, quantity, unit, min_threshold) VALUES
 ('Chocolate', 300, 'grams', 30),
 ('Water', 5000, 'ml', 500);
 
+-- Base recipes scale with the 0.8 / 1.3 size multipliers used for pricing
+INSERT INTO recipe_ingredients (coffee_id, size, sugar_level, milk_level, ingredient_id, amount) VALUES
+(1, 'SMALL', NULL, NULL, 1, 14),
+(1, 'SMALL', NULL, NULL, 5, 32),
+(1, 'MEDIUM', NULL, NULL, 1, 18),
+(1, 'MEDIUM', NULL, NULL, 5, 40),
+(1, 'LARGE', NULL, NULL, 1, 23),
+(1, 'LARGE', NULL, NULL, 5, 52),
+(2, 'SMALL', NULL, NULL, 1, 14),
+(2, 'SMALL', NULL, NULL, 5, 24),
+(2, 'SMALL', NULL, NULL, 2, 96),
+(2, 'MEDIUM', NULL, NULL, 1, 18),
+(2, 'MEDIUM', NULL, NULL, 5, 30),
+(2, 'MEDIUM', NULL, NULL, 2, 120),
+(2, 'LARGE', NULL, NULL, 1, 23),
+(2, 'LARGE', NULL, NULL, 5, 39),
+(2, 'LARGE', NULL, NULL, 2, 156),
+(3, 'SMALL', NULL, NULL, 1, 14),
+(3, 'SMALL', NULL, NULL, 5, 24),
+(3, 'SMALL', NULL, NULL, 2, 160),
+(3, 'MEDIUM', NULL, NULL, 1, 18),
+(3, 'MEDIUM', NULL, NULL, 5, 30),
+(3, 'MEDIUM', NULL, NULL, 2, 200),
+(3, 'LARGE', NULL, NULL, 1, 23),
+(3, 'LARGE', NULL, NULL, 5, 39),
+(3, 'LARGE', NULL, NULL, 2, 260),
+(4, 'SMALL', NULL, NULL, 1, 14),
+(4, 'SMALL', NULL, NULL, 5, 144),
+(4, 'MEDIUM', NULL, NULL, 1, 18),
+(4, 'MEDIUM', NULL, NULL, 5, 180),
+(4, 'LARGE', NULL, NULL, 1, 23),
+(4, 'LARGE', NULL, NULL, 5, 234),
+(5, 'SMALL', NULL, NULL, 1, 14),
+(5, 'SMALL', NULL, NULL, 5, 24),
+(5, 'SMALL', NULL, NULL, 2, 120),
+(5, 'SMALL', NULL, NULL, 4, 16),
+(5, 'MEDIUM', NULL, NULL, 1, 18),
+(5, 'MEDIUM', NULL, NULL, 5, 30),
+(5, 'MEDIUM', NULL, NULL, 2, 150),
+(5, 'MEDIUM', NULL, NULL, 4, 20),
+(5, 'LARGE', NULL, NULL, 1, 23),
+(5, 'LARGE', NULL, NULL, 5, 39),
+(5, 'LARGE', NULL, NULL, 2, 195),
+(5, 'LARGE', NULL, NULL, 4, 26),
+(NULL, 'SMALL', 'LOW', NULL, 3, 3),
+(NULL, 'MEDIUM', 'LOW', NULL, 3, 4),
+(NULL, 'LARGE', 'LOW', NULL, 3, 5),
+(NULL, 'SMALL', 'MEDIUM', NULL, 3, 6),
+(NULL, 'MEDIUM', 'MEDIUM', NULL, 3, 8),
+(NULL, 'LARGE', 'MEDIUM', NULL, 3, 10),
+(NULL, 'SMALL', 'HIGH', NULL, 3, 10),
+(NULL, 'MEDIUM', 'HIGH', NULL, 3, 12),
+(NULL, 'LARGE', 'HIGH', NULL, 3, 16),
+(NULL, 'SMALL', NULL, 'LOW', 2, 16),
+(NULL, 'MEDIUM', NULL, 'LOW', 2, 20),
+(NULL, 'LARGE', NULL, 'LOW', 2, 26),
+(NULL, 'SMALL', NULL, 'MEDIUM', 2, 32),
+(NULL, 'MEDIUM', NULL, 'MEDIUM', 2, 40),
+(NULL, 'LARGE', NULL, 'MEDIUM', 2, 52),
+(NULL, 'SMALL', NULL, 'HIGH', 2, 48),
+(NULL, 'MEDIUM', NULL, 'HIGH', 2, 60),
+(NULL, 'LARGE', NULL, 'HIGH', 2, 78);
+
 INSERT INTO users (name, email, password, balance) VALUES 
 ('John Doe', 'john@example.com', 'password123', 50.00),
 ('Jane Smith', 'jane@example.com', 'password123', 75.00);
\ No newline at end of file
@@ -1,10 +1,12 @@
 package com.cvs.dao;
 
 import com.cvs.models.Admin;
+import com.cvs.models.DashboardStats;
 import com.cvs.utils.DBConnector;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.math.BigDecimal;
 import java.sql.*;
 
 public class AdminDAO {
@@ -31,6 +33,35 @@ public class AdminDAO {
         return null;
     }
 
+    // All dashboard counters in a single round trip; revenue comes from the hourly rollup
+    public DashboardStats getDashboardStats() {
+        try (Connection conn = DBConnector.getConnection()) {
+            return getDashboardStats(conn);
+        } catch (SQLException e) {
+            logger.error("Error getting dashboard stats: {}", e.getMessage());
+        }
+        return new DashboardStats(0, BigDecimal.ZERO, 0, 0);
+    }
+
+    public DashboardStats getDashboardStats(Connection conn) {
+        String sql = "SELECT (SELECT COUNT(*) FROM orders) AS total_orders, " +
+                     "(SELECT COALESCE(SUM(revenue_cents), 0) FROM order_rollup_hourly WHERE payment_status = 'COMPLETED') AS revenue_cents, " +
+                     "(SELECT COUNT(*) FROM users) AS total_users, " +
+                     "(SELECT COUNT(*) FROM coffee_menu) AS total_menu_items";
+        try (PreparedStatement stmt = conn.prepareStatement(sql);
+             ResultSet rs = stmt.executeQuery()) {
+            if (rs.next()) {
+                return new DashboardStats(rs.getLong("total_orders"),
+                                          BigDecimal.valueOf(rs.getLong("revenue_cents"), 2),
+                                          rs.getLong("total_users"),
+                                          rs.getLong("total_menu_items"));
+            }
+        } catch (SQLException e) {
+            logger.error("Error getting dashboard stats: {}", e.getMessage());
+        }
+        return new DashboardStats(0, BigDecimal.ZERO, 0, 0);
+    }
+
     public boolean createAdmin(Admin admin) {
         if (admin == null) {
             throw new IllegalArgumentException("Admin cannot be null");
@@ -45,9 +76,10 @@ public class AdminDAO {
             
             int result = stmt.executeUpdate();
             if (result > 0) {
-                ResultSet rs = stmt.getGeneratedKeys();
-                if (rs.next()) {
-                    admin.setAdminId(rs.getInt(1));
+                try (ResultSet rs = stmt.getGeneratedKeys()) {
+                    if (rs.next()) {
+                        admin.setAdminId(rs.getInt(1));
+                    }
                 }
                 logger.info("Admin created successfully: {}", admin.getUsername());
                 return true;
@@ -9,7 +9,7 @@ import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
 
-public class CoffeeMenuDAO {
+public class CoffeeMenuDAO implements MenuCache.MenuSource {
     private static final Logger logger = LoggerFactory.getLogger(CoffeeMenuDAO.class);
 
     public boolean createCoffeeItem(CoffeeMenu coffee) {
@@ -24,10 +24,12 @@ public class CoffeeMenuDAO {
             
             int result = stmt.executeUpdate();
             if (result > 0) {
-                ResultSet rs = stmt.getGeneratedKeys();
-                if (rs.next()) {
-                    coffee.setCoffeeId(rs.getInt(1));
+                try (ResultSet rs = stmt.getGeneratedKeys()) {
+                    if (rs.next()) {
+                        coffee.setCoffeeId(rs.getInt(1));
+                    }
                 }
+                menuChanged(conn);
                 logger.info("Coffee item created: {}", coffee.getName());
                 return true;
             }
@@ -38,9 +40,12 @@ public class CoffeeMenuDAO {
     }
 
     public CoffeeMenu getCoffeeById(int coffeeId) {
+        return MenuCache.getInstance().getById(coffeeId);
+    }
+
+    public CoffeeMenu getCoffeeById(int coffeeId, Connection conn) {
         String sql = "SELECT * FROM coffee_menu WHERE coffee_id = ?";
-        try (Connection conn = DBConnector.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
             
             stmt.setInt(1, coffeeId);
             ResultSet rs = stmt.executeQuery();
@@ -55,6 +60,15 @@ public class CoffeeMenuDAO {
     }
 
     public List<CoffeeMenu> getAllCoffeeItems() {
+        return new ArrayList<>(MenuCache.getInstance().getAllItems());
+    }
+
+    public List<CoffeeMenu> getAvailableCoffeeItems() {
+        return new ArrayList<>(MenuCache.getInstance().getAvailableItems());
+    }
+
+    @Override
+    public List<CoffeeMenu> loadMenu() throws SQLException {
         List<CoffeeMenu> coffeeItems = new ArrayList<>();
         String sql = "SELECT * FROM coffee_menu ORDER BY name";
         
@@ -65,27 +79,18 @@ public class CoffeeMenuDAO {
             while (rs.next()) {
                 coffeeItems.add(mapResultSetToCoffee(rs));
             }
-        } catch (SQLException e) {
-            logger.error("Error getting all coffee items: {}", e.getMessage());
         }
         return coffeeItems;
     }
 
-    public List<CoffeeMenu> getAvailableCoffeeItems() {
-        List<CoffeeMenu> coffeeItems = new ArrayList<>();
-        String sql = "SELECT * FROM coffee_menu WHERE available = true ORDER BY name";
-        
+    @Override
+    public long readVersion() throws SQLException {
+        String sql = "SELECT version FROM cache_versions WHERE cache_name = 'coffee_menu'";
         try (Connection conn = DBConnector.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql);
              ResultSet rs = stmt.executeQuery()) {
-            
-            while (rs.next()) {
-                coffeeItems.add(mapResultSetToCoffee(rs));
-            }
-        } catch (SQLException e) {
-            logger.error("Error getting available coffee items: {}", e.getMessage());
+            return rs.next() ? rs.getLong(1) : 0;
         }
-        return coffeeItems;
     }
 
     public boolean updateCoffeeItem(CoffeeMenu coffee) {
@@ -101,6 +106,7 @@ public class CoffeeMenuDAO {
             
             int result = stmt.executeUpdate();
             if (result > 0) {
+                menuChanged(conn);
                 logger.info("Coffee item updated: {}", coffee.getName());
                 return true;
             }
@@ -120,6 +126,7 @@ public class CoffeeMenuDAO {
             
             int result = stmt.executeUpdate();
             if (result > 0) {
+                menuChanged(conn);
                 logger.info("Coffee availability updated: coffeeId={}, available={}", coffeeId, available);
                 return true;
             }
@@ -138,6 +145,7 @@ public class CoffeeMenuDAO {
             int result = stmt.executeUpdate();
             
             if (result > 0) {
+                menuChanged(conn);
                 logger.info("Coffee item deleted: coffeeId={}", coffeeId);
                 return true;
             }
@@ -147,6 +155,17 @@ public class CoffeeMenuDAO {
         return false;
     }
 
+    // Bumps the shared version so other nodes reload, then drops this node's snapshot
+    private void menuChanged(Connection conn) {
+        String sql = "UPDATE cache_versions SET version = version + 1 WHERE cache_name = 'coffee_menu'";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.executeUpdate();
+        } catch (SQLException e) {
+            logger.warn("Error bumping menu version: {}", e.getMessage());
+        }
+        MenuCache.getInstance().invalidate();
+    }
+
     private CoffeeMenu mapResultSetToCoffee(ResultSet rs) throws SQLException {
         CoffeeMenu coffee = new CoffeeMenu();
         coffee.setCoffeeId(rs.getInt("coffee_id"));
@@ -0,0 +1,86 @@
+package com.cvs.dao;
+
+import com.cvs.models.LedgerEntry;
+import com.cvs.models.Order;
+import com.cvs.models.OrderItem;
+import com.cvs.models.Payment;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+// Decodes enum columns through a precomputed table instead of Enum.valueOf, which hashes the
+// whole string and walks a HashMap on every row. The slot comes from the length and three
+// characters, then one equals confirms it, so unknown values are still rejected.
+public final class EnumCodec<E extends Enum<E>> {
+    public static final EnumCodec<Order.PaymentStatus> PAYMENT_STATUS = of(Order.PaymentStatus.class);
+    public static final EnumCodec<Order.OrderStatus> ORDER_STATUS = of(Order.OrderStatus.class);
+    public static final EnumCodec<OrderItem.SugarLevel> SUGAR_LEVEL = of(OrderItem.SugarLevel.class);
+    public static final EnumCodec<OrderItem.MilkLevel> MILK_LEVEL = of(OrderItem.MilkLevel.class);
+    public static final EnumCodec<OrderItem.Size> SIZE = of(OrderItem.Size.class);
+    public static final EnumCodec<Payment.PaymentType> PAYMENT_TYPE = of(Payment.PaymentType.class);
+    public static final EnumCodec<Payment.PaymentStatus> PAYMENT_RESULT = of(Payment.PaymentStatus.class);
+    public static final EnumCodec<LedgerEntry.EntryType> LEDGER_ENTRY_TYPE = of(LedgerEntry.EntryType.class);
+
+    private static final int MAX_TABLE_SIZE = 1 << 12;
+
+    private final Class<E> type;
+    private final E[] table;
+    private final int mask;
+
+    private EnumCodec(Class<E> type) {
+        this.type = type;
+        E[] constants = type.getEnumConstants();
+        E[] found = null;
+        int size = Integer.highestOneBit(Math.max(1, constants.length * 2 - 1)) * 2;
+        for (; found == null && size <= MAX_TABLE_SIZE; size <<= 1) {
+            found = fill(constants, size);
+        }
+        // Names that collide at every size fall back to Enum.valueOf
+        this.table = found;
+        this.mask = found != null ? found.length - 1 : 0;
+    }
+
+    public static <E extends Enum<E>> EnumCodec<E> of(Class<E> type) {
+        return new EnumCodec<>(type);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <E extends Enum<E>> E[] fill(E[] constants, int size) {
+        E[] slots = (E[]) java.lang.reflect.Array.newInstance(constants.getClass().getComponentType(), size);
+        for (E constant : constants) {
+            int slot = slot(constant.name()) & (size - 1);
+            if (slots[slot] != null) {
+                return null;
+            }
+            slots[slot] = constant;
+        }
+        return slots;
+    }
+
+    private static int slot(String name) {
+        int length = name.length();
+        int h = length;
+        h = h * 31 + name.charAt(0);
+        h = h * 31 + name.charAt(length >> 1);
+        h = h * 31 + name.charAt(length - 1);
+        return h ^ (h >>> 7);
+    }
+
+    public E decode(String value) {
+        if (value == null) {
+            throw new IllegalArgumentException("No " + type.getSimpleName() + " for null");
+        }
+        if (table == null) {
+            return Enum.valueOf(type, value);
+        }
+        E candidate = value.isEmpty() ? null : table[slot(value) & mask];
+        if (candidate == null || !candidate.name().equals(value)) {
+            throw new IllegalArgumentException("No enum constant " + type.getCanonicalName() + "." + value);
+        }
+        return candidate;
+    }
+
+    public E read(ResultSet rs, int column) throws SQLException {
+        return decode(rs.getString(column));
+    }
+}
@@ -0,0 +1,64 @@
+package com.cvs.dao;
+
+import com.cvs.utils.DBConnector;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.*;
+
+// Idempotency keys for order submission. A key is written in the same transaction as its order,
+// so the primary key on idem_key is what finally stops a duplicate, even across nodes.
+// Age checks use the database clock so every node agrees on expiry.
+public class IdempotencyDAO {
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyDAO.class);
+
+    // Throws on a duplicate key so the caller's transaction rolls back
+    public void saveKey(String key, int userId, int orderId, Connection conn) throws SQLException {
+        String sql = "INSERT INTO idempotency_keys (idem_key, user_id, order_id) VALUES (?, ?, ?)";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, key);
+            stmt.setInt(2, userId);
+            stmt.setInt(3, orderId);
+            stmt.executeUpdate();
+        }
+    }
+
+    // Order placed under the key by this user within the last ttlSeconds, or 0 if there is none
+    public int findOrderId(String key, int userId, long ttlSeconds) {
+        try (Connection conn = DBConnector.getConnection()) {
+            return findOrderId(key, userId, ttlSeconds, conn);
+        } catch (SQLException e) {
+            logger.error("Error finding idempotency key: {}", e.getMessage());
+        }
+        return 0;
+    }
+
+    public int findOrderId(String key, int userId, long ttlSeconds, Connection conn) throws SQLException {
+        String sql = "SELECT order_id FROM idempotency_keys WHERE idem_key = ? AND user_id = ? " +
+                     "AND created_at >= TIMESTAMPADD(SECOND, ?, CURRENT_TIMESTAMP)";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, key);
+            stmt.setInt(2, userId);
+            stmt.setLong(3, -ttlSeconds);
+            ResultSet rs = stmt.executeQuery();
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    public int purgeExpired(long ttlSeconds) {
+        try (Connection conn = DBConnector.getConnection()) {
+            return purgeExpired(ttlSeconds, conn);
+        } catch (SQLException e) {
+            logger.error("Error purging idempotency keys: {}", e.getMessage());
+        }
+        return 0;
+    }
+
+    public int purgeExpired(long ttlSeconds, Connection conn) throws SQLException {
+        String sql = "DELETE FROM idempotency_keys WHERE created_at < TIMESTAMPADD(SECOND, ?, CURRENT_TIMESTAMP)";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setLong(1, -ttlSeconds);
+            return stmt.executeUpdate();
+        }
+    }
+}
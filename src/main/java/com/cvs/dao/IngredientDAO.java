@@ -8,65 +8,303 @@ import org.slf4j.LoggerFactory;
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 
-public class IngredientDAO {
+// Stock is split three ways: ingredients.quantity is the free pool, stock_leases holds what each node
+// has claimed from it to sell on its own, and inventory_journal holds sales not yet folded into the
+// seller's lease. What is left of an ingredient is the pool plus every lease, less the journal.
+public class IngredientDAO implements InventoryEngine.StockStore {
     private static final Logger logger = LoggerFactory.getLogger(IngredientDAO.class);
+    private final String nodeId;
+
+    public IngredientDAO() {
+        this(DBConnector.getNodeId());
+    }
+
+    public IngredientDAO(String nodeId) {
+        this.nodeId = nodeId;
+    }
 
     public List<Ingredient> getAllIngredients() {
+        return InventoryEngine.getInstance().getAllIngredients();
+    }
+
+    public boolean updateIngredientQuantity(int ingredientId, int newQuantity) {
+        if (ingredientId <= 0 || newQuantity < 0) {
+            throw new IllegalArgumentException("Invalid ingredient ID or quantity");
+        }
+        return InventoryEngine.getInstance().setQuantity(ingredientId, newQuantity);
+    }
+
+    public List<Ingredient> getLowStockIngredients() {
+        return InventoryEngine.getInstance().getLowStockIngredients();
+    }
+
+    @Override
+    public List<Ingredient> loadIngredients() throws SQLException {
+        try (Connection conn = DBConnector.getConnection()) {
+            return loadIngredients(conn);
+        }
+    }
+
+    public List<Ingredient> loadIngredients(Connection conn) throws SQLException {
         List<Ingredient> ingredients = new ArrayList<>();
-        String sql = "SELECT * FROM ingredients ORDER BY name";
-        
-        try (Connection conn = DBConnector.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql);
+        String sql = "SELECT i.*, i.quantity + COALESCE(l.leased, 0) - COALESCE(j.pending, 0) AS available " +
+                     "FROM ingredients i " +
+                     "LEFT JOIN (SELECT ingredient_id, SUM(amount) AS leased FROM stock_leases " +
+                     "GROUP BY ingredient_id) l ON l.ingredient_id = i.ingredient_id " +
+                     "LEFT JOIN (SELECT ingredient_id, SUM(amount) AS pending FROM inventory_journal " +
+                     "GROUP BY ingredient_id) j ON j.ingredient_id = i.ingredient_id ORDER BY i.name";
+        try (PreparedStatement stmt = conn.prepareStatement(sql);
              ResultSet rs = stmt.executeQuery()) {
-            
             while (rs.next()) {
-                ingredients.add(mapResultSetToIngredient(rs));
+                Ingredient ingredient = mapResultSetToIngredient(rs);
+                ingredient.setQuantity(rs.getInt("available"));
+                ingredients.add(ingredient);
             }
-        } catch (SQLException e) {
-            logger.error("Error getting all ingredients: {}", e.getMessage());
         }
         return ingredients;
     }
 
-    public boolean updateIngredientQuantity(int ingredientId, int newQuantity) {
-        if (ingredientId <= 0 || newQuantity < 0) {
-            throw new IllegalArgumentException("Invalid ingredient ID or quantity");
+    @Override
+    public Map<Integer, Long> loadLeases() throws SQLException {
+        try (Connection conn = DBConnector.getConnection()) {
+            return loadLeases(conn);
         }
-        
-        String sql = "UPDATE ingredients SET quantity = ? WHERE ingredient_id = ?";
-        try (Connection conn = DBConnector.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            
-            stmt.setInt(1, newQuantity);
-            stmt.setInt(2, ingredientId);
-            
-            int result = stmt.executeUpdate();
-            if (result > 0) {
-                logger.info("Ingredient quantity updated: ingredientId={}, quantity={}", ingredientId, newQuantity);
-                return true;
+    }
+
+    // What this node may still sell of each ingredient: its lease less its unflushed journal
+    public Map<Integer, Long> loadLeases(Connection conn) throws SQLException {
+        Map<Integer, Long> leases = new TreeMap<>();
+        String sql = "SELECT l.ingredient_id, l.amount - COALESCE(j.pending, 0) AS remaining FROM stock_leases l " +
+                     "LEFT JOIN (SELECT ingredient_id, SUM(amount) AS pending FROM inventory_journal WHERE node_id = ? " +
+                     "GROUP BY ingredient_id) j ON j.ingredient_id = l.ingredient_id WHERE l.node_id = ?";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, nodeId);
+            stmt.setString(2, nodeId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    leases.put(rs.getInt("ingredient_id"), rs.getLong("remaining"));
+                }
             }
+        }
+        return leases;
+    }
+
+    @Override
+    public int claim(int ingredientId, int needed, int percent) throws SQLException {
+        try (Connection conn = DBConnector.getConnection()) {
+            return claim(ingredientId, needed, percent, conn);
+        }
+    }
+
+    // Moves stock from the free pool into this node's lease, in its own short transaction: percent of
+    // the pool, or needed if that is more, capped at what the pool has. Returns the amount moved.
+    public int claim(int ingredientId, int needed, int percent, Connection conn) throws SQLException {
+        boolean autoCommit = conn.getAutoCommit();
+        conn.setAutoCommit(false);
+        try {
+            long pool = 0;
+            try (PreparedStatement stmt = conn.prepareStatement(
+                     "SELECT quantity FROM ingredients WHERE ingredient_id = ? FOR UPDATE")) {
+                stmt.setInt(1, ingredientId);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    if (rs.next()) {
+                        pool = rs.getLong("quantity");
+                    }
+                }
+            }
+            long share = pool > 0 ? Math.max(1, pool * percent / 100) : 0;
+            int claimed = (int) Math.min(Math.max(needed, share), Math.max(pool, 0));
+            if (claimed > 0) {
+                try (PreparedStatement stmt = conn.prepareStatement(
+                         "UPDATE ingredients SET quantity = quantity - ? WHERE ingredient_id = ?")) {
+                    stmt.setInt(1, claimed);
+                    stmt.setInt(2, ingredientId);
+                    stmt.executeUpdate();
+                }
+                try (PreparedStatement stmt = conn.prepareStatement(
+                         "INSERT INTO stock_leases (node_id, ingredient_id, amount) VALUES (?, ?, ?) " +
+                         "ON DUPLICATE KEY UPDATE amount = amount + VALUES(amount)")) {
+                    stmt.setString(1, nodeId);
+                    stmt.setInt(2, ingredientId);
+                    stmt.setInt(3, claimed);
+                    stmt.executeUpdate();
+                }
+            }
+            conn.commit();
+            if (claimed > 0) {
+                logger.debug("Stock leased: node={}, ingredientId={}, amount={}", nodeId, ingredientId, claimed);
+            }
+            return claimed;
         } catch (SQLException e) {
-            logger.error("Error updating ingredient quantity: {}", e.getMessage());
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(autoCommit);
         }
-        return false;
     }
 
-    public List<Ingredient> getLowStockIngredients() {
-        List<Ingredient> lowStockItems = new ArrayList<>();
-        String sql = "SELECT * FROM ingredients WHERE quantity <= min_threshold ORDER BY name";
-        
-        try (Connection conn = DBConnector.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql);
-             ResultSet rs = stmt.executeQuery()) {
-            
-            while (rs.next()) {
-                lowStockItems.add(mapResultSetToIngredient(rs));
+    @Override
+    public boolean setQuantity(int ingredientId, int quantity) throws SQLException {
+        try (Connection conn = DBConnector.getConnection()) {
+            return setQuantity(ingredientId, quantity, conn);
+        }
+    }
+
+    // Sets what is left of an ingredient (a restock or stock count) by resizing the free pool around the
+    // leases. A count below what the nodes hold leaves the pool negative until the next restock.
+    // Returns false when the ingredient does not exist.
+    public boolean setQuantity(int ingredientId, int quantity, Connection conn) throws SQLException {
+        boolean autoCommit = conn.getAutoCommit();
+        conn.setAutoCommit(false);
+        try {
+            boolean found;
+            try (PreparedStatement stmt = conn.prepareStatement(
+                     "SELECT quantity FROM ingredients WHERE ingredient_id = ? FOR UPDATE")) {
+                stmt.setInt(1, ingredientId);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    found = rs.next();
+                }
+            }
+            if (!found) {
+                conn.commit();
+                return false;
+            }
+            // One statement, so a flush folding journal rows into a lease can't land between the two sums
+            long held;
+            try (PreparedStatement stmt = conn.prepareStatement(
+                     "SELECT (SELECT COALESCE(SUM(amount), 0) FROM stock_leases WHERE ingredient_id = ?) - " +
+                     "(SELECT COALESCE(SUM(amount), 0) FROM inventory_journal WHERE ingredient_id = ?)")) {
+                stmt.setInt(1, ingredientId);
+                stmt.setInt(2, ingredientId);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    rs.next();
+                    held = rs.getLong(1);
+                }
+            }
+            try (PreparedStatement stmt = conn.prepareStatement(
+                     "UPDATE ingredients SET quantity = ? WHERE ingredient_id = ?")) {
+                stmt.setLong(1, quantity - held);
+                stmt.setInt(2, ingredientId);
+                stmt.executeUpdate();
+            }
+            conn.commit();
+            return true;
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(autoCommit);
+        }
+    }
+
+    // Records a sale's ingredient amounts against this node's lease in one multi-row insert, on the
+    // caller's connection so the journal commits or rolls back with the order. The InventoryEngine has
+    // already taken them out of the lease, so nothing here reads or locks stock rows.
+    public void appendJournal(Map<Integer, Integer> amounts, Connection conn) throws SQLException {
+        if (amounts.isEmpty()) {
+            return;
+        }
+        StringBuilder sql = new StringBuilder("INSERT INTO inventory_journal (node_id, ingredient_id, amount) VALUES ");
+        for (int i = 0; i < amounts.size(); i++) {
+            sql.append(i == 0 ? "(?, ?, ?)" : ", (?, ?, ?)");
+        }
+        try (PreparedStatement stmt = conn.prepareStatement(sql.toString())) {
+            int index = 1;
+            for (Map.Entry<Integer, Integer> amount : amounts.entrySet()) {
+                stmt.setString(index++, nodeId);
+                stmt.setInt(index++, amount.getKey());
+                stmt.setInt(index++, amount.getValue());
+            }
+            stmt.executeUpdate();
+        }
+    }
+
+    @Override
+    public int flushJournal(int batchSize) throws SQLException {
+        try (Connection conn = DBConnector.getConnection()) {
+            return flushJournal(batchSize, conn);
+        }
+    }
+
+    // Folds this node's oldest batchSize journal rows into its leases and deletes them, in one
+    // transaction. Only this node writes those rows and leases, so the flush waits on no other node.
+    public int flushJournal(int batchSize, Connection conn) throws SQLException {
+        boolean autoCommit = conn.getAutoCommit();
+        conn.setAutoCommit(false);
+        try {
+            Map<Integer, Integer> used = new TreeMap<>();
+            long lastId = 0;
+            int rows = 0;
+            String sql = "SELECT journal_id, ingredient_id, amount FROM inventory_journal WHERE node_id = ? " +
+                         "ORDER BY journal_id LIMIT ? FOR UPDATE";
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                stmt.setString(1, nodeId);
+                stmt.setInt(2, batchSize);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        lastId = rs.getLong("journal_id");
+                        used.merge(rs.getInt("ingredient_id"), rs.getInt("amount"), Integer::sum);
+                        rows++;
+                    }
+                }
+            }
+            if (rows == 0) {
+                conn.commit();
+                return 0;
+            }
+
+            used.values().removeIf(amount -> amount == 0);
+            int updated = foldIntoLeases(used, conn);
+            if (updated < used.size()) {
+                logger.warn("Inventory journal names {} ingredients, only {} are leased to {}", used.size(), updated, nodeId);
+            }
+            try (PreparedStatement stmt = conn.prepareStatement(
+                     "DELETE FROM inventory_journal WHERE node_id = ? AND journal_id <= ?")) {
+                stmt.setString(1, nodeId);
+                stmt.setLong(2, lastId);
+                stmt.executeUpdate();
             }
+            conn.commit();
+            logger.debug("Inventory journal flushed: {} rows, {} ingredients", rows, used.size());
+            return rows;
         } catch (SQLException e) {
-            logger.error("Error getting low stock ingredients: {}", e.getMessage());
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(autoCommit);
+        }
+    }
+
+    // Subtracts every amount from this node's leases in one UPDATE; returns the number of lease rows changed
+    private int foldIntoLeases(Map<Integer, Integer> amounts, Connection conn) throws SQLException {
+        if (amounts.isEmpty()) {
+            return 0;
+        }
+        StringBuilder amountCase = new StringBuilder("CASE ingredient_id");
+        StringBuilder ids = new StringBuilder();
+        for (int i = 0; i < amounts.size(); i++) {
+            amountCase.append(" WHEN ? THEN ?");
+            ids.append(i == 0 ? "?" : ", ?");
+        }
+        amountCase.append(" END");
+        String sql = "UPDATE stock_leases SET amount = amount - " + amountCase +
+                     " WHERE node_id = ? AND ingredient_id IN (" + ids + ")";
+
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            int index = 1;
+            for (Map.Entry<Integer, Integer> amount : amounts.entrySet()) {
+                stmt.setInt(index++, amount.getKey());
+                stmt.setInt(index++, amount.getValue());
+            }
+            stmt.setString(index++, nodeId);
+            for (Integer ingredientId : amounts.keySet()) {
+                stmt.setInt(index++, ingredientId);
+            }
+            return stmt.executeUpdate();
         }
-        return lowStockItems;
     }
 
     private Ingredient mapResultSetToIngredient(ResultSet rs) throws SQLException {
@@ -79,4 +317,4 @@ public class IngredientDAO {
         ingredient.setUpdatedAt(rs.getTimestamp("updated_at").toLocalDateTime());
         return ingredient;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,418 @@
+package com.cvs.dao;
+
+import com.cvs.models.Ingredient;
+import com.cvs.utils.DBConnector;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// In-memory stock counters in front of the ingredients table. Each node claims a lease on part of
+// the free stock (a percent of the pool, topped up in the background as it sells down) and sells from
+// it with a CAS loop, so sales neither lock ingredient rows nor ask the database whether stock is
+// left; leases never add up to more than there is, so kiosks sharing the database can't oversell. A
+// sale only appends its amounts to inventory_journal inside the order's transaction, and a background
+// flush folds this node's journal into its lease. Loading takes the lease less the unflushed journal,
+// so a crash between flushes loses nothing. Stock leased to another node can't be sold here, so the
+// last units of an ingredient may be turned away while a different kiosk still holds some.
+public class InventoryEngine {
+    private static final Logger logger = LoggerFactory.getLogger(InventoryEngine.class);
+    // Each ingredient gets its own 128-byte stripe so hot counters don't share a cache line
+    private static final int STRIDE = 16;
+    private static final int CHANGED_AT = 1;
+    private static final int IN_FLIGHT = 2;
+    private static final int LEASE = 3;
+    private static final int REFILL_BELOW = 4;
+    private static InventoryEngine instance;
+
+    public interface StockStore {
+        // Ingredient rows with quantity = what is left across every node: the free pool plus all
+        // leases, less the unflushed journal
+        List<Ingredient> loadIngredients() throws SQLException;
+        // What this node may still sell of each leased ingredient
+        Map<Integer, Long> loadLeases() throws SQLException;
+        // Moves percent of the free pool, or needed if that is more, into this node's lease; returns
+        // the amount moved, which is less when the pool is short
+        int claim(int ingredientId, int needed, int percent) throws SQLException;
+        // Sets what is left of an ingredient; false when the ingredient does not exist
+        boolean setQuantity(int ingredientId, int quantity) throws SQLException;
+        // Folds up to batchSize of this node's journal rows into its leases; returns how many it folded
+        int flushJournal(int batchSize) throws SQLException;
+    }
+
+    // Called on the thread that changed the stock, so implementations must be quick
+    public interface StockListener {
+        // used is the amount consumed (negative when a reservation is given back, 0 for an adjustment)
+        void stockChanged(int ingredientId, long quantity, long used);
+    }
+
+    private final StockStore store;
+    private final int leasePercent;
+    private final List<StockListener> listeners = new CopyOnWriteArrayList<>();
+    private volatile Stock stock;
+    private ScheduledExecutorService flusher;
+
+    public InventoryEngine(StockStore store) {
+        this(store, 10);
+    }
+
+    public InventoryEngine(StockStore store, int leasePercent) {
+        if (leasePercent <= 0 || leasePercent > 100) {
+            throw new IllegalArgumentException("Lease percent must be between 1 and 100");
+        }
+        this.store = store;
+        this.leasePercent = leasePercent;
+    }
+
+    public static synchronized InventoryEngine getInstance() {
+        if (instance == null) {
+            instance = new InventoryEngine(new IngredientDAO(), DBConnector.getIntProperty("inventory.lease-percent", 10));
+            // Registered before the first sale rather than when a screen happens to open the monitor
+            instance.addListener(LowStockMonitor.getInstance());
+            instance.start(DBConnector.getLongProperty("inventory.flush-interval", 1000),
+                           DBConnector.getIntProperty("inventory.flush-batch", 500));
+        }
+        return instance;
+    }
+
+    // Returns a handle that removes the listener again
+    public Runnable addListener(StockListener listener) {
+        if (listener == null) {
+            throw new IllegalArgumentException("Listener cannot be null");
+        }
+        listeners.add(listener);
+        return () -> listeners.remove(listener);
+    }
+
+    private void notifyListeners(int ingredientId, long quantity, long used) {
+        for (StockListener listener : listeners) {
+            try {
+                listener.stockChanged(ingredientId, quantity, used);
+            } catch (RuntimeException e) {
+                // A broken listener must not fail the sale
+                logger.error("Stock listener failed for ingredientId={}: {}", ingredientId, e.getMessage());
+            }
+        }
+    }
+
+    // Takes every amount (ingredient id -> amount) out of this node's lease, or none of them. Returns
+    // false when an ingredient is short or unknown. A competing reservation may briefly see a partial
+    // decrement and be turned away, which only errs on the side of not overselling. The caller
+    // journals the amounts with the order and follows up with confirm once it commits, or release
+    // when it does not.
+    public boolean reserve(Map<Integer, Integer> amounts) {
+        if (amounts.isEmpty()) {
+            return true;
+        }
+        Stock current = stock();
+        if (current == null) {
+            return false;
+        }
+        int taken = 0;
+        for (Map.Entry<Integer, Integer> amount : amounts.entrySet()) {
+            int slot = current.slotOf(amount.getKey());
+            if (slot < 0 || !takeLease(current, slot, amount.getValue())) {
+                logger.warn("Insufficient stock: ingredientId={}, required={}", amount.getKey(), amount.getValue());
+                release(current, amounts, taken);
+                return false;
+            }
+            taken++;
+            current.cells.addAndGet(slot * STRIDE + IN_FLIGHT, amount.getValue());
+            long remaining = current.add(slot, -amount.getValue());
+            notifyListeners(amount.getKey(), remaining, amount.getValue());
+        }
+        return true;
+    }
+
+    // Only a sale that finds the lease short waits on the database, to claim more. Claims on one
+    // node go one at a time, and a sale that waited retries first in case another just claimed.
+    private boolean takeLease(Stock current, int slot, int amount) {
+        if (current.takeLease(slot, amount)) {
+            return true;
+        }
+        synchronized (current) {
+            if (current.takeLease(slot, amount)) {
+                return true;
+            }
+            claim(current, slot, (int) Math.max(amount - current.cells.get(slot * STRIDE + LEASE), 0));
+            return current.takeLease(slot, amount);
+        }
+    }
+
+    // Caller holds the Stock's lock
+    private void claim(Stock current, int slot, int needed) {
+        try {
+            int claimed = store.claim(current.ids[slot], needed, leasePercent);
+            current.cells.addAndGet(slot * STRIDE + LEASE, claimed);
+            // Topped up in the background once half of it has sold
+            current.cells.set(slot * STRIDE + REFILL_BELOW, claimed / 2);
+        } catch (SQLException e) {
+            logger.error("Error leasing stock for ingredientId={}: {}", current.ids[slot], e.getMessage());
+        }
+    }
+
+    // Gives back a reservation whose order did not commit
+    public void release(Map<Integer, Integer> amounts) {
+        Stock current = stock;
+        if (current != null) {
+            release(current, amounts, amounts.size());
+        }
+    }
+
+    // Marks a reservation's order as committed, so the database stock now includes it
+    public void confirm(Map<Integer, Integer> amounts) {
+        Stock current = stock;
+        if (current != null) {
+            for (Map.Entry<Integer, Integer> amount : amounts.entrySet()) {
+                int slot = current.slotOf(amount.getKey());
+                if (slot >= 0) {
+                    current.cells.addAndGet(slot * STRIDE + IN_FLIGHT, -amount.getValue());
+                }
+            }
+        }
+    }
+
+    private void release(Stock current, Map<Integer, Integer> amounts, int count) {
+        int released = 0;
+        for (Map.Entry<Integer, Integer> amount : amounts.entrySet()) {
+            if (released++ == count) {
+                break;
+            }
+            int slot = current.slotOf(amount.getKey());
+            if (slot >= 0) {
+                current.cells.addAndGet(slot * STRIDE + LEASE, amount.getValue());
+                current.cells.addAndGet(slot * STRIDE + IN_FLIGHT, -amount.getValue());
+                long quantity = current.add(slot, amount.getValue());
+                notifyListeners(amount.getKey(), quantity, -amount.getValue());
+            }
+        }
+    }
+
+    // Sets an absolute quantity (a restock or stock count) by resizing the free pool; reservations still
+    // in flight here come off the new quantity when they commit. This node's lease is unchanged.
+    public boolean setQuantity(int ingredientId, int quantity) {
+        Stock current = stock();
+        int slot = current != null ? current.slotOf(ingredientId) : -1;
+        if (slot < 0) {
+            return false;
+        }
+        try {
+            if (!store.setQuantity(ingredientId, quantity)) {
+                return false;
+            }
+        } catch (SQLException e) {
+            logger.error("Error updating ingredient quantity: {}", e.getMessage());
+            return false;
+        }
+        long updated = current.set(slot, quantity);
+        logger.info("Ingredient quantity updated: ingredientId={}, quantity={}", ingredientId, quantity);
+        notifyListeners(ingredientId, updated, 0);
+        return true;
+    }
+
+    public List<Ingredient> getAllIngredients() {
+        Stock current = stock();
+        return current != null ? current.snapshot(false) : new ArrayList<>();
+    }
+
+    public List<Ingredient> getLowStockIngredients() {
+        Stock current = stock();
+        return current != null ? current.snapshot(true) : new ArrayList<>();
+    }
+
+    // Folds this node's whole journal into its leases; returns the number of journal rows folded
+    public synchronized int flush(int batchSize) {
+        int total = 0;
+        try {
+            int folded;
+            do {
+                folded = store.flushJournal(batchSize);
+                total += folded;
+            } while (folded == batchSize);
+        } catch (SQLException e) {
+            logger.error("Error flushing inventory journal: {}", e.getMessage());
+        }
+        return total;
+    }
+
+    // Tops up each lease that has sold down past half of its last claim, so sales rarely wait on one
+    public void refill() {
+        Stock current = stock;
+        if (current == null) {
+            return;
+        }
+        for (int slot = 0; slot < current.ids.length; slot++) {
+            if (current.cells.get(slot * STRIDE + LEASE) < current.cells.get(slot * STRIDE + REFILL_BELOW)) {
+                synchronized (current) {
+                    if (current.cells.get(slot * STRIDE + LEASE) < current.cells.get(slot * STRIDE + REFILL_BELOW)) {
+                        claim(current, slot, 0);
+                    }
+                }
+            }
+        }
+    }
+
+    // Reloads what is left across every node and resets each counter to it, less this node's
+    // reservations in flight. These counters are for display and alerts only; sales go by the lease.
+    public void resync() {
+        Stock current = stock;
+        if (current == null) {
+            return;
+        }
+        try {
+            for (Ingredient ingredient : store.loadIngredients()) {
+                int slot = current.slotOf(ingredient.getIngredientId());
+                if (slot < 0) {
+                    continue;
+                }
+                long previous = current.cells.get(slot * STRIDE);
+                long updated = current.set(slot, ingredient.getQuantity());
+                if (updated != previous) {
+                    notifyListeners(ingredient.getIngredientId(), updated, 0);
+                }
+            }
+        } catch (SQLException e) {
+            logger.error("Error resyncing inventory: {}", e.getMessage());
+        }
+    }
+
+    public synchronized void start(long flushIntervalMs, int batchSize) {
+        if (flushIntervalMs <= 0 || batchSize <= 0) {
+            throw new IllegalArgumentException("Flush interval and batch size must be positive");
+        }
+        if (flusher != null) {
+            return;
+        }
+        flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "cvs-inventory-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(() -> {
+            flush(batchSize);
+            refill();
+            resync();
+        }, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void stop() {
+        if (flusher != null) {
+            flusher.shutdownNow();
+            flusher = null;
+        }
+    }
+
+    private Stock stock() {
+        Stock current = stock;
+        return current != null ? current : loadBlocking();
+    }
+
+    private synchronized Stock loadBlocking() {
+        if (stock != null) {
+            return stock;
+        }
+        try {
+            List<Ingredient> ingredients = store.loadIngredients();
+            stock = new Stock(ingredients, store.loadLeases());
+            logger.info("Inventory loaded: {} ingredients", ingredients.size());
+            return stock;
+        } catch (SQLException e) {
+            // Not cached, so the next call retries
+            logger.error("Error loading inventory: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private static final class Stock {
+        final int[] ids;
+        final Ingredient[] rows;
+        // [slot * STRIDE] = quantity left across every node, [slot * STRIDE + CHANGED_AT] = last change
+        // (epoch millis), [slot * STRIDE + IN_FLIGHT] = reserved by orders that have not committed yet,
+        // [slot * STRIDE + LEASE] = this node's unsold lease, [slot * STRIDE + REFILL_BELOW] = lease
+        // level that triggers a background top-up
+        final AtomicLongArray cells;
+
+        Stock(List<Ingredient> ingredients, Map<Integer, Long> leases) {
+            List<Ingredient> sorted = new ArrayList<>(ingredients);
+            sorted.sort(Comparator.comparingInt(Ingredient::getIngredientId));
+            ids = new int[sorted.size()];
+            rows = new Ingredient[sorted.size()];
+            cells = new AtomicLongArray(sorted.size() * STRIDE);
+            for (int i = 0; i < sorted.size(); i++) {
+                Ingredient ingredient = sorted.get(i);
+                ids[i] = ingredient.getIngredientId();
+                rows[i] = ingredient;
+                cells.set(i * STRIDE, ingredient.getQuantity());
+                cells.set(i * STRIDE + LEASE, leases.getOrDefault(ingredient.getIngredientId(), 0L));
+                LocalDateTime updatedAt = ingredient.getUpdatedAt();
+                cells.set(i * STRIDE + CHANGED_AT, updatedAt != null
+                    ? updatedAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() : 0);
+            }
+        }
+
+        int slotOf(int ingredientId) {
+            return Arrays.binarySearch(ids, ingredientId);
+        }
+
+        boolean takeLease(int slot, int amount) {
+            int index = slot * STRIDE + LEASE;
+            long available;
+            do {
+                available = cells.get(index);
+                if (available < amount) {
+                    return false;
+                }
+            } while (!cells.compareAndSet(index, available, available - amount));
+            return true;
+        }
+
+        long add(int slot, long amount) {
+            long quantity = cells.addAndGet(slot * STRIDE, amount);
+            touch(slot);
+            return quantity;
+        }
+
+        // Sets the counter to quantity less what is in flight; returns the new counter
+        long set(int slot, long quantity) {
+            long updated = quantity - cells.get(slot * STRIDE + IN_FLIGHT);
+            cells.set(slot * STRIDE, updated);
+            touch(slot);
+            return updated;
+        }
+
+        void touch(int slot) {
+            cells.lazySet(slot * STRIDE + CHANGED_AT, System.currentTimeMillis());
+        }
+
+        List<Ingredient> snapshot(boolean lowStockOnly) {
+            List<Ingredient> result = new ArrayList<>();
+            for (int i = 0; i < ids.length; i++) {
+                Ingredient row = rows[i];
+                Ingredient copy = new Ingredient(row.getName(), (int) cells.get(i * STRIDE), row.getUnit(),
+                                                 row.getMinThreshold());
+                copy.setIngredientId(row.getIngredientId());
+                long changedAt = cells.get(i * STRIDE + CHANGED_AT);
+                copy.setUpdatedAt(changedAt > 0
+                    ? LocalDateTime.ofInstant(Instant.ofEpochMilli(changedAt), ZoneId.systemDefault()) : null);
+                if (!lowStockOnly || copy.isLowStock()) {
+                    result.add(copy);
+                }
+            }
+            result.sort(Comparator.comparing(Ingredient::getName));
+            return result;
+        }
+    }
+}
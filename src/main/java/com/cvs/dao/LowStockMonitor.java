@@ -0,0 +1,175 @@
+package com.cvs.dao;
+
+import com.cvs.models.Ingredient;
+import com.cvs.models.StockForecast;
+import com.cvs.utils.DBConnector;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+// Follows the inventory counters and raises one alert when an ingredient falls to its
+// min_threshold. It re-arms only once stock is back above threshold x (1 + rearm margin), so a
+// level hovering at the threshold does not alert on every sale. Usage is an exponentially decayed
+// rate over the recent window, which gives each ingredient a time-to-empty estimate. Ingredients are
+// picked up from the source the first time they change, so a failed inventory load or an ingredient
+// added later is covered too.
+public class LowStockMonitor implements InventoryEngine.StockListener {
+    private static final Logger logger = LoggerFactory.getLogger(LowStockMonitor.class);
+    private static final double MS_PER_HOUR = 3_600_000d;
+    private static LowStockMonitor instance;
+
+    private final Supplier<List<Ingredient>> ingredientSource;
+    private final double rearmFactor;
+    private final double usageWindowMs;
+    private final LongSupplier clock;
+    private final Map<Integer, Level> levels = new ConcurrentHashMap<>();
+    private final List<Consumer<StockForecast>> listeners = new CopyOnWriteArrayList<>();
+
+    public LowStockMonitor(Supplier<List<Ingredient>> ingredientSource, int rearmPercent, long usageWindowMs,
+                           LongSupplier clock) {
+        if (rearmPercent < 0 || usageWindowMs <= 0) {
+            throw new IllegalArgumentException("Re-arm margin must be non-negative and usage window positive");
+        }
+        this.ingredientSource = ingredientSource;
+        this.rearmFactor = 1 + rearmPercent / 100d;
+        this.usageWindowMs = usageWindowMs;
+        this.clock = clock;
+    }
+
+    // InventoryEngine.getInstance registers this as a listener when it starts
+    public static synchronized LowStockMonitor getInstance() {
+        if (instance == null) {
+            instance = new LowStockMonitor(() -> InventoryEngine.getInstance().getAllIngredients(),
+                DBConnector.getIntProperty("inventory.low-stock.rearm-percent", 20),
+                DBConnector.getLongProperty("inventory.usage-window", 3600000), System::currentTimeMillis);
+        }
+        return instance;
+    }
+
+    // Returns a handle that removes the listener again. Alerts arrive on the selling thread.
+    public Runnable subscribe(Consumer<StockForecast> listener) {
+        if (listener == null) {
+            throw new IllegalArgumentException("Listener cannot be null");
+        }
+        listeners.add(listener);
+        return () -> listeners.remove(listener);
+    }
+
+    @Override
+    public void stockChanged(int ingredientId, long quantity, long used) {
+        Level level = levels.get(ingredientId);
+        if (level == null) {
+            // Stock that was already low before this change counts as alerted
+            Ingredient ingredient = find(ingredientId);
+            if (ingredient == null) {
+                return;
+            }
+            level = levels.computeIfAbsent(ingredientId, id -> new Level(ingredient, quantity + used));
+        }
+        StockForecast alert = level.update(quantity, used, clock.getAsLong());
+        if (alert != null) {
+            logger.warn("Low stock: {}", alert);
+            for (Consumer<StockForecast> listener : listeners) {
+                try {
+                    listener.accept(alert);
+                } catch (RuntimeException e) {
+                    logger.error("Low stock listener failed for {}: {}", alert.getName(), e.getMessage());
+                }
+            }
+        }
+    }
+
+    // Ingredients at or below their threshold, soonest to run out first
+    public List<StockForecast> getLowStock() {
+        List<StockForecast> low = new ArrayList<>();
+        for (StockForecast forecast : getForecasts()) {
+            if (forecast.getQuantity() <= forecast.getMinThreshold()) {
+                low.add(forecast);
+            }
+        }
+        low.sort(Comparator.comparingDouble(f -> f.getUsagePerHour() > 0
+            ? f.getQuantity() / f.getUsagePerHour() : Double.MAX_VALUE));
+        return low;
+    }
+
+    public List<StockForecast> getForecasts() {
+        for (Ingredient ingredient : ingredientSource.get()) {
+            levels.computeIfAbsent(ingredient.getIngredientId(), id -> new Level(ingredient, ingredient.getQuantity()));
+        }
+        long now = clock.getAsLong();
+        List<StockForecast> forecasts = new ArrayList<>();
+        for (Level level : levels.values()) {
+            forecasts.add(level.forecast(now));
+        }
+        forecasts.sort(Comparator.comparing(StockForecast::getName));
+        return forecasts;
+    }
+
+    private Ingredient find(int ingredientId) {
+        for (Ingredient ingredient : ingredientSource.get()) {
+            if (ingredient.getIngredientId() == ingredientId) {
+                return ingredient;
+            }
+        }
+        return null;
+    }
+
+    private final class Level {
+        final int ingredientId;
+        final String name;
+        final String unit;
+        final int minThreshold;
+        long quantity;
+        boolean low;
+        // Decayed usage in units per millisecond, as of lastUpdate
+        double rate;
+        long lastUpdate;
+
+        Level(Ingredient ingredient, long quantity) {
+            ingredientId = ingredient.getIngredientId();
+            name = ingredient.getName();
+            unit = ingredient.getUnit();
+            minThreshold = ingredient.getMinThreshold();
+            this.quantity = quantity;
+            low = quantity <= minThreshold;
+            lastUpdate = clock.getAsLong();
+        }
+
+        // Returns the forecast to alert with when this change crossed the threshold, otherwise null
+        synchronized StockForecast update(long quantity, long used, long now) {
+            decay(now);
+            // Each unit used adds 1/window to the rate; given-back reservations take theirs off again
+            rate = Math.max(0, rate + used / usageWindowMs);
+            this.quantity = quantity;
+            if (!low && quantity <= minThreshold) {
+                low = true;
+                return forecast(now);
+            }
+            if (low && quantity > minThreshold * rearmFactor) {
+                low = false;
+            }
+            return null;
+        }
+
+        synchronized StockForecast forecast(long now) {
+            decay(now);
+            return new StockForecast(ingredientId, name, unit, quantity, minThreshold, low, rate * MS_PER_HOUR);
+        }
+
+        private void decay(long now) {
+            if (now > lastUpdate) {
+                rate *= Math.exp(-(now - lastUpdate) / usageWindowMs);
+                lastUpdate = now;
+            }
+        }
+    }
+}
@@ -0,0 +1,244 @@
+package com.cvs.dao;
+
+import com.cvs.models.CoffeeMenu;
+import com.cvs.utils.DBConnector;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Copy-on-write snapshot of the coffee menu. Reads are a volatile load; writes through
+// CoffeeMenuDAO invalidate it, and the cache_versions row is polled so other nodes sharing
+// the database pick up changes. If the version can't be read the snapshot expires after the TTL.
+// Only the very first load blocks a reader; version checks and reloads run on a background thread,
+// and a failed load is served as an empty menu until the retry backoff passes.
+// The snapshot keeps its own copies of the items, and callers get a fresh copy of each one they read.
+public class MenuCache {
+    private static final Logger logger = LoggerFactory.getLogger(MenuCache.class);
+    private static final Executor REFRESHER = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "cvs-menu-refresh");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private static final MenuCache INSTANCE = new MenuCache(new CoffeeMenuDAO(),
+        DBConnector.getLongProperty("menu.cache.version-check-interval", 5000),
+        DBConnector.getLongProperty("menu.cache.ttl", 300000),
+        DBConnector.getLongProperty("menu.cache.retry-backoff", 5000),
+        REFRESHER);
+
+    public interface MenuSource {
+        List<CoffeeMenu> loadMenu() throws SQLException;
+        long readVersion() throws SQLException;
+    }
+
+    private final MenuSource source;
+    private final long versionCheckIntervalMs;
+    private final long ttlMs;
+    private final long retryBackoffMs;
+    private final Executor refresher;
+    private final AtomicLong generations = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+    private final AtomicBoolean revalidating = new AtomicBoolean();
+    private volatile Snapshot snapshot;
+    private volatile long nextCheckAt;
+
+    public MenuCache(MenuSource source, long versionCheckIntervalMs, long ttlMs) {
+        this(source, versionCheckIntervalMs, ttlMs, 5000, REFRESHER);
+    }
+
+    public MenuCache(MenuSource source, long versionCheckIntervalMs, long ttlMs, long retryBackoffMs, Executor refresher) {
+        this.source = source;
+        this.versionCheckIntervalMs = versionCheckIntervalMs;
+        this.ttlMs = ttlMs;
+        this.retryBackoffMs = retryBackoffMs;
+        this.refresher = refresher;
+    }
+
+    public static MenuCache getInstance() {
+        return INSTANCE;
+    }
+
+    public List<CoffeeMenu> getAllItems() {
+        return copies(snapshot().all);
+    }
+
+    public List<CoffeeMenu> getAvailableItems() {
+        return copies(snapshot().available);
+    }
+
+    public CoffeeMenu getById(int coffeeId) {
+        CoffeeMenu coffee = snapshot().byId.get(coffeeId);
+        return coffee != null ? copy(coffee) : null;
+    }
+
+    // Changes whenever a new snapshot is loaded; lets derived caches know when to rebuild
+    public long getVersion() {
+        return snapshot().generation;
+    }
+
+    public void invalidate() {
+        invalidations.incrementAndGet();
+        snapshot = null;
+    }
+
+    private Snapshot snapshot() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            return loadBlocking();
+        }
+        // One background task revalidates; readers keep serving the current snapshot meanwhile
+        if (System.currentTimeMillis() >= nextCheckAt && revalidating.compareAndSet(false, true)) {
+            try {
+                refresher.execute(() -> {
+                    try {
+                        revalidate(current);
+                    } finally {
+                        revalidating.set(false);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                revalidating.set(false);
+            }
+            Snapshot latest = snapshot;
+            return latest != null ? latest : loadBlocking();
+        }
+        return current;
+    }
+
+    private synchronized Snapshot loadBlocking() {
+        Snapshot current = snapshot;
+        if (current != null) {
+            return current;
+        }
+        long seen = invalidations.get();
+        try {
+            current = load();
+        } catch (SQLException e) {
+            logger.error("Error loading coffee menu, retrying in {} ms: {}", retryBackoffMs, e.getMessage());
+            current = Snapshot.failed();
+        }
+        // An invalidation during the load means the rows read may predate that write
+        if (invalidations.get() == seen) {
+            snapshot = current;
+            nextCheckAt = System.currentTimeMillis() + (current.failed ? retryBackoffMs : versionCheckIntervalMs);
+        }
+        return current;
+    }
+
+    private void revalidate(Snapshot current) {
+        if (current.failed) {
+            replace(current);
+        } else {
+            long now = System.currentTimeMillis();
+            boolean expired = now - current.loadedAt >= ttlMs;
+            try {
+                long dbVersion = source.readVersion();
+                if (dbVersion != current.dbVersion || expired) {
+                    logger.debug("Menu version changed: {} -> {}", current.dbVersion, dbVersion);
+                    replace(current);
+                }
+            } catch (SQLException e) {
+                logger.warn("Menu version check failed, relying on TTL: {}", e.getMessage());
+                if (expired) {
+                    replace(current);
+                }
+            }
+        }
+        Snapshot latest = snapshot;
+        nextCheckAt = System.currentTimeMillis() + (latest != null && latest.failed ? retryBackoffMs : versionCheckIntervalMs);
+    }
+
+    private synchronized void replace(Snapshot expected) {
+        if (snapshot != expected) {
+            return;
+        }
+        try {
+            long seen = invalidations.get();
+            Snapshot loaded = load();
+            if (invalidations.get() == seen) {
+                snapshot = loaded;
+            }
+        } catch (SQLException e) {
+            logger.error("Error reloading coffee menu, keeping previous snapshot: {}", e.getMessage());
+        }
+    }
+
+    private Snapshot load() throws SQLException {
+        // Version first: a write landing in between only causes one extra reload later
+        long dbVersion;
+        try {
+            dbVersion = source.readVersion();
+        } catch (SQLException e) {
+            logger.warn("Could not read menu version: {}", e.getMessage());
+            dbVersion = -1;
+        }
+        List<CoffeeMenu> items = source.loadMenu();
+        Snapshot loaded = new Snapshot(generations.incrementAndGet(), dbVersion, System.currentTimeMillis(), items);
+        logger.info("Menu cache loaded: {} items, version {}", items.size(), dbVersion);
+        return loaded;
+    }
+
+    private static List<CoffeeMenu> copies(List<CoffeeMenu> items) {
+        List<CoffeeMenu> result = new ArrayList<>(items.size());
+        for (CoffeeMenu coffee : items) {
+            result.add(copy(coffee));
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    private static CoffeeMenu copy(CoffeeMenu coffee) {
+        CoffeeMenu copy = new CoffeeMenu(coffee.getCoffeeId(), coffee.getName(), coffee.getPrice(),
+                                         coffee.getDescription(), coffee.isAvailable());
+        copy.setCreatedAt(coffee.getCreatedAt());
+        return copy;
+    }
+
+    private static final class Snapshot {
+        final boolean failed;
+        final long generation;
+        final long dbVersion;
+        final long loadedAt;
+        final List<CoffeeMenu> all;
+        final List<CoffeeMenu> available;
+        final Map<Integer, CoffeeMenu> byId;
+
+        Snapshot(long generation, long dbVersion, long loadedAt, List<CoffeeMenu> items) {
+            this(false, generation, dbVersion, loadedAt, items);
+        }
+
+        private Snapshot(boolean failed, long generation, long dbVersion, long loadedAt, List<CoffeeMenu> items) {
+            this.failed = failed;
+            this.generation = generation;
+            this.dbVersion = dbVersion;
+            this.loadedAt = loadedAt;
+            List<CoffeeMenu> allItems = new ArrayList<>();
+            List<CoffeeMenu> availableItems = new ArrayList<>();
+            Map<Integer, CoffeeMenu> index = new HashMap<>();
+            for (CoffeeMenu loaded : items) {
+                CoffeeMenu coffee = copy(loaded);
+                allItems.add(coffee);
+                index.put(coffee.getCoffeeId(), coffee);
+                if (coffee.isAvailable()) {
+                    availableItems.add(coffee);
+                }
+            }
+            this.all = Collections.unmodifiableList(allItems);
+            this.available = Collections.unmodifiableList(availableItems);
+            this.byId = index;
+        }
+
+        static Snapshot failed() {
+            return new Snapshot(true, 0, -1, System.currentTimeMillis(), new ArrayList<>());
+        }
+    }
+}
@@ -2,56 +2,69 @@ package com.cvs.dao;
 
 import com.cvs.models.Order;
 import com.cvs.models.OrderItem;
+import com.cvs.models.SalesSummary;
+import com.cvs.models.TopCustomer;
 import com.cvs.utils.DBConnector;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.sql.*;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public class OrderDAO {
     private static final Logger logger = LoggerFactory.getLogger(OrderDAO.class);
+    private static final int STREAM_FETCH_SIZE = 500;
+    public static final RowMapper<Order> ORDER_ROWS = new RowMapper<>(OrderDAO::readOrder,
+        "order_id", "user_id", "total_amount", "payment_status", "order_status", "order_time");
+    private static final RowMapper<Order> CHANGED_ORDER_ROWS = ORDER_ROWS.withColumns((rs, c) -> {
+        Order order = readOrder(rs, c);
+        order.setUpdatedAt(rs.getTimestamp(c[6]).toLocalDateTime());
+        return order;
+    }, "updated_at");
+    private final SalesRollupDAO rollupDAO = new SalesRollupDAO();
+    private final IdempotencyDAO idempotencyDAO = new IdempotencyDAO();
+    private final IngredientDAO ingredientDAO = new IngredientDAO();
 
     public boolean createOrder(Order order) {
+        return createOrder(order, null);
+    }
+
+    // With a non-null idempotency key the key is stored in the order's transaction; a key that is
+    // already taken rolls the order back and returns false
+    public boolean createOrder(Order order, String idempotencyKey) {
+        return createOrder(order, idempotencyKey, Collections.emptyMap());
+    }
+
+    // Also journals the cart's ingredients (ingredient id -> amount) with the order. The caller has
+    // already taken them out of the InventoryEngine's lease and gives them back if this returns false.
+    public boolean createOrder(Order order, String idempotencyKey, Map<Integer, Integer> stock) {
         if (order == null) {
             throw new IllegalArgumentException("Order cannot be null");
         }
-        String sql = "INSERT INTO orders (user_id, total_amount, payment_status, order_status) VALUES (?, ?, ?, ?)";
         Connection conn = null;
         try {
             conn = DBConnector.getConnection();
             conn.setAutoCommit(false);
             
-            try (PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
-                stmt.setInt(1, order.getUserId());
-                stmt.setBigDecimal(2, order.getTotalAmount());
-                stmt.setString(3, order.getPaymentStatus().name());
-                stmt.setString(4, order.getOrderStatus().name());
-                
-                int result = stmt.executeUpdate();
-                if (result > 0) {
-                    ResultSet rs = stmt.getGeneratedKeys();
-                    if (rs.next()) {
-                        order.setOrderId(rs.getInt(1));
-                        
-                        // Insert order items if present
-                        if (order.getOrderItems() != null && !order.getOrderItems().isEmpty()) {
-                            OrderItemDAO orderItemDAO = new OrderItemDAO();
-                            for (OrderItem item : order.getOrderItems()) {
-                                item.setOrderId(order.getOrderId());
-                                if (!orderItemDAO.createOrderItem(item, conn)) {
-                                    conn.rollback();
-                                    return false;
-                                }
-                            }
-                        }
-                        
-                        conn.commit();
-                        logger.info("Order created successfully: orderId={}", order.getOrderId());
-                        return true;
-                    }
+            if (insertOrder(order, conn)) {
+                ingredientDAO.appendJournal(stock, conn);
+                if (idempotencyKey != null) {
+                    idempotencyDAO.saveKey(idempotencyKey, order.getUserId(), order.getOrderId(), conn);
                 }
+                conn.commit();
+                logger.info("Order created successfully: orderId={}", order.getOrderId());
+                return true;
             }
             conn.rollback();
         } catch (SQLException e) {
@@ -70,6 +83,47 @@ public class OrderDAO {
         return false;
     }
 
+    // Inserts the order row, its items and the rollup deltas on the caller's connection; the caller owns the transaction
+    public boolean insertOrder(Order order, Connection conn) throws SQLException {
+        if (order == null) {
+            throw new IllegalArgumentException("Order cannot be null");
+        }
+        if (order.getOrderTime() == null) {
+            // Set here rather than by the column default so the rollup bucket matches the row
+            order.setOrderTime(LocalDateTime.now().withNano(0));
+        }
+        String sql = "INSERT INTO orders (user_id, total_amount, payment_status, order_status, order_time) VALUES (?, ?, ?, ?, ?)";
+        try (PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+            stmt.setInt(1, order.getUserId());
+            stmt.setBigDecimal(2, order.getTotalAmount());
+            stmt.setString(3, order.getPaymentStatus().name());
+            stmt.setString(4, order.getOrderStatus().name());
+            stmt.setTimestamp(5, Timestamp.valueOf(order.getOrderTime()));
+            
+            if (stmt.executeUpdate() == 0) {
+                return false;
+            }
+            try (ResultSet rs = stmt.getGeneratedKeys()) {
+                if (!rs.next()) {
+                    return false;
+                }
+                order.setOrderId(rs.getInt(1));
+            }
+        }
+
+        // Insert order items if present
+        if (order.getOrderItems() != null && !order.getOrderItems().isEmpty()) {
+            for (OrderItem item : order.getOrderItems()) {
+                item.setOrderId(order.getOrderId());
+            }
+            if (!new OrderItemDAO().createOrderItems(order.getOrderItems(), conn)) {
+                return false;
+            }
+        }
+        rollupDAO.recordOrder(order, conn);
+        return true;
+    }
+
     public Order getOrderById(int orderId) {
         String sql = "SELECT * FROM orders WHERE order_id = ?";
         try (Connection conn = DBConnector.getConnection();
@@ -79,7 +133,7 @@ public class OrderDAO {
             ResultSet rs = stmt.executeQuery();
             
             if (rs.next()) {
-                Order order = mapResultSetToOrder(rs);
+                Order order = ORDER_ROWS.map(rs);
                 // Load order items
                 OrderItemDAO orderItemDAO = new OrderItemDAO();
                 order.setOrderItems(orderItemDAO.getOrderItemsByOrderId(orderId));
@@ -101,9 +155,7 @@ public class OrderDAO {
             stmt.setInt(1, userId);
             ResultSet rs = stmt.executeQuery();
             
-            while (rs.next()) {
-                orders.add(mapResultSetToOrder(rs));
-            }
+            orders.addAll(ORDER_ROWS.mapAll(rs));
         } catch (SQLException e) {
             logger.error("Error getting orders by user ID: {}", e.getMessage());
         }
@@ -111,43 +163,246 @@ public class OrderDAO {
     }
 
     public boolean updateOrderStatus(int orderId, Order.OrderStatus status) {
-        String sql = "UPDATE orders SET order_status = ? WHERE order_id = ?";
-        try (Connection conn = DBConnector.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            
-            stmt.setString(1, status.name());
-            stmt.setInt(2, orderId);
-            
-            int result = stmt.executeUpdate();
-            if (result > 0) {
-                logger.info("Order status updated: orderId={}, status={}", orderId, status);
+        if (updateStatuses(orderId, status, null)) {
+            logger.info("Order status updated: orderId={}, status={}", orderId, status);
+            return true;
+        }
+        return false;
+    }
+
+    public boolean updatePaymentStatus(int orderId, Order.PaymentStatus status) {
+        if (updateStatuses(orderId, null, status)) {
+            logger.info("Payment status updated: orderId={}, status={}", orderId, status);
+            return true;
+        }
+        return false;
+    }
+
+    // Moves the order to the new status only while it is still in the expected one, so a
+    // background transition never overwrites a change an admin made in the meantime
+    public boolean advanceOrderStatus(int orderId, Order.OrderStatus expected, Order.OrderStatus status) {
+        if (updateStatuses(orderId, expected, status, null)) {
+            logger.info("Order status advanced: orderId={}, {} -> {}", orderId, expected, status);
+            return true;
+        }
+        return false;
+    }
+
+    private boolean updateStatuses(int orderId, Order.OrderStatus orderStatus, Order.PaymentStatus paymentStatus) {
+        return updateStatuses(orderId, null, orderStatus, paymentStatus);
+    }
+
+    private boolean updateStatuses(int orderId, Order.OrderStatus expected, Order.OrderStatus orderStatus,
+                                   Order.PaymentStatus paymentStatus) {
+        Connection conn = null;
+        try {
+            conn = DBConnector.getConnection();
+            conn.setAutoCommit(false);
+
+            if (updateStatuses(orderId, expected, orderStatus, paymentStatus, conn)) {
+                conn.commit();
                 return true;
             }
+            conn.rollback();
         } catch (SQLException e) {
-            logger.error("Error updating order status: {}", e.getMessage());
+            logger.error("Error updating order statuses: orderId={}, {}", orderId, e.getMessage());
+            if (conn != null) {
+                try { conn.rollback(); } catch (SQLException ex) { /* ignore */ }
+            }
+        } finally {
+            if (conn != null) {
+                try {
+                    conn.setAutoCommit(true);
+                    conn.close();
+                } catch (SQLException e) { /* ignore */ }
+            }
         }
         return false;
     }
 
-    public boolean updatePaymentStatus(int orderId, Order.PaymentStatus status) {
-        String sql = "UPDATE orders SET payment_status = ? WHERE order_id = ?";
-        try (Connection conn = DBConnector.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            
-            stmt.setString(1, status.name());
-            stmt.setInt(2, orderId);
-            
-            int result = stmt.executeUpdate();
-            if (result > 0) {
-                logger.info("Payment status updated: orderId={}, status={}", orderId, status);
-                return true;
+    // Locks the order row (the lock the UPDATE takes anyway) so the rollup moves away from the statuses
+    // actually being replaced. A null status is left unchanged; the caller owns the transaction.
+    public boolean updateStatuses(int orderId, Order.OrderStatus orderStatus, Order.PaymentStatus paymentStatus,
+                                  Connection conn) throws SQLException {
+        return updateStatuses(orderId, null, orderStatus, paymentStatus, conn);
+    }
+
+    // Same, but leaves the row alone unless its order status is still expected (null skips the check)
+    public boolean updateStatuses(int orderId, Order.OrderStatus expected, Order.OrderStatus orderStatus,
+                                  Order.PaymentStatus paymentStatus, Connection conn) throws SQLException {
+        Order before = null;
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT * FROM orders WHERE order_id = ? FOR UPDATE")) {
+            stmt.setInt(1, orderId);
+            ResultSet rs = stmt.executeQuery();
+            if (rs.next()) {
+                before = ORDER_ROWS.map(rs);
             }
+        }
+        if (before == null || (expected != null && before.getOrderStatus() != expected)) {
+            return false;
+        }
+
+        Order after = copyOf(before);
+        if (orderStatus != null) {
+            after.setOrderStatus(orderStatus);
+        }
+        if (paymentStatus != null) {
+            after.setPaymentStatus(paymentStatus);
+        }
+        if (after.getOrderStatus() == before.getOrderStatus() && after.getPaymentStatus() == before.getPaymentStatus()) {
+            return true;
+        }
+
+        String sql = "UPDATE orders SET order_status = ?, payment_status = ? WHERE order_id = ?";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, after.getOrderStatus().name());
+            stmt.setString(2, after.getPaymentStatus().name());
+            stmt.setInt(3, orderId);
+            stmt.executeUpdate();
+        }
+        rollupDAO.moveOrder(before, after, conn);
+        return true;
+    }
+
+    // Takes a PREPARING order for nodeId's brew line unless another node already has it. The
+    // conditional UPDATE is the claim, so nodes re-queueing at the same time can't both brew the order.
+    // updated_at is kept so the change feed doesn't report the claim as an order change.
+    public boolean claimForPreparation(int orderId, String nodeId) {
+        try (Connection conn = DBConnector.getConnection()) {
+            return claimForPreparation(orderId, nodeId, conn);
         } catch (SQLException e) {
-            logger.error("Error updating payment status: {}", e.getMessage());
+            logger.error("Error claiming order for preparation: orderId={}, {}", orderId, e.getMessage());
         }
         return false;
     }
 
+    public boolean claimForPreparation(int orderId, String nodeId, Connection conn) throws SQLException {
+        String sql = "UPDATE orders SET prep_node = ?, updated_at = updated_at WHERE order_id = ? " +
+                     "AND order_status = 'PREPARING' AND (prep_node IS NULL OR prep_node = ?)";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, nodeId);
+            stmt.setInt(2, orderId);
+            stmt.setString(3, nodeId);
+            return stmt.executeUpdate() > 0;
+        }
+    }
+
+    // PREPARING orders nodeId may brew, with their items: those it claimed and those nobody has yet
+    public List<Order> getOrdersToPrepare(String nodeId) {
+        try (Connection conn = DBConnector.getConnection()) {
+            return getOrdersWithItems(Order.OrderStatus.PREPARING, nodeId, conn);
+        } catch (SQLException e) {
+            logger.error("Error getting orders to prepare: {}", e.getMessage());
+        }
+        return new ArrayList<>();
+    }
+
+    // Orders in the given status with their items, oldest first
+    public List<Order> getOrdersWithItems(Order.OrderStatus status) {
+        try (Connection conn = DBConnector.getConnection()) {
+            return getOrdersWithItems(status, conn);
+        } catch (SQLException e) {
+            logger.error("Error getting orders with items: {}", e.getMessage());
+        }
+        return new ArrayList<>();
+    }
+
+    public List<Order> getOrdersWithItems(Order.OrderStatus status, Connection conn) {
+        return getOrdersWithItems(status, null, conn);
+    }
+
+    // A non-null prepNode keeps only the orders claimed by that node or by none
+    public List<Order> getOrdersWithItems(Order.OrderStatus status, String prepNode, Connection conn) {
+        Map<Integer, Order> orders = new LinkedHashMap<>();
+        String nodeFilter = prepNode != null ? " AND (o.prep_node IS NULL OR o.prep_node = ?)" : "";
+        String sql = "SELECT * FROM orders o WHERE o.order_status = ?" + nodeFilter + " ORDER BY o.order_time, o.order_id";
+        String itemSql = "SELECT oi.*, cm.name AS coffee_name FROM order_items oi " +
+                         "JOIN orders o ON o.order_id = oi.order_id " +
+                         "LEFT JOIN coffee_menu cm ON cm.coffee_id = oi.coffee_id " +
+                         "WHERE o.order_status = ?" + nodeFilter + " ORDER BY oi.order_item_id";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, status.name());
+            if (prepNode != null) {
+                stmt.setString(2, prepNode);
+            }
+            ResultSet rs = stmt.executeQuery();
+            for (Order order : ORDER_ROWS.mapAll(rs)) {
+                order.setOrderItems(new ArrayList<>());
+                orders.put(order.getOrderId(), order);
+            }
+            if (orders.isEmpty()) {
+                return new ArrayList<>();
+            }
+            try (PreparedStatement itemStmt = conn.prepareStatement(itemSql)) {
+                itemStmt.setString(1, status.name());
+                if (prepNode != null) {
+                    itemStmt.setString(2, prepNode);
+                }
+                ResultSet items = itemStmt.executeQuery();
+                for (OrderItem item : OrderItemDAO.ORDER_ITEM_ROWS.mapAll(items)) {
+                    Order order = orders.get(item.getOrderId());
+                    // An order that changed status between the two reads is skipped
+                    if (order != null) {
+                        order.getOrderItems().add(item);
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            logger.error("Error getting orders with items: {}", e.getMessage());
+            return new ArrayList<>();
+        }
+        return new ArrayList<>(orders.values());
+    }
+
+    // Keyset page of orders, newest first. Pass null/0 for the first page, then the time and id of
+    // the last row received; cost stays the same however deep the page is (idx_orders_time_id).
+    public List<Order> getOrdersPage(LocalDateTime beforeTime, int beforeId, int limit) {
+        try (Connection conn = DBConnector.getConnection()) {
+            return getOrdersPage(beforeTime, beforeId, limit, conn);
+        } catch (SQLException e) {
+            logger.error("Error getting orders page: {}", e.getMessage());
+        }
+        return new ArrayList<>();
+    }
+
+    public List<Order> getOrdersPage(LocalDateTime beforeTime, int beforeId, int limit, Connection conn) {
+        List<Order> orders = new ArrayList<>();
+        String sql = beforeTime == null
+            ? "SELECT * FROM orders ORDER BY order_time DESC, order_id DESC LIMIT ?"
+            : "SELECT * FROM orders WHERE order_time < ? OR (order_time = ? AND order_id < ?) " +
+              "ORDER BY order_time DESC, order_id DESC LIMIT ?";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            int index = 1;
+            if (beforeTime != null) {
+                Timestamp before = Timestamp.valueOf(beforeTime);
+                stmt.setTimestamp(index++, before);
+                stmt.setTimestamp(index++, before);
+                stmt.setInt(index++, beforeId);
+            }
+            stmt.setInt(index, limit);
+            ResultSet rs = stmt.executeQuery();
+
+            orders.addAll(ORDER_ROWS.mapAll(rs));
+        } catch (SQLException e) {
+            logger.error("Error getting orders page: {}", e.getMessage());
+        }
+        return orders;
+    }
+
+    public int countOrders() {
+        String sql = "SELECT COUNT(*) FROM orders";
+        try (Connection conn = DBConnector.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql);
+             ResultSet rs = stmt.executeQuery()) {
+            if (rs.next()) {
+                return rs.getInt(1);
+            }
+        } catch (SQLException e) {
+            logger.error("Error counting orders: {}", e.getMessage());
+        }
+        return 0;
+    }
+
     public List<Order> getAllOrders() {
         List<Order> orders = new ArrayList<>();
         String sql = "SELECT * FROM orders ORDER BY order_time DESC";
@@ -156,23 +411,228 @@ public class OrderDAO {
              PreparedStatement stmt = conn.prepareStatement(sql);
              ResultSet rs = stmt.executeQuery()) {
             
+            orders.addAll(ORDER_ROWS.mapAll(rs));
+        } catch (SQLException e) {
+            logger.error("Error getting all orders: {}", e.getMessage());
+        }
+        return orders;
+    }
+
+    // Order counts and completed revenue for [from, to), grouped in SQL so only one row
+    // per status pair comes back; served by idx_orders_time_status
+    public SalesSummary getSalesSummary(LocalDateTime from, LocalDateTime to) {
+        try (Connection conn = DBConnector.getConnection()) {
+            return getSalesSummary(from, to, conn);
+        } catch (SQLException e) {
+            logger.error("Error getting sales summary: {}", e.getMessage());
+        }
+        return new SalesSummary();
+    }
+
+    public SalesSummary getSalesSummary(LocalDateTime from, LocalDateTime to, Connection conn) {
+        SalesSummary summary = new SalesSummary();
+        String sql = "SELECT order_status, payment_status, COUNT(*) AS order_count, SUM(total_amount) AS revenue " +
+                     "FROM orders WHERE order_time >= ? AND order_time < ? GROUP BY order_status, payment_status";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setTimestamp(1, Timestamp.valueOf(from));
+            stmt.setTimestamp(2, Timestamp.valueOf(to));
+            ResultSet rs = stmt.executeQuery();
+
             while (rs.next()) {
-                orders.add(mapResultSetToOrder(rs));
+                summary.addGroup(EnumCodec.ORDER_STATUS.decode(rs.getString("order_status")),
+                                 EnumCodec.PAYMENT_STATUS.decode(rs.getString("payment_status")),
+                                 rs.getLong("order_count"),
+                                 rs.getBigDecimal("revenue"));
             }
         } catch (SQLException e) {
-            logger.error("Error getting all orders: {}", e.getMessage());
+            logger.error("Error getting sales summary: {}", e.getMessage());
+        }
+        return summary;
+    }
+
+    public List<Order> getRecentOrders(LocalDateTime from, LocalDateTime to, int limit) {
+        try (Connection conn = DBConnector.getConnection()) {
+            return getRecentOrders(from, to, limit, conn);
+        } catch (SQLException e) {
+            logger.error("Error getting recent orders: {}", e.getMessage());
+        }
+        return new ArrayList<>();
+    }
+
+    public List<Order> getRecentOrders(LocalDateTime from, LocalDateTime to, int limit, Connection conn) {
+        List<Order> orders = new ArrayList<>();
+        String sql = "SELECT * FROM orders WHERE order_time >= ? AND order_time < ? " +
+                     "ORDER BY order_time DESC, order_id DESC LIMIT ?";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setTimestamp(1, Timestamp.valueOf(from));
+            stmt.setTimestamp(2, Timestamp.valueOf(to));
+            stmt.setInt(3, limit);
+            ResultSet rs = stmt.executeQuery();
+
+            orders.addAll(ORDER_ROWS.mapAll(rs));
+        } catch (SQLException e) {
+            logger.error("Error getting recent orders: {}", e.getMessage());
+        }
+        return orders;
+    }
+
+    // Top-N customers by order count in one grouped join; uses the orders.user_id foreign key index
+    public List<TopCustomer> getTopCustomers(int limit) {
+        try (Connection conn = DBConnector.getConnection()) {
+            return getTopCustomers(limit, conn);
+        } catch (SQLException e) {
+            logger.error("Error getting top customers: {}", e.getMessage());
+        }
+        return new ArrayList<>();
+    }
+
+    public List<TopCustomer> getTopCustomers(int limit, Connection conn) {
+        List<TopCustomer> customers = new ArrayList<>();
+        String sql = "SELECT u.user_id, u.name, COUNT(*) AS order_count " +
+                     "FROM orders o JOIN users u ON u.user_id = o.user_id " +
+                     "GROUP BY u.user_id, u.name ORDER BY order_count DESC, u.user_id LIMIT ?";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, limit);
+            ResultSet rs = stmt.executeQuery();
+
+            while (rs.next()) {
+                customers.add(new TopCustomer(rs.getInt("user_id"), rs.getString("name"), rs.getLong("order_count")));
+            }
+        } catch (SQLException e) {
+            logger.error("Error getting top customers: {}", e.getMessage());
+        }
+        return customers;
+    }
+
+    // Orders whose row changed after the (updatedAt, orderId) cursor, oldest change first.
+    // updated_at is maintained by the database (ON UPDATE CURRENT_TIMESTAMP), so every writer is covered.
+    public List<Order> getOrdersChangedSince(LocalDateTime afterTime, int afterId, int limit) {
+        try (Connection conn = DBConnector.getConnection()) {
+            return getOrdersChangedSince(afterTime, afterId, limit, conn);
+        } catch (SQLException e) {
+            logger.error("Error getting changed orders: {}", e.getMessage());
+        }
+        return new ArrayList<>();
+    }
+
+    public List<Order> getOrdersChangedSince(LocalDateTime afterTime, int afterId, int limit, Connection conn) {
+        List<Order> orders = new ArrayList<>();
+        String sql = "SELECT * FROM orders WHERE updated_at > ? OR (updated_at = ? AND order_id > ?) " +
+                     "ORDER BY updated_at, order_id LIMIT ?";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            Timestamp after = Timestamp.valueOf(afterTime);
+            stmt.setTimestamp(1, after);
+            stmt.setTimestamp(2, after);
+            stmt.setInt(3, afterId);
+            stmt.setInt(4, limit);
+            ResultSet rs = stmt.executeQuery();
+            orders.addAll(CHANGED_ORDER_ROWS.mapAll(rs));
+        } catch (SQLException e) {
+            logger.error("Error getting changed orders: {}", e.getMessage());
         }
         return orders;
     }
 
-    private Order mapResultSetToOrder(ResultSet rs) throws SQLException {
+    // Newest updated_at in the table, or null when it is empty
+    public LocalDateTime getLatestChangeTime(Connection conn) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT MAX(updated_at) FROM orders");
+             ResultSet rs = stmt.executeQuery()) {
+            if (rs.next() && rs.getTimestamp(1) != null) {
+                return rs.getTimestamp(1).toLocalDateTime();
+            }
+        }
+        return null;
+    }
+
+    // Streams every order without materializing the table. The stream holds a pooled connection
+    // until closed, so always use it in try-with-resources. Nothing else may run on that
+    // connection while the stream is open.
+    public Stream<Order> streamAllOrders() throws SQLException {
+        Connection conn = DBConnector.getConnection();
+        try {
+            return streamAllOrders(conn).onClose(() -> {
+                try { conn.close(); } catch (SQLException e) { /* ignore */ }
+            });
+        } catch (SQLException | RuntimeException e) {
+            conn.close();
+            throw e;
+        }
+    }
+
+    // Same, on the caller's connection; closing the stream closes the statement but not the connection
+    public Stream<Order> streamAllOrders(Connection conn) throws SQLException {
+        String sql = "SELECT * FROM orders ORDER BY order_id";
+        // The three-argument form is never served from the statement cache, so the fetch size stays local
+        PreparedStatement stmt = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        ResultSet rs;
+        RowMapper.Bound<Order> rows;
+        try {
+            // Connector/J only streams row by row with Integer.MIN_VALUE; other drivers take a normal hint
+            boolean mysql = conn.getMetaData().getURL().startsWith("jdbc:mysql:");
+            stmt.setFetchSize(mysql ? Integer.MIN_VALUE : STREAM_FETCH_SIZE);
+            rs = stmt.executeQuery();
+            rows = ORDER_ROWS.bind(rs);
+        } catch (SQLException e) {
+            stmt.close();
+            throw e;
+        }
+
+        Spliterator<Order> orders = new Spliterators.AbstractSpliterator<Order>(Long.MAX_VALUE,
+                Spliterator.ORDERED | Spliterator.NONNULL) {
+            @Override
+            public boolean tryAdvance(Consumer<? super Order> action) {
+                try {
+                    if (!rs.next()) {
+                        return false;
+                    }
+                    action.accept(rows.map());
+                    return true;
+                } catch (SQLException e) {
+                    throw new IllegalStateException("Error streaming orders: " + e.getMessage(), e);
+                }
+            }
+        };
+        return StreamSupport.stream(orders, false).onClose(() -> {
+            try { rs.close(); } catch (SQLException e) { /* ignore */ }
+            try { stmt.close(); } catch (SQLException e) { /* ignore */ }
+        });
+    }
+
+    // Callback form of streamAllOrders; returns the number of orders visited, or -1 on error
+    public long forEachOrder(Consumer<Order> action) {
+        long count = 0;
+        try (Stream<Order> orders = streamAllOrders()) {
+            Iterator<Order> iterator = orders.iterator();
+            while (iterator.hasNext()) {
+                action.accept(iterator.next());
+                count++;
+            }
+            return count;
+        } catch (SQLException | IllegalStateException e) {
+            logger.error("Error streaming orders after {} rows: {}", count, e.getMessage());
+        }
+        return -1;
+    }
+
+    private Order copyOf(Order source) {
+        Order order = new Order();
+        order.setOrderId(source.getOrderId());
+        order.setUserId(source.getUserId());
+        order.setTotalAmount(source.getTotalAmount());
+        order.setPaymentStatus(source.getPaymentStatus());
+        order.setOrderStatus(source.getOrderStatus());
+        order.setOrderTime(source.getOrderTime());
+        return order;
+    }
+
+    private static Order readOrder(ResultSet rs, int[] c) throws SQLException {
         Order order = new Order();
-        order.setOrderId(rs.getInt("order_id"));
-        order.setUserId(rs.getInt("user_id"));
-        order.setTotalAmount(rs.getBigDecimal("total_amount"));
-        order.setPaymentStatus(Order.PaymentStatus.valueOf(rs.getString("payment_status")));
-        order.setOrderStatus(Order.OrderStatus.valueOf(rs.getString("order_status")));
-        order.setOrderTime(rs.getTimestamp("order_time").toLocalDateTime());
+        order.setOrderId(rs.getInt(c[0]));
+        order.setUserId(rs.getInt(c[1]));
+        order.setTotalAmount(rs.getBigDecimal(c[2]));
+        order.setPaymentStatus(EnumCodec.PAYMENT_STATUS.read(rs, c[3]));
+        order.setOrderStatus(EnumCodec.ORDER_STATUS.read(rs, c[4]));
+        order.setOrderTime(rs.getTimestamp(c[5]).toLocalDateTime());
         return order;
     }
 }
\ No newline at end of file
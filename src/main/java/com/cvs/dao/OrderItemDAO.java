@@ -11,6 +11,9 @@ import java.util.List;
 
 public class OrderItemDAO {
     private static final Logger logger = LoggerFactory.getLogger(OrderItemDAO.class);
+    public static final RowMapper<OrderItem> ORDER_ITEM_ROWS = new RowMapper<>(OrderItemDAO::readOrderItem,
+        "order_item_id", "order_id", "coffee_id", "quantity", "sugar_level", "milk_level", "size",
+        "item_price", "coffee_name");
 
     public boolean createOrderItem(OrderItem orderItem) {
         try (Connection conn = DBConnector.getConnection()) {
@@ -35,9 +38,10 @@ public class OrderItemDAO {
             
             int result = stmt.executeUpdate();
             if (result > 0) {
-                ResultSet rs = stmt.getGeneratedKeys();
-                if (rs.next()) {
-                    orderItem.setOrderItemId(rs.getInt(1));
+                try (ResultSet rs = stmt.getGeneratedKeys()) {
+                    if (rs.next()) {
+                        orderItem.setOrderItemId(rs.getInt(1));
+                    }
                 }
                 logger.debug("Order item created: orderItemId={}", orderItem.getOrderItemId());
                 return true;
@@ -48,6 +52,51 @@ public class OrderItemDAO {
         return false;
     }
 
+    public boolean createOrderItems(List<OrderItem> orderItems, Connection conn) {
+        if (orderItems == null || orderItems.isEmpty()) {
+            return true;
+        }
+        String sql = "INSERT INTO order_items (order_id, coffee_id, quantity, sugar_level, milk_level, size, item_price) VALUES (?, ?, ?, ?, ?, ?, ?)";
+        try (PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+            for (OrderItem orderItem : orderItems) {
+                stmt.setInt(1, orderItem.getOrderId());
+                stmt.setInt(2, orderItem.getCoffeeId());
+                stmt.setInt(3, orderItem.getQuantity());
+                stmt.setString(4, orderItem.getSugarLevel().name());
+                stmt.setString(5, orderItem.getMilkLevel().name());
+                stmt.setString(6, orderItem.getSize().name());
+                stmt.setBigDecimal(7, orderItem.getItemPrice());
+                stmt.addBatch();
+            }
+
+            // With rewriteBatchedStatements the driver sends a single multi-row INSERT
+            // and reports SUCCESS_NO_INFO instead of per-row counts
+            int[] results = stmt.executeBatch();
+            for (int result : results) {
+                if (result == Statement.EXECUTE_FAILED) {
+                    return false;
+                }
+            }
+
+            try (ResultSet rs = stmt.getGeneratedKeys()) {
+                for (OrderItem orderItem : orderItems) {
+                    if (!rs.next()) {
+                        // Items without ids can't be referenced later, so the caller rolls back
+                        logger.error("Order items created without all generated keys: orderId={}",
+                                     orderItems.get(0).getOrderId());
+                        return false;
+                    }
+                    orderItem.setOrderItemId(rs.getInt(1));
+                }
+            }
+            logger.debug("Order items created in batch: count={}", orderItems.size());
+            return true;
+        } catch (SQLException e) {
+            logger.error("Error creating order items: {}", e.getMessage());
+        }
+        return false;
+    }
+
     public List<OrderItem> getOrderItemsByOrderId(int orderId) {
         List<OrderItem> orderItems = new ArrayList<>();
         String sql = "SELECT oi.*, cm.name as coffee_name " +
@@ -61,9 +110,7 @@ public class OrderItemDAO {
             stmt.setInt(1, orderId);
             ResultSet rs = stmt.executeQuery();
             
-            while (rs.next()) {
-                orderItems.add(mapResultSetToOrderItem(rs));
-            }
+            orderItems.addAll(ORDER_ITEM_ROWS.mapAll(rs));
         } catch (SQLException e) {
             logger.error("Error getting order items by order ID: {}", e.getMessage());
         }
@@ -83,7 +130,7 @@ public class OrderItemDAO {
             ResultSet rs = stmt.executeQuery();
             
             if (rs.next()) {
-                return mapResultSetToOrderItem(rs);
+                return ORDER_ITEM_ROWS.map(rs);
             }
         } catch (SQLException e) {
             logger.error("Error getting order item by ID: {}", e.getMessage());
@@ -132,17 +179,17 @@ public class OrderItemDAO {
         return false;
     }
 
-    private OrderItem mapResultSetToOrderItem(ResultSet rs) throws SQLException {
+    private static OrderItem readOrderItem(ResultSet rs, int[] c) throws SQLException {
         OrderItem orderItem = new OrderItem();
-        orderItem.setOrderItemId(rs.getInt("order_item_id"));
-        orderItem.setOrderId(rs.getInt("order_id"));
-        orderItem.setCoffeeId(rs.getInt("coffee_id"));
-        orderItem.setQuantity(rs.getInt("quantity"));
-        orderItem.setSugarLevel(OrderItem.SugarLevel.valueOf(rs.getString("sugar_level")));
-        orderItem.setMilkLevel(OrderItem.MilkLevel.valueOf(rs.getString("milk_level")));
-        orderItem.setSize(OrderItem.Size.valueOf(rs.getString("size")));
-        orderItem.setItemPrice(rs.getBigDecimal("item_price"));
-        orderItem.setCoffeeName(rs.getString("coffee_name"));
+        orderItem.setOrderItemId(rs.getInt(c[0]));
+        orderItem.setOrderId(rs.getInt(c[1]));
+        orderItem.setCoffeeId(rs.getInt(c[2]));
+        orderItem.setQuantity(rs.getInt(c[3]));
+        orderItem.setSugarLevel(EnumCodec.SUGAR_LEVEL.read(rs, c[4]));
+        orderItem.setMilkLevel(EnumCodec.MILK_LEVEL.read(rs, c[5]));
+        orderItem.setSize(EnumCodec.SIZE.read(rs, c[6]));
+        orderItem.setItemPrice(rs.getBigDecimal(c[7]));
+        orderItem.setCoffeeName(rs.getString(c[8]));
         return orderItem;
     }
 }
\ No newline at end of file
@@ -11,15 +11,25 @@ import java.util.List;
 
 public class PaymentDAO {
     private static final Logger logger = LoggerFactory.getLogger(PaymentDAO.class);
+    public static final RowMapper<Payment> PAYMENT_ROWS = new RowMapper<>(PaymentDAO::readPayment,
+        "payment_id", "order_id", "amount", "payment_type", "payment_status", "transaction_id", "payment_time");
 
     public boolean createPayment(Payment payment) {
+        try (Connection conn = DBConnector.getConnection()) {
+            return createPayment(payment, conn);
+        } catch (SQLException e) {
+            logger.error("Error creating payment: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    public boolean createPayment(Payment payment, Connection conn) {
         if (payment == null) {
             throw new IllegalArgumentException("Payment cannot be null");
         }
         
         String sql = "INSERT INTO payments (order_id, amount, payment_type, payment_status, transaction_id) VALUES (?, ?, ?, ?, ?)";
-        try (Connection conn = DBConnector.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+        try (PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
             
             stmt.setInt(1, payment.getOrderId());
             stmt.setBigDecimal(2, payment.getAmount());
@@ -29,9 +39,10 @@ public class PaymentDAO {
             
             int result = stmt.executeUpdate();
             if (result > 0) {
-                ResultSet rs = stmt.getGeneratedKeys();
-                if (rs.next()) {
-                    payment.setPaymentId(rs.getInt(1));
+                try (ResultSet rs = stmt.getGeneratedKeys()) {
+                    if (rs.next()) {
+                        payment.setPaymentId(rs.getInt(1));
+                    }
                 }
                 logger.info("Payment created successfully: paymentId={}", payment.getPaymentId());
                 return true;
@@ -52,24 +63,22 @@ public class PaymentDAO {
             stmt.setInt(1, orderId);
             ResultSet rs = stmt.executeQuery();
             
-            while (rs.next()) {
-                payments.add(mapResultSetToPayment(rs));
-            }
+            payments.addAll(PAYMENT_ROWS.mapAll(rs));
         } catch (SQLException e) {
             logger.error("Error getting payments by order ID: {}", e.getMessage());
         }
         return payments;
     }
 
-    private Payment mapResultSetToPayment(ResultSet rs) throws SQLException {
+    private static Payment readPayment(ResultSet rs, int[] c) throws SQLException {
         Payment payment = new Payment();
-        payment.setPaymentId(rs.getInt("payment_id"));
-        payment.setOrderId(rs.getInt("order_id"));
-        payment.setAmount(rs.getBigDecimal("amount"));
-        payment.setPaymentType(Payment.PaymentType.valueOf(rs.getString("payment_type")));
-        payment.setPaymentStatus(Payment.PaymentStatus.valueOf(rs.getString("payment_status")));
-        payment.setTransactionId(rs.getString("transaction_id"));
-        payment.setPaymentTime(rs.getTimestamp("payment_time").toLocalDateTime());
+        payment.setPaymentId(rs.getInt(c[0]));
+        payment.setOrderId(rs.getInt(c[1]));
+        payment.setAmount(rs.getBigDecimal(c[2]));
+        payment.setPaymentType(EnumCodec.PAYMENT_TYPE.read(rs, c[3]));
+        payment.setPaymentStatus(EnumCodec.PAYMENT_RESULT.read(rs, c[4]));
+        payment.setTransactionId(rs.getString(c[5]));
+        payment.setPaymentTime(rs.getTimestamp(c[6]).toLocalDateTime());
         return payment;
     }
 }
\ No newline at end of file
@@ -0,0 +1,47 @@
+package com.cvs.dao;
+
+import com.cvs.models.RecipeIngredient;
+import com.cvs.utils.DBConnector;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+
+public class RecipeDAO {
+    private static final Logger logger = LoggerFactory.getLogger(RecipeDAO.class);
+    public static final RowMapper<RecipeIngredient> RECIPE_ROWS = new RowMapper<>(RecipeDAO::readRecipeIngredient,
+        "coffee_id", "size", "sugar_level", "milk_level", "ingredient_id", "amount");
+
+    public List<RecipeIngredient> getAllRecipeIngredients() {
+        try (Connection conn = DBConnector.getConnection()) {
+            return getAllRecipeIngredients(conn);
+        } catch (SQLException e) {
+            logger.error("Error getting recipes: {}", e.getMessage());
+        }
+        return new ArrayList<>();
+    }
+
+    public List<RecipeIngredient> getAllRecipeIngredients(Connection conn) throws SQLException {
+        String sql = "SELECT coffee_id, size, sugar_level, milk_level, ingredient_id, amount FROM recipe_ingredients";
+        try (PreparedStatement stmt = conn.prepareStatement(sql);
+             ResultSet rs = stmt.executeQuery()) {
+            return RECIPE_ROWS.mapAll(rs);
+        }
+    }
+
+    private static RecipeIngredient readRecipeIngredient(ResultSet rs, int[] c) throws SQLException {
+        RecipeIngredient line = new RecipeIngredient();
+        // NULL coffee_id reads as 0: the line applies to every coffee
+        line.setCoffeeId(rs.getInt(c[0]));
+        line.setSize(EnumCodec.SIZE.read(rs, c[1]));
+        String sugar = rs.getString(c[2]);
+        line.setSugarLevel(sugar != null ? EnumCodec.SUGAR_LEVEL.decode(sugar) : null);
+        String milk = rs.getString(c[3]);
+        line.setMilkLevel(milk != null ? EnumCodec.MILK_LEVEL.decode(milk) : null);
+        line.setIngredientId(rs.getInt(c[4]));
+        line.setAmount(rs.getInt(c[5]));
+        return line;
+    }
+}
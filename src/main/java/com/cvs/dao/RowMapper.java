@@ -0,0 +1,71 @@
+package com.cvs.dao;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+// Maps result-set rows to objects. The named columns are resolved to indexes once per
+// ResultSet (bind), so the per-row reads are positional instead of a name lookup per column.
+public final class RowMapper<T> {
+
+    @FunctionalInterface
+    public interface Reader<T> {
+        // columns[i] is the index of the i-th name given to the mapper
+        T read(ResultSet rs, int[] columns) throws SQLException;
+    }
+
+    private final Reader<T> reader;
+    private final String[] columnNames;
+
+    public RowMapper(Reader<T> reader, String... columnNames) {
+        this.reader = reader;
+        this.columnNames = columnNames.clone();
+    }
+
+    // Same reader plus extra trailing columns, e.g. for a query that selects one more field
+    public RowMapper<T> withColumns(Reader<T> reader, String... extraColumns) {
+        String[] names = new String[columnNames.length + extraColumns.length];
+        System.arraycopy(columnNames, 0, names, 0, columnNames.length);
+        System.arraycopy(extraColumns, 0, names, columnNames.length, extraColumns.length);
+        return new RowMapper<>(reader, names);
+    }
+
+    public Bound<T> bind(ResultSet rs) throws SQLException {
+        int[] columns = new int[columnNames.length];
+        for (int i = 0; i < columnNames.length; i++) {
+            columns[i] = rs.findColumn(columnNames[i]);
+        }
+        return new Bound<>(rs, columns, reader);
+    }
+
+    // Maps the current row; for single-row reads where binding once buys nothing
+    public T map(ResultSet rs) throws SQLException {
+        return bind(rs).map();
+    }
+
+    public List<T> mapAll(ResultSet rs) throws SQLException {
+        List<T> rows = new ArrayList<>();
+        Bound<T> bound = bind(rs);
+        while (rs.next()) {
+            rows.add(bound.map());
+        }
+        return rows;
+    }
+
+    public static final class Bound<T> {
+        private final ResultSet rs;
+        private final int[] columns;
+        private final Reader<T> reader;
+
+        private Bound(ResultSet rs, int[] columns, Reader<T> reader) {
+            this.rs = rs;
+            this.columns = columns;
+            this.reader = reader;
+        }
+
+        public T map() throws SQLException {
+            return reader.read(rs, columns);
+        }
+    }
+}
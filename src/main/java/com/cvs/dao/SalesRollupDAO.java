@@ -0,0 +1,395 @@
+package com.cvs.dao;
+
+import com.cvs.models.CoffeeSales;
+import com.cvs.models.Money;
+import com.cvs.models.Order;
+import com.cvs.models.OrderItem;
+import com.cvs.models.SalesSummary;
+import com.cvs.utils.DBConnector;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigDecimal;
+import java.sql.*;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+
+// Hourly sales rollups kept in step with orders inside the same transaction.
+// order_rollup_hourly: hour x order_status x payment_status -> orders, revenue
+// sales_rollup_hourly: hour x coffee_id x size x payment_status -> orders, quantity, revenue
+// Report cost depends on the number of hours in the window, not on the number of orders.
+// Each key is striped over SHARDS rows by order id so concurrent checkouts in the same hour
+// don't queue on one row; readers always SUM, so the shard never shows up in results.
+// Rows are always upserted in primary key order, so two transactions touching the same rows
+// (say, orders moving between the same two statuses in opposite directions) can't deadlock.
+public class SalesRollupDAO {
+    private static final Logger logger = LoggerFactory.getLogger(SalesRollupDAO.class);
+    public static final int SHARDS = 16;
+
+    private static final String ORDER_UPSERT =
+        "INSERT INTO order_rollup_hourly (bucket_hour, order_status, payment_status, shard, order_count, revenue_cents) " +
+        "VALUES (?, ?, ?, ?, ?, ?) ON DUPLICATE KEY UPDATE " +
+        "order_count = order_count + VALUES(order_count), revenue_cents = revenue_cents + VALUES(revenue_cents)";
+    private static final String SALES_UPSERT =
+        "INSERT INTO sales_rollup_hourly (bucket_hour, coffee_id, size, payment_status, shard, order_count, quantity, revenue_cents) " +
+        "VALUES (?, ?, ?, ?, ?, ?, ?, ?) ON DUPLICATE KEY UPDATE order_count = order_count + VALUES(order_count), " +
+        "quantity = quantity + VALUES(quantity), revenue_cents = revenue_cents + VALUES(revenue_cents)";
+
+    public static LocalDateTime bucketOf(LocalDateTime time) {
+        return time.truncatedTo(ChronoUnit.HOURS);
+    }
+
+    public static int shardOf(int orderId) {
+        return Math.floorMod(orderId, SHARDS);
+    }
+
+    // Adds a newly inserted order (with its items) to both rollups
+    public void recordOrder(Order order, Connection conn) throws SQLException {
+        LocalDateTime bucket = bucketOf(order.getOrderTime());
+        int shard = shardOf(order.getOrderId());
+        Map<OrderKey, long[]> orderRows = new TreeMap<>();
+        orderRows.put(new OrderKey(bucket, order.getOrderStatus(), order.getPaymentStatus(), shard),
+                      new long[]{1, toCents(order.getTotalMoney())});
+        upsertOrderRows(orderRows, conn);
+
+        if (order.getOrderItems() != null && !order.getOrderItems().isEmpty()) {
+            Map<SalesKey, long[]> salesRows = new TreeMap<>();
+            for (OrderItem item : order.getOrderItems()) {
+                SalesKey key = new SalesKey(bucket, item.getCoffeeId(), item.getSize(), order.getPaymentStatus(), shard);
+                long[] totals = salesRows.computeIfAbsent(key, k -> new long[]{1, 0, 0});
+                totals[1] += item.getQuantity();
+                totals[2] += toCents(item.getItemPriceMoney());
+            }
+            upsertSalesRows(salesRows, conn);
+        }
+    }
+
+    // Moves an order's contribution when its statuses change; before/after carry the order row as read under lock.
+    // The before and after rows go out sorted like every other upsert, not before-then-after.
+    public void moveOrder(Order before, Order after, Connection conn) throws SQLException {
+        LocalDateTime bucket = bucketOf(before.getOrderTime());
+        int shard = shardOf(before.getOrderId());
+        long cents = toCents(before.getTotalMoney());
+        Map<OrderKey, long[]> orderRows = new TreeMap<>();
+        orderRows.put(new OrderKey(bucket, before.getOrderStatus(), before.getPaymentStatus(), shard), new long[]{-1, -cents});
+        orderRows.merge(new OrderKey(bucket, after.getOrderStatus(), after.getPaymentStatus(), shard), new long[]{1, cents},
+                        (a, b) -> new long[]{a[0] + b[0], a[1] + b[1]});
+        upsertOrderRows(orderRows, conn);
+
+        if (before.getPaymentStatus() == after.getPaymentStatus()) {
+            return;
+        }
+        String sql = "SELECT coffee_id, size, SUM(quantity) AS quantity, SUM(item_price) AS revenue " +
+                     "FROM order_items WHERE order_id = ? GROUP BY coffee_id, size";
+        Map<SalesKey, long[]> salesRows = new TreeMap<>();
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, before.getOrderId());
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                int coffeeId = rs.getInt("coffee_id");
+                OrderItem.Size size = EnumCodec.SIZE.decode(rs.getString("size"));
+                long quantity = rs.getLong("quantity");
+                long revenue = toCents(rs.getBigDecimal("revenue"));
+                salesRows.put(new SalesKey(bucket, coffeeId, size, before.getPaymentStatus(), shard), new long[]{-1, -quantity, -revenue});
+                salesRows.put(new SalesKey(bucket, coffeeId, size, after.getPaymentStatus(), shard), new long[]{1, quantity, revenue});
+            }
+        }
+        upsertSalesRows(salesRows, conn);
+    }
+
+    public SalesSummary getSalesSummary(LocalDateTime from, LocalDateTime to) {
+        try (Connection conn = DBConnector.getConnection()) {
+            return getSalesSummary(from, to, conn);
+        } catch (SQLException e) {
+            logger.error("Error getting sales summary from rollup: {}", e.getMessage());
+        }
+        return new SalesSummary();
+    }
+
+    public SalesSummary getSalesSummary(LocalDateTime from, LocalDateTime to, Connection conn) {
+        SalesSummary summary = new SalesSummary();
+        String sql = "SELECT order_status, payment_status, SUM(order_count) AS order_count, SUM(revenue_cents) AS revenue_cents " +
+                     "FROM order_rollup_hourly WHERE bucket_hour >= ? AND bucket_hour < ? " +
+                     "GROUP BY order_status, payment_status";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setTimestamp(1, Timestamp.valueOf(bucketOf(from)));
+            stmt.setTimestamp(2, Timestamp.valueOf(to));
+            ResultSet rs = stmt.executeQuery();
+
+            while (rs.next()) {
+                summary.addGroup(EnumCodec.ORDER_STATUS.decode(rs.getString("order_status")),
+                                 EnumCodec.PAYMENT_STATUS.decode(rs.getString("payment_status")),
+                                 rs.getLong("order_count"),
+                                 rs.getLong("revenue_cents"));
+            }
+        } catch (SQLException e) {
+            logger.error("Error getting sales summary from rollup: {}", e.getMessage());
+        }
+        return summary;
+    }
+
+    public List<CoffeeSales> getTopSellers(LocalDateTime from, LocalDateTime to, int limit) {
+        try (Connection conn = DBConnector.getConnection()) {
+            return getTopSellers(from, to, limit, conn);
+        } catch (SQLException e) {
+            logger.error("Error getting top sellers: {}", e.getMessage());
+        }
+        return new ArrayList<>();
+    }
+
+    public List<CoffeeSales> getTopSellers(LocalDateTime from, LocalDateTime to, int limit, Connection conn) {
+        List<CoffeeSales> sales = new ArrayList<>();
+        String sql = "SELECT coffee_id, SUM(order_count) AS order_count, SUM(quantity) AS quantity, " +
+                     "SUM(revenue_cents) AS revenue_cents FROM sales_rollup_hourly " +
+                     "WHERE bucket_hour >= ? AND bucket_hour < ? AND payment_status = 'COMPLETED' " +
+                     "GROUP BY coffee_id ORDER BY quantity DESC, revenue_cents DESC LIMIT ?";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setTimestamp(1, Timestamp.valueOf(bucketOf(from)));
+            stmt.setTimestamp(2, Timestamp.valueOf(to));
+            stmt.setInt(3, limit);
+            ResultSet rs = stmt.executeQuery();
+
+            while (rs.next()) {
+                sales.add(new CoffeeSales(rs.getInt("coffee_id"), rs.getLong("order_count"), rs.getLong("quantity"),
+                                          BigDecimal.valueOf(rs.getLong("revenue_cents"), 2)));
+            }
+        } catch (SQLException e) {
+            logger.error("Error getting top sellers: {}", e.getMessage());
+        }
+        return sales;
+    }
+
+    public BigDecimal getCompletedRevenue() {
+        try (Connection conn = DBConnector.getConnection()) {
+            return getCompletedRevenue(conn);
+        } catch (SQLException e) {
+            logger.error("Error getting completed revenue: {}", e.getMessage());
+        }
+        return BigDecimal.ZERO;
+    }
+
+    public BigDecimal getCompletedRevenue(Connection conn) {
+        String sql = "SELECT COALESCE(SUM(revenue_cents), 0) FROM order_rollup_hourly WHERE payment_status = 'COMPLETED'";
+        try (PreparedStatement stmt = conn.prepareStatement(sql);
+             ResultSet rs = stmt.executeQuery()) {
+            if (rs.next()) {
+                return BigDecimal.valueOf(rs.getLong(1), 2);
+            }
+        } catch (SQLException e) {
+            logger.error("Error getting completed revenue: {}", e.getMessage());
+        }
+        return BigDecimal.ZERO;
+    }
+
+    // Recomputes both rollups for [from, to) from orders/order_items; from and to must be whole hours.
+    // Aggregation happens here rather than in SQL so hour buckets match the ones recordOrder writes.
+    public int rebuild(LocalDateTime from, LocalDateTime to, Connection conn) throws SQLException {
+        if (!from.equals(bucketOf(from)) || !to.equals(bucketOf(to)) || !from.isBefore(to)) {
+            throw new IllegalArgumentException("Rebuild range must be whole hours with from before to");
+        }
+        for (String table : new String[]{"order_rollup_hourly", "sales_rollup_hourly"}) {
+            try (PreparedStatement stmt = conn.prepareStatement(
+                    "DELETE FROM " + table + " WHERE bucket_hour >= ? AND bucket_hour < ?")) {
+                stmt.setTimestamp(1, Timestamp.valueOf(from));
+                stmt.setTimestamp(2, Timestamp.valueOf(to));
+                stmt.executeUpdate();
+            }
+        }
+
+        Map<OrderKey, long[]> orderRows = new TreeMap<>();
+        Map<SalesKey, long[]> salesRows = new TreeMap<>();
+        int orders = collect("o.order_time >= ? AND o.order_time < ?", 1, orderRows, salesRows, conn,
+                             Timestamp.valueOf(from), Timestamp.valueOf(to));
+        upsertOrderRows(orderRows, conn);
+        upsertSalesRows(salesRows, conn);
+        return orders;
+    }
+
+    // Takes a user's orders out of both rollups before they are removed by the users ON DELETE CASCADE.
+    // The caller owns the transaction and deletes the user in it.
+    public int removeOrdersOf(int userId, Connection conn) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT order_id FROM orders WHERE user_id = ? FOR UPDATE")) {
+            stmt.setInt(1, userId);
+            stmt.executeQuery().close();
+        }
+        Map<OrderKey, long[]> orderRows = new TreeMap<>();
+        Map<SalesKey, long[]> salesRows = new TreeMap<>();
+        int orders = collect("o.user_id = ?", -1, orderRows, salesRows, conn, userId);
+        upsertOrderRows(orderRows, conn);
+        upsertSalesRows(salesRows, conn);
+        return orders;
+    }
+
+    // Adds sign x the contribution of every order matching filter (on orders aliased o) to the row maps
+    private int collect(String filter, int sign, Map<OrderKey, long[]> orderRows, Map<SalesKey, long[]> salesRows,
+                        Connection conn, Object... params) throws SQLException {
+        int orders = 0;
+        String orderSql = "SELECT o.order_id, o.order_time, o.order_status, o.payment_status, o.total_amount " +
+                          "FROM orders o WHERE " + filter;
+        try (PreparedStatement stmt = conn.prepareStatement(orderSql)) {
+            for (int i = 0; i < params.length; i++) {
+                stmt.setObject(i + 1, params[i]);
+            }
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                OrderKey key = new OrderKey(bucketOf(rs.getTimestamp("order_time").toLocalDateTime()),
+                                            EnumCodec.ORDER_STATUS.decode(rs.getString("order_status")),
+                                            EnumCodec.PAYMENT_STATUS.decode(rs.getString("payment_status")),
+                                            shardOf(rs.getInt("order_id")));
+                long[] totals = orderRows.computeIfAbsent(key, k -> new long[2]);
+                totals[0] += sign;
+                totals[1] += sign * toCents(rs.getBigDecimal("total_amount"));
+                orders++;
+            }
+        }
+
+        Set<String> countedOrders = new HashSet<>();
+        String itemSql = "SELECT o.order_id, o.order_time, o.payment_status, oi.coffee_id, oi.size, oi.quantity, oi.item_price " +
+                         "FROM orders o JOIN order_items oi ON oi.order_id = o.order_id WHERE " + filter;
+        try (PreparedStatement stmt = conn.prepareStatement(itemSql)) {
+            for (int i = 0; i < params.length; i++) {
+                stmt.setObject(i + 1, params[i]);
+            }
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                int orderId = rs.getInt("order_id");
+                int coffeeId = rs.getInt("coffee_id");
+                OrderItem.Size size = EnumCodec.SIZE.decode(rs.getString("size"));
+                SalesKey key = new SalesKey(bucketOf(rs.getTimestamp("order_time").toLocalDateTime()), coffeeId, size,
+                                            EnumCodec.PAYMENT_STATUS.decode(rs.getString("payment_status")),
+                                            shardOf(orderId));
+                long[] totals = salesRows.computeIfAbsent(key, k -> new long[3]);
+                if (countedOrders.add(orderId + ":" + coffeeId + ":" + size)) {
+                    totals[0] += sign;
+                }
+                totals[1] += sign * rs.getInt("quantity");
+                totals[2] += sign * toCents(rs.getBigDecimal("item_price"));
+            }
+        }
+        return orders;
+    }
+
+    private void upsertOrderRows(Map<OrderKey, long[]> rows, Connection conn) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(ORDER_UPSERT)) {
+            for (Map.Entry<OrderKey, long[]> row : rows.entrySet()) {
+                OrderKey key = row.getKey();
+                stmt.setTimestamp(1, Timestamp.valueOf(key.bucket));
+                stmt.setString(2, key.orderStatus.name());
+                stmt.setString(3, key.paymentStatus.name());
+                stmt.setInt(4, key.shard);
+                stmt.setLong(5, row.getValue()[0]);
+                stmt.setLong(6, row.getValue()[1]);
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        }
+    }
+
+    private void upsertSalesRows(Map<SalesKey, long[]> rows, Connection conn) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(SALES_UPSERT)) {
+            for (Map.Entry<SalesKey, long[]> row : rows.entrySet()) {
+                SalesKey key = row.getKey();
+                stmt.setTimestamp(1, Timestamp.valueOf(key.bucket));
+                stmt.setInt(2, key.coffeeId);
+                stmt.setString(3, key.size.name());
+                stmt.setString(4, key.paymentStatus.name());
+                stmt.setInt(5, key.shard);
+                stmt.setLong(6, row.getValue()[0]);
+                stmt.setLong(7, row.getValue()[1]);
+                stmt.setLong(8, row.getValue()[2]);
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        }
+    }
+
+    private static long toCents(BigDecimal amount) {
+        return amount == null ? 0 : Money.of(amount).getCents();
+    }
+
+    private static long toCents(Money amount) {
+        return amount == null ? 0 : amount.getCents();
+    }
+
+    private static final class OrderKey implements Comparable<OrderKey> {
+        // Same column order as the table's primary key; the Java enums list their values in the SQL ENUM order
+        static final Comparator<OrderKey> ORDER = Comparator.comparing((OrderKey k) -> k.bucket)
+            .thenComparing(k -> k.orderStatus).thenComparing(k -> k.paymentStatus).thenComparingInt(k -> k.shard);
+
+        final LocalDateTime bucket;
+        final Order.OrderStatus orderStatus;
+        final Order.PaymentStatus paymentStatus;
+        final int shard;
+
+        OrderKey(LocalDateTime bucket, Order.OrderStatus orderStatus, Order.PaymentStatus paymentStatus, int shard) {
+            this.bucket = bucket;
+            this.orderStatus = orderStatus;
+            this.paymentStatus = paymentStatus;
+            this.shard = shard;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof OrderKey)) return false;
+            OrderKey other = (OrderKey) o;
+            return bucket.equals(other.bucket) && orderStatus == other.orderStatus && paymentStatus == other.paymentStatus
+                && shard == other.shard;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(bucket, orderStatus, paymentStatus, shard);
+        }
+
+        @Override
+        public int compareTo(OrderKey other) {
+            return ORDER.compare(this, other);
+        }
+    }
+
+    private static final class SalesKey implements Comparable<SalesKey> {
+        static final Comparator<SalesKey> ORDER = Comparator.comparing((SalesKey k) -> k.bucket)
+            .thenComparingInt(k -> k.coffeeId).thenComparing(k -> k.size).thenComparing(k -> k.paymentStatus)
+            .thenComparingInt(k -> k.shard);
+
+        final LocalDateTime bucket;
+        final int coffeeId;
+        final OrderItem.Size size;
+        final Order.PaymentStatus paymentStatus;
+        final int shard;
+
+        SalesKey(LocalDateTime bucket, int coffeeId, OrderItem.Size size, Order.PaymentStatus paymentStatus, int shard) {
+            this.bucket = bucket;
+            this.coffeeId = coffeeId;
+            this.size = size;
+            this.paymentStatus = paymentStatus;
+            this.shard = shard;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof SalesKey)) return false;
+            SalesKey other = (SalesKey) o;
+            return bucket.equals(other.bucket) && coffeeId == other.coffeeId && size == other.size
+                && paymentStatus == other.paymentStatus && shard == other.shard;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(bucket, coffeeId, size, paymentStatus, shard);
+        }
+
+        @Override
+        public int compareTo(SalesKey other) {
+            return ORDER.compare(this, other);
+        }
+    }
+}
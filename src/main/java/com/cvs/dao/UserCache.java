@@ -0,0 +1,214 @@
+package com.cvs.dao;
+
+import com.cvs.models.User;
+import com.cvs.utils.DBConnector;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+// Bounded LRU of users by id, with an email index, so the repeated lookups during login and
+// checkout stay in memory. Entries expire after the TTL. UserDAO writes update or drop them,
+// and a load that overlapped a write to the same user is not cached. Callers always get their own copy.
+public class UserCache {
+    private static final Logger logger = LoggerFactory.getLogger(UserCache.class);
+    private static final int WRITE_HISTORY = 1024;
+    private static final UserCache INSTANCE = new UserCache(new UserDAO(),
+        DBConnector.getIntProperty("user.cache.max-entries", 1000),
+        DBConnector.getLongProperty("user.cache.ttl", 60000), System::currentTimeMillis);
+
+    public interface UserSource {
+        User loadUser(int userId) throws SQLException;
+        User loadUserByEmail(String email) throws SQLException;
+    }
+
+    private final UserSource source;
+    private final int maxEntries;
+    private final long ttlMs;
+    private final LongSupplier clock;
+    private final Map<Integer, Entry> byId;
+    private final Map<String, Integer> idsByEmail = new HashMap<>();
+    // Guarded by this, like everything below it. Sequence of the last write per user, oldest first;
+    // once a user drops out of the history only loads started after forgottenWrites are trusted.
+    private final Map<Integer, Long> lastWrites = new LinkedHashMap<>();
+    private long writeSeq;
+    private long forgottenWrites;
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long expirations;
+
+    public UserCache(UserSource source, int maxEntries, long ttlMs, LongSupplier clock) {
+        if (maxEntries <= 0 || ttlMs <= 0) {
+            throw new IllegalArgumentException("User cache size and TTL must be positive");
+        }
+        this.source = source;
+        this.maxEntries = maxEntries;
+        this.ttlMs = ttlMs;
+        this.clock = clock;
+        this.byId = new LinkedHashMap<Integer, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Entry> eldest) {
+                if (size() <= UserCache.this.maxEntries) {
+                    return false;
+                }
+                idsByEmail.remove(eldest.getValue().user.getEmail());
+                evictions++;
+                return true;
+            }
+        };
+    }
+
+    public static UserCache getInstance() {
+        return INSTANCE;
+    }
+
+    public User getById(int userId) {
+        long seen;
+        synchronized (this) {
+            User cached = lookup(userId);
+            if (cached != null) {
+                return cached;
+            }
+            seen = writeSeq;
+        }
+        try {
+            return install(source.loadUser(userId), seen);
+        } catch (SQLException e) {
+            logger.error("Error getting user by ID: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    public User getByEmail(String email) {
+        long seen;
+        synchronized (this) {
+            Integer userId = idsByEmail.get(email);
+            User cached = userId != null ? lookup(userId) : null;
+            if (cached != null) {
+                return cached;
+            }
+            if (userId == null) {
+                misses++;
+            }
+            seen = writeSeq;
+        }
+        try {
+            return install(source.loadUserByEmail(email), seen);
+        } catch (SQLException e) {
+            logger.error("Error getting user by email: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    // Applies a committed balance change to the cached copy, if there is one
+    public synchronized void updateBalance(int userId, BigDecimal newBalance) {
+        recordWrite(userId);
+        Entry entry = byId.get(userId);
+        if (entry != null) {
+            entry.user.setBalance(newBalance);
+        }
+    }
+
+    public synchronized void invalidate(int userId) {
+        recordWrite(userId);
+        Entry entry = byId.remove(userId);
+        if (entry != null) {
+            idsByEmail.remove(entry.user.getEmail());
+        }
+    }
+
+    public synchronized void invalidateAll() {
+        forgottenWrites = ++writeSeq;
+        lastWrites.clear();
+        byId.clear();
+        idsByEmail.clear();
+    }
+
+    public synchronized long getHits() { return hits; }
+
+    public synchronized long getMisses() { return misses; }
+
+    public synchronized long getEvictions() { return evictions; }
+
+    public synchronized long getExpirations() { return expirations; }
+
+    public synchronized int size() { return byId.size(); }
+
+    public synchronized double getHitRate() {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+
+    // Counts the hit or miss; a miss leaves the caller to load
+    private User lookup(int userId) {
+        Entry entry = byId.get(userId);
+        if (entry == null) {
+            misses++;
+            return null;
+        }
+        if (clock.getAsLong() - entry.loadedAt >= ttlMs) {
+            byId.remove(userId);
+            idsByEmail.remove(entry.user.getEmail());
+            expirations++;
+            misses++;
+            return null;
+        }
+        hits++;
+        return copy(entry.user);
+    }
+
+    private User install(User loaded, long seen) {
+        if (loaded == null) {
+            return null;
+        }
+        synchronized (this) {
+            // A write to this user since the lookup means these rows may predate it
+            Long lastWrite = lastWrites.get(loaded.getUserId());
+            if (forgottenWrites <= seen && (lastWrite == null || lastWrite <= seen)) {
+                Entry previous = byId.put(loaded.getUserId(), new Entry(copy(loaded), clock.getAsLong()));
+                if (previous != null) {
+                    idsByEmail.remove(previous.user.getEmail());
+                }
+                idsByEmail.put(loaded.getEmail(), loaded.getUserId());
+            }
+        }
+        return loaded;
+    }
+
+    private void recordWrite(int userId) {
+        writeSeq++;
+        // Re-inserted so the map stays ordered by sequence
+        lastWrites.remove(userId);
+        lastWrites.put(userId, writeSeq);
+        if (lastWrites.size() > WRITE_HISTORY) {
+            Iterator<Map.Entry<Integer, Long>> oldest = lastWrites.entrySet().iterator();
+            forgottenWrites = oldest.next().getValue();
+            oldest.remove();
+        }
+    }
+
+    private static User copy(User user) {
+        User copy = new User(user.getUserId(), user.getName(), user.getEmail(), user.getPassword(), null);
+        copy.setBalanceMoney(user.getBalanceMoney());
+        copy.setCreatedAt(user.getCreatedAt());
+        copy.setUpdatedAt(user.getUpdatedAt());
+        return copy;
+    }
+
+    private static final class Entry {
+        final User user;
+        final long loadedAt;
+
+        Entry(User user, long loadedAt) {
+            this.user = user;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
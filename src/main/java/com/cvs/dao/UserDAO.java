@@ -1,5 +1,8 @@
 package com.cvs.dao;
 
+import com.cvs.models.BalanceSummary;
+import com.cvs.models.LedgerEntry;
+import com.cvs.models.Money;
 import com.cvs.models.User;
 import com.cvs.utils.DBConnector;
 import org.slf4j.Logger;
@@ -10,8 +13,29 @@ import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
 
-public class UserDAO {
+public class UserDAO implements UserCache.UserSource {
     private static final Logger logger = LoggerFactory.getLogger(UserDAO.class);
+    private final SalesRollupDAO rollupDAO = new SalesRollupDAO();
+    private final WalletLedger wallet;
+    // Null for the default DAO, which shares the UserCache singleton (built over a default DAO itself)
+    private final UserCache cache;
+
+    public UserDAO() {
+        this.wallet = WalletLedger.getInstance();
+        this.cache = null;
+    }
+
+    // Users read through an injected ledger get a cache of their own, so their balances never come
+    // from the singleton's default wallet
+    public UserDAO(WalletLedger wallet) {
+        this.wallet = wallet;
+        this.cache = new UserCache(this, DBConnector.getIntProperty("user.cache.max-entries", 1000),
+                                   DBConnector.getLongProperty("user.cache.ttl", 60000), System::currentTimeMillis);
+    }
+
+    private UserCache cache() {
+        return cache != null ? cache : UserCache.getInstance();
+    }
 
     public boolean createUser(User user) {
         if (user == null) {
@@ -28,10 +52,13 @@ public class UserDAO {
             
             int result = stmt.executeUpdate();
             if (result > 0) {
-                ResultSet rs = stmt.getGeneratedKeys();
-                if (rs.next()) {
-                    user.setUserId(rs.getInt(1));
+                try (ResultSet rs = stmt.getGeneratedKeys()) {
+                    if (rs.next()) {
+                        user.setUserId(rs.getInt(1));
+                    }
                 }
+                // Keeps a lookup already in flight for this email from caching its result
+                cache().invalidate(user.getUserId());
                 logger.info("User created successfully: {}", user.getEmail());
                 return true;
             }
@@ -45,39 +72,58 @@ public class UserDAO {
         if (userId <= 0) {
             throw new IllegalArgumentException("User ID must be positive");
         }
+        return cache().getById(userId);
+    }
+
+    public User getUserByEmail(String email) {
+        return cache().getByEmail(email);
+    }
+
+    @Override
+    public User loadUser(int userId) throws SQLException {
+        try (Connection conn = DBConnector.getConnection()) {
+            return withWalletBalance(getUserById(userId, conn));
+        }
+    }
+
+    @Override
+    public User loadUserByEmail(String email) throws SQLException {
+        try (Connection conn = DBConnector.getConnection()) {
+            return withWalletBalance(getUserByEmail(email, conn));
+        }
+    }
+
+    // users.balance trails the wallet until the next balance sync, so cached users take the live balance
+    private User withWalletBalance(User user) {
+        if (user != null) {
+            Money balance = wallet.getBalance(user.getUserId());
+            if (balance != null) {
+                user.setBalanceMoney(balance);
+            }
+        }
+        return user;
+    }
+
+    // Uncached reads on the caller's connection
+    public User getUserById(int userId, Connection conn) throws SQLException {
         String sql = "SELECT * FROM users WHERE user_id = ?";
-        try (Connection conn = DBConnector.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setInt(1, userId);
             ResultSet rs = stmt.executeQuery();
-            
-            if (rs.next()) {
-                return mapResultSetToUser(rs);
-            }
-        } catch (SQLException e) {
-            logger.error("Error getting user by ID: {}", e.getMessage());
+            return rs.next() ? mapResultSetToUser(rs) : null;
         }
-        return null;
     }
 
-    public User getUserByEmail(String email) {
+    public User getUserByEmail(String email, Connection conn) throws SQLException {
         String sql = "SELECT * FROM users WHERE email = ?";
-        try (Connection conn = DBConnector.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setString(1, email);
             ResultSet rs = stmt.executeQuery();
-            
-            if (rs.next()) {
-                return mapResultSetToUser(rs);
-            }
-        } catch (SQLException e) {
-            logger.error("Error getting user by email: {}", e.getMessage());
+            return rs.next() ? mapResultSetToUser(rs) : null;
         }
-        return null;
     }
 
+    // Writes the difference to the wallet ledger as an adjustment
     public boolean updateUserBalance(int userId, BigDecimal newBalance) {
         if (userId <= 0) {
             throw new IllegalArgumentException("User ID must be positive");
@@ -85,22 +131,50 @@ public class UserDAO {
         if (newBalance == null || newBalance.compareTo(BigDecimal.ZERO) < 0) {
             throw new IllegalArgumentException("Balance cannot be null or negative");
         }
-        String sql = "UPDATE users SET balance = ? WHERE user_id = ?";
-        try (Connection conn = DBConnector.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            
-            stmt.setBigDecimal(1, newBalance);
-            stmt.setInt(2, userId);
-            
-            int result = stmt.executeUpdate();
-            if (result > 0) {
-                logger.info("User balance updated: userId={}, newBalance={}", userId, newBalance);
-                return true;
-            }
-        } catch (SQLException e) {
-            logger.error("Error updating user balance: {}", e.getMessage());
+        Money balance = wallet.adjustTo(userId, Money.of(newBalance));
+        if (balance == null) {
+            return false;
+        }
+        cache().updateBalance(userId, balance.toBigDecimal());
+        logger.info("User balance updated: userId={}, newBalance={}", userId, balance);
+        return true;
+    }
+
+    // Applies a balance change committed outside this DAO, such as a checkout debit, to the cached user
+    public void balanceChanged(int userId, BigDecimal newBalance) {
+        cache().updateBalance(userId, newBalance);
+    }
+
+    // Returns the new balance, or null when the user is missing or has insufficient funds
+    public BigDecimal debitBalance(int userId, BigDecimal amount) {
+        validateBalanceChange(userId, amount);
+        Money balance = wallet.debit(userId, Money.of(amount), LedgerEntry.EntryType.PAYMENT);
+        if (balance == null) {
+            return null;
+        }
+        cache().updateBalance(userId, balance.toBigDecimal());
+        logger.info("User balance debited: userId={}, amount={}, newBalance={}", userId, amount, balance);
+        return balance.toBigDecimal();
+    }
+
+    public BigDecimal creditBalance(int userId, BigDecimal amount) {
+        validateBalanceChange(userId, amount);
+        Money balance = wallet.credit(userId, Money.of(amount), LedgerEntry.EntryType.TOP_UP);
+        if (balance == null) {
+            return null;
+        }
+        cache().updateBalance(userId, balance.toBigDecimal());
+        logger.info("User balance credited: userId={}, amount={}, newBalance={}", userId, amount, balance);
+        return balance.toBigDecimal();
+    }
+
+    private void validateBalanceChange(int userId, BigDecimal amount) {
+        if (userId <= 0) {
+            throw new IllegalArgumentException("User ID must be positive");
+        }
+        if (amount == null || amount.compareTo(BigDecimal.ZERO) <= 0) {
+            throw new IllegalArgumentException("Amount must be positive");
         }
-        return false;
     }
 
     public List<User> getAllUsers() {
@@ -120,20 +194,62 @@ public class UserDAO {
         return users;
     }
 
+    public BalanceSummary getBalanceSummary() {
+        try (Connection conn = DBConnector.getConnection()) {
+            return getBalanceSummary(conn);
+        } catch (SQLException e) {
+            logger.error("Error getting balance summary: {}", e.getMessage());
+        }
+        return new BalanceSummary(0, BigDecimal.ZERO);
+    }
+
+    // Reads the running wallet balances rather than users.balance, which trails them by one sync interval
+    public BalanceSummary getBalanceSummary(Connection conn) {
+        String sql = "SELECT COUNT(*) AS user_count, COALESCE(SUM(COALESCE(s.balance, u.balance)), 0) AS total_balance " +
+                     "FROM users u LEFT JOIN wallet_snapshots s ON s.user_id = u.user_id";
+        try (PreparedStatement stmt = conn.prepareStatement(sql);
+             ResultSet rs = stmt.executeQuery()) {
+            if (rs.next()) {
+                return new BalanceSummary(rs.getLong("user_count"), rs.getBigDecimal("total_balance"));
+            }
+        } catch (SQLException e) {
+            logger.error("Error getting balance summary: {}", e.getMessage());
+        }
+        return new BalanceSummary(0, BigDecimal.ZERO);
+    }
+
+    // The user's orders go with them (ON DELETE CASCADE), so they are taken out of the rollups first
     public boolean deleteUser(int userId) {
-        String sql = "DELETE FROM users WHERE user_id = ?";
-        try (Connection conn = DBConnector.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            
-            stmt.setInt(1, userId);
-            int result = stmt.executeUpdate();
-            
+        Connection conn = null;
+        try {
+            conn = DBConnector.getConnection();
+            conn.setAutoCommit(false);
+
+            rollupDAO.removeOrdersOf(userId, conn);
+            int result;
+            try (PreparedStatement stmt = conn.prepareStatement("DELETE FROM users WHERE user_id = ?")) {
+                stmt.setInt(1, userId);
+                result = stmt.executeUpdate();
+            }
             if (result > 0) {
+                conn.commit();
+                cache().invalidate(userId);
                 logger.info("User deleted: userId={}", userId);
                 return true;
             }
+            conn.rollback();
         } catch (SQLException e) {
             logger.error("Error deleting user: {}", e.getMessage());
+            if (conn != null) {
+                try { conn.rollback(); } catch (SQLException ex) { /* ignore */ }
+            }
+        } finally {
+            if (conn != null) {
+                try {
+                    conn.setAutoCommit(true);
+                    conn.close();
+                } catch (SQLException e) { /* ignore */ }
+            }
         }
         return false;
     }
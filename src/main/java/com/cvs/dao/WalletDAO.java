@@ -0,0 +1,291 @@
+package com.cvs.dao;
+
+import com.cvs.models.LedgerEntry;
+import com.cvs.models.Money;
+import com.cvs.utils.DBConnector;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+public class WalletDAO implements WalletLedger.LedgerStore {
+    private static final Logger logger = LoggerFactory.getLogger(WalletDAO.class);
+    private static final String DEADLOCK = "40001";
+    private static final int DEADLOCK_RETRIES = 3;
+
+    public static final RowMapper<LedgerEntry> LEDGER_ROWS = new RowMapper<>(WalletDAO::readEntry,
+        "entry_id", "user_id", "amount", "entry_type", "order_id", "created_at");
+
+    @Override
+    public Money loadBalance(int userId) throws SQLException {
+        try (Connection conn = DBConnector.getConnection()) {
+            return loadBalance(userId, conn);
+        }
+    }
+
+    // The wallet_snapshots row carries the running balance; users.balance until a wallet's first write
+    public Money loadBalance(int userId, Connection conn) throws SQLException {
+        String sql = "SELECT COALESCE(s.balance, u.balance, 0) AS balance " +
+                     "FROM users u LEFT JOIN wallet_snapshots s ON s.user_id = u.user_id WHERE u.user_id = ?";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, userId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? Money.of(rs.getBigDecimal("balance")) : null;
+            }
+        }
+    }
+
+    @Override
+    public List<Money> appendEntries(List<LedgerEntry> entries) throws SQLException {
+        return inTransaction(conn -> appendEntries(entries, conn));
+    }
+
+    // Locks every wallet involved (in user id order, so concurrent batches can't deadlock), drops the
+    // entries that would overdraw, writes the rest in one multi-row insert and stores each new running
+    // balance. The caller owns the transaction; the locks are held until it ends. Checkout calls this
+    // inside the order's transaction.
+    public List<Money> appendEntries(List<LedgerEntry> entries, Connection conn) throws SQLException {
+        Map<Integer, Money> balances = new TreeMap<>();
+        for (LedgerEntry entry : entries) {
+            balances.put(entry.getUserId(), null);
+        }
+        Map<Integer, Money> opening = new TreeMap<>();
+        for (Map.Entry<Integer, Money> wallet : balances.entrySet()) {
+            Money balance = lockWallet(wallet.getKey(), conn);
+            wallet.setValue(balance);
+            opening.put(wallet.getKey(), balance);
+        }
+
+        List<Money> results = new ArrayList<>(entries.size());
+        List<LedgerEntry> accepted = new ArrayList<>(entries.size());
+        for (LedgerEntry entry : entries) {
+            Money balance = balances.get(entry.getUserId());
+            Money after = balance != null ? balance.plus(entry.getAmount()) : null;
+            if (after == null || (entry.getAmount().isNegative() && after.isNegative())) {
+                results.add(null);
+                continue;
+            }
+            balances.put(entry.getUserId(), after);
+            results.add(after);
+            accepted.add(entry);
+        }
+        insertEntries(accepted, conn);
+        for (Map.Entry<Integer, Money> wallet : balances.entrySet()) {
+            if (wallet.getValue() != null && !wallet.getValue().equals(opening.get(wallet.getKey()))) {
+                storeBalance(wallet.getKey(), wallet.getValue(), conn);
+            }
+        }
+        return results;
+    }
+
+    // Debits a wallet in the caller's transaction; returns the new balance, or null when it is short
+    public Money debit(int userId, Money amount, Integer orderId, Connection conn) throws SQLException {
+        return appendEntries(Collections.singletonList(new LedgerEntry(userId, Money.ofCents(-amount.getCents()),
+            LedgerEntry.EntryType.PAYMENT, orderId)), conn).get(0);
+    }
+
+    @Override
+    public Money adjustTo(int userId, Money target) throws SQLException {
+        return inTransaction(conn -> adjustTo(userId, target, conn));
+    }
+
+    public Money adjustTo(int userId, Money target, Connection conn) throws SQLException {
+        Money balance = lockWallet(userId, conn);
+        if (balance == null) {
+            return null;
+        }
+        long difference = target.getCents() - balance.getCents();
+        if (difference != 0) {
+            insertEntries(Collections.singletonList(new LedgerEntry(userId, Money.ofCents(difference),
+                LedgerEntry.EntryType.ADJUSTMENT, null)), conn);
+            storeBalance(userId, target, conn);
+        }
+        return target;
+    }
+
+    // Marks the row for the next copy to users.balance
+    private void storeBalance(int userId, Money balance, Connection conn) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "UPDATE wallet_snapshots SET balance = ?, synced = FALSE WHERE user_id = ?")) {
+            stmt.setBigDecimal(1, balance.toBigDecimal());
+            stmt.setInt(2, userId);
+            stmt.executeUpdate();
+        }
+    }
+
+    private void insertEntries(List<LedgerEntry> entries, Connection conn) throws SQLException {
+        if (entries.isEmpty()) {
+            return;
+        }
+        StringBuilder sql = new StringBuilder("INSERT INTO wallet_ledger (user_id, amount, entry_type, order_id) VALUES ");
+        for (int i = 0; i < entries.size(); i++) {
+            sql.append(i == 0 ? "(?, ?, ?, ?)" : ", (?, ?, ?, ?)");
+        }
+        try (PreparedStatement stmt = conn.prepareStatement(sql.toString())) {
+            int index = 1;
+            for (LedgerEntry entry : entries) {
+                stmt.setInt(index++, entry.getUserId());
+                stmt.setBigDecimal(index++, entry.getAmount().toBigDecimal());
+                stmt.setString(index++, entry.getEntryType().name());
+                if (entry.getOrderId() != null) {
+                    stmt.setInt(index++, entry.getOrderId());
+                } else {
+                    stmt.setNull(index++, Types.INTEGER);
+                }
+            }
+            stmt.executeUpdate();
+        }
+    }
+
+    // Every writer takes the wallet_snapshots row lock first, so the balance read here stays current
+    // until the transaction ends. The upsert creates the row from users.balance on a wallet's first write
+    // and otherwise just takes its exclusive lock, so two first writes can't deadlock the way a locking
+    // read of a missing row followed by an insert does. Null when the user does not exist.
+    private Money lockWallet(int userId, Connection conn) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "INSERT INTO wallet_snapshots (user_id, balance) " +
+                "SELECT user_id, COALESCE(balance, 0) FROM users WHERE user_id = ? " +
+                "ON DUPLICATE KEY UPDATE user_id = user_id")) {
+            stmt.setInt(1, userId);
+            stmt.executeUpdate();
+        }
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "SELECT balance FROM wallet_snapshots WHERE user_id = ? FOR UPDATE")) {
+            stmt.setInt(1, userId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? Money.of(rs.getBigDecimal("balance")) : null;
+            }
+        }
+    }
+
+    // A deadlock victim (SQLState 40001) has had its whole transaction rolled back, so running it again is safe
+    private <T> T inTransaction(SqlWork<T> work) throws SQLException {
+        for (int attempt = 1; ; attempt++) {
+            try (Connection conn = DBConnector.getConnection()) {
+                boolean autoCommit = conn.getAutoCommit();
+                conn.setAutoCommit(false);
+                try {
+                    T result = work.run(conn);
+                    conn.commit();
+                    return result;
+                } catch (SQLException e) {
+                    conn.rollback();
+                    if (!DEADLOCK.equals(e.getSQLState()) || attempt == DEADLOCK_RETRIES) {
+                        throw e;
+                    }
+                    logger.warn("Wallet write deadlocked, retrying: attempt {}", attempt);
+                } finally {
+                    conn.setAutoCommit(autoCommit);
+                }
+            }
+        }
+    }
+
+    private interface SqlWork<T> {
+        T run(Connection conn) throws SQLException;
+    }
+
+    @Override
+    public int syncBalances(int batchSize) throws SQLException {
+        try (Connection conn = DBConnector.getConnection()) {
+            return syncBalances(batchSize, conn);
+        }
+    }
+
+    // Copies up to batchSize changed running balances to users.balance, for the reports and screens that
+    // read it; returns how many it copied. Each user gets a short transaction that takes the users row
+    // before the wallet row, the same order checkout takes them in. The copy is kept only while the
+    // wallet still holds the balance that was read, so a write landing meanwhile is copied next time.
+    public int syncBalances(int batchSize, Connection conn) throws SQLException {
+        Map<Integer, Money> changed = new TreeMap<>();
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "SELECT user_id, balance FROM wallet_snapshots WHERE synced = FALSE ORDER BY user_id LIMIT ?")) {
+            stmt.setInt(1, batchSize);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    changed.put(rs.getInt("user_id"), Money.of(rs.getBigDecimal("balance")));
+                }
+            }
+        }
+        if (changed.isEmpty()) {
+            return 0;
+        }
+
+        boolean autoCommit = conn.getAutoCommit();
+        conn.setAutoCommit(false);
+        try {
+            int synced = 0;
+            for (Map.Entry<Integer, Money> wallet : changed.entrySet()) {
+                if (syncBalance(wallet.getKey(), wallet.getValue(), conn)) {
+                    conn.commit();
+                    synced++;
+                } else {
+                    conn.rollback();
+                }
+            }
+            logger.debug("Wallet balances synced: {} users", synced);
+            return synced;
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(autoCommit);
+        }
+    }
+
+    private boolean syncBalance(int userId, Money balance, Connection conn) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement("UPDATE users SET balance = ? WHERE user_id = ?")) {
+            stmt.setBigDecimal(1, balance.toBigDecimal());
+            stmt.setInt(2, userId);
+            stmt.executeUpdate();
+        }
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "UPDATE wallet_snapshots SET synced = TRUE WHERE user_id = ? AND balance = ?")) {
+            stmt.setInt(1, userId);
+            stmt.setBigDecimal(2, balance.toBigDecimal());
+            return stmt.executeUpdate() > 0;
+        }
+    }
+
+    // Newest first, for a user's wallet history
+    public List<LedgerEntry> getEntries(int userId, int limit) {
+        try (Connection conn = DBConnector.getConnection()) {
+            return getEntries(userId, limit, conn);
+        } catch (SQLException e) {
+            logger.error("Error getting wallet ledger: {}", e.getMessage());
+            return new ArrayList<>();
+        }
+    }
+
+    public List<LedgerEntry> getEntries(int userId, int limit, Connection conn) {
+        String sql = "SELECT * FROM wallet_ledger WHERE user_id = ? ORDER BY entry_id DESC LIMIT ?";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, userId);
+            stmt.setInt(2, limit);
+            return LEDGER_ROWS.mapAll(stmt.executeQuery());
+        } catch (SQLException e) {
+            logger.error("Error getting wallet ledger: {}", e.getMessage());
+            return new ArrayList<>();
+        }
+    }
+
+    private static LedgerEntry readEntry(ResultSet rs, int[] c) throws SQLException {
+        int orderId = rs.getInt(c[4]);
+        Integer order = rs.wasNull() ? null : orderId;
+        Timestamp createdAt = rs.getTimestamp(c[5]);
+        return new LedgerEntry(rs.getLong(c[0]), rs.getInt(c[1]), Money.of(rs.getBigDecimal(c[2])),
+                               EnumCodec.LEDGER_ENTRY_TYPE.read(rs, c[3]), order,
+                               createdAt != null ? createdAt.toLocalDateTime() : null);
+    }
+}
@@ -0,0 +1,190 @@
+package com.cvs.dao;
+
+import com.cvs.models.LedgerEntry;
+import com.cvs.models.Money;
+import com.cvs.utils.DBConnector;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Wallet writes over the append-only wallet_ledger. Callers that arrive while a write is in progress are
+// written together in the next multi-row insert (group commit). Balances are checked in the database:
+// each write locks the users' wallet_snapshots rows, which carry the running balance, and updates them in
+// place, so kiosks sharing the database can't overdraw a wallet between them. A background task copies
+// changed balances to users.balance, which therefore trails by up to one sync interval.
+public class WalletLedger {
+    private static final Logger logger = LoggerFactory.getLogger(WalletLedger.class);
+    private static WalletLedger instance;
+
+    public interface LedgerStore {
+        // The running balance, or null when the user does not exist
+        Money loadBalance(int userId) throws SQLException;
+        // Writes the entries in order, skipping any that would overdraw its wallet or has no user.
+        // The result lines up with entries: the balance after each one, or null for a skipped one.
+        List<Money> appendEntries(List<LedgerEntry> entries) throws SQLException;
+        // Writes the difference to target as an adjustment; null when the user does not exist
+        Money adjustTo(int userId, Money target) throws SQLException;
+        // Copies up to batchSize changed balances to users.balance; returns how many it copied
+        int syncBalances(int batchSize) throws SQLException;
+    }
+
+    private final LedgerStore store;
+    private final int maxBatch;
+    private final Queue<Pending> queue = new ConcurrentLinkedQueue<>();
+    private final Object writeLock = new Object();
+    private ScheduledExecutorService syncer;
+
+    public WalletLedger(LedgerStore store, int maxBatch) {
+        if (maxBatch <= 0) {
+            throw new IllegalArgumentException("Batch size must be positive");
+        }
+        this.store = store;
+        this.maxBatch = maxBatch;
+    }
+
+    public static synchronized WalletLedger getInstance() {
+        if (instance == null) {
+            instance = new WalletLedger(new WalletDAO(), DBConnector.getIntProperty("wallet.group-commit-max", 200));
+            instance.start(DBConnector.getLongProperty("wallet.balance-sync-interval", 60000),
+                           DBConnector.getIntProperty("wallet.balance-sync-batch", 1000));
+        }
+        return instance;
+    }
+
+    public Money getBalance(int userId) {
+        try {
+            return store.loadBalance(userId);
+        } catch (SQLException e) {
+            logger.error("Error loading wallet balance: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    // Returns the new balance once the entry is written, or null if it could not be
+    public Money credit(int userId, Money amount, LedgerEntry.EntryType type) {
+        return append(new LedgerEntry(userId, amount, type, null));
+    }
+
+    // Returns the new balance, or null when the wallet is short or the entry could not be written
+    public Money debit(int userId, Money amount, LedgerEntry.EntryType type) {
+        Money balance = append(new LedgerEntry(userId, Money.ofCents(-amount.getCents()), type, null));
+        if (balance == null) {
+            logger.warn("Balance debit rejected: userId={}, amount={}", userId, amount);
+        }
+        return balance;
+    }
+
+    // Sets an absolute balance by writing the difference as an adjustment
+    public Money adjustTo(int userId, Money target) {
+        try {
+            return store.adjustTo(userId, target);
+        } catch (SQLException e) {
+            logger.error("Error adjusting wallet balance: userId={}, {}", userId, e.getMessage());
+            return null;
+        }
+    }
+
+    // Copies every changed balance to users.balance; returns how many users it covered
+    public synchronized int syncBalances(int batchSize) {
+        int total = 0;
+        try {
+            int users;
+            do {
+                users = store.syncBalances(batchSize);
+                total += users;
+            } while (users == batchSize);
+        } catch (SQLException e) {
+            logger.error("Error syncing wallet balances: {}", e.getMessage());
+        }
+        return total;
+    }
+
+    public synchronized void start(long syncIntervalMs, int batchSize) {
+        if (syncIntervalMs <= 0 || batchSize <= 0) {
+            throw new IllegalArgumentException("Sync interval and batch size must be positive");
+        }
+        if (syncer != null) {
+            return;
+        }
+        syncer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "cvs-wallet-sync");
+            thread.setDaemon(true);
+            return thread;
+        });
+        syncer.scheduleWithFixedDelay(() -> syncBalances(batchSize), syncIntervalMs, syncIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void stop() {
+        if (syncer != null) {
+            syncer.shutdownNow();
+            syncer = null;
+        }
+    }
+
+    // Queues the entry and waits until it is written. Whoever holds the write lock inserts everything
+    // queued so far in one transaction, so callers waiting on the lock usually find their entry done.
+    private Money append(LedgerEntry entry) {
+        Pending pending = new Pending(entry);
+        queue.add(pending);
+        synchronized (writeLock) {
+            while (!pending.done) {
+                List<Pending> batch = new ArrayList<>();
+                Pending next;
+                while (batch.size() < maxBatch && (next = queue.poll()) != null) {
+                    batch.add(next);
+                }
+                write(batch);
+            }
+            return pending.balance;
+        }
+    }
+
+    private void write(List<Pending> batch) {
+        List<LedgerEntry> entries = new ArrayList<>(batch.size());
+        for (Pending pending : batch) {
+            entries.add(pending.entry);
+        }
+        try {
+            List<Money> balances = store.appendEntries(entries);
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).finish(balances.get(i));
+            }
+            logger.debug("Wallet ledger batch written: {} entries", batch.size());
+        } catch (SQLException e) {
+            if (batch.size() == 1) {
+                logger.error("Error writing wallet ledger entry {}: {}", batch.get(0).entry, e.getMessage());
+                batch.get(0).finish(null);
+                return;
+            }
+            // One bad entry should not fail the rest
+            for (Pending pending : batch) {
+                write(Collections.singletonList(pending));
+            }
+        }
+    }
+
+    // Only touched under writeLock
+    private static final class Pending {
+        final LedgerEntry entry;
+        boolean done;
+        Money balance;
+
+        Pending(LedgerEntry entry) {
+            this.entry = entry;
+        }
+
+        void finish(Money balance) {
+            this.balance = balance;
+            this.done = true;
+        }
+    }
+}
@@ -1,28 +1,46 @@
 package com.cvs.gui;
 
 import com.cvs.dao.IngredientDAO;
+import com.cvs.dao.LowStockMonitor;
 import com.cvs.models.CoffeeMenu;
+import com.cvs.models.DashboardStats;
 import com.cvs.models.Ingredient;
 import com.cvs.models.Order;
+import com.cvs.models.StockForecast;
 import com.cvs.service.AdminService;
+import com.cvs.service.OrderChangeFeed;
+import com.cvs.service.OrderEventBus;
 import com.cvs.service.ReportService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import javax.swing.*;
 import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 public class AdminDashboardUI extends JFrame {
+    private static final Logger logger = LoggerFactory.getLogger(AdminDashboardUI.class);
     private static final Color PRIMARY_COLOR = new Color(139, 69, 19);
     private static final Color SECONDARY_COLOR = new Color(210, 180, 140);
+    private static final int ORDERS_PAGE_SIZE = 200;
     
     private final AdminService adminService;
     private final ReportService reportService;
     private final IngredientDAO ingredientDAO;
+    private final DataLoader loader = new DataLoader();
+    private Runnable orderFeedHandle;
+    private Runnable orderEventsSubscription;
+    private Runnable lowStockSubscription;
     private JTabbedPane tabbedPane;
     private JTable menuTable, ordersTable, inventoryTable;
+    private OrdersTableModel ordersModel;
     private JLabel statsLabel;
+    private JLabel lowStockLabel;
 
     public AdminDashboardUI() {
         this.adminService = new AdminService();
@@ -30,6 +48,13 @@ public class AdminDashboardUI extends JFrame {
         this.ingredientDAO = new IngredientDAO();
         initializeUI();
         loadData();
+        // Orders table follows changes from this process and, through the feed, from other nodes
+        orderEventsSubscription = OrderEventBus.getInstance().subscribe(
+            event -> SwingUtilities.invokeLater(() -> ordersModel.apply(event)));
+        orderFeedHandle = OrderChangeFeed.getInstance().acquire();
+        // Alerts come from the inventory counters as an ingredient crosses its threshold
+        lowStockSubscription = LowStockMonitor.getInstance().subscribe(
+            forecast -> SwingUtilities.invokeLater(() -> onLowStock(forecast)));
     }
 
     private void initializeUI() {
@@ -150,16 +175,13 @@ public class AdminDashboardUI extends JFrame {
         JPanel panel = new JPanel(new BorderLayout());
         panel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
 
-        // Orders Table
-        String[] columns = {"Order ID", "User ID", "Amount", "Payment Status", "Order Status", "Time"};
-        DefaultTableModel ordersModel = new DefaultTableModel(columns, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) { return false; }
-        };
+        // Orders Table (paged in as the user scrolls)
+        ordersModel = new OrdersTableModel(adminService::getOrdersPage, ORDERS_PAGE_SIZE, loader);
         ordersTable = new JTable(ordersModel);
         ordersTable.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
         
         JScrollPane scrollPane = new JScrollPane(ordersTable);
+        ordersModel.attach(scrollPane);
         panel.add(scrollPane, BorderLayout.CENTER);
 
         // Buttons
@@ -179,18 +201,50 @@ public class AdminDashboardUI extends JFrame {
         return panel;
     }
 
+    // The four panels are independent: their queries run side by side on the loader's pool
+    // and each panel fills in as soon as its own query returns
     private void loadData() {
-        loadMenuData();
-        loadOrdersData();
-        loadInventoryData();
-        updateStats();
+        long started = System.nanoTime();
+        int[] remaining = {4};
+        Runnable panelLoaded = () -> {
+            if (--remaining[0] == 0) {
+                logger.info("Admin dashboard loaded in {} ms",
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+            }
+        };
+        loadPanel("menu", adminService::getAllCoffeeItems, this::showMenuData, panelLoaded);
+        ordersModel.reset(panelLoaded);
+        loadPanel("inventory", ingredientDAO::getAllIngredients, this::showInventoryData, panelLoaded);
+        loadPanel("stats", adminService::getDashboardStats, this::showStats, panelLoaded);
+    }
+
+    private <T> void loadPanel(String key, Callable<T> query, Consumer<T> show, Runnable loaded) {
+        loader.load(key, query, result -> {
+            show.accept(result);
+            loaded.run();
+        }, e -> {
+            logger.error("Error loading {}: {}", key, e.getMessage());
+            loaded.run();
+        });
+    }
+
+    @Override
+    public void dispose() {
+        orderFeedHandle.run();
+        orderEventsSubscription.run();
+        lowStockSubscription.run();
+        loader.cancelAll();
+        super.dispose();
     }
 
     private void loadMenuData() {
+        loader.load("menu", adminService::getAllCoffeeItems, this::showMenuData);
+    }
+
+    private void showMenuData(List<CoffeeMenu> menuItems) {
         DefaultTableModel model = (DefaultTableModel) menuTable.getModel();
         model.setRowCount(0);
         
-        List<CoffeeMenu> menuItems = adminService.getAllCoffeeItems();
         for (CoffeeMenu item : menuItems) {
             model.addRow(new Object[]{
                 item.getCoffeeId(),
@@ -203,35 +257,21 @@ public class AdminDashboardUI extends JFrame {
     }
 
     private void loadOrdersData() {
-        DefaultTableModel model = (DefaultTableModel) ordersTable.getModel();
-        model.setRowCount(0);
-        
-        List<Order> orders = adminService.getAllOrders();
-        for (Order order : orders) {
-            model.addRow(new Object[]{
-                order.getOrderId(),
-                order.getUserId(),
-                "$" + order.getTotalAmount(),
-                order.getPaymentStatus(),
-                order.getOrderStatus(),
-                order.getOrderTime()
-            });
-        }
+        ordersModel.reset();
     }
 
     private void updateStats() {
-        int totalOrders = adminService.getTotalOrders();
-        BigDecimal totalRevenue = adminService.getTotalRevenue();
-        int totalUsers = adminService.getAllUsers().size();
-        int totalMenuItems = adminService.getAllCoffeeItems().size();
+        loader.load("stats", adminService::getDashboardStats, this::showStats);
+    }
 
+    private void showStats(DashboardStats stats) {
         String statsHtml = String.format(
             "<html><h3>System Statistics</h3>" +
             "<p><b>Total Orders:</b> %d</p>" +
             "<p><b>Total Revenue:</b> $%s</p>" +
             "<p><b>Total Users:</b> %d</p>" +
             "<p><b>Menu Items:</b> %d</p></html>",
-            totalOrders, totalRevenue, totalUsers, totalMenuItems
+            stats.getTotalOrders(), stats.getTotalRevenue(), stats.getTotalUsers(), stats.getTotalMenuItems()
         );
         
         statsLabel.setText(statsHtml);
@@ -317,6 +357,10 @@ public class AdminDashboardUI extends JFrame {
         JScrollPane scrollPane = new JScrollPane(inventoryTable);
         panel.add(scrollPane, BorderLayout.CENTER);
 
+        lowStockLabel = new JLabel(" ");
+        lowStockLabel.setForeground(Color.RED);
+        panel.add(lowStockLabel, BorderLayout.NORTH);
+
         // Buttons
         JPanel buttonPanel = new JPanel(new FlowLayout());
         
@@ -355,24 +399,16 @@ public class AdminDashboardUI extends JFrame {
         buttonPanel.setBorder(BorderFactory.createTitledBorder("Generate Reports"));
         
         JButton dailyBtn = new JButton("Daily Report");
-        dailyBtn.addActionListener(e -> {
-            reportArea.setText(reportService.generateDailyReport());
-        });
+        dailyBtn.addActionListener(e -> loadReport(reportArea, reportService::generateDailyReport));
         
         JButton weeklyBtn = new JButton("Weekly Report");
-        weeklyBtn.addActionListener(e -> {
-            reportArea.setText(reportService.generateWeeklyReport());
-        });
+        weeklyBtn.addActionListener(e -> loadReport(reportArea, reportService::generateWeeklyReport));
         
         JButton monthlyBtn = new JButton("Monthly Report");
-        monthlyBtn.addActionListener(e -> {
-            reportArea.setText(reportService.generateMonthlyReport());
-        });
+        monthlyBtn.addActionListener(e -> loadReport(reportArea, reportService::generateMonthlyReport));
         
         JButton userStatsBtn = new JButton("User Statistics");
-        userStatsBtn.addActionListener(e -> {
-            reportArea.setText(reportService.generateUserStatistics());
-        });
+        userStatsBtn.addActionListener(e -> loadReport(reportArea, reportService::generateUserStatistics));
         
         buttonPanel.add(dailyBtn);
         buttonPanel.add(weeklyBtn);
@@ -384,11 +420,21 @@ public class AdminDashboardUI extends JFrame {
         return panel;
     }
 
+    // All report buttons share one key, so the last one clicked is the one that ends up shown
+    private void loadReport(JTextArea reportArea, Callable<String> report) {
+        reportArea.setText("Generating report...");
+        loader.load("report", report, reportArea::setText,
+            e -> reportArea.setText("Error generating report: " + e.getMessage()));
+    }
+
     private void loadInventoryData() {
+        loader.load("inventory", ingredientDAO::getAllIngredients, this::showInventoryData);
+    }
+
+    private void showInventoryData(List<Ingredient> ingredients) {
         DefaultTableModel model = (DefaultTableModel) inventoryTable.getModel();
         model.setRowCount(0);
         
-        List<Ingredient> ingredients = ingredientDAO.getAllIngredients();
         for (Ingredient ingredient : ingredients) {
             String status = ingredient.isLowStock() ? "LOW STOCK" : "OK";
             model.addRow(new Object[]{
@@ -437,15 +483,22 @@ public class AdminDashboardUI extends JFrame {
         }
     }
 
+    private void onLowStock(StockForecast forecast) {
+        lowStockLabel.setText("⚠️ Low stock: " + forecast);
+        loadInventoryData();
+    }
+
     private void showLowStockItems() {
-        List<Ingredient> lowStockItems = ingredientDAO.getLowStockIngredients();
+        loader.load("lowStock", () -> LowStockMonitor.getInstance().getLowStock(), this::showLowStockAlert);
+    }
+
+    private void showLowStockAlert(List<StockForecast> lowStockItems) {
         if (lowStockItems.isEmpty()) {
             JOptionPane.showMessageDialog(this, "No low stock items found!", "Low Stock Alert", JOptionPane.INFORMATION_MESSAGE);
         } else {
             StringBuilder message = new StringBuilder("⚠️ LOW STOCK ALERT:\n\n");
-            for (Ingredient item : lowStockItems) {
-                message.append(String.format("%s: %d %s (Min: %d)\n", 
-                    item.getName(), item.getQuantity(), item.getUnit(), item.getMinThreshold()));
+            for (StockForecast item : lowStockItems) {
+                message.append(item).append('\n');
             }
             JOptionPane.showMessageDialog(this, message.toString(), "Low Stock Alert", JOptionPane.WARNING_MESSAGE);
         }
@@ -496,7 +549,6 @@ public class AdminDashboardUI extends JFrame {
         if (selectedStatus != null) {
             if (adminService.updateOrderStatus(orderId, selectedStatus)) {
                 JOptionPane.showMessageDialog(this, "Order status updated successfully!", "Success", JOptionPane.INFORMATION_MESSAGE);
-                loadOrdersData();
             } else {
                 JOptionPane.showMessageDialog(this, "Failed to update order status", "Error", JOptionPane.ERROR_MESSAGE);
             }
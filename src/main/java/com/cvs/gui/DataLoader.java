@@ -0,0 +1,163 @@
+package com.cvs.gui;
+
+import com.cvs.utils.DBConnector;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.swing.*;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+// Runs dashboard queries off the EDT and hands the results back on it.
+// Loads are keyed: asking for a key that is already loading doesn't start a second query,
+// it just schedules one more run after the current one, so repeated refresh clicks
+// collapse into at most two queries.
+public class DataLoader {
+    private static final Logger logger = LoggerFactory.getLogger(DataLoader.class);
+    private static ExecutorService sharedExecutor;
+
+    private final ExecutorService executor;
+    private final Executor uiExecutor;
+    private final Map<String, Slot> slots = new HashMap<>();
+
+    private static final class Request<T> {
+        final Callable<T> query;
+        final Consumer<T> onSuccess;
+        final Consumer<Exception> onError;
+
+        Request(Callable<T> query, Consumer<T> onSuccess, Consumer<Exception> onError) {
+            this.query = query;
+            this.onSuccess = onSuccess;
+            this.onError = onError;
+        }
+    }
+
+    private static final class Slot {
+        Future<?> running;
+        Request<?> pending;
+    }
+
+    // Loader for Swing screens: shared worker pool, callbacks on the EDT.
+    // The pool is fixed-size so a burst of panel loads can't drain the connection pool.
+    public DataLoader() {
+        this(sharedExecutor(), SwingUtilities::invokeLater);
+    }
+
+    public DataLoader(ExecutorService executor, Executor uiExecutor) {
+        this.executor = executor;
+        this.uiExecutor = uiExecutor;
+    }
+
+    private static synchronized ExecutorService sharedExecutor() {
+        if (sharedExecutor == null) {
+            int threads = Math.max(1, DBConnector.getIntProperty("ui.loader.threads", 4));
+            AtomicInteger counter = new AtomicInteger();
+            sharedExecutor = Executors.newFixedThreadPool(threads, r -> {
+                Thread thread = new Thread(r, "cvs-loader-" + counter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return sharedExecutor;
+    }
+
+    public <T> void load(String key, Callable<T> query, Consumer<T> onSuccess) {
+        load(key, query, onSuccess, e -> logger.error("Error loading {}: {}", key, e.getMessage()));
+    }
+
+    public synchronized <T> void load(String key, Callable<T> query, Consumer<T> onSuccess, Consumer<Exception> onError) {
+        Request<T> request = new Request<>(query, onSuccess, onError);
+        Slot slot = slots.get(key);
+        if (slot != null) {
+            // Already loading: only the latest request is kept for the follow-up run
+            slot.pending = request;
+            return;
+        }
+        slot = new Slot();
+        slots.put(key, slot);
+        start(key, slot, request);
+    }
+
+    public synchronized boolean isLoading(String key) {
+        return slots.containsKey(key);
+    }
+
+    // Drops the key's pending run and discards the result of the one in flight
+    public synchronized void cancel(String key) {
+        Slot slot = slots.remove(key);
+        if (slot != null && slot.running != null) {
+            slot.running.cancel(true);
+        }
+    }
+
+    public synchronized void cancelAll() {
+        for (String key : new ArrayList<>(slots.keySet())) {
+            cancel(key);
+        }
+    }
+
+    private <T> void start(String key, Slot slot, Request<T> request) {
+        slot.running = executor.submit(() -> run(key, slot, request));
+    }
+
+    private <T> void run(String key, Slot slot, Request<T> request) {
+        T result = null;
+        Exception error = null;
+        try {
+            result = request.query.call();
+        } catch (Exception e) {
+            error = e;
+        }
+        if (finish(key, slot)) {
+            T value = result;
+            Exception failure = error;
+            uiExecutor.execute(() -> {
+                // Cancelled while the callback was queued
+                if (!isCurrent(key, slot)) {
+                    return;
+                }
+                settle(key, slot);
+                if (failure != null) {
+                    request.onError.accept(failure);
+                } else {
+                    request.onSuccess.accept(value);
+                }
+            });
+        }
+    }
+
+    // Returns false when the load was cancelled and its result must be dropped
+    private synchronized boolean finish(String key, Slot slot) {
+        if (slots.get(key) != slot) {
+            return false;
+        }
+        slot.running = null;
+        return true;
+    }
+
+    private synchronized boolean isCurrent(String key, Slot slot) {
+        return slots.get(key) == slot;
+    }
+
+    // Before delivering a result, either start the coalesced follow-up or free the key
+    private synchronized void settle(String key, Slot slot) {
+        if (slots.get(key) != slot) {
+            return;
+        }
+        Request<?> next = slot.pending;
+        slot.pending = null;
+        if (next != null) {
+            start(key, slot, next);
+        } else {
+            slots.remove(key);
+        }
+    }
+}
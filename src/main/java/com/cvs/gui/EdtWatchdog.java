@@ -0,0 +1,123 @@
+package com.cvs.gui;
+
+import com.cvs.utils.DBConnector;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.swing.*;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Posts a heartbeat to the EDT every interval and warns when one waits longer than the
+// threshold, logging what the EDT was doing at the time.
+public class EdtWatchdog {
+    private static final Logger logger = LoggerFactory.getLogger(EdtWatchdog.class);
+    private static final int STACK_DEPTH = 12;
+    private static EdtWatchdog installed;
+
+    private final long thresholdMs;
+    private final long intervalMs;
+    private final Executor edt;
+    private final AtomicLong stallCount = new AtomicLong();
+    private final AtomicLong longestStallMs = new AtomicLong();
+    private ScheduledExecutorService scheduler;
+
+    // Written by the checker, cleared by the heartbeat on the EDT
+    private volatile long beatPostedAt;
+    private volatile boolean stallReported;
+    private volatile Thread edtThread;
+
+    public EdtWatchdog(long thresholdMs, long intervalMs) {
+        this(thresholdMs, intervalMs, SwingUtilities::invokeLater);
+    }
+
+    public EdtWatchdog(long thresholdMs, long intervalMs, Executor edt) {
+        if (thresholdMs <= 0 || intervalMs <= 0) {
+            throw new IllegalArgumentException("Threshold and interval must be positive");
+        }
+        this.thresholdMs = thresholdMs;
+        this.intervalMs = intervalMs;
+        this.edt = edt;
+    }
+
+    // Starts the application-wide watchdog from configuration; later calls are no-ops
+    public static synchronized EdtWatchdog install() {
+        if (installed == null) {
+            installed = new EdtWatchdog(DBConnector.getLongProperty("ui.edt-watchdog.threshold", 250),
+                                        DBConnector.getLongProperty("ui.edt-watchdog.interval", 100));
+            installed.start();
+        }
+        return installed;
+    }
+
+    public synchronized void start() {
+        if (scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "cvs-edt-watchdog");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleAtFixedRate(this::check, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    private void check() {
+        long now = System.nanoTime();
+        long postedAt = beatPostedAt;
+        if (postedAt == 0) {
+            beatPostedAt = now;
+            edt.execute(this::heartbeat);
+            return;
+        }
+        long waitedMs = TimeUnit.NANOSECONDS.toMillis(now - postedAt);
+        if (waitedMs >= thresholdMs && !stallReported) {
+            stallReported = true;
+            stallCount.incrementAndGet();
+            logger.warn("EDT stalled for {} ms{}", waitedMs, describeEdt());
+        }
+    }
+
+    private void heartbeat() {
+        edtThread = Thread.currentThread();
+        long waitedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - beatPostedAt);
+        longestStallMs.accumulateAndGet(waitedMs, Math::max);
+        if (stallReported) {
+            logger.warn("EDT responsive again after {} ms", waitedMs);
+            stallReported = false;
+        }
+        beatPostedAt = 0;
+    }
+
+    private String describeEdt() {
+        Thread thread = edtThread;
+        if (thread == null) {
+            return "";
+        }
+        StringBuilder sb = new StringBuilder(" in ").append(thread.getName()).append(':');
+        StackTraceElement[] stack = thread.getStackTrace();
+        for (int i = 0; i < Math.min(STACK_DEPTH, stack.length); i++) {
+            sb.append("\n    at ").append(stack[i]);
+        }
+        return sb.toString();
+    }
+
+    public long getStallCount() {
+        return stallCount.get();
+    }
+
+    // Longest wait of any heartbeat that has been answered so far
+    public long getLongestStallMs() {
+        return longestStallMs.get();
+    }
+}
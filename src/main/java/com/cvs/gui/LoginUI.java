@@ -153,6 +153,7 @@ public class LoginUI extends JFrame {
     }
 
     public static void main(String[] args) {
+        EdtWatchdog.install();
         SwingUtilities.invokeLater(() -> new LoginUI().setVisible(true));
     }
 }
\ No newline at end of file
@@ -206,6 +206,7 @@ public class MainUI extends JFrame {
     }
 
     public static void main(String[] args) {
+        EdtWatchdog.install();
         SwingUtilities.invokeLater(() -> {
             System.out.println("🚀 Starting Coffee Vending System...");
             System.out.println("📋 Phase 0: JDBC Initialization");
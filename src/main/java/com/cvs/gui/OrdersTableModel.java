@@ -0,0 +1,179 @@
+package com.cvs.gui;
+
+import com.cvs.models.Order;
+import com.cvs.models.OrderEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.swing.*;
+import javax.swing.table.AbstractTableModel;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+// Orders table that pulls keyset pages off the EDT as the user scrolls, instead of
+// loading the whole orders table up front. Pages load through the dashboard's DataLoader,
+// so they share its bounded pool with the other panels.
+public class OrdersTableModel extends AbstractTableModel {
+    private static final Logger logger = LoggerFactory.getLogger(OrdersTableModel.class);
+    private static final String[] COLUMNS = {"Order ID", "User ID", "Amount", "Payment Status", "Order Status", "Time"};
+    private static final int PREFETCH_ROWS = 50;
+    private static final String PAGE_KEY = "ordersPage";
+
+    public interface PageSource {
+        List<Order> fetch(LocalDateTime beforeTime, int beforeId, int limit);
+    }
+
+    private final PageSource source;
+    private final int pageSize;
+    private final DataLoader loader;
+    private final List<Order> rows = new ArrayList<>();
+    private boolean loading;
+    private boolean exhausted;
+
+    public OrdersTableModel(PageSource source, int pageSize, DataLoader loader) {
+        this.source = source;
+        this.pageSize = pageSize;
+        this.loader = loader;
+    }
+
+    // Loads the next page when the viewport gets near the last loaded row
+    public void attach(JScrollPane scrollPane) {
+        JScrollBar bar = scrollPane.getVerticalScrollBar();
+        bar.addAdjustmentListener(e -> {
+            int rowHeight = Math.max(1, ((JTable) scrollPane.getViewport().getView()).getRowHeight());
+            if (bar.getValue() + bar.getVisibleAmount() >= bar.getMaximum() - PREFETCH_ROWS * rowHeight) {
+                loadMore();
+            }
+        });
+    }
+
+    public void reset() {
+        reset(() -> { });
+    }
+
+    // Reloads from the newest order; onFirstPage runs once the first page is in (or failed)
+    public void reset(Runnable onFirstPage) {
+        // Drops any page still in flight for the old list
+        loader.cancel(PAGE_KEY);
+        loading = false;
+        exhausted = false;
+        int size = rows.size();
+        rows.clear();
+        if (size > 0) {
+            fireTableRowsDeleted(0, size - 1);
+        }
+        loadPage(onFirstPage);
+    }
+
+    public void loadMore() {
+        loadPage(() -> { });
+    }
+
+    private void loadPage(Runnable onLoaded) {
+        if (loading || exhausted) {
+            return;
+        }
+        loading = true;
+        Order last = rows.isEmpty() ? null : rows.get(rows.size() - 1);
+        LocalDateTime beforeTime = last != null ? last.getOrderTime() : null;
+        int beforeId = last != null ? last.getOrderId() : 0;
+
+        loader.load(PAGE_KEY, () -> source.fetch(beforeTime, beforeId, pageSize), page -> {
+            loading = false;
+            appendPage(page);
+            onLoaded.run();
+        }, e -> {
+            loading = false;
+            logger.error("Error loading orders page: {}", e.getMessage());
+            onLoaded.run();
+        });
+    }
+
+    private void appendPage(List<Order> page) {
+        if (page.size() < pageSize) {
+            exhausted = true;
+        }
+        if (!page.isEmpty()) {
+            int first = rows.size();
+            rows.addAll(page);
+            fireTableRowsInserted(first, rows.size() - 1);
+        }
+    }
+
+    // Applies an order event in place. New orders go on top only when they are newer than the
+    // first row; anything further down is picked up by the page loads as the user scrolls.
+    public void apply(OrderEvent event) {
+        int row = indexOf(event.getOrderId());
+        Order order = event.getOrder();
+        if (row >= 0) {
+            if (order != null) {
+                rows.set(row, order);
+            } else {
+                Order current = rows.get(row);
+                if (event.getOrderStatus() != null) {
+                    current.setOrderStatus(event.getOrderStatus());
+                }
+                if (event.getPaymentStatus() != null) {
+                    current.setPaymentStatus(event.getPaymentStatus());
+                }
+            }
+            fireTableRowsUpdated(row, row);
+        } else if (order != null && belongsOnTop(order)) {
+            rows.add(0, order);
+            fireTableRowsInserted(0, 0);
+        }
+    }
+
+    private boolean belongsOnTop(Order order) {
+        if (rows.isEmpty()) {
+            // While the first page is loading it will bring the order with it
+            return exhausted && !loading;
+        }
+        Order top = rows.get(0);
+        int byTime = order.getOrderTime().compareTo(top.getOrderTime());
+        return byTime > 0 || (byTime == 0 && order.getOrderId() > top.getOrderId());
+    }
+
+    private int indexOf(int orderId) {
+        for (int i = 0; i < rows.size(); i++) {
+            if (rows.get(i).getOrderId() == orderId) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public Order getOrderAt(int row) {
+        return rows.get(row);
+    }
+
+    @Override
+    public int getRowCount() {
+        return rows.size();
+    }
+
+    @Override
+    public int getColumnCount() {
+        return COLUMNS.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return COLUMNS[column];
+    }
+
+    @Override
+    public Object getValueAt(int rowIndex, int columnIndex) {
+        Order order = rows.get(rowIndex);
+        switch (columnIndex) {
+            case 0: return order.getOrderId();
+            case 1: return order.getUserId();
+            case 2: return "$" + order.getTotalAmount();
+            case 3: return order.getPaymentStatus();
+            case 4: return order.getOrderStatus();
+            case 5: return order.getOrderTime();
+            default: return null;
+        }
+    }
+}
@@ -11,6 +11,7 @@ import java.awt.*;
 import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.UUID;
 
 public class UserDashboardUI extends JFrame {
     private static final Color PRIMARY_COLOR = new Color(139, 69, 19);
@@ -20,10 +21,14 @@ public class UserDashboardUI extends JFrame {
     private final UserService userService;
     private final OrderService orderService;
     private final CoffeeMenuDAO coffeeMenuDAO;
+    private final DataLoader loader = new DataLoader();
     
     private JLabel balanceLabel;
     private JTable menuTable;
     private List<OrderItem> cart;
+    private List<CoffeeMenu> menuItems;
+    // Sent with every checkout attempt of the current cart, so a retry can't place it twice
+    private String checkoutKey = UUID.randomUUID().toString();
     private JLabel cartTotalLabel;
     private JTextArea cartArea;
 
@@ -33,6 +38,7 @@ public class UserDashboardUI extends JFrame {
         this.orderService = new OrderService();
         this.coffeeMenuDAO = new CoffeeMenuDAO();
         this.cart = new ArrayList<>();
+        this.menuItems = new ArrayList<>();
         initializeUI();
         loadMenuData();
         updateBalanceDisplay();
@@ -168,11 +174,21 @@ public class UserDashboardUI extends JFrame {
         return panel;
     }
 
+    @Override
+    public void dispose() {
+        loader.cancelAll();
+        super.dispose();
+    }
+
     private void loadMenuData() {
+        loader.load("menu", coffeeMenuDAO::getAvailableCoffeeItems, this::showMenuData);
+    }
+
+    private void showMenuData(List<CoffeeMenu> items) {
         DefaultTableModel model = (DefaultTableModel) menuTable.getModel();
         model.setRowCount(0);
         
-        List<CoffeeMenu> menuItems = coffeeMenuDAO.getAvailableCoffeeItems();
+        menuItems = items;
         for (CoffeeMenu item : menuItems) {
             model.addRow(new Object[]{
                 item.getName(),
@@ -183,7 +199,10 @@ public class UserDashboardUI extends JFrame {
     }
 
     private void updateBalanceDisplay() {
-        User updatedUser = userService.getUserById(currentUser.getUserId());
+        loader.load("balance", () -> userService.getUserById(currentUser.getUserId()), this::showBalance);
+    }
+
+    private void showBalance(User updatedUser) {
         if (updatedUser != null) {
             currentUser.setBalance(updatedUser.getBalance());
             balanceLabel.setText("Balance: $" + currentUser.getBalance());
@@ -218,7 +237,7 @@ public class UserDashboardUI extends JFrame {
             return;
         }
 
-        List<CoffeeMenu> menuItems = coffeeMenuDAO.getAvailableCoffeeItems();
+        // Resolve against the rows the table was filled from
         CoffeeMenu selectedCoffee = menuItems.get(selectedRow);
 
         // Create dialog for customization
@@ -270,9 +289,8 @@ public class UserDashboardUI extends JFrame {
             item.setMilkLevel((OrderItem.MilkLevel) milkCombo.getSelectedItem());
             item.setQuantity((Integer) quantitySpinner.getValue());
             
-            BigDecimal itemPrice = orderService.calculateItemPrice(
-                item.getCoffeeId(), item.getSize(), item.getSugarLevel(), item.getMilkLevel());
-            item.setItemPrice(itemPrice.multiply(new BigDecimal(item.getQuantity())));
+            item.setItemPriceMoney(orderService.calculateLinePrice(item.getCoffeeId(), item.getSize(),
+                item.getSugarLevel(), item.getMilkLevel(), item.getQuantity()));
             
             cart.add(item);
             updateCartDisplay();
@@ -293,13 +311,15 @@ public class UserDashboardUI extends JFrame {
     }
 
     private void updateCartDisplay() {
+        // A changed cart is a new submission
+        checkoutKey = UUID.randomUUID().toString();
         StringBuilder sb = new StringBuilder();
-        BigDecimal total = BigDecimal.ZERO;
+        Money total = Money.ZERO;
         
         for (int i = 0; i < cart.size(); i++) {
             OrderItem item = cart.get(i);
             sb.append(String.format("%d. %s\n", i + 1, item.toString()));
-            total = total.add(item.getItemPrice());
+            total = total.plus(item.getItemPriceMoney());
         }
         
         if (cartArea != null) {
@@ -314,30 +334,28 @@ public class UserDashboardUI extends JFrame {
             return;
         }
 
-        Order order = orderService.createOrder(currentUser.getUserId(), new ArrayList<>(cart));
+        Order order = orderService.checkout(currentUser.getUserId(), new ArrayList<>(cart), Payment.PaymentType.WALLET,
+                                             checkoutKey);
         if (order != null) {
-            boolean paymentSuccess = orderService.processPayment(order.getOrderId(), Payment.PaymentType.WALLET);
-            if (paymentSuccess) {
-                // Show receipt
-                new ReceiptUI(this, order).setVisible(true);
-                JOptionPane.showMessageDialog(this, 
-                    "Order placed successfully!\nOrder ID: " + order.getOrderId(), 
-                    "Success", 
-                    JOptionPane.INFORMATION_MESSAGE);
-                cart.clear();
-                updateCartDisplay();
-                updateBalanceDisplay();
-            } else {
-                JOptionPane.showMessageDialog(this, "Payment failed. Please check your balance.", "Error", JOptionPane.ERROR_MESSAGE);
-            }
+            // Show receipt
+            new ReceiptUI(this, order).setVisible(true);
+            JOptionPane.showMessageDialog(this, 
+                "Order placed successfully!\nOrder ID: " + order.getOrderId(), 
+                "Success", 
+                JOptionPane.INFORMATION_MESSAGE);
+            cart.clear();
+            updateCartDisplay();
+            updateBalanceDisplay();
         } else {
-            JOptionPane.showMessageDialog(this, "Failed to create order. Please check your balance.", "Error", JOptionPane.ERROR_MESSAGE);
+            JOptionPane.showMessageDialog(this, "Checkout failed. Please check your balance, or some items may be out of stock.", "Error", JOptionPane.ERROR_MESSAGE);
         }
     }
 
     private void showOrderHistory() {
-        List<Order> userOrders = orderService.getUserOrders(currentUser.getUserId());
-        
+        loader.load("history", () -> orderService.getUserOrders(currentUser.getUserId()), this::showOrderHistoryDialog);
+    }
+
+    private void showOrderHistoryDialog(List<Order> userOrders) {
         if (userOrders.isEmpty()) {
             JOptionPane.showMessageDialog(this, "No orders found", "Order History", JOptionPane.INFORMATION_MESSAGE);
             return;
@@ -374,10 +392,11 @@ public class UserDashboardUI extends JFrame {
             int selectedRow = ordersTable.getSelectedRow();
             if (selectedRow != -1) {
                 int orderId = (Integer) ordersTable.getValueAt(selectedRow, 0);
-                Order order = orderService.getOrderById(orderId);
-                if (order != null) {
-                    new ReceiptUI(this, order).setVisible(true);
-                }
+                loader.load("receipt", () -> orderService.getOrderById(orderId), order -> {
+                    if (order != null) {
+                        new ReceiptUI(this, order).setVisible(true);
+                    }
+                });
             } else {
                 JOptionPane.showMessageDialog(historyDialog, "Please select an order", "Error", JOptionPane.ERROR_MESSAGE);
             }
@@ -0,0 +1,29 @@
+package com.cvs.models;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+public class BalanceSummary {
+    private final long userCount;
+    private final BigDecimal totalBalance;
+
+    public BalanceSummary(long userCount, BigDecimal totalBalance) {
+        this.userCount = userCount;
+        this.totalBalance = totalBalance != null ? totalBalance : BigDecimal.ZERO;
+    }
+
+    public long getUserCount() { return userCount; }
+
+    public BigDecimal getTotalBalance() { return totalBalance; }
+
+    public BigDecimal getAverageBalance() {
+        return userCount > 0
+            ? totalBalance.divide(BigDecimal.valueOf(userCount), 2, RoundingMode.HALF_UP)
+            : BigDecimal.ZERO;
+    }
+
+    @Override
+    public String toString() {
+        return "BalanceSummary{userCount=" + userCount + ", totalBalance=" + totalBalance + "}";
+    }
+}
@@ -6,7 +6,7 @@ import java.time.LocalDateTime;
 public class CoffeeMenu {
     private int coffeeId;
     private String name;
-    private BigDecimal price;
+    private Money price;
     private String description;
     private boolean available;
     private LocalDateTime createdAt;
@@ -21,7 +21,7 @@ public class CoffeeMenu {
             throw new IllegalArgumentException("Price must be positive");
         }
         this.name = name.trim();
-        this.price = price;
+        this.price = Money.of(price);
         this.description = description;
         this.available = true;
     }
@@ -29,7 +29,7 @@ public class CoffeeMenu {
     public CoffeeMenu(int coffeeId, String name, BigDecimal price, String description, boolean available) {
         this.coffeeId = coffeeId;
         this.name = name;
-        this.price = price;
+        this.price = Money.ofNullable(price);
         this.description = description;
         this.available = available;
     }
@@ -41,14 +41,16 @@ public class CoffeeMenu {
     public String getName() { return name; }
     public void setName(String name) { this.name = name; }
 
-    public BigDecimal getPrice() { return price; }
+    public BigDecimal getPrice() { return price != null ? price.toBigDecimal() : null; }
     public void setPrice(BigDecimal price) { 
         if (price == null || price.compareTo(BigDecimal.ZERO) <= 0) {
             throw new IllegalArgumentException("Price must be positive");
         }
-        this.price = price; 
+        this.price = Money.of(price); 
     }
 
+    public Money getPriceMoney() { return price; }
+
     public String getDescription() { return description; }
     public void setDescription(String description) { this.description = description; }
 
@@ -0,0 +1,30 @@
+package com.cvs.models;
+
+import java.math.BigDecimal;
+
+public class CoffeeSales {
+    private final int coffeeId;
+    private final long orderCount;
+    private final long quantity;
+    private final BigDecimal revenue;
+
+    public CoffeeSales(int coffeeId, long orderCount, long quantity, BigDecimal revenue) {
+        this.coffeeId = coffeeId;
+        this.orderCount = orderCount;
+        this.quantity = quantity;
+        this.revenue = revenue;
+    }
+
+    public int getCoffeeId() { return coffeeId; }
+
+    public long getOrderCount() { return orderCount; }
+
+    public long getQuantity() { return quantity; }
+
+    public BigDecimal getRevenue() { return revenue; }
+
+    @Override
+    public String toString() {
+        return "CoffeeSales{coffeeId=" + coffeeId + ", quantity=" + quantity + ", revenue=" + revenue + "}";
+    }
+}
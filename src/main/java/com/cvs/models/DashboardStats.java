@@ -0,0 +1,31 @@
+package com.cvs.models;
+
+import java.math.BigDecimal;
+
+public class DashboardStats {
+    private final long totalOrders;
+    private final BigDecimal totalRevenue;
+    private final long totalUsers;
+    private final long totalMenuItems;
+
+    public DashboardStats(long totalOrders, BigDecimal totalRevenue, long totalUsers, long totalMenuItems) {
+        this.totalOrders = totalOrders;
+        this.totalRevenue = totalRevenue != null ? totalRevenue : BigDecimal.ZERO;
+        this.totalUsers = totalUsers;
+        this.totalMenuItems = totalMenuItems;
+    }
+
+    public long getTotalOrders() { return totalOrders; }
+
+    public BigDecimal getTotalRevenue() { return totalRevenue; }
+
+    public long getTotalUsers() { return totalUsers; }
+
+    public long getTotalMenuItems() { return totalMenuItems; }
+
+    @Override
+    public String toString() {
+        return "DashboardStats{totalOrders=" + totalOrders + ", totalRevenue=" + totalRevenue +
+               ", totalUsers=" + totalUsers + ", totalMenuItems=" + totalMenuItems + "}";
+    }
+}
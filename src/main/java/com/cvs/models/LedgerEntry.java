@@ -0,0 +1,52 @@
+package com.cvs.models;
+
+import java.time.LocalDateTime;
+
+public class LedgerEntry {
+    public enum EntryType {
+        TOP_UP, PAYMENT, ADJUSTMENT
+    }
+
+    private long entryId;
+    private final int userId;
+    // Signed: negative for money leaving the wallet
+    private final Money amount;
+    private final EntryType entryType;
+    private final Integer orderId;
+    private LocalDateTime createdAt;
+
+    public LedgerEntry(int userId, Money amount, EntryType entryType, Integer orderId) {
+        if (amount == null || entryType == null) {
+            throw new IllegalArgumentException("Amount and entry type cannot be null");
+        }
+        this.userId = userId;
+        this.amount = amount;
+        this.entryType = entryType;
+        this.orderId = orderId;
+    }
+
+    public LedgerEntry(long entryId, int userId, Money amount, EntryType entryType, Integer orderId,
+                       LocalDateTime createdAt) {
+        this(userId, amount, entryType, orderId);
+        this.entryId = entryId;
+        this.createdAt = createdAt;
+    }
+
+    public long getEntryId() { return entryId; }
+
+    public int getUserId() { return userId; }
+
+    public Money getAmount() { return amount; }
+
+    public EntryType getEntryType() { return entryType; }
+
+    public Integer getOrderId() { return orderId; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+
+    @Override
+    public String toString() {
+        return "LedgerEntry{entryId=" + entryId + ", userId=" + userId + ", amount=" + amount +
+               ", type=" + entryType + (orderId != null ? ", orderId=" + orderId : "") + "}";
+    }
+}
@@ -0,0 +1,102 @@
+package com.cvs.models;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+// Immutable amount held as a whole number of cents, so sums and comparisons on the pricing and
+// reporting paths are plain long arithmetic. BigDecimal input is rounded HALF_UP to the cent,
+// the same rule used everywhere else; the database columns stay DECIMAL(…, 2).
+public final class Money implements Comparable<Money> {
+    public static final Money ZERO = new Money(0);
+
+    private final long cents;
+
+    private Money(long cents) {
+        this.cents = cents;
+    }
+
+    public static Money ofCents(long cents) {
+        return cents == 0 ? ZERO : new Money(cents);
+    }
+
+    public static Money of(BigDecimal amount) {
+        if (amount == null) {
+            throw new IllegalArgumentException("Amount cannot be null");
+        }
+        // DECIMAL(…, 2) columns come back at scale 2 already, so this is normally a plain read
+        BigDecimal scaled = amount.scale() == 2 ? amount : amount.setScale(2, RoundingMode.HALF_UP);
+        return ofCents(scaled.unscaledValue().longValueExact());
+    }
+
+    // Null-tolerant conversion for nullable model fields
+    public static Money ofNullable(BigDecimal amount) {
+        return amount != null ? of(amount) : null;
+    }
+
+    public static Money parse(String amount) {
+        if (amount == null || amount.trim().isEmpty()) {
+            throw new IllegalArgumentException("Amount cannot be empty");
+        }
+        return of(new BigDecimal(amount.trim()));
+    }
+
+    public long getCents() { return cents; }
+
+    public Money plus(Money other) {
+        return ofCents(Math.addExact(cents, other.cents));
+    }
+
+    public Money minus(Money other) {
+        return ofCents(Math.subtractExact(cents, other.cents));
+    }
+
+    public Money times(long factor) {
+        return ofCents(Math.multiplyExact(cents, factor));
+    }
+
+    // Divides and rounds HALF_UP to the cent, like BigDecimal.divide(…, 2, HALF_UP)
+    public Money dividedBy(long divisor) {
+        if (divisor == 0) {
+            throw new IllegalArgumentException("Cannot divide by zero");
+        }
+        long quotient = cents / divisor;
+        long remainder = cents % divisor;
+        if (Math.abs(remainder) * 2 >= Math.abs(divisor)) {
+            quotient += Long.signum(cents) * Long.signum(divisor);
+        }
+        return ofCents(quotient);
+    }
+
+    public boolean isZero() { return cents == 0; }
+
+    public boolean isPositive() { return cents > 0; }
+
+    public boolean isNegative() { return cents < 0; }
+
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(cents, 2);
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(cents, other.cents);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof Money && ((Money) o).cents == cents;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(cents);
+    }
+
+    // Same text as the scale-2 BigDecimal, e.g. "3.50" or "-0.05"
+    @Override
+    public String toString() {
+        long abs = Math.abs(cents);
+        long fraction = abs % 100;
+        return (cents < 0 ? "-" : "") + abs / 100 + (fraction < 10 ? ".0" : ".") + fraction;
+    }
+}
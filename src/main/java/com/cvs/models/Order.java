@@ -10,19 +10,24 @@ public class Order {
 
     private int orderId;
     private int userId;
-    private BigDecimal totalAmount;
+    private Money totalAmount;
     private PaymentStatus paymentStatus;
     private OrderStatus orderStatus;
     private LocalDateTime orderTime;
+    private LocalDateTime updatedAt;
     private List<OrderItem> orderItems;
 
     public Order() {}
 
     public Order(int userId, BigDecimal totalAmount) {
+        this(userId, Money.ofNullable(totalAmount));
+    }
+
+    public Order(int userId, Money totalAmount) {
         if (userId <= 0) {
             throw new IllegalArgumentException("User ID must be positive");
         }
-        if (totalAmount == null || totalAmount.compareTo(BigDecimal.ZERO) <= 0) {
+        if (totalAmount == null || !totalAmount.isPositive()) {
             throw new IllegalArgumentException("Total amount must be positive");
         }
         this.userId = userId;
@@ -38,8 +43,11 @@ public class Order {
     public int getUserId() { return userId; }
     public void setUserId(int userId) { this.userId = userId; }
 
-    public BigDecimal getTotalAmount() { return totalAmount; }
-    public void setTotalAmount(BigDecimal totalAmount) { this.totalAmount = totalAmount; }
+    public BigDecimal getTotalAmount() { return totalAmount != null ? totalAmount.toBigDecimal() : null; }
+    public void setTotalAmount(BigDecimal totalAmount) { this.totalAmount = Money.ofNullable(totalAmount); }
+
+    public Money getTotalMoney() { return totalAmount; }
+    public void setTotalMoney(Money totalAmount) { this.totalAmount = totalAmount; }
 
     public PaymentStatus getPaymentStatus() { return paymentStatus; }
     public void setPaymentStatus(PaymentStatus paymentStatus) { this.paymentStatus = paymentStatus; }
@@ -50,6 +58,10 @@ public class Order {
     public LocalDateTime getOrderTime() { return orderTime; }
     public void setOrderTime(LocalDateTime orderTime) { this.orderTime = orderTime; }
 
+    // Only populated by change-feed reads
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+
     public List<OrderItem> getOrderItems() { return orderItems; }
     public void setOrderItems(List<OrderItem> orderItems) { this.orderItems = orderItems; }
 
@@ -0,0 +1,55 @@
+package com.cvs.models;
+
+// A change to one order. CREATED and CHANGED carry the full row; the two status events
+// only carry the statuses that changed (null means unchanged).
+public class OrderEvent {
+    public enum Type { CREATED, PAYMENT_UPDATED, STATUS_UPDATED, CHANGED }
+
+    private final Type type;
+    private final int orderId;
+    private final Order order;
+    private final Order.OrderStatus orderStatus;
+    private final Order.PaymentStatus paymentStatus;
+
+    private OrderEvent(Type type, int orderId, Order order, Order.OrderStatus orderStatus,
+                       Order.PaymentStatus paymentStatus) {
+        this.type = type;
+        this.orderId = orderId;
+        this.order = order;
+        this.orderStatus = orderStatus;
+        this.paymentStatus = paymentStatus;
+    }
+
+    public static OrderEvent created(Order order) {
+        return new OrderEvent(Type.CREATED, order.getOrderId(), order, order.getOrderStatus(), order.getPaymentStatus());
+    }
+
+    // Row read back from the database by the change feed
+    public static OrderEvent changed(Order order) {
+        return new OrderEvent(Type.CHANGED, order.getOrderId(), order, order.getOrderStatus(), order.getPaymentStatus());
+    }
+
+    public static OrderEvent statusUpdated(int orderId, Order.OrderStatus orderStatus) {
+        return new OrderEvent(Type.STATUS_UPDATED, orderId, null, orderStatus, null);
+    }
+
+    public static OrderEvent paymentUpdated(int orderId, Order.PaymentStatus paymentStatus, Order.OrderStatus orderStatus) {
+        return new OrderEvent(Type.PAYMENT_UPDATED, orderId, null, orderStatus, paymentStatus);
+    }
+
+    public Type getType() { return type; }
+
+    public int getOrderId() { return orderId; }
+
+    public Order getOrder() { return order; }
+
+    public Order.OrderStatus getOrderStatus() { return orderStatus; }
+
+    public Order.PaymentStatus getPaymentStatus() { return paymentStatus; }
+
+    @Override
+    public String toString() {
+        return "OrderEvent{type=" + type + ", orderId=" + orderId + ", orderStatus=" + orderStatus +
+               ", paymentStatus=" + paymentStatus + "}";
+    }
+}
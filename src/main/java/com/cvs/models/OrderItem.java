@@ -14,7 +14,7 @@ public class OrderItem {
     private SugarLevel sugarLevel;
     private MilkLevel milkLevel;
     private Size size;
-    private BigDecimal itemPrice;
+    private Money itemPrice;
     private String coffeeName; // For display purposes
 
     public OrderItem() {}
@@ -27,7 +27,7 @@ public class OrderItem {
         this.sugarLevel = sugarLevel;
         this.milkLevel = milkLevel;
         this.size = size;
-        this.itemPrice = itemPrice;
+        this.itemPrice = Money.ofNullable(itemPrice);
     }
 
     // Getters and Setters
@@ -52,8 +52,12 @@ public class OrderItem {
     public Size getSize() { return size; }
     public void setSize(Size size) { this.size = size; }
 
-    public BigDecimal getItemPrice() { return itemPrice; }
-    public void setItemPrice(BigDecimal itemPrice) { this.itemPrice = itemPrice; }
+    public BigDecimal getItemPrice() { return itemPrice != null ? itemPrice.toBigDecimal() : null; }
+    public void setItemPrice(BigDecimal itemPrice) { this.itemPrice = Money.ofNullable(itemPrice); }
+
+    // Price of the whole line (unit price times quantity)
+    public Money getItemPriceMoney() { return itemPrice; }
+    public void setItemPriceMoney(Money itemPrice) { this.itemPrice = itemPrice; }
 
     public String getCoffeeName() { return coffeeName; }
     public void setCoffeeName(String coffeeName) { this.coffeeName = coffeeName; }
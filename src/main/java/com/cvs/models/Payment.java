@@ -9,7 +9,7 @@ public class Payment {
 
     private int paymentId;
     private int orderId;
-    private BigDecimal amount;
+    private Money amount;
     private PaymentType paymentType;
     private PaymentStatus paymentStatus;
     private String transactionId;
@@ -18,10 +18,14 @@ public class Payment {
     public Payment() {}
 
     public Payment(int orderId, BigDecimal amount, PaymentType paymentType) {
+        this(orderId, Money.ofNullable(amount), paymentType);
+    }
+
+    public Payment(int orderId, Money amount, PaymentType paymentType) {
         if (orderId <= 0) {
             throw new IllegalArgumentException("Order ID must be positive");
         }
-        if (amount == null || amount.compareTo(BigDecimal.ZERO) <= 0) {
+        if (amount == null || !amount.isPositive()) {
             throw new IllegalArgumentException("Amount must be positive");
         }
         if (paymentType == null) {
@@ -40,8 +44,11 @@ public class Payment {
     public int getOrderId() { return orderId; }
     public void setOrderId(int orderId) { this.orderId = orderId; }
 
-    public BigDecimal getAmount() { return amount; }
-    public void setAmount(BigDecimal amount) { this.amount = amount; }
+    public BigDecimal getAmount() { return amount != null ? amount.toBigDecimal() : null; }
+    public void setAmount(BigDecimal amount) { this.amount = Money.ofNullable(amount); }
+
+    public Money getAmountMoney() { return amount; }
+    public void setAmountMoney(Money amount) { this.amount = amount; }
 
     public PaymentType getPaymentType() { return paymentType; }
     public void setPaymentType(PaymentType paymentType) { this.paymentType = paymentType; }
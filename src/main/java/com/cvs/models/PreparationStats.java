@@ -0,0 +1,52 @@
+package com.cvs.models;
+
+import java.util.Arrays;
+
+public class PreparationStats {
+    private final int queueDepth;
+    private final long ordersSubmitted;
+    private final long ordersRejected;
+    private final long ordersCompleted;
+    private final double averageWaitMs;
+    private final long maxWaitMs;
+    private final long[] itemsPerStation;
+    private final double[] stationUtilization;
+
+    public PreparationStats(int queueDepth, long ordersSubmitted, long ordersRejected, long ordersCompleted,
+                            double averageWaitMs, long maxWaitMs, long[] itemsPerStation, double[] stationUtilization) {
+        this.queueDepth = queueDepth;
+        this.ordersSubmitted = ordersSubmitted;
+        this.ordersRejected = ordersRejected;
+        this.ordersCompleted = ordersCompleted;
+        this.averageWaitMs = averageWaitMs;
+        this.maxWaitMs = maxWaitMs;
+        this.itemsPerStation = itemsPerStation;
+        this.stationUtilization = stationUtilization;
+    }
+
+    public int getQueueDepth() { return queueDepth; }
+
+    public long getOrdersSubmitted() { return ordersSubmitted; }
+
+    public long getOrdersRejected() { return ordersRejected; }
+
+    public long getOrdersCompleted() { return ordersCompleted; }
+
+    // Time from submission until the order's first item reached a station
+    public double getAverageWaitMs() { return averageWaitMs; }
+
+    public long getMaxWaitMs() { return maxWaitMs; }
+
+    public long[] getItemsPerStation() { return itemsPerStation.clone(); }
+
+    // Fraction of time since start() each station spent brewing, 0.0 to 1.0
+    public double[] getStationUtilization() { return stationUtilization.clone(); }
+
+    @Override
+    public String toString() {
+        return String.format("PreparationStats{queueDepth=%d, submitted=%d, rejected=%d, completed=%d, " +
+                             "avgWaitMs=%.1f, maxWaitMs=%d, itemsPerStation=%s, utilization=%s}",
+                             queueDepth, ordersSubmitted, ordersRejected, ordersCompleted, averageWaitMs, maxWaitMs,
+                             Arrays.toString(itemsPerStation), Arrays.toString(stationUtilization));
+    }
+}
@@ -0,0 +1,55 @@
+package com.cvs.models;
+
+// One line of a recipe: how much of an ingredient a single cup uses. A coffeeId of 0 applies to
+// every coffee; a null sugar or milk level matches any level.
+public class RecipeIngredient {
+    private int coffeeId;
+    private OrderItem.Size size;
+    private OrderItem.SugarLevel sugarLevel;
+    private OrderItem.MilkLevel milkLevel;
+    private int ingredientId;
+    private int amount;
+
+    public RecipeIngredient() {}
+
+    public RecipeIngredient(int coffeeId, OrderItem.Size size, OrderItem.SugarLevel sugarLevel,
+                            OrderItem.MilkLevel milkLevel, int ingredientId, int amount) {
+        this.coffeeId = coffeeId;
+        this.size = size;
+        this.sugarLevel = sugarLevel;
+        this.milkLevel = milkLevel;
+        this.ingredientId = ingredientId;
+        this.amount = amount;
+    }
+
+    // Getters and Setters
+    public int getCoffeeId() { return coffeeId; }
+    public void setCoffeeId(int coffeeId) { this.coffeeId = coffeeId; }
+
+    public OrderItem.Size getSize() { return size; }
+    public void setSize(OrderItem.Size size) { this.size = size; }
+
+    public OrderItem.SugarLevel getSugarLevel() { return sugarLevel; }
+    public void setSugarLevel(OrderItem.SugarLevel sugarLevel) { this.sugarLevel = sugarLevel; }
+
+    public OrderItem.MilkLevel getMilkLevel() { return milkLevel; }
+    public void setMilkLevel(OrderItem.MilkLevel milkLevel) { this.milkLevel = milkLevel; }
+
+    public int getIngredientId() { return ingredientId; }
+    public void setIngredientId(int ingredientId) { this.ingredientId = ingredientId; }
+
+    public int getAmount() { return amount; }
+    public void setAmount(int amount) { this.amount = amount; }
+
+    public boolean matches(OrderItem.Size size, OrderItem.SugarLevel sugar, OrderItem.MilkLevel milk) {
+        return this.size == size
+            && (sugarLevel == null || sugarLevel == sugar)
+            && (milkLevel == null || milkLevel == milk);
+    }
+
+    @Override
+    public String toString() {
+        return "RecipeIngredient{coffeeId=" + coffeeId + ", size=" + size + ", sugar=" + sugarLevel +
+               ", milk=" + milkLevel + ", ingredientId=" + ingredientId + ", amount=" + amount + "}";
+    }
+}
@@ -0,0 +1,60 @@
+package com.cvs.models;
+
+import java.math.BigDecimal;
+
+public class SalesSummary {
+    private long totalOrders;
+    private long completedOrders;
+    private long completedRevenueCents;
+    // Indexed by ordinal so adding a group does not box the counts
+    private final long[] orderStatusCounts = new long[Order.OrderStatus.values().length];
+    private final long[] paymentStatusCounts = new long[Order.PaymentStatus.values().length];
+
+    // Adds one (order_status, payment_status) group from the aggregate query
+    public void addGroup(Order.OrderStatus orderStatus, Order.PaymentStatus paymentStatus, long count, BigDecimal revenue) {
+        addGroup(orderStatus, paymentStatus, count, revenue != null ? Money.of(revenue).getCents() : 0);
+    }
+
+    // Same, with revenue already in cents (rollup tables)
+    public void addGroup(Order.OrderStatus orderStatus, Order.PaymentStatus paymentStatus, long count, long revenueCents) {
+        totalOrders += count;
+        orderStatusCounts[orderStatus.ordinal()] += count;
+        paymentStatusCounts[paymentStatus.ordinal()] += count;
+        if (paymentStatus == Order.PaymentStatus.COMPLETED) {
+            completedOrders += count;
+            completedRevenueCents += revenueCents;
+        }
+    }
+
+    public long getTotalOrders() { return totalOrders; }
+
+    public long getCompletedOrders() { return completedOrders; }
+
+    public BigDecimal getCompletedRevenue() { return BigDecimal.valueOf(completedRevenueCents, 2); }
+
+    public Money getCompletedRevenueMoney() { return Money.ofCents(completedRevenueCents); }
+
+    public BigDecimal getAverageOrderValue() {
+        return completedOrders > 0
+            ? Money.ofCents(completedRevenueCents).dividedBy(completedOrders).toBigDecimal()
+            : BigDecimal.ZERO;
+    }
+
+    public double getSuccessRate() {
+        return totalOrders > 0 ? completedOrders * 100.0 / totalOrders : 0;
+    }
+
+    public long getOrderStatusCount(Order.OrderStatus status) {
+        return orderStatusCounts[status.ordinal()];
+    }
+
+    public long getPaymentStatusCount(Order.PaymentStatus status) {
+        return paymentStatusCounts[status.ordinal()];
+    }
+
+    @Override
+    public String toString() {
+        return "SalesSummary{totalOrders=" + totalOrders + ", completedOrders=" + completedOrders +
+               ", completedRevenue=" + getCompletedRevenueMoney() + "}";
+    }
+}
@@ -0,0 +1,53 @@
+package com.cvs.models;
+
+import java.time.Duration;
+
+public class StockForecast {
+    private final int ingredientId;
+    private final String name;
+    private final String unit;
+    private final long quantity;
+    private final int minThreshold;
+    private final boolean low;
+    private final double usagePerHour;
+
+    public StockForecast(int ingredientId, String name, String unit, long quantity, int minThreshold,
+                         boolean low, double usagePerHour) {
+        this.ingredientId = ingredientId;
+        this.name = name;
+        this.unit = unit;
+        this.quantity = quantity;
+        this.minThreshold = minThreshold;
+        this.low = low;
+        this.usagePerHour = usagePerHour;
+    }
+
+    public int getIngredientId() { return ingredientId; }
+
+    public String getName() { return name; }
+
+    public String getUnit() { return unit; }
+
+    public long getQuantity() { return quantity; }
+
+    public int getMinThreshold() { return minThreshold; }
+
+    public boolean isLow() { return low; }
+
+    public double getUsagePerHour() { return usagePerHour; }
+
+    // Null while there is no recent usage to go by
+    public Duration getTimeToEmpty() {
+        if (usagePerHour <= 0) {
+            return null;
+        }
+        return Duration.ofSeconds((long) (Math.max(0, quantity) / usagePerHour * 3600));
+    }
+
+    @Override
+    public String toString() {
+        Duration left = getTimeToEmpty();
+        return name + ": " + quantity + " " + unit + " (Min: " + minThreshold + ")" +
+               (left != null ? String.format(", about %dh %02dm left", left.toHours(), left.toMinutesPart()) : "");
+    }
+}
@@ -0,0 +1,24 @@
+package com.cvs.models;
+
+public class TopCustomer {
+    private final int userId;
+    private final String name;
+    private final long orderCount;
+
+    public TopCustomer(int userId, String name, long orderCount) {
+        this.userId = userId;
+        this.name = name;
+        this.orderCount = orderCount;
+    }
+
+    public int getUserId() { return userId; }
+
+    public String getName() { return name; }
+
+    public long getOrderCount() { return orderCount; }
+
+    @Override
+    public String toString() {
+        return "TopCustomer{userId=" + userId + ", name='" + name + "', orderCount=" + orderCount + "}";
+    }
+}
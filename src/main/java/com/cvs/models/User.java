@@ -8,7 +8,7 @@ public class User {
     private String name;
     private String email;
     private String password;
-    private BigDecimal balance;
+    private Money balance;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
 
@@ -27,7 +27,7 @@ public class User {
         this.name = name.trim();
         this.email = email.trim();
         this.password = password;
-        this.balance = BigDecimal.ZERO;
+        this.balance = Money.ZERO;
     }
 
     public User(int userId, String name, String email, String password, BigDecimal balance) {
@@ -35,7 +35,7 @@ public class User {
         this.name = name;
         this.email = email;
         this.password = password;
-        this.balance = balance;
+        this.balance = Money.ofNullable(balance);
     }
 
     // Getters and Setters
@@ -51,12 +51,17 @@ public class User {
     public String getPassword() { return password; }
     public void setPassword(String password) { this.password = password; }
 
-    public BigDecimal getBalance() { return balance; }
+    public BigDecimal getBalance() { return balance != null ? balance.toBigDecimal() : null; }
     public void setBalance(BigDecimal balance) { 
-        if (balance != null && balance.compareTo(BigDecimal.ZERO) < 0) {
+        setBalanceMoney(Money.ofNullable(balance));
+    }
+
+    public Money getBalanceMoney() { return balance; }
+    public void setBalanceMoney(Money balance) {
+        if (balance != null && balance.isNegative()) {
             throw new IllegalArgumentException("Balance cannot be negative");
         }
-        this.balance = balance; 
+        this.balance = balance;
     }
 
     public LocalDateTime getCreatedAt() { return createdAt; }
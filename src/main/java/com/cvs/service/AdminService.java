@@ -1,15 +1,20 @@
 package com.cvs.service;
 
+import com.cvs.dao.AdminDAO;
 import com.cvs.dao.CoffeeMenuDAO;
 import com.cvs.dao.OrderDAO;
+import com.cvs.dao.SalesRollupDAO;
 import com.cvs.dao.UserDAO;
 import com.cvs.models.CoffeeMenu;
+import com.cvs.models.DashboardStats;
 import com.cvs.models.Order;
+import com.cvs.models.OrderEvent;
 import com.cvs.models.User;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
 
 public class AdminService {
@@ -17,11 +22,17 @@ public class AdminService {
     private final CoffeeMenuDAO coffeeMenuDAO;
     private final OrderDAO orderDAO;
     private final UserDAO userDAO;
+    private final SalesRollupDAO salesRollupDAO;
+    private final AdminDAO adminDAO;
+    private final OrderEventBus eventBus;
 
     public AdminService() {
         this.coffeeMenuDAO = new CoffeeMenuDAO();
         this.orderDAO = new OrderDAO();
         this.userDAO = new UserDAO();
+        this.salesRollupDAO = new SalesRollupDAO();
+        this.adminDAO = new AdminDAO();
+        this.eventBus = OrderEventBus.getInstance();
     }
 
     public boolean authenticateAdmin(String username, String password) {
@@ -78,11 +89,16 @@ public class AdminService {
         return orderDAO.getAllOrders();
     }
 
+    public List<Order> getOrdersPage(LocalDateTime beforeTime, int beforeId, int limit) {
+        return orderDAO.getOrdersPage(beforeTime, beforeId, limit);
+    }
+
     public boolean updateOrderStatus(int orderId, Order.OrderStatus status) {
         try {
             boolean result = orderDAO.updateOrderStatus(orderId, status);
             if (result) {
                 logger.info("Order status updated: orderId={}, status={}", orderId, status);
+                eventBus.publish(OrderEvent.statusUpdated(orderId, status));
             }
             return result;
         } catch (Exception e) {
@@ -96,13 +112,14 @@ public class AdminService {
     }
 
     public int getTotalOrders() {
-        return getAllOrders().size();
+        return orderDAO.countOrders();
     }
 
     public BigDecimal getTotalRevenue() {
-        return getAllOrders().stream()
-                .filter(order -> order.getPaymentStatus() == Order.PaymentStatus.COMPLETED)
-                .map(Order::getTotalAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        return salesRollupDAO.getCompletedRevenue();
+    }
+
+    public DashboardStats getDashboardStats() {
+        return adminDAO.getDashboardStats();
     }
 }
\ No newline at end of file
@@ -0,0 +1,167 @@
+package com.cvs.service;
+
+import com.cvs.dao.IdempotencyDAO;
+import com.cvs.dao.OrderDAO;
+import com.cvs.models.Order;
+import com.cvs.utils.DBConnector;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+// Answers repeated order submissions with the order the first one placed.
+// Recent results are kept in a bounded, expiring in-memory map; older ones (or ones placed by
+// another node) are found through the idempotency_keys table, which the order transaction writes.
+// Callers racing on the same key in this process wait for the first instead of running it again.
+public class IdempotencyStore {
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyStore.class);
+    public static final int MAX_KEY_LENGTH = 64;
+    private static IdempotencyStore instance;
+
+    public interface KeySource {
+        // Order stored for the key by this user, or null
+        Order findOrder(String key, int userId);
+    }
+
+    private static final class Entry {
+        final int userId;
+        final Order order;
+        final long expiresAt;
+
+        Entry(int userId, Order order, long expiresAt) {
+            this.userId = userId;
+            this.order = order;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private final KeySource source;
+    private final long ttlMs;
+    private final Map<String, Entry> recent;
+    private final Map<String, CompletableFuture<Order>> inFlight = new ConcurrentHashMap<>();
+
+    public IdempotencyStore(KeySource source, int maxEntries, long ttlMs) {
+        if (maxEntries <= 0 || ttlMs <= 0) {
+            throw new IllegalArgumentException("Max entries and TTL must be positive");
+        }
+        this.source = source;
+        this.ttlMs = ttlMs;
+        this.recent = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    public static synchronized IdempotencyStore getInstance() {
+        if (instance == null) {
+            IdempotencyDAO idempotencyDAO = new IdempotencyDAO();
+            OrderDAO orderDAO = new OrderDAO();
+            long ttlMs = DBConnector.getLongProperty("idempotency.ttl", 86400000);
+            long ttlSeconds = TimeUnit.MILLISECONDS.toSeconds(ttlMs);
+            instance = new IdempotencyStore((key, userId) -> {
+                int orderId = idempotencyDAO.findOrderId(key, userId, ttlSeconds);
+                return orderId > 0 ? orderDAO.getOrderById(orderId) : null;
+            }, DBConnector.getIntProperty("idempotency.max-entries", 10000), ttlMs);
+
+            long purgeInterval = DBConnector.getLongProperty("idempotency.purge-interval", 3600000);
+            ScheduledExecutorService purger = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "cvs-idempotency-purge");
+                thread.setDaemon(true);
+                return thread;
+            });
+            purger.scheduleWithFixedDelay(() -> {
+                int purged = idempotencyDAO.purgeExpired(ttlSeconds);
+                if (purged > 0) {
+                    logger.info("Purged {} expired idempotency keys", purged);
+                }
+            }, purgeInterval, purgeInterval, TimeUnit.MILLISECONDS);
+        }
+        return instance;
+    }
+
+    public static void validateKey(String key) {
+        if (key == null || key.trim().isEmpty()) {
+            throw new IllegalArgumentException("Idempotency key cannot be empty");
+        }
+        if (key.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException("Idempotency key longer than " + MAX_KEY_LENGTH + " characters");
+        }
+    }
+
+    // Order already placed under the key, from memory or the database; null if there is none
+    public Order lookup(String key, int userId) {
+        validateKey(key);
+        synchronized (recent) {
+            Entry entry = recent.get(key);
+            if (entry != null) {
+                if (entry.expiresAt > System.currentTimeMillis()) {
+                    return entry.userId == userId ? entry.order : null;
+                }
+                recent.remove(key);
+            }
+        }
+        Order stored = source.findOrder(key, userId);
+        if (stored != null) {
+            remember(key, userId, stored);
+        }
+        return stored;
+    }
+
+    // Runs action at most once per key: a repeat gets the stored order back, and a concurrent
+    // duplicate in this process waits for the first call. A null result (failed submission)
+    // is not stored, so the client may retry with the same key.
+    public Order runOnce(String key, int userId, Supplier<Order> action) {
+        Order existing = lookup(key, userId);
+        if (existing != null) {
+            logger.info("Duplicate submission answered from idempotency store: key={}, orderId={}", key, existing.getOrderId());
+            return existing;
+        }
+
+        CompletableFuture<Order> mine = new CompletableFuture<>();
+        CompletableFuture<Order> running = inFlight.putIfAbsent(key, mine);
+        if (running != null) {
+            Order shared = running.join();
+            return shared != null && shared.getUserId() == userId ? shared : null;
+        }
+        Order result = null;
+        try {
+            // Another caller may have finished between the lookup and taking the slot
+            result = lookup(key, userId);
+            if (result == null) {
+                result = action.get();
+                if (result == null) {
+                    // Lost the race to another node: its transaction holds the key
+                    result = source.findOrder(key, userId);
+                }
+            }
+            if (result != null) {
+                remember(key, userId, result);
+            }
+            return result;
+        } finally {
+            inFlight.remove(key, mine);
+            mine.complete(result);
+        }
+    }
+
+    private void remember(String key, int userId, Order order) {
+        synchronized (recent) {
+            recent.put(key, new Entry(userId, order, System.currentTimeMillis() + ttlMs));
+        }
+    }
+
+    public int size() {
+        synchronized (recent) {
+            return recent.size();
+        }
+    }
+}
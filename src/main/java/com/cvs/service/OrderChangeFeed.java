@@ -0,0 +1,155 @@
+package com.cvs.service;
+
+import com.cvs.dao.OrderDAO;
+import com.cvs.models.Order;
+import com.cvs.models.OrderEvent;
+import com.cvs.utils.DBConnector;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Polls orders.updated_at and republishes rows changed by any node as CHANGED events, so
+// admin screens on other machines see new orders and status changes without re-reading the table.
+// Each poll re-scans a short lookback window behind the high-water mark: a writer stamps
+// updated_at when its statement runs but may commit later, after a poll has moved past it.
+// Rows already published with the same updated_at are skipped.
+// One feed runs per process, next to the process-wide bus: screens acquire it, and it polls
+// while at least one of them is open, so each change reaches the bus once.
+public class OrderChangeFeed {
+    private static final Logger logger = LoggerFactory.getLogger(OrderChangeFeed.class);
+    private static final int BATCH_SIZE = 500;
+
+    private final OrderDAO orderDAO;
+    private final OrderEventBus eventBus;
+    private final long pollIntervalMs;
+    private final long lookbackMs;
+    private final Map<Integer, LocalDateTime> published = new HashMap<>();
+    private LocalDateTime highWater;
+    private ScheduledExecutorService scheduler;
+    private int users;
+
+    private static OrderChangeFeed instance;
+
+    public static synchronized OrderChangeFeed getInstance() {
+        if (instance == null) {
+            instance = new OrderChangeFeed(new OrderDAO(), OrderEventBus.getInstance(),
+                                           DBConnector.getLongProperty("orders.feed.poll-interval", 2000),
+                                           DBConnector.getLongProperty("orders.feed.lookback", 5000));
+        }
+        return instance;
+    }
+
+    public OrderChangeFeed(OrderDAO orderDAO, OrderEventBus eventBus, long pollIntervalMs, long lookbackMs) {
+        if (pollIntervalMs <= 0 || lookbackMs < 0) {
+            throw new IllegalArgumentException("Poll interval must be positive and lookback non-negative");
+        }
+        this.orderDAO = orderDAO;
+        this.eventBus = eventBus;
+        this.pollIntervalMs = pollIntervalMs;
+        this.lookbackMs = lookbackMs;
+    }
+
+    // Starts the feed for the first user; returns a handle that lets go of it again, stopping
+    // the feed once nobody holds it
+    public synchronized Runnable acquire() {
+        users++;
+        start();
+        AtomicBoolean released = new AtomicBoolean();
+        return () -> {
+            if (released.compareAndSet(false, true)) {
+                release();
+            }
+        };
+    }
+
+    private synchronized void release() {
+        if (--users == 0) {
+            stop();
+        }
+    }
+
+    public synchronized boolean isRunning() {
+        return scheduler != null;
+    }
+
+    public synchronized void start() {
+        if (scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "cvs-order-feed");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::pollQuietly, 0, pollIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+            // A restart positions itself at the newest change again, as the screens reload then
+            highWater = null;
+            published.clear();
+        }
+    }
+
+    private void pollQuietly() {
+        try (Connection conn = DBConnector.getConnection()) {
+            poll(conn);
+        } catch (SQLException | RuntimeException e) {
+            logger.error("Error polling order changes: {}", e.getMessage());
+        }
+    }
+
+    // Publishes the orders changed since the last poll and returns how many events went out.
+    // The first call only positions the feed at the newest change and remembers the rows in
+    // its window, since those are already on screen.
+    public synchronized int poll(Connection conn) throws SQLException {
+        if (highWater == null) {
+            LocalDateTime latest = orderDAO.getLatestChangeTime(conn);
+            highWater = latest != null ? latest : LocalDateTime.of(1970, 1, 1, 0, 0);
+            scan(conn, false);
+            return 0;
+        }
+        return scan(conn, true);
+    }
+
+    private int scan(Connection conn, boolean publish) {
+        LocalDateTime afterTime = highWater.minus(lookbackMs, ChronoUnit.MILLIS);
+        int afterId = 0;
+        int count = 0;
+        List<Order> page;
+        do {
+            page = orderDAO.getOrdersChangedSince(afterTime, afterId, BATCH_SIZE, conn);
+            for (Order order : page) {
+                LocalDateTime updatedAt = order.getUpdatedAt();
+                if (!updatedAt.equals(published.put(order.getOrderId(), updatedAt)) && publish) {
+                    eventBus.publish(OrderEvent.changed(order));
+                    count++;
+                }
+                if (updatedAt.isAfter(highWater)) {
+                    highWater = updatedAt;
+                }
+                afterTime = updatedAt;
+                afterId = order.getOrderId();
+            }
+        } while (page.size() == BATCH_SIZE);
+
+        // Anything older than the window can't be scanned again, so it no longer needs remembering
+        LocalDateTime horizon = highWater.minus(lookbackMs, ChronoUnit.MILLIS);
+        published.values().removeIf(time -> time.isBefore(horizon));
+        return count;
+    }
+}
@@ -0,0 +1,47 @@
+package com.cvs.service;
+
+import com.cvs.models.OrderEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+// In-process fan-out of order changes. Events are published after the change has committed
+// and delivered synchronously on the publishing thread, so listeners must hand off
+// anything slow (Swing listeners should invokeLater).
+public class OrderEventBus {
+    private static final Logger logger = LoggerFactory.getLogger(OrderEventBus.class);
+    private static final OrderEventBus INSTANCE = new OrderEventBus();
+
+    private final List<Consumer<OrderEvent>> listeners = new CopyOnWriteArrayList<>();
+
+    public static OrderEventBus getInstance() {
+        return INSTANCE;
+    }
+
+    // Returns a handle that removes the listener again
+    public Runnable subscribe(Consumer<OrderEvent> listener) {
+        if (listener == null) {
+            throw new IllegalArgumentException("Listener cannot be null");
+        }
+        listeners.add(listener);
+        return () -> listeners.remove(listener);
+    }
+
+    public void publish(OrderEvent event) {
+        for (Consumer<OrderEvent> listener : listeners) {
+            try {
+                listener.accept(event);
+            } catch (RuntimeException e) {
+                // One broken listener must not stop the others or fail the order
+                logger.error("Order event listener failed for {}: {}", event, e.getMessage());
+            }
+        }
+    }
+
+    public int getListenerCount() {
+        return listeners.size();
+    }
+}
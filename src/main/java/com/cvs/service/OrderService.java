@@ -1,64 +1,120 @@
 package com.cvs.service;
 
-import com.cvs.dao.CoffeeMenuDAO;
+import com.cvs.dao.IdempotencyDAO;
+import com.cvs.dao.IngredientDAO;
+import com.cvs.dao.InventoryEngine;
 import com.cvs.dao.OrderDAO;
 import com.cvs.dao.OrderItemDAO;
+import com.cvs.dao.PaymentDAO;
+import com.cvs.dao.WalletDAO;
 import com.cvs.models.*;
+import com.cvs.utils.DBConnector;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.UUID;
 
 public class OrderService {
     private static final Logger logger = LoggerFactory.getLogger(OrderService.class);
+
+    public interface ConnectionSource {
+        Connection getConnection() throws SQLException;
+    }
+
     private final OrderDAO orderDAO;
     private final OrderItemDAO orderItemDAO;
-    private final CoffeeMenuDAO coffeeMenuDAO;
+    private final PaymentDAO paymentDAO;
+    private final IdempotencyDAO idempotencyDAO;
+    private final IngredientDAO ingredientDAO;
     private final UserService userService;
+    private final PricingEngine pricingEngine;
+    private final RecipeBook recipeBook;
+    private final InventoryEngine inventory;
+    private final WalletDAO walletDAO;
+    private final PreparationEngine preparation;
+    private final OrderEventBus eventBus;
+    private final IdempotencyStore idempotencyStore;
+    private final ConnectionSource connections;
 
     public OrderService() {
+        // The preparation engine is started here rather than on the first checkout so orders left
+        // PREPARING are re-queued early
+        this(new UserService(), PricingEngine.getInstance(), RecipeBook.getInstance(), InventoryEngine.getInstance(),
+             startedPreparation(), OrderEventBus.getInstance(), IdempotencyStore.getInstance(),
+             DBConnector::getConnection);
+    }
+
+    private static PreparationEngine startedPreparation() {
+        PreparationEngine preparation = PreparationEngine.getInstance();
+        preparation.start();
+        return preparation;
+    }
+
+    public OrderService(UserService userService, PricingEngine pricingEngine, RecipeBook recipeBook,
+                        InventoryEngine inventory, PreparationEngine preparation, OrderEventBus eventBus,
+                        IdempotencyStore idempotencyStore, ConnectionSource connections) {
         this.orderDAO = new OrderDAO();
         this.orderItemDAO = new OrderItemDAO();
-        this.coffeeMenuDAO = new CoffeeMenuDAO();
-        this.userService = new UserService();
+        this.paymentDAO = new PaymentDAO();
+        this.idempotencyDAO = new IdempotencyDAO();
+        this.ingredientDAO = new IngredientDAO();
+        this.userService = userService;
+        this.pricingEngine = pricingEngine;
+        this.recipeBook = recipeBook;
+        this.inventory = inventory;
+        this.walletDAO = new WalletDAO();
+        this.preparation = preparation;
+        this.eventBus = eventBus;
+        this.idempotencyStore = idempotencyStore;
+        this.connections = connections;
     }
 
     public BigDecimal calculateItemPrice(int coffeeId, OrderItem.Size size, OrderItem.SugarLevel sugar, OrderItem.MilkLevel milk) {
-        CoffeeMenu coffee = coffeeMenuDAO.getCoffeeById(coffeeId);
-        if (coffee == null) return BigDecimal.ZERO;
-
-        BigDecimal basePrice = coffee.getPrice();
-        BigDecimal sizeMultiplier = getSizeMultiplier(size);
-        BigDecimal customizationFee = getCustomizationFee(sugar, milk);
+        return pricingEngine.unitPrice(coffeeId, size, sugar, milk);
+    }
 
-        return basePrice.multiply(sizeMultiplier).add(customizationFee);
+    public Money calculateLinePrice(int coffeeId, OrderItem.Size size, OrderItem.SugarLevel sugar,
+                                    OrderItem.MilkLevel milk, int quantity) {
+        return pricingEngine.linePrice(coffeeId, size, sugar, milk, quantity);
     }
 
-    private BigDecimal getSizeMultiplier(OrderItem.Size size) {
-        switch (size) {
-            case SMALL: return new BigDecimal("0.8");
-            case MEDIUM: return BigDecimal.ONE;
-            case LARGE: return new BigDecimal("1.3");
-            default: return BigDecimal.ONE;
+    // Prices every line from the in-memory table and returns the cart total, or null when a line
+    // names a coffee that can't be sold, so the whole cart is turned away rather than given free
+    private Money priceItems(List<OrderItem> items) {
+        long totalCents = 0;
+        for (OrderItem item : items) {
+            if (!pricingEngine.isSellable(item.getCoffeeId())) {
+                logger.warn("Coffee not available for sale: coffeeId={}", item.getCoffeeId());
+                return null;
+            }
+            Money line = pricingEngine.linePrice(item.getCoffeeId(), item.getSize(),
+                                                 item.getSugarLevel(), item.getMilkLevel(), item.getQuantity());
+            item.setItemPriceMoney(line);
+            totalCents += line.getCents();
         }
+        return Money.ofCents(totalCents);
     }
 
-    private BigDecimal getCustomizationFee(OrderItem.SugarLevel sugar, OrderItem.MilkLevel milk) {
-        BigDecimal fee = BigDecimal.ZERO;
-        
-        if (sugar == OrderItem.SugarLevel.HIGH) {
-            fee = fee.add(new BigDecimal("0.25"));
-        }
-        if (milk == OrderItem.MilkLevel.HIGH) {
-            fee = fee.add(new BigDecimal("0.50"));
+    public Order createOrder(int userId, List<OrderItem> items) {
+        return createOrder(userId, items, null);
+    }
+
+    // Retry-safe variant: calls repeating idempotencyKey get back the order the first call created
+    public Order createOrder(int userId, List<OrderItem> items, String idempotencyKey) {
+        if (idempotencyKey == null) {
+            return placeOrder(userId, items, null);
         }
-        
-        return fee;
+        return idempotencyStore.runOnce(idempotencyKey, userId,
+            () -> placeOrder(userId, items, idempotencyKey));
     }
 
-    public Order createOrder(int userId, List<OrderItem> items) {
+    private Order placeOrder(int userId, List<OrderItem> items, String idempotencyKey) {
         try {
             if (items == null || items.isEmpty()) {
                 logger.warn("Cannot create order with empty items");
@@ -66,28 +122,41 @@ public class OrderService {
             }
 
             // Calculate total amount
-            BigDecimal totalAmount = BigDecimal.ZERO;
-            for (OrderItem item : items) {
-                BigDecimal itemPrice = calculateItemPrice(item.getCoffeeId(), item.getSize(), 
-                                                        item.getSugarLevel(), item.getMilkLevel());
-                item.setItemPrice(itemPrice.multiply(new BigDecimal(item.getQuantity())));
-                totalAmount = totalAmount.add(item.getItemPrice());
+            Money totalAmount = priceItems(items);
+            if (totalAmount == null) {
+                return null;
             }
 
             // Check user balance
             User user = userService.getUserById(userId);
-            if (user == null || user.getBalance().compareTo(totalAmount) < 0) {
+            if (user == null || user.getBalanceMoney().compareTo(totalAmount) < 0) {
                 logger.warn("Insufficient balance for order: userId={}, required={}, available={}", 
-                           userId, totalAmount, user != null ? user.getBalance() : "N/A");
+                           userId, totalAmount, user != null ? user.getBalanceMoney() : "N/A");
+                return null;
+            }
+
+            Map<Integer, Integer> stock = recipeBook.requirements(items);
+            if (!inventory.reserve(stock)) {
+                logger.warn("Order rejected, insufficient stock: userId={}", userId);
                 return null;
             }
 
-            // Create order
+            // Create order; the stock it used is journaled in the same transaction
             Order order = new Order(userId, totalAmount);
             order.setOrderItems(items);
 
-            if (orderDAO.createOrder(order)) {
+            boolean created = false;
+            try {
+                created = orderDAO.createOrder(order, idempotencyKey, stock);
+            } finally {
+                if (!created) {
+                    inventory.release(stock);
+                }
+            }
+            if (created) {
+                inventory.confirm(stock);
                 logger.info("Order created successfully: orderId={}, amount={}", order.getOrderId(), totalAmount);
+                eventBus.publish(OrderEvent.created(order));
                 return order;
             }
 
@@ -98,6 +167,111 @@ public class OrderService {
         }
     }
 
+    public Order checkout(int userId, List<OrderItem> items, Payment.PaymentType paymentType) {
+        return checkout(userId, items, paymentType, null);
+    }
+
+    // Retry-safe checkout: a double click or a retry after a timeout that repeats idempotencyKey
+    // gets the first call's order back instead of placing and debiting a second one
+    public Order checkout(int userId, List<OrderItem> items, Payment.PaymentType paymentType, String idempotencyKey) {
+        if (idempotencyKey == null) {
+            return processCheckout(userId, items, paymentType, null);
+        }
+        return idempotencyStore.runOnce(idempotencyKey, userId,
+            () -> processCheckout(userId, items, paymentType, idempotencyKey));
+    }
+
+    // Prices the cart and reserves its ingredients in memory, then inserts the order with its items,
+    // payment row, stock journal and wallet debit in a single transaction. The stock comes out of this
+    // node's lease, so the journal needs no check against the database; the debit still gets one.
+    private Order processCheckout(int userId, List<OrderItem> items, Payment.PaymentType paymentType,
+                                  String idempotencyKey) {
+        if (items == null || items.isEmpty()) {
+            logger.warn("Cannot checkout with empty items");
+            return null;
+        }
+
+        // A cart with a coffee that can't be sold is turned away before anything is reserved
+        Money totalAmount = priceItems(items);
+        if (totalAmount == null || !totalAmount.isPositive()) {
+            logger.warn("Checkout rejected, cart has an unsellable or unpriced item: userId={}", userId);
+            return null;
+        }
+
+        // Stock goes next so a cart that cannot be made is turned away before any money moves
+        Map<Integer, Integer> stock = recipeBook.requirements(items);
+        if (!inventory.reserve(stock)) {
+            logger.warn("Checkout rejected, insufficient stock: userId={}", userId);
+            return null;
+        }
+
+        Connection conn = null;
+        boolean committed = false;
+        try {
+            conn = connections.getConnection();
+            conn.setAutoCommit(false);
+
+            Order order = new Order(userId, totalAmount);
+            order.setPaymentStatus(Order.PaymentStatus.COMPLETED);
+            order.setOrderStatus(Order.OrderStatus.PREPARING);
+            order.setOrderItems(items);
+            if (!orderDAO.insertOrder(order, conn)) {
+                conn.rollback();
+                return null;
+            }
+
+            Payment payment = new Payment(order.getOrderId(), totalAmount, paymentType);
+            payment.setPaymentStatus(Payment.PaymentStatus.SUCCESS);
+            payment.setTransactionId("TXN-" + UUID.randomUUID());
+            if (!paymentDAO.createPayment(payment, conn)) {
+                conn.rollback();
+                return null;
+            }
+            ingredientDAO.appendJournal(stock, conn);
+            // Locks the wallet until commit, so a debit from another kiosk can't spend the same money
+            Money balance = null;
+            if (paymentType == Payment.PaymentType.WALLET) {
+                balance = walletDAO.debit(userId, totalAmount, order.getOrderId(), conn);
+                if (balance == null) {
+                    logger.warn("Insufficient balance for checkout: userId={}, required={}", userId, totalAmount);
+                    conn.rollback();
+                    return null;
+                }
+            }
+            if (idempotencyKey != null) {
+                // Fails on a key another submission already committed, undoing this one
+                idempotencyDAO.saveKey(idempotencyKey, userId, order.getOrderId(), conn);
+            }
+
+            conn.commit();
+            committed = true;
+            inventory.confirm(stock);
+            if (balance != null) {
+                userService.balanceChanged(userId, balance.toBigDecimal());
+            }
+            logger.info("Checkout completed: orderId={}, amount={}, type={}", order.getOrderId(), totalAmount, paymentType);
+            eventBus.publish(OrderEvent.created(order));
+            preparation.submit(order);
+            return order;
+        } catch (Exception e) {
+            logger.error("Error during checkout: {}", e.getMessage());
+            if (conn != null) {
+                try { conn.rollback(); } catch (SQLException ex) { /* ignore */ }
+            }
+            return null;
+        } finally {
+            if (!committed) {
+                inventory.release(stock);
+            }
+            if (conn != null) {
+                try {
+                    conn.setAutoCommit(true);
+                    conn.close();
+                } catch (SQLException e) { /* ignore */ }
+            }
+        }
+    }
+
     public boolean processPayment(int orderId, Payment.PaymentType paymentType) {
         try {
             Order order = orderDAO.getOrderById(orderId);
@@ -118,8 +292,13 @@ public class OrderService {
             // Update order payment status
             boolean paymentUpdated = orderDAO.updatePaymentStatus(orderId, Order.PaymentStatus.COMPLETED);
             if (paymentUpdated) {
-                orderDAO.updateOrderStatus(orderId, Order.OrderStatus.PREPARING);
+                boolean preparing = orderDAO.updateOrderStatus(orderId, Order.OrderStatus.PREPARING);
                 logger.info("Payment processed successfully: orderId={}, type={}", orderId, paymentType);
+                eventBus.publish(OrderEvent.paymentUpdated(orderId, Order.PaymentStatus.COMPLETED,
+                                                           preparing ? Order.OrderStatus.PREPARING : null));
+                if (preparing) {
+                    preparation.submit(order);
+                }
                 return true;
             }
 
@@ -139,6 +318,10 @@ public class OrderService {
     }
 
     public boolean updateOrderStatus(int orderId, Order.OrderStatus status) {
-        return orderDAO.updateOrderStatus(orderId, status);
+        if (orderDAO.updateOrderStatus(orderId, status)) {
+            eventBus.publish(OrderEvent.statusUpdated(orderId, status));
+            return true;
+        }
+        return false;
     }
 }
\ No newline at end of file
@@ -0,0 +1,286 @@
+package com.cvs.service;
+
+import com.cvs.dao.OrderDAO;
+import com.cvs.models.Order;
+import com.cvs.models.OrderEvent;
+import com.cvs.models.OrderItem;
+import com.cvs.models.PreparationStats;
+import com.cvs.utils.DBConnector;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+
+// Simulated brew line. Paid orders wait in a bounded queue; the scheduler hands their items one
+// at a time to the next free station, so one order's items can brew side by side. Each cup takes
+// the brew time for its size. When an order's last item is done it moves PREPARING -> READY.
+// Each order is claimed for this node before it is queued, so when several nodes re-queue the orders
+// still PREPARING on start() each one brews once; an order claimed by a node that never comes back
+// waits for an admin. An order that finds the queue full stays claimed and is queued again once the
+// queue has drained to half.
+public class PreparationEngine {
+    private static final Logger logger = LoggerFactory.getLogger(PreparationEngine.class);
+    private static PreparationEngine instance;
+
+    public interface ReadyHandler {
+        // Returns false when the order could not be moved to READY (e.g. it was cancelled)
+        boolean orderReady(int orderId);
+    }
+
+    public interface OrderClaimer {
+        // Returns false when another node is preparing the order or it is no longer PREPARING
+        boolean claim(int orderId);
+    }
+
+    private static final class Job {
+        final Order order;
+        final long queuedAt = System.nanoTime();
+        final AtomicInteger remainingItems;
+
+        Job(Order order) {
+            this.order = order;
+            this.remainingItems = new AtomicInteger(order.getOrderItems().size());
+        }
+    }
+
+    private final int stations;
+    private final int queueCapacity;
+    private final long[] brewMillisPerCup;
+    private final ReadyHandler readyHandler;
+    private final Supplier<List<Order>> pendingOrders;
+    private final OrderClaimer claimer;
+    private final Set<Integer> queuedOrders = ConcurrentHashMap.newKeySet();
+    private final BlockingQueue<Job> queue;
+    private final BlockingQueue<Integer> freeStations;
+    private final AtomicLongArray busyNanos;
+    private final AtomicLongArray itemsBrewed;
+    private final AtomicLong submitted = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong dispatched = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private ExecutorService stationPool;
+    private Thread scheduler;
+    private volatile long startedAt;
+    // Set when an order was turned away by a full queue, so the PREPARING orders are re-queued later
+    private volatile boolean backlogged;
+
+    // brewMillisPerCup is indexed by OrderItem.Size ordinal
+    public PreparationEngine(int stations, int queueCapacity, long[] brewMillisPerCup, ReadyHandler readyHandler) {
+        this(stations, queueCapacity, brewMillisPerCup, readyHandler, Collections::emptyList);
+    }
+
+    public PreparationEngine(int stations, int queueCapacity, long[] brewMillisPerCup, ReadyHandler readyHandler,
+                             Supplier<List<Order>> pendingOrders) {
+        this(stations, queueCapacity, brewMillisPerCup, readyHandler, pendingOrders, orderId -> true);
+    }
+
+    // pendingOrders supplies the PREPARING orders, with their items, that this node may brew; they are
+    // re-queued on start() and after the queue overflowed
+    public PreparationEngine(int stations, int queueCapacity, long[] brewMillisPerCup, ReadyHandler readyHandler,
+                             Supplier<List<Order>> pendingOrders, OrderClaimer claimer) {
+        if (stations <= 0 || queueCapacity <= 0) {
+            throw new IllegalArgumentException("Stations and queue capacity must be positive");
+        }
+        if (brewMillisPerCup == null || brewMillisPerCup.length != OrderItem.Size.values().length) {
+            throw new IllegalArgumentException("Brew time required for every size");
+        }
+        this.stations = stations;
+        this.queueCapacity = queueCapacity;
+        this.brewMillisPerCup = brewMillisPerCup.clone();
+        this.readyHandler = readyHandler;
+        this.pendingOrders = pendingOrders;
+        this.claimer = claimer;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.freeStations = new ArrayBlockingQueue<>(stations);
+        for (int station = 0; station < stations; station++) {
+            freeStations.add(station);
+        }
+        this.busyNanos = new AtomicLongArray(stations);
+        this.itemsBrewed = new AtomicLongArray(stations);
+    }
+
+    // Not started here, so reading it from a screen that doesn't sell starts no brew threads; OrderService
+    // starts it
+    public static synchronized PreparationEngine getInstance() {
+        if (instance == null) {
+            OrderDAO orderDAO = new OrderDAO();
+            OrderEventBus eventBus = OrderEventBus.getInstance();
+            String nodeId = DBConnector.getNodeId();
+            long[] brewMillis = {
+                DBConnector.getLongProperty("prep.brew-ms.small", 20000),
+                DBConnector.getLongProperty("prep.brew-ms.medium", 30000),
+                DBConnector.getLongProperty("prep.brew-ms.large", 40000)
+            };
+            instance = new PreparationEngine(DBConnector.getIntProperty("prep.stations", 2),
+                                             DBConnector.getIntProperty("prep.queue-capacity", 100),
+                                             brewMillis, orderId -> {
+                if (orderDAO.advanceOrderStatus(orderId, Order.OrderStatus.PREPARING, Order.OrderStatus.READY)) {
+                    eventBus.publish(OrderEvent.statusUpdated(orderId, Order.OrderStatus.READY));
+                    return true;
+                }
+                return false;
+            }, () -> orderDAO.getOrdersToPrepare(nodeId), orderId -> orderDAO.claimForPreparation(orderId, nodeId));
+        }
+        return instance;
+    }
+
+    public synchronized void start() {
+        if (scheduler != null) {
+            return;
+        }
+        AtomicInteger stationNumber = new AtomicInteger();
+        stationPool = Executors.newFixedThreadPool(stations, r -> {
+            Thread thread = new Thread(r, "cvs-brew-station-" + stationNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler = new Thread(this::schedule, "cvs-prep-scheduler");
+        scheduler.setDaemon(true);
+        startedAt = System.nanoTime();
+        scheduler.start();
+        requeuePending();
+    }
+
+    // Queues the PREPARING orders this node may brew that are not queued yet
+    private void requeuePending() {
+        backlogged = false;
+        List<Order> pending = pendingOrders.get();
+        int requeued = 0;
+        for (Order order : pending) {
+            if (queuedOrders.contains(order.getOrderId())) {
+                continue;
+            }
+            if (submit(order)) {
+                requeued++;
+            } else if (backlogged) {
+                break;
+            }
+        }
+        if (requeued > 0) {
+            logger.info("Re-queued {} of {} orders still PREPARING", requeued, pending.size());
+        }
+    }
+
+    public synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.interrupt();
+            stationPool.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    // Claims and queues a paid order. Returns false when another node has it, there is nothing to brew,
+    // or the queue is full; in the last case it is queued again once the queue drains. An order already
+    // queued is not queued twice.
+    public boolean submit(Order order) {
+        if (order == null) {
+            throw new IllegalArgumentException("Order cannot be null");
+        }
+        List<OrderItem> items = order.getOrderItems();
+        if (items == null || items.isEmpty()) {
+            logger.warn("Order has no items to prepare: orderId={}", order.getOrderId());
+            return false;
+        }
+        if (!queuedOrders.add(order.getOrderId())) {
+            return true;
+        }
+        if (!claimer.claim(order.getOrderId())) {
+            queuedOrders.remove(order.getOrderId());
+            logger.info("Order not claimed, another node is preparing it: orderId={}", order.getOrderId());
+            return false;
+        }
+        if (!queue.offer(new Job(order))) {
+            queuedOrders.remove(order.getOrderId());
+            rejected.incrementAndGet();
+            backlogged = true;
+            logger.warn("Preparation queue full, order will be queued once it drains: orderId={}", order.getOrderId());
+            return false;
+        }
+        submitted.incrementAndGet();
+        return true;
+    }
+
+    private void schedule() {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                Job job = queue.take();
+                if (backlogged && queue.size() <= queueCapacity / 2) {
+                    requeuePending();
+                }
+                boolean first = true;
+                for (OrderItem item : job.order.getOrderItems()) {
+                    int station = freeStations.take();
+                    if (first) {
+                        recordWait(System.nanoTime() - job.queuedAt);
+                        first = false;
+                    }
+                    stationPool.execute(() -> brew(job, item, station));
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void brew(Job job, OrderItem item, int station) {
+        OrderItem.Size size = item.getSize() != null ? item.getSize() : OrderItem.Size.MEDIUM;
+        long started = System.nanoTime();
+        try {
+            Thread.sleep(brewMillisPerCup[size.ordinal()] * Math.max(1, item.getQuantity()));
+            itemsBrewed.incrementAndGet(station);
+        } catch (InterruptedException e) {
+            // Engine stopping
+            Thread.currentThread().interrupt();
+            return;
+        } finally {
+            busyNanos.addAndGet(station, System.nanoTime() - started);
+            freeStations.offer(station);
+        }
+
+        if (job.remainingItems.decrementAndGet() == 0) {
+            completed.incrementAndGet();
+            int orderId = job.order.getOrderId();
+            queuedOrders.remove(orderId);
+            try {
+                if (!readyHandler.orderReady(orderId)) {
+                    logger.warn("Prepared order not moved to READY, status changed meanwhile: orderId={}", orderId);
+                }
+            } catch (RuntimeException e) {
+                logger.error("Error marking order ready: orderId={}, {}", orderId, e.getMessage());
+            }
+        }
+    }
+
+    private void recordWait(long waitNanos) {
+        dispatched.incrementAndGet();
+        totalWaitNanos.addAndGet(waitNanos);
+        maxWaitNanos.accumulateAndGet(waitNanos, Math::max);
+    }
+
+    public PreparationStats getStats() {
+        long elapsed = startedAt == 0 ? 0 : System.nanoTime() - startedAt;
+        long[] items = new long[stations];
+        double[] utilization = new double[stations];
+        for (int station = 0; station < stations; station++) {
+            items[station] = itemsBrewed.get(station);
+            utilization[station] = elapsed > 0 ? Math.min(1.0, (double) busyNanos.get(station) / elapsed) : 0.0;
+        }
+        long waits = dispatched.get();
+        double averageWaitMs = waits > 0 ? totalWaitNanos.get() / 1_000_000.0 / waits : 0.0;
+        return new PreparationStats(queue.size(), submitted.get(), rejected.get(), completed.get(),
+                                    averageWaitMs, maxWaitNanos.get() / 1_000_000, items, utilization);
+    }
+}
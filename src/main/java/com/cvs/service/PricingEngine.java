@@ -0,0 +1,157 @@
+package com.cvs.service;
+
+import com.cvs.dao.MenuCache;
+import com.cvs.models.CoffeeMenu;
+import com.cvs.models.Money;
+import com.cvs.models.OrderItem;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+// Precomputed coffee x size x sugar x milk price table. The 0.8/1.3 size multipliers
+// produce sub-cent unit prices, so units are kept in mills (1/1000) and each cart line
+// is rounded half-up to cents once. The table is rebuilt whenever the menu version moves.
+// Every listed coffee gets a price for display, but only available ones are sellable.
+public class PricingEngine {
+    private static final Logger logger = LoggerFactory.getLogger(PricingEngine.class);
+    private static final PricingEngine INSTANCE = new PricingEngine(
+        MenuCache.getInstance()::getAllItems, MenuCache.getInstance()::getVersion);
+
+    private static final long[] SIZE_MULTIPLIER_TENTHS = {8, 10, 13}; // SMALL, MEDIUM, LARGE
+    private static final long HIGH_SUGAR_FEE_MILLS = 250;
+    private static final long HIGH_MILK_FEE_MILLS = 500;
+
+    private static final int SUGAR_LEVELS = OrderItem.SugarLevel.values().length;
+    private static final int MILK_LEVELS = OrderItem.MilkLevel.values().length;
+    private static final int VARIANTS = OrderItem.Size.values().length * SUGAR_LEVELS * MILK_LEVELS;
+
+    private final Supplier<List<CoffeeMenu>> menuSource;
+    private final LongSupplier menuVersion;
+    private volatile PriceTable table;
+
+    public PricingEngine(Supplier<List<CoffeeMenu>> menuSource) {
+        this(menuSource, () -> 0L);
+    }
+
+    public PricingEngine(Supplier<List<CoffeeMenu>> menuSource, LongSupplier menuVersion) {
+        this.menuSource = menuSource;
+        this.menuVersion = menuVersion;
+    }
+
+    public static PricingEngine getInstance() {
+        return INSTANCE;
+    }
+
+    public long unitPriceMills(int coffeeId, OrderItem.Size size, OrderItem.SugarLevel sugar, OrderItem.MilkLevel milk) {
+        PriceTable current = currentTable();
+        int index = Arrays.binarySearch(current.coffeeIds, coffeeId);
+        if (index < 0) {
+            return -1;
+        }
+        int variant = (size.ordinal() * SUGAR_LEVELS + sugar.ordinal()) * MILK_LEVELS + milk.ordinal();
+        return current.prices[index * VARIANTS + variant];
+    }
+
+    // False for a coffee that is off the menu or marked unavailable, including every coffee
+    // while the menu failed to load; a cart containing one must not be sold
+    public boolean isSellable(int coffeeId) {
+        PriceTable current = currentTable();
+        int index = Arrays.binarySearch(current.coffeeIds, coffeeId);
+        return index >= 0 && current.available[index];
+    }
+
+    public long linePriceCents(int coffeeId, OrderItem.Size size, OrderItem.SugarLevel sugar,
+                               OrderItem.MilkLevel milk, int quantity) {
+        long mills = unitPriceMills(coffeeId, size, sugar, milk);
+        if (mills < 0) {
+            return 0;
+        }
+        return (mills * quantity + 5) / 10;
+    }
+
+    public Money linePrice(int coffeeId, OrderItem.Size size, OrderItem.SugarLevel sugar,
+                           OrderItem.MilkLevel milk, int quantity) {
+        return Money.ofCents(linePriceCents(coffeeId, size, sugar, milk, quantity));
+    }
+
+    public BigDecimal unitPrice(int coffeeId, OrderItem.Size size, OrderItem.SugarLevel sugar, OrderItem.MilkLevel milk) {
+        long mills = unitPriceMills(coffeeId, size, sugar, milk);
+        if (mills < 0) {
+            return BigDecimal.ZERO;
+        }
+        return mills % 10 == 0 ? BigDecimal.valueOf(mills / 10, 2) : BigDecimal.valueOf(mills, 3);
+    }
+
+    public synchronized void rebuild(List<CoffeeMenu> menu) {
+        table = build(menu, menuVersion.getAsLong());
+    }
+
+    private PriceTable build(List<CoffeeMenu> menu, long version) {
+        List<CoffeeMenu> sorted = new ArrayList<>(menu);
+        sorted.sort(Comparator.comparingInt(CoffeeMenu::getCoffeeId));
+
+        int[] coffeeIds = new int[sorted.size()];
+        boolean[] available = new boolean[sorted.size()];
+        long[] prices = new long[sorted.size() * VARIANTS];
+        for (int i = 0; i < sorted.size(); i++) {
+            CoffeeMenu coffee = sorted.get(i);
+            coffeeIds[i] = coffee.getCoffeeId();
+            available[i] = coffee.isAvailable();
+            long baseCents = coffee.getPriceMoney().getCents();
+            for (OrderItem.Size size : OrderItem.Size.values()) {
+                for (OrderItem.SugarLevel sugar : OrderItem.SugarLevel.values()) {
+                    for (OrderItem.MilkLevel milk : OrderItem.MilkLevel.values()) {
+                        // cents x tenths = mills
+                        long mills = baseCents * SIZE_MULTIPLIER_TENTHS[size.ordinal()];
+                        if (sugar == OrderItem.SugarLevel.HIGH) {
+                            mills += HIGH_SUGAR_FEE_MILLS;
+                        }
+                        if (milk == OrderItem.MilkLevel.HIGH) {
+                            mills += HIGH_MILK_FEE_MILLS;
+                        }
+                        int variant = (size.ordinal() * SUGAR_LEVELS + sugar.ordinal()) * MILK_LEVELS + milk.ordinal();
+                        prices[i * VARIANTS + variant] = mills;
+                    }
+                }
+            }
+        }
+        logger.info("Price table rebuilt: {} coffee items, {} price points", coffeeIds.length, prices.length);
+        return new PriceTable(version, coffeeIds, available, prices);
+    }
+
+    private PriceTable currentTable() {
+        PriceTable current = table;
+        long version = menuVersion.getAsLong();
+        if (current == null || current.version != version) {
+            synchronized (this) {
+                current = table;
+                if (current == null || current.version != version) {
+                    current = build(menuSource.get(), version);
+                    table = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    private static final class PriceTable {
+        final long version;
+        final int[] coffeeIds;
+        final boolean[] available;
+        final long[] prices;
+
+        PriceTable(long version, int[] coffeeIds, boolean[] available, long[] prices) {
+            this.version = version;
+            this.coffeeIds = coffeeIds;
+            this.available = available;
+            this.prices = prices;
+        }
+    }
+}
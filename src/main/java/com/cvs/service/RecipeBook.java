@@ -0,0 +1,132 @@
+package com.cvs.service;
+
+import com.cvs.dao.RecipeDAO;
+import com.cvs.models.OrderItem;
+import com.cvs.models.RecipeIngredient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.function.Supplier;
+
+// Precomputed coffee x size x sugar x milk table of ingredient amounts per cup, built from
+// recipe_ingredients. Lines without a coffee (the sugar and milk additions) apply to every
+// coffee, including ones that have no base recipe of their own.
+public class RecipeBook {
+    private static final Logger logger = LoggerFactory.getLogger(RecipeBook.class);
+    private static final RecipeBook INSTANCE = new RecipeBook(new RecipeDAO()::getAllRecipeIngredients);
+
+    private static final int SUGAR_LEVELS = OrderItem.SugarLevel.values().length;
+    private static final int MILK_LEVELS = OrderItem.MilkLevel.values().length;
+    private static final int VARIANTS = OrderItem.Size.values().length * SUGAR_LEVELS * MILK_LEVELS;
+
+    private final Supplier<List<RecipeIngredient>> recipeSource;
+    private volatile RecipeTable table;
+
+    public RecipeBook(Supplier<List<RecipeIngredient>> recipeSource) {
+        this.recipeSource = recipeSource;
+    }
+
+    public static RecipeBook getInstance() {
+        return INSTANCE;
+    }
+
+    // Total amount of each ingredient the cart uses, keyed by ingredient id in ascending order
+    public Map<Integer, Integer> requirements(List<OrderItem> items) {
+        RecipeTable current = currentTable();
+        int ingredients = current.ingredientIds.length;
+        long[] totals = new long[ingredients];
+        for (OrderItem item : items) {
+            int slot = Arrays.binarySearch(current.coffeeIds, item.getCoffeeId());
+            if (slot < 0) {
+                slot = current.coffeeIds.length;
+            }
+            int variant = (item.getSize().ordinal() * SUGAR_LEVELS + item.getSugarLevel().ordinal()) * MILK_LEVELS
+                          + item.getMilkLevel().ordinal();
+            int base = (slot * VARIANTS + variant) * ingredients;
+            for (int i = 0; i < ingredients; i++) {
+                totals[i] += (long) current.amounts[base + i] * item.getQuantity();
+            }
+        }
+
+        Map<Integer, Integer> required = new LinkedHashMap<>();
+        for (int i = 0; i < ingredients; i++) {
+            if (totals[i] > 0) {
+                required.put(current.ingredientIds[i], Math.toIntExact(totals[i]));
+            }
+        }
+        return required;
+    }
+
+    public void invalidate() {
+        table = null;
+    }
+
+    private RecipeTable currentTable() {
+        RecipeTable current = table;
+        if (current == null) {
+            synchronized (this) {
+                current = table;
+                if (current == null) {
+                    current = build(recipeSource.get());
+                    // An empty read is most likely a failed one; try again on the next order
+                    if (current.ingredientIds.length > 0) {
+                        table = current;
+                    }
+                }
+            }
+        }
+        return current;
+    }
+
+    private RecipeTable build(List<RecipeIngredient> lines) {
+        TreeSet<Integer> coffees = new TreeSet<>();
+        TreeSet<Integer> ingredients = new TreeSet<>();
+        for (RecipeIngredient line : lines) {
+            if (line.getCoffeeId() != 0) {
+                coffees.add(line.getCoffeeId());
+            }
+            ingredients.add(line.getIngredientId());
+        }
+        int[] coffeeIds = coffees.stream().mapToInt(Integer::intValue).toArray();
+        int[] ingredientIds = ingredients.stream().mapToInt(Integer::intValue).toArray();
+
+        // One extra slot past the known coffees holds what every other coffee uses
+        int slots = coffeeIds.length + 1;
+        int[] amounts = new int[slots * VARIANTS * ingredientIds.length];
+        for (RecipeIngredient line : lines) {
+            int ingredient = Arrays.binarySearch(ingredientIds, line.getIngredientId());
+            int firstSlot = line.getCoffeeId() != 0 ? Arrays.binarySearch(coffeeIds, line.getCoffeeId()) : 0;
+            int lastSlot = line.getCoffeeId() != 0 ? firstSlot : slots - 1;
+            for (OrderItem.SugarLevel sugar : OrderItem.SugarLevel.values()) {
+                for (OrderItem.MilkLevel milk : OrderItem.MilkLevel.values()) {
+                    if (!line.matches(line.getSize(), sugar, milk)) {
+                        continue;
+                    }
+                    int variant = (line.getSize().ordinal() * SUGAR_LEVELS + sugar.ordinal()) * MILK_LEVELS + milk.ordinal();
+                    for (int slot = firstSlot; slot <= lastSlot; slot++) {
+                        amounts[(slot * VARIANTS + variant) * ingredientIds.length + ingredient] += line.getAmount();
+                    }
+                }
+            }
+        }
+        logger.info("Recipe table rebuilt: {} coffee items, {} ingredients", coffeeIds.length, ingredientIds.length);
+        return new RecipeTable(coffeeIds, ingredientIds, amounts);
+    }
+
+    private static final class RecipeTable {
+        final int[] coffeeIds;
+        final int[] ingredientIds;
+        final int[] amounts;
+
+        RecipeTable(int[] coffeeIds, int[] ingredientIds, int[] amounts) {
+            this.coffeeIds = coffeeIds;
+            this.ingredientIds = ingredientIds;
+            this.amounts = amounts;
+        }
+    }
+}
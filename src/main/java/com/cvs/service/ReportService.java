@@ -1,66 +1,69 @@
 package com.cvs.service;
 
+import com.cvs.dao.CoffeeMenuDAO;
 import com.cvs.dao.OrderDAO;
+import com.cvs.dao.SalesRollupDAO;
+import com.cvs.dao.UserCache;
 import com.cvs.dao.UserDAO;
+import com.cvs.models.BalanceSummary;
+import com.cvs.models.CoffeeMenu;
+import com.cvs.models.CoffeeSales;
 import com.cvs.models.Order;
-import com.cvs.models.User;
+import com.cvs.models.SalesSummary;
+import com.cvs.models.TopCustomer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
-import java.util.Map;
-import java.util.stream.Collectors;
 
 public class ReportService {
     private static final Logger logger = LoggerFactory.getLogger(ReportService.class);
+    private static final int RECENT_ORDER_LIMIT = 10;
+    private static final int TOP_SELLER_LIMIT = 5;
+    private static final int TOP_CUSTOMER_LIMIT = 5;
     private final OrderDAO orderDAO;
     private final UserDAO userDAO;
+    private final SalesRollupDAO salesRollupDAO;
+    private final CoffeeMenuDAO coffeeMenuDAO;
 
     public ReportService() {
         this.orderDAO = new OrderDAO();
         this.userDAO = new UserDAO();
+        this.salesRollupDAO = new SalesRollupDAO();
+        this.coffeeMenuDAO = new CoffeeMenuDAO();
     }
 
     public String generateDailyReport() {
         LocalDateTime today = LocalDateTime.now();
-        LocalDateTime startOfDay = today.withHour(0).withMinute(0).withSecond(0);
-        
-        List<Order> allOrders = orderDAO.getAllOrders();
-        List<Order> todayOrders = allOrders.stream()
-            .filter(order -> order.getOrderTime().isAfter(startOfDay))
-            .collect(Collectors.toList());
+        LocalDateTime startOfDay = today.toLocalDate().atStartOfDay();
 
-        return generateReportContent("Daily Report", todayOrders, today.format(DateTimeFormatter.ofPattern("yyyy-MM-dd")));
+        return generateReport("Daily Report", startOfDay, today, today.format(DateTimeFormatter.ofPattern("yyyy-MM-dd")));
     }
 
     public String generateWeeklyReport() {
         LocalDateTime now = LocalDateTime.now();
-        LocalDateTime weekStart = now.minusDays(7);
-        
-        List<Order> allOrders = orderDAO.getAllOrders();
-        List<Order> weekOrders = allOrders.stream()
-            .filter(order -> order.getOrderTime().isAfter(weekStart))
-            .collect(Collectors.toList());
-
-        return generateReportContent("Weekly Report", weekOrders, "Last 7 days");
+        return generateReport("Weekly Report", now.minusDays(7), now, "Last 7 days");
     }
 
     public String generateMonthlyReport() {
         LocalDateTime now = LocalDateTime.now();
-        LocalDateTime monthStart = now.minusDays(30);
-        
-        List<Order> allOrders = orderDAO.getAllOrders();
-        List<Order> monthOrders = allOrders.stream()
-            .filter(order -> order.getOrderTime().isAfter(monthStart))
-            .collect(Collectors.toList());
+        return generateReport("Monthly Report", now.minusDays(30), now, "Last 30 days");
+    }
 
-        return generateReportContent("Monthly Report", monthOrders, "Last 30 days");
+    // Windows are widened to whole hours so they line up with the hourly rollup buckets
+    private String generateReport(String reportType, LocalDateTime from, LocalDateTime to, String period) {
+        LocalDateTime start = SalesRollupDAO.bucketOf(from);
+        LocalDateTime end = SalesRollupDAO.bucketOf(to).plusHours(1);
+        SalesSummary summary = salesRollupDAO.getSalesSummary(start, end);
+        List<CoffeeSales> topSellers = salesRollupDAO.getTopSellers(start, end, TOP_SELLER_LIMIT);
+        List<Order> recentOrders = orderDAO.getRecentOrders(start, end, RECENT_ORDER_LIMIT);
+        return generateReportContent(reportType, summary, topSellers, recentOrders, period);
     }
 
-    private String generateReportContent(String reportType, List<Order> orders, String period) {
+    private String generateReportContent(String reportType, SalesSummary summary, List<CoffeeSales> topSellers,
+                                         List<Order> recentOrders, String period) {
         StringBuilder report = new StringBuilder();
         
         // Header
@@ -71,62 +74,51 @@ public class ReportService {
         report.append("=".repeat(50)).append("\n\n");
 
         // Summary Statistics
-        int totalOrders = orders.size();
-        long completedOrders = orders.stream()
-            .filter(order -> order.getPaymentStatus() == Order.PaymentStatus.COMPLETED)
-            .count();
-        
-        BigDecimal totalRevenue = orders.stream()
-            .filter(order -> order.getPaymentStatus() == Order.PaymentStatus.COMPLETED)
-            .map(Order::getTotalAmount)
-            .reduce(BigDecimal.ZERO, BigDecimal::add);
-
         report.append("📊 SUMMARY STATISTICS\n");
         report.append("-".repeat(30)).append("\n");
-        report.append(String.format("Total Orders: %d\n", totalOrders));
-        report.append(String.format("Completed Orders: %d\n", completedOrders));
-        report.append(String.format("Success Rate: %.1f%%\n", totalOrders > 0 ? (completedOrders * 100.0 / totalOrders) : 0));
-        report.append(String.format("Total Revenue: $%.2f\n", totalRevenue));
-        report.append(String.format("Average Order Value: $%.2f\n", completedOrders > 0 ? totalRevenue.divide(BigDecimal.valueOf(completedOrders), 2, BigDecimal.ROUND_HALF_UP) : BigDecimal.ZERO));
+        report.append(String.format("Total Orders: %d\n", summary.getTotalOrders()));
+        report.append(String.format("Completed Orders: %d\n", summary.getCompletedOrders()));
+        report.append(String.format("Success Rate: %.1f%%\n", summary.getSuccessRate()));
+        report.append(String.format("Total Revenue: $%.2f\n", summary.getCompletedRevenue()));
+        report.append(String.format("Average Order Value: $%.2f\n", summary.getAverageOrderValue()));
         report.append("\n");
 
         // Order Status Breakdown
-        Map<Order.OrderStatus, Long> statusCounts = orders.stream()
-            .collect(Collectors.groupingBy(Order::getOrderStatus, Collectors.counting()));
-
         report.append("📋 ORDER STATUS BREAKDOWN\n");
         report.append("-".repeat(30)).append("\n");
         for (Order.OrderStatus status : Order.OrderStatus.values()) {
-            long count = statusCounts.getOrDefault(status, 0L);
-            report.append(String.format("%-12s: %d\n", status, count));
+            report.append(String.format("%-12s: %d\n", status, summary.getOrderStatusCount(status)));
         }
         report.append("\n");
 
         // Payment Status Breakdown
-        Map<Order.PaymentStatus, Long> paymentCounts = orders.stream()
-            .collect(Collectors.groupingBy(Order::getPaymentStatus, Collectors.counting()));
-
         report.append("💳 PAYMENT STATUS BREAKDOWN\n");
         report.append("-".repeat(30)).append("\n");
         for (Order.PaymentStatus status : Order.PaymentStatus.values()) {
-            long count = paymentCounts.getOrDefault(status, 0L);
-            report.append(String.format("%-12s: %d\n", status, count));
+            report.append(String.format("%-12s: %d\n", status, summary.getPaymentStatusCount(status)));
+        }
+        report.append("\n");
+
+        // Top Sellers
+        report.append("☕ TOP SELLERS\n");
+        report.append("-".repeat(30)).append("\n");
+        for (CoffeeSales sales : topSellers) {
+            CoffeeMenu coffee = coffeeMenuDAO.getCoffeeById(sales.getCoffeeId());
+            String name = coffee != null ? coffee.getName() : "Coffee #" + sales.getCoffeeId();
+            report.append(String.format("%-12s: %d sold - $%.2f\n", name, sales.getQuantity(), sales.getRevenue()));
         }
         report.append("\n");
 
         // Recent Orders (last 10)
         report.append("🕒 RECENT ORDERS\n");
         report.append("-".repeat(30)).append("\n");
-        orders.stream()
-            .sorted((o1, o2) -> o2.getOrderTime().compareTo(o1.getOrderTime()))
-            .limit(10)
-            .forEach(order -> {
-                report.append(String.format("Order #%d - $%.2f - %s - %s\n",
-                    order.getOrderId(),
-                    order.getTotalAmount(),
-                    order.getOrderStatus(),
-                    order.getOrderTime().format(DateTimeFormatter.ofPattern("MM-dd HH:mm"))));
-            });
+        for (Order order : recentOrders) {
+            report.append(String.format("Order #%d - $%.2f - %s - %s\n",
+                order.getOrderId(),
+                order.getTotalAmount(),
+                order.getOrderStatus(),
+                order.getOrderTime().format(DateTimeFormatter.ofPattern("MM-dd HH:mm"))));
+        }
 
         report.append("\n");
         report.append("=".repeat(50)).append("\n");
@@ -137,38 +129,25 @@ public class ReportService {
     }
 
     public String generateUserStatistics() {
-        List<User> users = userDAO.getAllUsers();
-        List<Order> orders = orderDAO.getAllOrders();
+        BalanceSummary balances = userDAO.getBalanceSummary();
+        List<TopCustomer> topCustomers = orderDAO.getTopCustomers(TOP_CUSTOMER_LIMIT);
 
         StringBuilder report = new StringBuilder();
         report.append("👥 USER STATISTICS\n");
         report.append("-".repeat(30)).append("\n");
-        report.append(String.format("Total Users: %d\n", users.size()));
-        
-        BigDecimal totalUserBalance = users.stream()
-            .map(User::getBalance)
-            .reduce(BigDecimal.ZERO, BigDecimal::add);
-        
-        report.append(String.format("Total User Balance: $%.2f\n", totalUserBalance));
-        report.append(String.format("Average Balance: $%.2f\n", 
-            users.size() > 0 ? totalUserBalance.divide(BigDecimal.valueOf(users.size()), 2, BigDecimal.ROUND_HALF_UP) : BigDecimal.ZERO));
-
-        // Top users by order count
-        Map<Integer, Long> userOrderCounts = orders.stream()
-            .collect(Collectors.groupingBy(Order::getUserId, Collectors.counting()));
+        report.append(String.format("Total Users: %d\n", balances.getUserCount()));
+        report.append(String.format("Total User Balance: $%.2f\n", balances.getTotalBalance()));
+        report.append(String.format("Average Balance: $%.2f\n", balances.getAverageBalance()));
+        UserCache cache = UserCache.getInstance();
+        report.append(String.format("User Cache: %d cached, %.1f%% hit rate, %d evicted, %d expired\n",
+            cache.size(), cache.getHitRate() * 100, cache.getEvictions(), cache.getExpirations()));
 
         report.append("\n🏆 TOP CUSTOMERS\n");
         report.append("-".repeat(20)).append("\n");
-        userOrderCounts.entrySet().stream()
-            .sorted(Map.Entry.<Integer, Long>comparingByValue().reversed())
-            .limit(5)
-            .forEach(entry -> {
-                User user = userDAO.getUserById(entry.getKey());
-                if (user != null) {
-                    report.append(String.format("%-20s: %d orders\n", user.getName(), entry.getValue()));
-                }
-            });
+        for (TopCustomer customer : topCustomers) {
+            report.append(String.format("%-20s: %d orders\n", customer.getName(), customer.getOrderCount()));
+        }
 
         return report.toString();
     }
-}
\ No newline at end of file
+}
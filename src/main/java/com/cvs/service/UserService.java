@@ -13,7 +13,11 @@ public class UserService {
     private final UserDAO userDAO;
 
     public UserService() {
-        this.userDAO = new UserDAO();
+        this(new UserDAO());
+    }
+
+    public UserService(UserDAO userDAO) {
+        this.userDAO = userDAO;
     }
 
     public boolean registerUser(String name, String email, String password) {
@@ -58,12 +62,7 @@ public class UserService {
 
     public boolean addBalance(int userId, BigDecimal amount) {
         try {
-            User user = userDAO.getUserById(userId);
-            if (user != null) {
-                BigDecimal newBalance = user.getBalance().add(amount);
-                return userDAO.updateUserBalance(userId, newBalance);
-            }
-            return false;
+            return userDAO.creditBalance(userId, amount) != null;
         } catch (Exception e) {
             logger.error("Error adding balance: {}", e.getMessage());
             return false;
@@ -72,18 +71,17 @@ public class UserService {
 
     public boolean deductBalance(int userId, BigDecimal amount) {
         try {
-            User user = userDAO.getUserById(userId);
-            if (user != null && user.getBalance().compareTo(amount) >= 0) {
-                BigDecimal newBalance = user.getBalance().subtract(amount);
-                return userDAO.updateUserBalance(userId, newBalance);
-            }
-            return false;
+            return userDAO.debitBalance(userId, amount) != null;
         } catch (Exception e) {
             logger.error("Error deducting balance: {}", e.getMessage());
             return false;
         }
     }
 
+    public void balanceChanged(int userId, BigDecimal newBalance) {
+        userDAO.balanceChanged(userId, newBalance);
+    }
+
     public User getUserById(int userId) {
         return userDAO.getUserById(userId);
     }
@@ -0,0 +1,427 @@
+package com.cvs.utils;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class ConnectionPool {
+    private static final Logger logger = LoggerFactory.getLogger(ConnectionPool.class);
+    private static final long HOUSEKEEPING_INTERVAL_MS = 5000;
+
+    private final String url;
+    private final String username;
+    private final String password;
+    private final int maximumSize;
+    private final int minimumIdle;
+    private final long connectionTimeoutMs;
+    private final long idleTimeoutMs;
+    private final int validationTimeoutSeconds;
+    private final long leakDetectionThresholdMs;
+    private final boolean leakStackTraces;
+    private final int statementCacheSize;
+
+    private final Semaphore permits;
+    private final LinkedBlockingDeque<PooledEntry> idle = new LinkedBlockingDeque<>();
+    private final Map<Connection, Lease> leased = new ConcurrentHashMap<>();
+    private final AtomicInteger totalConnections = new AtomicInteger();
+    private final ScheduledExecutorService housekeeper;
+    private volatile boolean shutdown = false;
+
+    // Metrics
+    private final AtomicLong borrowCount = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final AtomicLong timeoutCount = new AtomicLong();
+    private final AtomicLong createdCount = new AtomicLong();
+    private final AtomicLong evictedCount = new AtomicLong();
+    private final AtomicLong leakCount = new AtomicLong();
+    private final AtomicLong statementCacheHits = new AtomicLong();
+    private final AtomicLong statementCacheMisses = new AtomicLong();
+
+    public ConnectionPool(String url, String username, String password, int maximumSize, int minimumIdle,
+                          long connectionTimeoutMs, long idleTimeoutMs, int validationTimeoutSeconds,
+                          long leakDetectionThresholdMs, int statementCacheSize) {
+        this(url, username, password, maximumSize, minimumIdle, connectionTimeoutMs, idleTimeoutMs,
+             validationTimeoutSeconds, leakDetectionThresholdMs, false, statementCacheSize);
+    }
+
+    // leakStackTraces records where each connection was borrowed, for debugging a leak; it costs
+    // a stack capture per borrow, so by default a lease only notes the thread and time
+    public ConnectionPool(String url, String username, String password, int maximumSize, int minimumIdle,
+                          long connectionTimeoutMs, long idleTimeoutMs, int validationTimeoutSeconds,
+                          long leakDetectionThresholdMs, boolean leakStackTraces, int statementCacheSize) {
+        if (url == null || url.trim().isEmpty()) {
+            throw new IllegalArgumentException("Database URL cannot be null or empty");
+        }
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException("Maximum pool size must be positive");
+        }
+        if (minimumIdle < 0 || minimumIdle > maximumSize) {
+            throw new IllegalArgumentException("Minimum idle must be between 0 and maximum pool size");
+        }
+        this.url = url;
+        this.username = username;
+        this.password = password;
+        this.maximumSize = maximumSize;
+        this.minimumIdle = minimumIdle;
+        this.connectionTimeoutMs = connectionTimeoutMs;
+        this.idleTimeoutMs = idleTimeoutMs;
+        this.validationTimeoutSeconds = validationTimeoutSeconds;
+        this.leakDetectionThresholdMs = leakDetectionThresholdMs;
+        this.leakStackTraces = leakStackTraces;
+        this.statementCacheSize = statementCacheSize;
+        this.permits = new Semaphore(maximumSize, true);
+
+        this.housekeeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "cvs-pool-housekeeper");
+            t.setDaemon(true);
+            return t;
+        });
+        housekeeper.scheduleWithFixedDelay(this::housekeep, 0, HOUSEKEEPING_INTERVAL_MS, TimeUnit.MILLISECONDS);
+        logger.info("Connection pool initialized: maximumSize={}, minimumIdle={}, connectionTimeout={}ms, statementCacheSize={}",
+                    maximumSize, minimumIdle, connectionTimeoutMs, statementCacheSize);
+    }
+
+    public Connection getConnection() throws SQLException {
+        if (shutdown) {
+            throw new SQLException("Connection pool has been shut down");
+        }
+
+        long start = System.nanoTime();
+        try {
+            if (!permits.tryAcquire(connectionTimeoutMs, TimeUnit.MILLISECONDS)) {
+                timeoutCount.incrementAndGet();
+                throw new SQLException(String.format(
+                    "Connection is not available, request timed out after %dms (active=%d, idle=%d, waiting=%d)",
+                    connectionTimeoutMs, leased.size(), idle.size(), permits.getQueueLength()));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection", e);
+        }
+        recordWait(System.nanoTime() - start);
+
+        try {
+            PooledEntry entry;
+            while ((entry = idle.pollFirst()) != null) {
+                if (isUsable(entry)) {
+                    return lease(entry);
+                }
+                destroy(entry);
+            }
+            return lease(createEntry());
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    public PoolStats getStats() {
+        long borrows = borrowCount.get();
+        return new PoolStats(totalConnections.get(), leased.size(), idle.size(), permits.getQueueLength(),
+                             maximumSize, borrows, borrows > 0 ? totalWaitNanos.get() / borrows / 1000 : 0,
+                             maxWaitNanos.get() / 1000, timeoutCount.get(), createdCount.get(),
+                             evictedCount.get(), leakCount.get(), statementCacheHits.get(), statementCacheMisses.get());
+    }
+
+    public void shutdown() {
+        shutdown = true;
+        housekeeper.shutdownNow();
+        PooledEntry entry;
+        while ((entry = idle.pollFirst()) != null) {
+            destroy(entry);
+        }
+        logger.info("Connection pool shut down: {}", getStats());
+    }
+
+    private Connection lease(PooledEntry entry) {
+        Lease lease = new Lease(entry, leakDetectionThresholdMs > 0 && leakStackTraces
+                ? new Exception("Connection leased by thread " + Thread.currentThread().getName()) : null);
+        Connection proxy = (Connection) Proxy.newProxyInstance(
+                ConnectionPool.class.getClassLoader(), new Class<?>[]{Connection.class}, lease);
+        leased.put(proxy, lease);
+        borrowCount.incrementAndGet();
+        return proxy;
+    }
+
+    private void release(Connection proxy, Lease lease) {
+        leased.remove(proxy);
+        PooledEntry entry = lease.entry;
+        try {
+            if (entry.statements != null) {
+                entry.statements.releaseAll();
+            }
+            if (!entry.broken && !shutdown) {
+                if (!entry.physical.getAutoCommit()) {
+                    entry.physical.rollback();
+                    entry.physical.setAutoCommit(true);
+                }
+                entry.physical.clearWarnings();
+                entry.lastUsed = System.currentTimeMillis();
+                idle.offerFirst(entry);
+            } else {
+                destroy(entry);
+            }
+        } catch (SQLException e) {
+            logger.warn("Discarding connection that failed to reset: {}", e.getMessage());
+            destroy(entry);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private PooledEntry createEntry() throws SQLException {
+        Connection physical = DriverManager.getConnection(url, username, password);
+        totalConnections.incrementAndGet();
+        createdCount.incrementAndGet();
+        logger.debug("New pooled connection created (total={})", totalConnections.get());
+        StatementCache statements = statementCacheSize > 0
+                ? new StatementCache(physical, statementCacheSize, statementCacheHits, statementCacheMisses) : null;
+        return new PooledEntry(physical, statements);
+    }
+
+    private boolean isUsable(PooledEntry entry) {
+        try {
+            return !entry.physical.isClosed() && entry.physical.isValid(validationTimeoutSeconds);
+        } catch (SQLException e) {
+            logger.debug("Pooled connection failed validation: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    private void destroy(PooledEntry entry) {
+        totalConnections.decrementAndGet();
+        try {
+            entry.physical.close();
+        } catch (SQLException e) {
+            logger.debug("Error closing pooled connection: {}", e.getMessage());
+        }
+    }
+
+    private void recordWait(long waitNanos) {
+        totalWaitNanos.addAndGet(waitNanos);
+        maxWaitNanos.accumulateAndGet(waitNanos, Math::max);
+    }
+
+    private void housekeep() {
+        try {
+            evictIdle();
+            detectLeaks();
+            fillMinimumIdle();
+        } catch (Exception e) {
+            logger.error("Connection pool housekeeping failed: {}", e.getMessage());
+        }
+    }
+
+    private void evictIdle() {
+        if (idleTimeoutMs <= 0) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        // Oldest connections sit at the tail because returns go to the head
+        int candidates = idle.size() - minimumIdle;
+        for (int i = 0; i < candidates; i++) {
+            PooledEntry entry = idle.pollLast();
+            if (entry == null) {
+                break;
+            }
+            if (now - entry.lastUsed > idleTimeoutMs) {
+                destroy(entry);
+                evictedCount.incrementAndGet();
+            } else {
+                idle.offerLast(entry);
+                break;
+            }
+        }
+    }
+
+    private void detectLeaks() {
+        if (leakDetectionThresholdMs <= 0) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        for (Lease lease : leased.values()) {
+            if (!lease.leakReported && now - lease.leasedAt > leakDetectionThresholdMs) {
+                lease.leakReported = true;
+                leakCount.incrementAndGet();
+                if (lease.origin != null) {
+                    logger.warn("Possible connection leak: connection held for {}ms", now - lease.leasedAt, lease.origin);
+                } else {
+                    logger.warn("Possible connection leak: connection held for {}ms by thread {}",
+                                now - lease.leasedAt, lease.threadName);
+                }
+            }
+        }
+    }
+
+    private void fillMinimumIdle() {
+        while (!shutdown && idle.size() < minimumIdle && totalConnections.get() < maximumSize
+                && permits.tryAcquire()) {
+            try {
+                PooledEntry entry = createEntry();
+                idle.offerLast(entry);
+            } catch (SQLException e) {
+                logger.debug("Unable to pre-fill connection pool: {}", e.getMessage());
+                break;
+            } finally {
+                permits.release();
+            }
+        }
+    }
+
+    private static final class PooledEntry {
+        final Connection physical;
+        final StatementCache statements;
+        volatile long lastUsed = System.currentTimeMillis();
+        volatile boolean broken = false;
+
+        PooledEntry(Connection physical, StatementCache statements) {
+            this.physical = physical;
+            this.statements = statements;
+        }
+    }
+
+    private final class Lease implements InvocationHandler {
+        final PooledEntry entry;
+        final Exception origin;
+        final String threadName = Thread.currentThread().getName();
+        final long leasedAt = System.currentTimeMillis();
+        volatile boolean leakReported = false;
+        private boolean closed = false;
+
+        Lease(PooledEntry entry, Exception origin) {
+            this.entry = entry;
+            this.origin = origin;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!closed) {
+                        closed = true;
+                        release((Connection) proxy, this);
+                    }
+                    return null;
+                case "isClosed":
+                    return closed || entry.physical.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "PooledConnection[" + entry.physical + "]";
+                default:
+                    break;
+            }
+            if (closed) {
+                throw new SQLException("Connection is closed");
+            }
+            try {
+                if (entry.statements != null && StatementCache.isCacheable(method, args)) {
+                    return args.length == 1
+                            ? entry.statements.prepare((Connection) proxy, (String) args[0])
+                            : entry.statements.prepare((Connection) proxy, (String) args[0], (Integer) args[1]);
+                }
+                return method.invoke(entry.physical, args);
+            } catch (InvocationTargetException e) {
+                throw markIfBroken(e.getCause());
+            } catch (SQLException e) {
+                throw markIfBroken(e);
+            }
+        }
+
+        private Throwable markIfBroken(Throwable cause) {
+            if (cause instanceof SQLException) {
+                String state = ((SQLException) cause).getSQLState();
+                // SQLState class 08 means the physical connection is gone
+                if (state != null && state.startsWith("08")) {
+                    entry.broken = true;
+                }
+            }
+            return cause;
+        }
+    }
+
+    public static final class PoolStats {
+        private final int totalConnections;
+        private final int activeConnections;
+        private final int idleConnections;
+        private final int waitingThreads;
+        private final int maximumSize;
+        private final long borrowCount;
+        private final long averageWaitMicros;
+        private final long maxWaitMicros;
+        private final long timeoutCount;
+        private final long createdCount;
+        private final long evictedCount;
+        private final long leakCount;
+        private final long statementCacheHits;
+        private final long statementCacheMisses;
+
+        PoolStats(int totalConnections, int activeConnections, int idleConnections, int waitingThreads,
+                  int maximumSize, long borrowCount, long averageWaitMicros, long maxWaitMicros,
+                  long timeoutCount, long createdCount, long evictedCount, long leakCount,
+                  long statementCacheHits, long statementCacheMisses) {
+            this.totalConnections = totalConnections;
+            this.activeConnections = activeConnections;
+            this.idleConnections = idleConnections;
+            this.waitingThreads = waitingThreads;
+            this.maximumSize = maximumSize;
+            this.borrowCount = borrowCount;
+            this.averageWaitMicros = averageWaitMicros;
+            this.maxWaitMicros = maxWaitMicros;
+            this.timeoutCount = timeoutCount;
+            this.createdCount = createdCount;
+            this.evictedCount = evictedCount;
+            this.leakCount = leakCount;
+            this.statementCacheHits = statementCacheHits;
+            this.statementCacheMisses = statementCacheMisses;
+        }
+
+        public int getTotalConnections() { return totalConnections; }
+        public int getActiveConnections() { return activeConnections; }
+        public int getIdleConnections() { return idleConnections; }
+        public int getWaitingThreads() { return waitingThreads; }
+        public int getMaximumSize() { return maximumSize; }
+        public long getBorrowCount() { return borrowCount; }
+        public long getAverageWaitMicros() { return averageWaitMicros; }
+        public long getMaxWaitMicros() { return maxWaitMicros; }
+        public long getTimeoutCount() { return timeoutCount; }
+        public long getCreatedCount() { return createdCount; }
+        public long getEvictedCount() { return evictedCount; }
+        public long getLeakCount() { return leakCount; }
+        public long getStatementCacheHits() { return statementCacheHits; }
+        public long getStatementCacheMisses() { return statementCacheMisses; }
+
+        public double getStatementCacheHitRatio() {
+            long lookups = statementCacheHits + statementCacheMisses;
+            return lookups > 0 ? (double) statementCacheHits / lookups : 0.0;
+        }
+
+        @Override
+        public String toString() {
+            return "PoolStats{total=" + totalConnections + ", active=" + activeConnections + ", idle=" + idleConnections +
+                   ", waiting=" + waitingThreads + ", borrows=" + borrowCount + ", avgWait=" + averageWaitMicros +
+                   "us, maxWait=" + maxWaitMicros + "us, timeouts=" + timeoutCount + ", created=" + createdCount +
+                   ", evicted=" + evictedCount + ", leaks=" + leakCount + ", stmtCacheHits=" + statementCacheHits +
+                   ", stmtCacheMisses=" + statementCacheMisses + "}";
+        }
+    }
+}
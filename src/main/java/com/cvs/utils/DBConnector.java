@@ -2,8 +2,9 @@ package com.cvs.utils;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
 import java.util.Properties;
 import org.slf4j.Logger;
@@ -13,10 +14,13 @@ public class DBConnector {
     private static final Logger logger = LoggerFactory.getLogger(DBConnector.class);
     private static Properties properties;
     private static boolean driverLoaded = false;
+    private static ConnectionPool pool;
+    private static String nodeId;
 
     static {
         loadProperties();
         loadJDBCDriver();
+        initializePool();
     }
 
     private static void loadProperties() {
@@ -46,25 +50,91 @@ public class DBConnector {
         }
     }
 
+    private static void initializePool() {
+        pool = new ConnectionPool(
+            properties.getProperty("db.url"),
+            properties.getProperty("db.username"),
+            properties.getProperty("db.password"),
+            getIntProperty("db.pool.maximum-size", 20),
+            getIntProperty("db.pool.minimum-idle", 5),
+            getLongProperty("db.pool.connection-timeout", 30000),
+            getLongProperty("db.pool.idle-timeout", 600000),
+            getIntProperty("db.pool.validation-timeout", 5),
+            getLongProperty("db.pool.leak-detection-threshold", 60000),
+            Boolean.parseBoolean(properties.getProperty("db.pool.leak-detection-stacks", "false").trim()),
+            getIntProperty("db.pool.statement-cache-size", 64));
+        Runtime.getRuntime().addShutdownHook(new Thread(pool::shutdown, "cvs-pool-shutdown"));
+    }
+
     public static Connection getConnection() throws SQLException {
         if (!driverLoaded) {
             throw new SQLException("JDBC Driver not loaded");
         }
 
-        String url = properties.getProperty("db.url");
-        String username = properties.getProperty("db.username");
-        String password = properties.getProperty("db.password");
-
         try {
-            Connection connection = DriverManager.getConnection(url, username, password);
-            logger.info("Database connection established successfully");
-            return connection;
+            return pool.getConnection();
         } catch (SQLException e) {
             logger.error("Failed to establish database connection: {}", e.getMessage());
             throw e;
         }
     }
 
+    public static ConnectionPool.PoolStats getPoolStats() {
+        return pool.getStats();
+    }
+
+    public static String getProperty(String key, String defaultValue) {
+        return properties.getProperty(key, defaultValue);
+    }
+
+    // Names this application instance in the rows it owns, such as stock leases. Defaults to the host
+    // name; set app.node-id when instances share a host. It must stay the same across restarts.
+    public static synchronized String getNodeId() {
+        if (nodeId == null) {
+            String configured = properties.getProperty("app.node-id");
+            if (configured != null && !configured.trim().isEmpty()) {
+                nodeId = configured.trim();
+            } else {
+                try {
+                    nodeId = InetAddress.getLocalHost().getHostName();
+                } catch (UnknownHostException e) {
+                    logger.warn("Host name unavailable, using 'local' as the node id: {}", e.getMessage());
+                    nodeId = "local";
+                }
+            }
+            if (nodeId.length() > 64) {
+                nodeId = nodeId.substring(0, 64);
+            }
+        }
+        return nodeId;
+    }
+
+    public static int getIntProperty(String key, int defaultValue) {
+        String value = properties.getProperty(key);
+        if (value == null || value.trim().isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            logger.warn("Invalid value for {}: '{}', using default {}", key, value, defaultValue);
+            return defaultValue;
+        }
+    }
+
+    public static long getLongProperty(String key, long defaultValue) {
+        String value = properties.getProperty(key);
+        if (value == null || value.trim().isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            logger.warn("Invalid value for {}: '{}', using default {}", key, value, defaultValue);
+            return defaultValue;
+        }
+    }
+
     public static boolean testConnection() {
         try (Connection connection = getConnection()) {
             boolean isValid = connection.isValid(5);
@@ -0,0 +1,74 @@
+package com.cvs.utils;
+
+import com.cvs.dao.SalesRollupDAO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+// Rebuilds the hourly rollups from orders one day at a time, committing after each day.
+// Safe to re-run: each chunk deletes and recomputes its own hours.
+// Usage: SalesRollupBackfill [fromDate] [toDate]   (yyyy-MM-dd, toDate exclusive)
+public class SalesRollupBackfill {
+    private static final Logger logger = LoggerFactory.getLogger(SalesRollupBackfill.class);
+
+    public static int backfill(LocalDateTime from, LocalDateTime to, Connection conn) throws SQLException {
+        SalesRollupDAO rollupDAO = new SalesRollupDAO();
+        boolean autoCommit = conn.getAutoCommit();
+        conn.setAutoCommit(false);
+        int total = 0;
+        try {
+            LocalDateTime chunkStart = SalesRollupDAO.bucketOf(from);
+            while (chunkStart.isBefore(to)) {
+                LocalDateTime chunkEnd = chunkStart.plusDays(1).isBefore(to) ? chunkStart.plusDays(1) : to;
+                int orders = rollupDAO.rebuild(chunkStart, chunkEnd, conn);
+                conn.commit();
+                total += orders;
+                logger.info("Rollup rebuilt for {} to {}: {} orders", chunkStart, chunkEnd, orders);
+                chunkStart = chunkEnd;
+            }
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(autoCommit);
+        }
+        return total;
+    }
+
+    private static LocalDateTime earliestOrderTime(Connection conn) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT MIN(order_time) FROM orders");
+             ResultSet rs = stmt.executeQuery()) {
+            if (rs.next()) {
+                Timestamp earliest = rs.getTimestamp(1);
+                if (earliest != null) {
+                    return earliest.toLocalDateTime();
+                }
+            }
+        }
+        return null;
+    }
+
+    public static void main(String[] args) {
+        try (Connection conn = DBConnector.getConnection()) {
+            LocalDateTime from = args.length > 0 ? LocalDate.parse(args[0]).atStartOfDay() : earliestOrderTime(conn);
+            LocalDateTime to = args.length > 1
+                ? LocalDate.parse(args[1]).atStartOfDay()
+                : SalesRollupDAO.bucketOf(LocalDateTime.now()).plusHours(1);
+            if (from == null) {
+                System.out.println("No orders to backfill");
+                return;
+            }
+            int orders = backfill(from, to, conn);
+            System.out.printf("✅ Sales rollup backfilled: %d orders from %s to %s%n", orders, from, to);
+        } catch (SQLException e) {
+            System.err.println("❌ Error backfilling sales rollup: " + e.getMessage());
+        }
+    }
+}
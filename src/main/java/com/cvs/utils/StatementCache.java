@@ -0,0 +1,199 @@
+package com.cvs.utils;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Per-connection LRU of prepared statements. A pooled connection is only ever
+// used by the thread that leased it, so no synchronization is needed here.
+class StatementCache {
+    private static final Logger logger = LoggerFactory.getLogger(StatementCache.class);
+    private static final int NO_GENERATED_KEYS = -1;
+
+    private final Connection physical;
+    private final int maxSize;
+    private final AtomicLong hits;
+    private final AtomicLong misses;
+    private final LinkedHashMap<String, CachedStatement> statements;
+
+    StatementCache(Connection physical, int maxSize, AtomicLong hits, AtomicLong misses) {
+        this.physical = physical;
+        this.maxSize = maxSize;
+        this.hits = hits;
+        this.misses = misses;
+        this.statements = new LinkedHashMap<String, CachedStatement>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedStatement> eldest) {
+                if (size() <= StatementCache.this.maxSize) {
+                    return false;
+                }
+                eldest.getValue().evict();
+                return true;
+            }
+        };
+    }
+
+    PreparedStatement prepare(Connection owner, String sql) throws SQLException {
+        return prepare(owner, sql, NO_GENERATED_KEYS);
+    }
+
+    PreparedStatement prepare(Connection owner, String sql, int autoGeneratedKeys) throws SQLException {
+        String key = autoGeneratedKeys == NO_GENERATED_KEYS ? sql : autoGeneratedKeys + ":" + sql;
+        CachedStatement cached = statements.get(key);
+        if (cached != null && !cached.inUse) {
+            hits.incrementAndGet();
+            return cached.checkout(owner);
+        }
+
+        misses.incrementAndGet();
+        PreparedStatement stmt = autoGeneratedKeys == NO_GENERATED_KEYS
+                ? physical.prepareStatement(sql)
+                : physical.prepareStatement(sql, autoGeneratedKeys);
+        if (cached != null) {
+            // Same SQL is already open on this connection (nested use), don't cache the second one
+            return stmt;
+        }
+        CachedStatement fresh = new CachedStatement(stmt);
+        statements.put(key, fresh);
+        return fresh.checkout(owner);
+    }
+
+    // Called when the owning lease is closed so a statement the caller forgot to close
+    // does not stay checked out forever.
+    void releaseAll() {
+        List<CachedStatement> open = new ArrayList<>();
+        for (CachedStatement cached : statements.values()) {
+            if (cached.inUse) {
+                open.add(cached);
+            }
+        }
+        for (CachedStatement cached : open) {
+            cached.checkin();
+        }
+    }
+
+    int size() {
+        return statements.size();
+    }
+
+    private static final class CachedStatement {
+        final PreparedStatement physical;
+        boolean inUse = false;
+        boolean evicted = false;
+        Handle handle;
+
+        CachedStatement(PreparedStatement physical) {
+            this.physical = physical;
+        }
+
+        PreparedStatement checkout(Connection owner) {
+            inUse = true;
+            handle = new Handle(this, owner);
+            return (PreparedStatement) Proxy.newProxyInstance(
+                    StatementCache.class.getClassLoader(), new Class<?>[]{PreparedStatement.class}, handle);
+        }
+
+        void checkin() {
+            if (handle != null) {
+                handle.closed = true;
+                handle = null;
+            }
+            inUse = false;
+            if (evicted) {
+                closeQuietly();
+                return;
+            }
+            try {
+                ResultSet rs = physical.getResultSet();
+                if (rs != null) {
+                    rs.close();
+                }
+                physical.clearParameters();
+                physical.clearBatch();
+            } catch (SQLException e) {
+                logger.debug("Closing cached statement that failed to reset: {}", e.getMessage());
+                evicted = true;
+                closeQuietly();
+            }
+        }
+
+        void evict() {
+            evicted = true;
+            if (!inUse) {
+                closeQuietly();
+            }
+        }
+
+        void closeQuietly() {
+            try {
+                physical.close();
+            } catch (SQLException e) {
+                logger.debug("Error closing cached statement: {}", e.getMessage());
+            }
+        }
+    }
+
+    private static final class Handle implements InvocationHandler {
+        final CachedStatement cached;
+        final Connection owner;
+        boolean closed = false;
+
+        Handle(CachedStatement cached, Connection owner) {
+            this.cached = cached;
+            this.owner = owner;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!closed) {
+                        cached.checkin();
+                    }
+                    return null;
+                case "isClosed":
+                    return closed || cached.physical.isClosed();
+                case "getConnection":
+                    return owner;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "CachedStatement[" + cached.physical + "]";
+                default:
+                    break;
+            }
+            if (closed) {
+                throw new SQLException("Statement is closed");
+            }
+            try {
+                return method.invoke(cached.physical, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+
+    static boolean isCacheable(Method method, Object[] args) {
+        if (!"prepareStatement".equals(method.getName()) || args == null || !(args[0] instanceof String)) {
+            return false;
+        }
+        return args.length == 1 || (args.length == 2 && args[1] instanceof Integer
+                && ((Integer) args[1] == Statement.RETURN_GENERATED_KEYS || (Integer) args[1] == Statement.NO_GENERATED_KEYS));
+    }
+}
@@ -0,0 +1,110 @@
+package com.cvs.benchmarks;
+
+import com.cvs.models.Money;
+import com.cvs.models.Order;
+import com.cvs.models.SalesSummary;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Compares BigDecimal against long-cents Money on the two hot money paths: summing a cart's
+// line prices, and folding the report's (order_status, payment_status) groups into a summary.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MoneyBenchmark {
+    private static final int CART_SIZE = 8;
+    private static final int REPORT_DAYS = 30;
+
+    private long[] unitCents;
+    private BigDecimal[] unitPrices;
+    private int[] quantities;
+
+    private Order.OrderStatus[] groupOrderStatus;
+    private Order.PaymentStatus[] groupPaymentStatus;
+    private long[] groupCounts;
+    private long[] groupRevenueCents;
+    private BigDecimal[] groupRevenue;
+
+    @Setup
+    public void setUp() {
+        unitCents = new long[CART_SIZE];
+        unitPrices = new BigDecimal[CART_SIZE];
+        quantities = new int[CART_SIZE];
+        for (int i = 0; i < CART_SIZE; i++) {
+            unitCents[i] = 250 + 45 * i;
+            unitPrices[i] = BigDecimal.valueOf(unitCents[i], 2);
+            quantities[i] = 1 + i % 3;
+        }
+
+        // One group per status pair per day, as a month of hourly rollups would produce
+        Order.OrderStatus[] orderStatuses = Order.OrderStatus.values();
+        Order.PaymentStatus[] paymentStatuses = Order.PaymentStatus.values();
+        int groups = REPORT_DAYS * orderStatuses.length * paymentStatuses.length;
+        groupOrderStatus = new Order.OrderStatus[groups];
+        groupPaymentStatus = new Order.PaymentStatus[groups];
+        groupCounts = new long[groups];
+        groupRevenueCents = new long[groups];
+        groupRevenue = new BigDecimal[groups];
+        for (int i = 0; i < groups; i++) {
+            groupOrderStatus[i] = orderStatuses[i % orderStatuses.length];
+            groupPaymentStatus[i] = paymentStatuses[(i / orderStatuses.length) % paymentStatuses.length];
+            groupCounts[i] = 3 + i % 17;
+            groupRevenueCents[i] = groupCounts[i] * (325 + i % 90);
+            groupRevenue[i] = BigDecimal.valueOf(groupRevenueCents[i], 2);
+        }
+    }
+
+    @Benchmark
+    public BigDecimal bigDecimalCartTotal() {
+        BigDecimal total = BigDecimal.ZERO;
+        for (int i = 0; i < CART_SIZE; i++) {
+            BigDecimal line = unitPrices[i].multiply(BigDecimal.valueOf(quantities[i])).setScale(2, RoundingMode.HALF_UP);
+            total = total.add(line);
+        }
+        return total;
+    }
+
+    @Benchmark
+    public Money moneyCartTotal() {
+        Money total = Money.ZERO;
+        for (int i = 0; i < CART_SIZE; i++) {
+            total = total.plus(Money.ofCents(unitCents[i]).times(quantities[i]));
+        }
+        return total;
+    }
+
+    // The previous SalesSummary.addGroup: EnumMap counters and a BigDecimal running total
+    @Benchmark
+    public BigDecimal bigDecimalReport() {
+        Map<Order.OrderStatus, Long> orderStatusCounts = new EnumMap<>(Order.OrderStatus.class);
+        Map<Order.PaymentStatus, Long> paymentStatusCounts = new EnumMap<>(Order.PaymentStatus.class);
+        BigDecimal revenue = BigDecimal.ZERO;
+        long completed = 0;
+        for (int i = 0; i < groupCounts.length; i++) {
+            orderStatusCounts.merge(groupOrderStatus[i], groupCounts[i], Long::sum);
+            paymentStatusCounts.merge(groupPaymentStatus[i], groupCounts[i], Long::sum);
+            if (groupPaymentStatus[i] == Order.PaymentStatus.COMPLETED) {
+                completed += groupCounts[i];
+                revenue = revenue.add(groupRevenue[i]);
+            }
+        }
+        return completed > 0 ? revenue.divide(BigDecimal.valueOf(completed), 2, RoundingMode.HALF_UP) : BigDecimal.ZERO;
+    }
+
+    @Benchmark
+    public BigDecimal moneyReport() {
+        SalesSummary summary = new SalesSummary();
+        for (int i = 0; i < groupCounts.length; i++) {
+            summary.addGroup(groupOrderStatus[i], groupPaymentStatus[i], groupCounts[i], groupRevenueCents[i]);
+        }
+        return summary.getAverageOrderValue();
+    }
+}
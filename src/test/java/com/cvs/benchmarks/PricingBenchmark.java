@@ -0,0 +1,96 @@
+package com.cvs.benchmarks;
+
+import com.cvs.models.CoffeeMenu;
+import com.cvs.models.OrderItem;
+import com.cvs.service.PricingEngine;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Compares the old per-call BigDecimal pricing with the precomputed PricingEngine table.
+// The old path also did a DB round trip per item; that is left out here so only the
+// arithmetic and allocation cost is compared.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PricingBenchmark {
+    private static final int CART_SIZE = 8;
+
+    private Map<Integer, CoffeeMenu> menuById;
+    private PricingEngine engine;
+    private List<OrderItem> cart;
+
+    @Setup
+    public void setUp() {
+        List<CoffeeMenu> menu = new ArrayList<>();
+        menu.add(new CoffeeMenu(1, "Espresso", new BigDecimal("2.50"), "Strong black coffee", true));
+        menu.add(new CoffeeMenu(2, "Cappuccino", new BigDecimal("3.50"), "Espresso with steamed milk foam", true));
+        menu.add(new CoffeeMenu(3, "Latte", new BigDecimal("4.00"), "Espresso with steamed milk", true));
+        menu.add(new CoffeeMenu(4, "Americano", new BigDecimal("3.00"), "Espresso with hot water", true));
+        menu.add(new CoffeeMenu(5, "Mocha", new BigDecimal("4.50"), "Chocolate flavored coffee", true));
+
+        menuById = new HashMap<>();
+        for (CoffeeMenu coffee : menu) {
+            menuById.put(coffee.getCoffeeId(), coffee);
+        }
+        engine = new PricingEngine(() -> menu);
+
+        cart = new ArrayList<>();
+        OrderItem.Size[] sizes = OrderItem.Size.values();
+        for (int i = 0; i < CART_SIZE; i++) {
+            cart.add(new OrderItem(0, i % 5 + 1, 1 + i % 3,
+                OrderItem.SugarLevel.values()[i % 4], OrderItem.MilkLevel.values()[(i + 1) % 4],
+                sizes[i % sizes.length], BigDecimal.ZERO));
+        }
+    }
+
+    @Benchmark
+    public BigDecimal legacyCartTotal() {
+        BigDecimal total = BigDecimal.ZERO;
+        for (OrderItem item : cart) {
+            CoffeeMenu coffee = menuById.get(item.getCoffeeId());
+            BigDecimal price = coffee.getPrice()
+                .multiply(legacySizeMultiplier(item.getSize()))
+                .add(legacyCustomizationFee(item.getSugarLevel(), item.getMilkLevel()));
+            total = total.add(price.multiply(BigDecimal.valueOf(item.getQuantity())));
+        }
+        return total;
+    }
+
+    @Benchmark
+    public long engineCartTotalCents() {
+        long total = 0;
+        for (OrderItem item : cart) {
+            total += engine.linePriceCents(item.getCoffeeId(), item.getSize(),
+                item.getSugarLevel(), item.getMilkLevel(), item.getQuantity());
+        }
+        return total;
+    }
+
+    private static BigDecimal legacySizeMultiplier(OrderItem.Size size) {
+        switch (size) {
+            case SMALL: return new BigDecimal("0.8");
+            case LARGE: return new BigDecimal("1.3");
+            default: return BigDecimal.ONE;
+        }
+    }
+
+    private static BigDecimal legacyCustomizationFee(OrderItem.SugarLevel sugar, OrderItem.MilkLevel milk) {
+        BigDecimal fee = BigDecimal.ZERO;
+        if (sugar == OrderItem.SugarLevel.HIGH) {
+            fee = fee.add(new BigDecimal("0.25"));
+        }
+        if (milk == OrderItem.MilkLevel.HIGH) {
+            fee = fee.add(new BigDecimal("0.50"));
+        }
+        return fee;
+    }
+}
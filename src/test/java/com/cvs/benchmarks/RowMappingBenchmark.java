@@ -0,0 +1,176 @@
+package com.cvs.benchmarks;
+
+import com.cvs.dao.OrderDAO;
+import com.cvs.dao.OrderItemDAO;
+import com.cvs.dao.PaymentDAO;
+import com.cvs.dao.RowMapper;
+import com.cvs.models.Order;
+import com.cvs.models.OrderItem;
+import com.cvs.models.Payment;
+import org.h2.tools.SimpleResultSet;
+import org.h2.tools.SimpleRowSource;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.concurrent.TimeUnit;
+
+// Maps 1M rows per call with the previous by-name/valueOf mappers and with the RowMapper ones.
+// Rows come from an in-memory ResultSet so the driver's network and parsing cost is left out.
+// Enum columns are handed out as fresh Strings, as a driver does, so their hash is not cached.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RowMappingBenchmark {
+    private static final int ROWS = 1_000_000;
+    private static final Timestamp TIME = Timestamp.valueOf("2024-06-15 09:30:00");
+
+    private ResultSet orders;
+    private ResultSet items;
+    private ResultSet payments;
+
+    @Setup
+    public void setUp() {
+        Order.PaymentStatus[] paymentStatuses = Order.PaymentStatus.values();
+        Order.OrderStatus[] orderStatuses = Order.OrderStatus.values();
+        orders = rows(new String[]{"order_id", "user_id", "total_amount", "payment_status", "order_status", "order_time"},
+            new int[]{Types.INTEGER, Types.INTEGER, Types.DECIMAL, Types.VARCHAR, Types.VARCHAR, Types.TIMESTAMP},
+            i -> new Object[]{i, i % 500, BigDecimal.valueOf(350 + i % 900, 2),
+                fresh(paymentStatuses[i % paymentStatuses.length]), fresh(orderStatuses[i % orderStatuses.length]), TIME});
+
+        OrderItem.SugarLevel[] sugars = OrderItem.SugarLevel.values();
+        OrderItem.MilkLevel[] milks = OrderItem.MilkLevel.values();
+        OrderItem.Size[] sizes = OrderItem.Size.values();
+        items = rows(new String[]{"order_item_id", "order_id", "coffee_id", "quantity", "sugar_level", "milk_level",
+                                  "size", "item_price", "coffee_name"},
+            new int[]{Types.INTEGER, Types.INTEGER, Types.INTEGER, Types.INTEGER, Types.VARCHAR, Types.VARCHAR,
+                      Types.VARCHAR, Types.DECIMAL, Types.VARCHAR},
+            i -> new Object[]{i, i / 2, i % 5 + 1, 1 + i % 3, fresh(sugars[i % sugars.length]),
+                fresh(milks[(i + 1) % milks.length]), fresh(sizes[i % sizes.length]), BigDecimal.valueOf(250 + i % 300, 2),
+                "Latte"});
+
+        Payment.PaymentType[] types = Payment.PaymentType.values();
+        Payment.PaymentStatus[] results = Payment.PaymentStatus.values();
+        payments = rows(new String[]{"payment_id", "order_id", "amount", "payment_type", "payment_status",
+                                     "transaction_id", "payment_time"},
+            new int[]{Types.INTEGER, Types.INTEGER, Types.DECIMAL, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR,
+                      Types.TIMESTAMP},
+            i -> new Object[]{i, i, BigDecimal.valueOf(350 + i % 900, 2), fresh(types[i % types.length]),
+                fresh(results[i % results.length]), "TXN" + (i % 1000), TIME});
+    }
+
+    @Benchmark
+    public void legacyOrders(Blackhole bh) throws SQLException {
+        orders.beforeFirst();
+        while (orders.next()) {
+            Order order = new Order();
+            order.setOrderId(orders.getInt("order_id"));
+            order.setUserId(orders.getInt("user_id"));
+            order.setTotalAmount(orders.getBigDecimal("total_amount"));
+            order.setPaymentStatus(Order.PaymentStatus.valueOf(orders.getString("payment_status")));
+            order.setOrderStatus(Order.OrderStatus.valueOf(orders.getString("order_status")));
+            order.setOrderTime(orders.getTimestamp("order_time").toLocalDateTime());
+            bh.consume(order);
+        }
+    }
+
+    @Benchmark
+    public void mappedOrders(Blackhole bh) throws SQLException {
+        orders.beforeFirst();
+        RowMapper.Bound<Order> mapper = OrderDAO.ORDER_ROWS.bind(orders);
+        while (orders.next()) {
+            bh.consume(mapper.map());
+        }
+    }
+
+    @Benchmark
+    public void legacyOrderItems(Blackhole bh) throws SQLException {
+        items.beforeFirst();
+        while (items.next()) {
+            OrderItem orderItem = new OrderItem();
+            orderItem.setOrderItemId(items.getInt("order_item_id"));
+            orderItem.setOrderId(items.getInt("order_id"));
+            orderItem.setCoffeeId(items.getInt("coffee_id"));
+            orderItem.setQuantity(items.getInt("quantity"));
+            orderItem.setSugarLevel(OrderItem.SugarLevel.valueOf(items.getString("sugar_level")));
+            orderItem.setMilkLevel(OrderItem.MilkLevel.valueOf(items.getString("milk_level")));
+            orderItem.setSize(OrderItem.Size.valueOf(items.getString("size")));
+            orderItem.setItemPrice(items.getBigDecimal("item_price"));
+            orderItem.setCoffeeName(items.getString("coffee_name"));
+            bh.consume(orderItem);
+        }
+    }
+
+    @Benchmark
+    public void mappedOrderItems(Blackhole bh) throws SQLException {
+        items.beforeFirst();
+        RowMapper.Bound<OrderItem> mapper = OrderItemDAO.ORDER_ITEM_ROWS.bind(items);
+        while (items.next()) {
+            bh.consume(mapper.map());
+        }
+    }
+
+    @Benchmark
+    public void legacyPayments(Blackhole bh) throws SQLException {
+        payments.beforeFirst();
+        while (payments.next()) {
+            Payment payment = new Payment();
+            payment.setPaymentId(payments.getInt("payment_id"));
+            payment.setOrderId(payments.getInt("order_id"));
+            payment.setAmount(payments.getBigDecimal("amount"));
+            payment.setPaymentType(Payment.PaymentType.valueOf(payments.getString("payment_type")));
+            payment.setPaymentStatus(Payment.PaymentStatus.valueOf(payments.getString("payment_status")));
+            payment.setTransactionId(payments.getString("transaction_id"));
+            payment.setPaymentTime(payments.getTimestamp("payment_time").toLocalDateTime());
+            bh.consume(payment);
+        }
+    }
+
+    @Benchmark
+    public void mappedPayments(Blackhole bh) throws SQLException {
+        payments.beforeFirst();
+        RowMapper.Bound<Payment> mapper = PaymentDAO.PAYMENT_ROWS.bind(payments);
+        while (payments.next()) {
+            bh.consume(mapper.map());
+        }
+    }
+
+    private interface RowFactory {
+        Object[] row(int i);
+    }
+
+    private static ResultSet rows(String[] names, int[] types, RowFactory factory) {
+        SimpleResultSet rs = new SimpleResultSet(new SimpleRowSource() {
+            private int next;
+
+            @Override
+            public Object[] readRow() {
+                return next < ROWS ? factory.row(next++) : null;
+            }
+
+            @Override
+            public void close() { }
+
+            @Override
+            public void reset() {
+                next = 0;
+            }
+        });
+        for (int i = 0; i < names.length; i++) {
+            rs.addColumn(names[i], types[i], 10, types[i] == Types.DECIMAL ? 2 : 0);
+        }
+        rs.setAutoClose(false);
+        return rs;
+    }
+
+    private static String fresh(Enum<?> constant) {
+        return new String(constant.name().toCharArray());
+    }
+}
@@ -0,0 +1,142 @@
+package com.cvs.tests;
+
+import com.cvs.gui.DataLoader;
+import com.cvs.gui.EdtWatchdog;
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class BackgroundLoadingTest {
+    private ExecutorService workers;
+    private ExecutorService ui;
+    private DataLoader loader;
+
+    @BeforeEach
+    public void setUp() {
+        workers = Executors.newFixedThreadPool(4);
+        // Single thread standing in for the EDT
+        ui = Executors.newSingleThreadExecutor();
+        loader = new DataLoader(workers, ui);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        workers.shutdownNow();
+        ui.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("Test Repeated Loads Coalesce Into One Follow-Up")
+    public void testCoalescing() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch delivered = new CountDownLatch(2);
+        AtomicInteger queries = new AtomicInteger();
+        List<Integer> results = new CopyOnWriteArrayList<>();
+
+        for (int click = 0; click < 5; click++) {
+            loader.load("orders", () -> {
+                release.await();
+                return queries.incrementAndGet();
+            }, value -> {
+                results.add(value);
+                delivered.countDown();
+            });
+        }
+        release.countDown();
+
+        assertTrue(delivered.await(5, TimeUnit.SECONDS));
+        waitUntilIdle("orders");
+        assertEquals(2, queries.get(), "Five clicks should cost one query plus one follow-up");
+        assertEquals(List.of(1, 2), results);
+    }
+
+    @Test
+    @DisplayName("Test Independent Panels Load In Parallel")
+    public void testParallelPanels() throws Exception {
+        // Every query waits for all four to be running, so this only completes if they overlap
+        CyclicBarrier allRunning = new CyclicBarrier(4);
+        CountDownLatch delivered = new CountDownLatch(4);
+        for (String panel : List.of("menu", "orders", "inventory", "stats")) {
+            loader.load(panel, () -> allRunning.await(5, TimeUnit.SECONDS), value -> delivered.countDown());
+        }
+        assertTrue(delivered.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    @DisplayName("Test Cancelled Load Never Reaches The UI")
+    public void testCancel() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<String> results = new CopyOnWriteArrayList<>();
+
+        loader.load("report", () -> {
+            started.countDown();
+            release.await();
+            return "stale";
+        }, results::add);
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        loader.cancel("report");
+        release.countDown();
+
+        assertFalse(loader.isLoading("report"));
+        CountDownLatch next = new CountDownLatch(1);
+        loader.load("report", () -> "fresh", value -> {
+            results.add(value);
+            next.countDown();
+        });
+        assertTrue(next.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of("fresh"), results);
+    }
+
+    @Test
+    @DisplayName("Test Query Errors Go To The Error Callback")
+    public void testError() throws Exception {
+        CountDownLatch failed = new CountDownLatch(1);
+        List<Exception> errors = new CopyOnWriteArrayList<>();
+
+        loader.load("stats", () -> { throw new IllegalStateException("db down"); },
+            value -> fail("Should not succeed"),
+            e -> { errors.add(e); failed.countDown(); });
+
+        assertTrue(failed.await(5, TimeUnit.SECONDS));
+        assertEquals("db down", errors.get(0).getMessage());
+        waitUntilIdle("stats");
+    }
+
+    @Test
+    @DisplayName("Test Watchdog Reports A Blocked EDT")
+    public void testWatchdog() throws Exception {
+        EdtWatchdog watchdog = new EdtWatchdog(100, 20, ui);
+        watchdog.start();
+        try {
+            ui.execute(() -> {
+                try { Thread.sleep(400); } catch (InterruptedException e) { Thread.currentThread().interrupt(); }
+            });
+            long deadline = System.currentTimeMillis() + 5000;
+            while (watchdog.getLongestStallMs() < 100 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(20);
+            }
+        } finally {
+            watchdog.stop();
+        }
+        assertEquals(1, watchdog.getStallCount(), "One long block should be reported once");
+        assertTrue(watchdog.getLongestStallMs() >= 100);
+        assertThrows(IllegalArgumentException.class, () -> new EdtWatchdog(0, 20, ui));
+    }
+
+    private void waitUntilIdle(String key) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (loader.isLoading(key) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertFalse(loader.isLoading(key));
+    }
+}
@@ -0,0 +1,103 @@
+package com.cvs.tests;
+
+import com.cvs.utils.ConnectionPool;
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+public class ConnectionPoolTest {
+    private ConnectionPool pool;
+
+    @BeforeEach
+    public void setUp() {
+        String url = "jdbc:h2:mem:pool_" + System.nanoTime() + ";DB_CLOSE_DELAY=-1";
+        pool = new ConnectionPool(url, "sa", "", 2, 0, 200, 600000, 1, 0, 0);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Test
+    @DisplayName("Test Connections Are Reused")
+    public void testConnectionReuse() throws SQLException {
+        try (Connection conn = pool.getConnection()) {
+            assertTrue(conn.isValid(1));
+        }
+        try (Connection conn = pool.getConnection()) {
+            assertTrue(conn.isValid(1));
+        }
+
+        ConnectionPool.PoolStats stats = pool.getStats();
+        assertEquals(1, stats.getCreatedCount(), "Second borrow should reuse the idle connection");
+        assertEquals(2, stats.getBorrowCount());
+        assertEquals(1, stats.getIdleConnections());
+        assertEquals(0, stats.getActiveConnections());
+    }
+
+    @Test
+    @DisplayName("Test Pool Is Bounded")
+    public void testPoolTimeout() throws SQLException {
+        Connection first = pool.getConnection();
+        Connection second = pool.getConnection();
+
+        SQLException e = assertThrows(SQLException.class, () -> pool.getConnection());
+        assertTrue(e.getMessage().contains("Connection is not available"));
+        assertEquals(1, pool.getStats().getTimeoutCount());
+
+        first.close();
+        try (Connection third = pool.getConnection()) {
+            assertNotNull(third);
+        }
+        second.close();
+        assertEquals(2, pool.getStats().getTotalConnections());
+    }
+
+    @Test
+    @DisplayName("Test Closed Proxy Is Unusable")
+    public void testClosedConnection() throws SQLException {
+        Connection conn = pool.getConnection();
+        conn.close();
+        conn.close();
+
+        assertTrue(conn.isClosed());
+        assertThrows(SQLException.class, conn::createStatement);
+        assertEquals(1, pool.getStats().getIdleConnections());
+    }
+
+    @Test
+    @DisplayName("Test Open Transaction Is Rolled Back On Return")
+    public void testTransactionReset() throws SQLException {
+        try (Connection conn = pool.getConnection(); Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE TABLE t (id INT)");
+        }
+        try (Connection conn = pool.getConnection(); Statement stmt = conn.createStatement()) {
+            conn.setAutoCommit(false);
+            stmt.execute("INSERT INTO t VALUES (1)");
+        }
+        try (Connection conn = pool.getConnection(); Statement stmt = conn.createStatement()) {
+            assertTrue(conn.getAutoCommit(), "Returned connection should be back in auto-commit mode");
+            var rs = stmt.executeQuery("SELECT COUNT(*) FROM t");
+            rs.next();
+            assertEquals(0, rs.getInt(1), "Uncommitted work should be rolled back");
+        }
+    }
+
+    @Test
+    @DisplayName("Test Broken Connection Is Replaced")
+    public void testValidationOnBorrow() throws SQLException {
+        Connection conn = pool.getConnection();
+        conn.unwrap(Connection.class).close();
+        conn.close();
+
+        try (Connection replacement = pool.getConnection()) {
+            assertTrue(replacement.isValid(1));
+        }
+        assertEquals(2, pool.getStats().getCreatedCount());
+        assertEquals(1, pool.getStats().getTotalConnections());
+    }
+}
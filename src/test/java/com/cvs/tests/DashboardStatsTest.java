@@ -0,0 +1,59 @@
+package com.cvs.tests;
+
+import com.cvs.dao.AdminDAO;
+import com.cvs.models.DashboardStats;
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+public class DashboardStatsTest {
+    private Connection conn;
+    private AdminDAO adminDAO;
+
+    @BeforeEach
+    public void setUp() throws SQLException {
+        conn = TestDatabase.open("dashboard", "users", "coffee_menu", "orders", "order_rollup_hourly");
+        adminDAO = new AdminDAO();
+    }
+
+    @AfterEach
+    public void tearDown() throws SQLException {
+        conn.close();
+    }
+
+    @Test
+    @DisplayName("Test Dashboard Stats In One Query")
+    public void testDashboardStats() throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("INSERT INTO users (name, email, password) VALUES ('John Doe', 'john@example.com', 'pw'), " +
+                         "('Jane Smith', 'jane@example.com', 'pw')");
+            stmt.execute("INSERT INTO coffee_menu (name, price) VALUES ('Espresso', 2.50), ('Latte', 4.00), ('Mocha', 4.50)");
+            stmt.execute("INSERT INTO orders (user_id, total_amount) VALUES (1, 3.50), (1, 2.50), (2, 4.00), (2, 4.50)");
+            stmt.execute("INSERT INTO order_rollup_hourly (bucket_hour, order_status, payment_status, order_count, revenue_cents) VALUES " +
+                         "('2024-06-15 09:00:00', 'PREPARING', 'COMPLETED', 3, 1075), " +
+                         "('2024-06-15 10:00:00', 'DELIVERED', 'COMPLETED', 1, 250), " +
+                         "('2024-06-15 10:00:00', 'PLACED', 'PENDING', 1, 400)");
+        }
+
+        DashboardStats stats = adminDAO.getDashboardStats(conn);
+
+        assertEquals(4, stats.getTotalOrders());
+        assertEquals(new BigDecimal("13.25"), stats.getTotalRevenue());
+        assertEquals(2, stats.getTotalUsers());
+        assertEquals(3, stats.getTotalMenuItems());
+    }
+
+    @Test
+    @DisplayName("Test Dashboard Stats On Empty Database")
+    public void testEmptyDashboardStats() {
+        DashboardStats stats = adminDAO.getDashboardStats(conn);
+
+        assertEquals(0, stats.getTotalOrders());
+        assertEquals(0, BigDecimal.ZERO.compareTo(stats.getTotalRevenue()));
+        assertEquals(0, stats.getTotalUsers());
+    }
+}
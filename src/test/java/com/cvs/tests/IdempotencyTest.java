@@ -0,0 +1,146 @@
+package com.cvs.tests;
+
+import com.cvs.dao.IdempotencyDAO;
+import com.cvs.models.Order;
+import com.cvs.service.IdempotencyStore;
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class IdempotencyTest {
+    private Map<String, Order> database;
+    private IdempotencyStore store;
+    private AtomicInteger placed;
+
+    @BeforeEach
+    public void setUp() {
+        // Stands in for the idempotency_keys table
+        database = new ConcurrentHashMap<>();
+        store = new IdempotencyStore((key, userId) -> {
+            Order order = database.get(key);
+            return order != null && order.getUserId() == userId ? order : null;
+        }, 100, 60000);
+        placed = new AtomicInteger();
+    }
+
+    @Test
+    @DisplayName("Test Retry Returns The First Order")
+    public void testRetry() {
+        Order first = store.runOnce("cart-1", 1, () -> place("cart-1", 1));
+        Order retry = store.runOnce("cart-1", 1, () -> place("cart-1", 1));
+
+        assertSame(first, retry);
+        assertEquals(1, placed.get());
+        assertNull(store.lookup("cart-1", 2), "Another user's key must not leak their order");
+    }
+
+    @Test
+    @DisplayName("Test Concurrent Duplicates Run Once")
+    public void testConcurrentDuplicates() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Order>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(pool.submit(() -> store.runOnce("double-click", 1, () -> {
+                    sleep(100);
+                    return place("double-click", 1);
+                })));
+            }
+            Order first = results.get(0).get();
+            for (Future<Order> result : results) {
+                assertSame(first, result.get());
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        assertEquals(1, placed.get());
+    }
+
+    @Test
+    @DisplayName("Test Failed Submission Can Be Retried")
+    public void testFailureNotStored() {
+        assertNull(store.runOnce("cart-2", 1, () -> null));
+        assertNotNull(store.runOnce("cart-2", 1, () -> place("cart-2", 1)));
+        assertEquals(1, placed.get());
+    }
+
+    @Test
+    @DisplayName("Test Keys From Another Node Come From The Database")
+    public void testDatabaseFallback() {
+        Order elsewhere = order(42, 1);
+        database.put("cart-3", elsewhere);
+
+        assertSame(elsewhere, store.runOnce("cart-3", 1, () -> place("cart-3", 1)));
+        assertEquals(0, placed.get());
+
+        // Lost the race: another node committed the key while our transaction rolled back
+        Order winner = order(43, 1);
+        assertSame(winner, store.runOnce("cart-4", 1, () -> {
+            database.put("cart-4", winner);
+            return null;
+        }));
+    }
+
+    @Test
+    @DisplayName("Test Memory Is Bounded And Keys Validated")
+    public void testBoundedAndValidated() {
+        IdempotencyStore small = new IdempotencyStore((key, userId) -> null, 2, 60000);
+        for (int i = 0; i < 3; i++) {
+            String key = "key-" + i;
+            small.runOnce(key, 1, () -> place(key, 1));
+        }
+        assertEquals(2, small.size());
+
+        assertThrows(IllegalArgumentException.class, () -> store.lookup(" ", 1));
+        assertThrows(IllegalArgumentException.class, () -> store.lookup("x".repeat(65), 1));
+    }
+
+    @Test
+    @DisplayName("Test Key Table Rejects Duplicates And Expires")
+    public void testIdempotencyDAO() throws SQLException {
+        try (Connection conn = TestDatabase.open("idem", "idempotency_keys")) {
+            IdempotencyDAO dao = new IdempotencyDAO();
+            dao.saveKey("k1", 1, 100, conn);
+            assertThrows(SQLException.class, () -> dao.saveKey("k1", 1, 101, conn));
+
+            assertEquals(100, dao.findOrderId("k1", 1, 3600, conn));
+            assertEquals(0, dao.findOrderId("k1", 2, 3600, conn));
+
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute("INSERT INTO idempotency_keys (idem_key, user_id, order_id, created_at) " +
+                             "VALUES ('old', 1, 99, TIMESTAMPADD(HOUR, -2, CURRENT_TIMESTAMP))");
+            }
+            assertEquals(0, dao.findOrderId("old", 1, 3600, conn));
+            assertEquals(1, dao.purgeExpired(3600, conn));
+            assertEquals(100, dao.findOrderId("k1", 1, 3600, conn));
+        }
+    }
+
+    private Order place(String key, int userId) {
+        Order order = order(1000 + placed.incrementAndGet(), userId);
+        database.put(key, order);
+        return order;
+    }
+
+    private static Order order(int orderId, int userId) {
+        Order order = new Order(userId, new BigDecimal("4.50"));
+        order.setOrderId(orderId);
+        return order;
+    }
+
+    private static void sleep(long ms) {
+        try { Thread.sleep(ms); } catch (InterruptedException e) { Thread.currentThread().interrupt(); }
+    }
+}
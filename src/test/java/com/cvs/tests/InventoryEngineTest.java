@@ -0,0 +1,279 @@
+package com.cvs.tests;
+
+import com.cvs.dao.IngredientDAO;
+import com.cvs.dao.InventoryEngine;
+import com.cvs.models.Ingredient;
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class InventoryEngineTest {
+    private Connection conn;
+    private IngredientDAO ingredientDAO;
+    private InventoryEngine engine;
+
+    @BeforeEach
+    public void setUp() throws SQLException {
+        conn = TestDatabase.open("inventory", "ingredients", "stock_leases", "inventory_journal");
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("INSERT INTO ingredients (name, quantity, unit, min_threshold) VALUES " +
+                         "('Coffee Beans', 1000, 'grams', 100), ('Milk', 2000, 'ml', 200), ('Sugar', 500, 'grams', 50)");
+        }
+        ingredientDAO = new IngredientDAO("node-a");
+        engine = newEngine(ingredientDAO);
+    }
+
+    private InventoryEngine newEngine(IngredientDAO ingredientDAO) {
+        return new InventoryEngine(new InventoryEngine.StockStore() {
+            @Override
+            public List<Ingredient> loadIngredients() throws SQLException {
+                return ingredientDAO.loadIngredients(conn);
+            }
+
+            @Override
+            public Map<Integer, Long> loadLeases() throws SQLException {
+                return ingredientDAO.loadLeases(conn);
+            }
+
+            @Override
+            public int claim(int ingredientId, int needed, int percent) throws SQLException {
+                return ingredientDAO.claim(ingredientId, needed, percent, conn);
+            }
+
+            @Override
+            public boolean setQuantity(int ingredientId, int quantity) throws SQLException {
+                return ingredientDAO.setQuantity(ingredientId, quantity, conn);
+            }
+
+            @Override
+            public int flushJournal(int batchSize) throws SQLException {
+                return ingredientDAO.flushJournal(batchSize, conn);
+            }
+        });
+    }
+
+    @AfterEach
+    public void tearDown() throws SQLException {
+        engine.stop();
+        conn.close();
+    }
+
+    @Test
+    @DisplayName("Test Concurrent Reservations Never Oversell")
+    public void testConcurrentReservations() throws InterruptedException {
+        Map<Integer, Integer> cup = amounts(1, 3, 2, 1);
+        int threads = 8;
+        int attempts = 100;
+        AtomicInteger sold = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        for (int t = 0; t < threads; t++) {
+            pool.execute(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < attempts; i++) {
+                    if (engine.reserve(cup)) {
+                        sold.incrementAndGet();
+                    }
+                }
+            });
+        }
+        start.countDown();
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(333, sold.get(), "1000 g of beans at 3 g a cup");
+        assertEquals(1, quantityOf("Coffee Beans"));
+        assertEquals(2000 - 333, quantityOf("Milk"));
+    }
+
+    @Test
+    @DisplayName("Test Short Reservation Takes Nothing")
+    public void testAllOrNothing() {
+        assertFalse(engine.reserve(amounts(1, 5, 3, 501)));
+        assertEquals(1000, quantityOf("Coffee Beans"));
+        assertFalse(engine.reserve(amounts(99, 1)), "Unknown ingredient");
+
+        assertTrue(engine.reserve(amounts(1, 5, 3, 500)));
+        engine.release(amounts(1, 5, 3, 500));
+        assertEquals(1000, quantityOf("Coffee Beans"));
+        assertEquals(500, quantityOf("Sugar"));
+    }
+
+    @Test
+    @DisplayName("Test Journal Survives A Restart And Flushes In Batches")
+    public void testJournalAndFlush() throws SQLException {
+        // Two committed sales that were never flushed, as after a crash, and a restock
+        sell(engine, ingredientDAO, amounts(1, 18, 2, 200));
+        sell(engine, ingredientDAO, amounts(1, 18, 3, 12));
+        assertTrue(engine.setQuantity(3, 600));
+        assertEquals(900, tableQuantity(1), "The first sale leased 10% of the beans");
+        assertEquals(100, leased("node-a", 1));
+
+        InventoryEngine restarted = newEngine(ingredientDAO);
+        assertEquals(964, quantityOf(restarted, "Coffee Beans"), "Loaded quantity is net of the journal");
+        assertEquals(1800, quantityOf(restarted, "Milk"));
+        assertEquals(600, quantityOf(restarted, "Sugar"));
+
+        assertEquals(4, restarted.flush(2));
+        assertEquals(0, journalRows());
+        assertEquals(64, leased("node-a", 1));
+        assertEquals(900, tableQuantity(1), "Flushing only touches this node's leases");
+        assertEquals(964, quantityOf(newEngine(ingredientDAO), "Coffee Beans"));
+
+        // The restarted engine sells what is left of its lease without claiming more
+        assertTrue(restarted.reserve(amounts(1, 64)));
+        assertEquals(900, tableQuantity(1));
+    }
+
+    @Test
+    @DisplayName("Test Leases Are Topped Up Once Half Sold")
+    public void testRefill() throws SQLException {
+        assertTrue(engine.reserve(amounts(1, 40)));
+        engine.refill();
+        assertEquals(900, tableQuantity(1), "Still above half of the lease");
+
+        assertTrue(engine.reserve(amounts(1, 20)));
+        engine.refill();
+        assertEquals(810, tableQuantity(1), "Topped up with 10% of what was left in the pool");
+        assertEquals(190, leased("node-a", 1));
+        assertEquals(940, quantityOf(engine, "Coffee Beans"), "Claiming doesn't change what is left");
+    }
+
+    @Test
+    @DisplayName("Test Two Nodes Cannot Oversell The Database Stock")
+    public void testTwoNodes() throws SQLException {
+        IngredientDAO otherDAO = new IngredientDAO("node-b");
+        InventoryEngine other = newEngine(otherDAO);
+        Map<Integer, Integer> cup = amounts(3, 7);
+        int sold = 0;
+        boolean selling = true;
+        while (selling) {
+            selling = false;
+            if (sell(engine, ingredientDAO, cup)) {
+                sold++;
+                selling = true;
+            }
+            if (sell(other, otherDAO, cup)) {
+                sold++;
+                selling = true;
+            }
+        }
+        assertTrue(sold * 7 <= 500, "Sold " + sold + " cups");
+        assertTrue(500 - sold * 7 < 14, "At most a partial cup is left in each lease");
+        assertEquals(0, tableQuantity(3), "Every gram has been leased");
+        assertEquals(500 - sold * 7, leased("node-a", 3) + leased("node-b", 3) - journalAmount(3));
+
+        engine.flush(100);
+        other.flush(100);
+        engine.resync();
+        other.resync();
+        assertEquals(500 - sold * 7, quantityOf(engine, "Sugar"));
+        assertEquals(500 - sold * 7, quantityOf(other, "Sugar"));
+
+        // A reservation still in flight stays off the counter across a resync and a restock
+        assertTrue(engine.reserve(amounts(1, 20)));
+        engine.resync();
+        assertEquals(980, quantityOf(engine, "Coffee Beans"));
+        assertTrue(engine.setQuantity(1, 300));
+        assertEquals(280, quantityOf(engine, "Coffee Beans"));
+        assertEquals(200, tableQuantity(1), "The pool shrinks around the 100 g lease");
+        engine.release(amounts(1, 20));
+        assertEquals(300, quantityOf(engine, "Coffee Beans"));
+        assertFalse(engine.setQuantity(99, 10), "Unknown ingredient");
+    }
+
+    @Test
+    @DisplayName("Test Low Stock Reads From The Counters")
+    public void testLowStock() {
+        assertTrue(engine.getLowStockIngredients().isEmpty());
+        assertTrue(engine.reserve(amounts(3, 460)));
+
+        List<Ingredient> low = engine.getLowStockIngredients();
+        assertEquals(1, low.size());
+        assertEquals("Sugar", low.get(0).getName());
+        assertEquals(40, low.get(0).getQuantity());
+        assertNotNull(low.get(0).getUpdatedAt());
+    }
+
+    private int quantityOf(String name) {
+        return quantityOf(engine, name);
+    }
+
+    private static int quantityOf(InventoryEngine engine, String name) {
+        for (Ingredient ingredient : engine.getAllIngredients()) {
+            if (ingredient.getName().equals(name)) {
+                return ingredient.getQuantity();
+            }
+        }
+        throw new AssertionError("No ingredient " + name);
+    }
+
+    private int tableQuantity(int ingredientId) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT quantity FROM ingredients WHERE ingredient_id = " + ingredientId)) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+
+    // Reserves, journals and confirms a sale the way checkout does
+    private boolean sell(InventoryEngine engine, IngredientDAO ingredientDAO, Map<Integer, Integer> amounts)
+            throws SQLException {
+        if (!engine.reserve(amounts)) {
+            return false;
+        }
+        ingredientDAO.appendJournal(amounts, conn);
+        engine.confirm(amounts);
+        return true;
+    }
+
+    private int leased(String nodeId, int ingredientId) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COALESCE(SUM(amount), 0) FROM stock_leases WHERE node_id = '" +
+                                              nodeId + "' AND ingredient_id = " + ingredientId)) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+
+    private int journalAmount(int ingredientId) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COALESCE(SUM(amount), 0) FROM inventory_journal " +
+                                              "WHERE ingredient_id = " + ingredientId)) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+
+    private int journalRows() throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM inventory_journal")) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+
+    private static Map<Integer, Integer> amounts(int... idAmountPairs) {
+        Map<Integer, Integer> amounts = new TreeMap<>();
+        for (int i = 0; i < idAmountPairs.length; i += 2) {
+            amounts.put(idAmountPairs[i], idAmountPairs[i + 1]);
+        }
+        return amounts;
+    }
+}
@@ -0,0 +1,164 @@
+package com.cvs.tests;
+
+import com.cvs.dao.InventoryEngine;
+import com.cvs.dao.LowStockMonitor;
+import com.cvs.models.Ingredient;
+import com.cvs.models.StockForecast;
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class LowStockMonitorTest {
+    private static final long HOUR = 3_600_000L;
+
+    private final AtomicLong clock = new AtomicLong(1_000_000L);
+    private final List<StockForecast> alerts = new ArrayList<>();
+    private InventoryEngine engine;
+    private LowStockMonitor monitor;
+
+    @BeforeEach
+    public void setUp() {
+        List<Ingredient> stock = Arrays.asList(ingredient(1, "Coffee Beans", 200, 100), ingredient(2, "Milk", 150, 200));
+        engine = new InventoryEngine(new InventoryEngine.StockStore() {
+            @Override
+            public List<Ingredient> loadIngredients() {
+                return stock;
+            }
+
+            @Override
+            public Map<Integer, Long> loadLeases() {
+                return Collections.emptyMap();
+            }
+
+            // A pool that never runs dry, so only the counters decide what is low
+            @Override
+            public int claim(int ingredientId, int needed, int percent) {
+                return needed;
+            }
+
+            @Override
+            public boolean setQuantity(int ingredientId, int quantity) { return true; }
+
+            @Override
+            public int flushJournal(int batchSize) {
+                return 0;
+            }
+        });
+        monitor = new LowStockMonitor(engine::getAllIngredients, 20, HOUR, clock::get);
+        engine.addListener(monitor);
+        monitor.subscribe(alerts::add);
+    }
+
+    @Test
+    @DisplayName("Test Alert Fires Once Per Crossing")
+    public void testAlertFiresOnce() {
+        assertTrue(engine.reserve(Collections.singletonMap(1, 90)));
+        assertTrue(alerts.isEmpty());
+
+        assertTrue(engine.reserve(Collections.singletonMap(1, 10)));
+        assertTrue(engine.reserve(Collections.singletonMap(1, 10)));
+
+        assertEquals(1, alerts.size());
+        assertEquals("Coffee Beans", alerts.get(0).getName());
+        assertEquals(100, alerts.get(0).getQuantity());
+        assertTrue(alerts.get(0).isLow());
+        // Milk was already low when the monitor started, so it never alerted
+        assertTrue(engine.reserve(Collections.singletonMap(2, 10)));
+        assertEquals(1, alerts.size());
+    }
+
+    @Test
+    @DisplayName("Test Re-arm Needs Stock Above The Hysteresis Band")
+    public void testHysteresis() {
+        assertTrue(engine.reserve(Collections.singletonMap(1, 100)));
+        assertEquals(1, alerts.size());
+
+        // Back to 115 is inside the 20% band, so dipping again stays quiet
+        engine.release(Collections.singletonMap(1, 15));
+        assertTrue(engine.reserve(Collections.singletonMap(1, 20)));
+        assertEquals(1, alerts.size());
+
+        // Once those sales commit, a restock past 120 re-arms it
+        engine.confirm(Collections.singletonMap(1, 105));
+        assertTrue(engine.setQuantity(1, 500));
+        assertTrue(engine.reserve(Collections.singletonMap(1, 400)));
+        assertEquals(2, alerts.size());
+    }
+
+    @Test
+    @DisplayName("Test Usage Rate And Time To Empty")
+    public void testForecast() {
+        // 60 grams used over an hour in steady draws
+        for (int i = 0; i < 6; i++) {
+            clock.addAndGet(HOUR / 6);
+            assertTrue(engine.reserve(Collections.singletonMap(1, 10)));
+        }
+        StockForecast beans = forecast(1);
+        assertEquals(140, beans.getQuantity());
+        // The decayed rate under-counts older draws, so it sits a little below 60 per hour
+        assertTrue(beans.getUsagePerHour() > 40 && beans.getUsagePerHour() < 60, "rate " + beans.getUsagePerHour());
+        Duration left = beans.getTimeToEmpty();
+        assertTrue(left.toHours() >= 2 && left.toHours() <= 3, "left " + left);
+
+        // Adjustments do not count as usage and idle time decays the rate
+        engine.setQuantity(1, 1000);
+        clock.addAndGet(10 * HOUR);
+        assertTrue(forecast(1).getUsagePerHour() < 0.01);
+        assertNull(forecast(2).getTimeToEmpty());
+    }
+
+    @Test
+    @DisplayName("Test Ingredients Missing At Startup Are Picked Up On Their First Change")
+    public void testLateIngredients() {
+        List<Ingredient> source = new ArrayList<>();
+        LowStockMonitor late = new LowStockMonitor(() -> source, 20, HOUR, clock::get);
+        List<StockForecast> lateAlerts = new ArrayList<>();
+        late.subscribe(lateAlerts::add);
+        assertTrue(late.getForecasts().isEmpty(), "The inventory load failed");
+
+        source.add(ingredient(1, "Coffee Beans", 90, 100));
+        late.stockChanged(1, 90, 20);
+        assertEquals(1, lateAlerts.size(), "110 before the sale, so this one crossed");
+        assertEquals(90, forecast(late, 1).getQuantity());
+
+        // Already low before its first change, so it counts as alerted
+        source.add(ingredient(2, "Milk", 150, 200));
+        late.stockChanged(2, 140, 10);
+        assertEquals(1, lateAlerts.size());
+        late.stockChanged(99, 5, 1);
+        assertEquals(2, late.getForecasts().size(), "Unknown ingredients are ignored");
+    }
+
+    @Test
+    @DisplayName("Test Low Stock Ordered By Time To Empty")
+    public void testLowStockOrder() {
+        assertTrue(engine.reserve(Collections.singletonMap(1, 100)));
+        List<StockForecast> low = monitor.getLowStock();
+
+        assertEquals(2, low.size());
+        assertEquals("Coffee Beans", low.get(0).getName(), "Only beans are being used");
+        assertEquals("Milk", low.get(1).getName());
+        assertThrows(IllegalArgumentException.class, () -> monitor.subscribe(null));
+    }
+
+    private StockForecast forecast(int ingredientId) {
+        return forecast(monitor, ingredientId);
+    }
+
+    private static StockForecast forecast(LowStockMonitor monitor, int ingredientId) {
+        return monitor.getForecasts().stream().filter(f -> f.getIngredientId() == ingredientId).findFirst().get();
+    }
+
+    private static Ingredient ingredient(int id, String name, int quantity, int minThreshold) {
+        Ingredient ingredient = new Ingredient(name, quantity, "grams", minThreshold);
+        ingredient.setIngredientId(id);
+        return ingredient;
+    }
+}
@@ -0,0 +1,222 @@
+package com.cvs.tests;
+
+import com.cvs.dao.MenuCache;
+import com.cvs.models.CoffeeMenu;
+import com.cvs.models.OrderItem;
+import com.cvs.service.PricingEngine;
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class MenuCacheTest {
+    private FakeMenuSource source;
+
+    @BeforeEach
+    public void setUp() {
+        source = new FakeMenuSource();
+        source.items.add(new CoffeeMenu(1, "Americano", new BigDecimal("3.00"), "Espresso with hot water", true));
+        source.items.add(new CoffeeMenu(2, "Espresso", new BigDecimal("2.50"), "Strong black coffee", true));
+        source.items.add(new CoffeeMenu(3, "Mocha", new BigDecimal("4.50"), "Chocolate flavored coffee", false));
+    }
+
+    @Test
+    @DisplayName("Test Reads Are Served From The Snapshot")
+    public void testReadsFromMemory() {
+        MenuCache cache = new MenuCache(source, 60000, 600000);
+
+        assertEquals(3, cache.getAllItems().size());
+        assertEquals(2, cache.getAvailableItems().size());
+        assertEquals("Mocha", cache.getById(3).getName());
+        assertNull(cache.getById(99));
+        assertThrows(UnsupportedOperationException.class, () -> cache.getAllItems().clear());
+
+        assertEquals(1, source.loads.get());
+    }
+
+    @Test
+    @DisplayName("Test Callers Get Copies Of Cached Items")
+    public void testReadsAreCopies() {
+        MenuCache cache = new MenuCache(source, 60000, 600000);
+
+        cache.getById(3).setAvailable(true);
+        cache.getAllItems().get(0).setName("Decaf");
+        source.items.get(1).setPrice(new BigDecimal("9.99"));
+
+        assertFalse(cache.getById(3).isAvailable());
+        assertEquals(2, cache.getAvailableItems().size());
+        assertEquals("Americano", cache.getAllItems().get(0).getName());
+        assertEquals(0, new BigDecimal("2.50").compareTo(cache.getById(2).getPrice()), "Loaded rows are copied too");
+        assertNotSame(cache.getById(1), cache.getById(1));
+        assertEquals(1, source.loads.get());
+    }
+
+    @Test
+    @DisplayName("Test Invalidate Reloads On Next Read")
+    public void testInvalidate() {
+        MenuCache cache = new MenuCache(source, 60000, 600000);
+        long version = cache.getVersion();
+
+        source.items.get(2).setAvailable(true);
+        cache.invalidate();
+
+        assertEquals(3, cache.getAvailableItems().size());
+        assertNotEquals(version, cache.getVersion());
+        assertEquals(2, source.loads.get());
+    }
+
+    @Test
+    @DisplayName("Test Version Check Picks Up Changes From Other Nodes")
+    public void testVersionCheck() {
+        MenuCache cache = new MenuCache(source, 0, 600000, 0, Runnable::run);
+        cache.getAllItems();
+        cache.getAllItems();
+        assertEquals(1, source.loads.get(), "Unchanged version should not reload");
+
+        source.items.add(new CoffeeMenu(4, "Latte", new BigDecimal("4.00"), "Espresso with steamed milk", true));
+        source.version.incrementAndGet();
+
+        assertEquals(4, cache.getAllItems().size());
+        assertEquals(2, source.loads.get());
+    }
+
+    @Test
+    @DisplayName("Test TTL Fallback When Version Is Unreadable")
+    public void testTtlFallback() {
+        source.versionFails = true;
+        MenuCache longTtl = new MenuCache(source, 0, 600000, 0, Runnable::run);
+        longTtl.getAllItems();
+        longTtl.getAllItems();
+        assertEquals(1, source.loads.get());
+
+        MenuCache expired = new MenuCache(source, 0, 0, 0, Runnable::run);
+        expired.getAllItems();
+        expired.getAllItems();
+        assertEquals(3, source.loads.get(), "Expired snapshot should reload");
+    }
+
+    @Test
+    @DisplayName("Test Failed Load Backs Off Before Retrying")
+    public void testFailedLoad() {
+        source.loadFails = true;
+        MenuCache cache = new MenuCache(source, 60000, 600000, 60000, Runnable::run);
+        assertTrue(cache.getAllItems().isEmpty());
+
+        source.loadFails = false;
+        assertTrue(cache.getAllItems().isEmpty(), "Failed load should be served until the backoff passes");
+        assertEquals(0, source.loads.get());
+
+        source.loadFails = true;
+        MenuCache retrying = new MenuCache(source, 60000, 600000, 0, Runnable::run);
+        assertTrue(retrying.getAllItems().isEmpty());
+
+        source.loadFails = false;
+        assertEquals(3, retrying.getAllItems().size());
+        assertEquals(1, source.loads.get());
+    }
+
+    @Test
+    @DisplayName("Test Slow Version Check Does Not Block Readers")
+    public void testBackgroundRevalidation() throws Exception {
+        ExecutorService refresher = Executors.newSingleThreadExecutor();
+        try {
+            MenuCache cache = new MenuCache(source, 0, 600000, 0, refresher);
+            assertEquals(3, cache.getAllItems().size());
+
+            CountDownLatch release = new CountDownLatch(1);
+            source.versionGate = release;
+            source.items.add(new CoffeeMenu(4, "Latte", new BigDecimal("4.00"), "Espresso with steamed milk", true));
+            source.version.incrementAndGet();
+
+            ExecutorService reader = Executors.newSingleThreadExecutor();
+            assertEquals(3, reader.submit(() -> cache.getAllItems().size()).get(5, TimeUnit.SECONDS),
+                "Reader should get the current snapshot while the check is stuck");
+            reader.shutdown();
+
+            release.countDown();
+            long deadline = System.currentTimeMillis() + 5000;
+            while (cache.getAllItems().size() != 4 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            assertEquals(4, cache.getAllItems().size());
+        } finally {
+            source.versionGate = null;
+            refresher.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Test Pricing Engine Follows Menu Version")
+    public void testPricingFollowsVersion() {
+        MenuCache cache = new MenuCache(source, 60000, 600000);
+        PricingEngine engine = new PricingEngine(cache::getAllItems, cache::getVersion);
+        assertEquals(250, engine.linePriceCents(2, OrderItem.Size.MEDIUM, OrderItem.SugarLevel.LOW, OrderItem.MilkLevel.LOW, 1));
+
+        source.items.set(1, new CoffeeMenu(2, "Espresso", new BigDecimal("2.80"), "Strong black coffee", true));
+        cache.invalidate();
+
+        assertEquals(280, engine.linePriceCents(2, OrderItem.Size.MEDIUM, OrderItem.SugarLevel.LOW, OrderItem.MilkLevel.LOW, 1));
+    }
+
+    @Test
+    @DisplayName("Concurrency Test: Parallel Readers Share One Load")
+    public void testConcurrentReaders() throws Exception {
+        MenuCache cache = new MenuCache(source, 60000, 600000);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> futures = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                return cache.getAvailableItems().size();
+            }));
+        }
+        start.countDown();
+        for (Future<Integer> future : futures) {
+            assertEquals(2, future.get(10, TimeUnit.SECONDS));
+        }
+        executor.shutdown();
+
+        assertEquals(1, source.loads.get());
+    }
+
+    private static class FakeMenuSource implements MenuCache.MenuSource {
+        final List<CoffeeMenu> items = new CopyOnWriteArrayList<>();
+        final AtomicInteger loads = new AtomicInteger();
+        final AtomicLong version = new AtomicLong(1);
+        volatile boolean versionFails;
+        volatile boolean loadFails;
+        volatile CountDownLatch versionGate;
+
+        @Override
+        public List<CoffeeMenu> loadMenu() throws SQLException {
+            if (loadFails) {
+                throw new SQLException("Communications link failure");
+            }
+            loads.incrementAndGet();
+            return new ArrayList<>(items);
+        }
+
+        @Override
+        public long readVersion() throws SQLException {
+            CountDownLatch gate = versionGate;
+            if (gate != null) {
+                try {
+                    gate.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            if (versionFails) {
+                throw new SQLException("Table 'cache_versions' doesn't exist");
+            }
+            return version.get();
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.cvs.tests;
+
+import com.cvs.models.Money;
+import com.cvs.models.Order;
+import com.cvs.models.OrderItem;
+import com.cvs.models.User;
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+public class MoneyTest {
+
+    @Test
+    @DisplayName("Test Arithmetic Stays In Cents")
+    public void testArithmetic() {
+        Money price = Money.parse("3.50");
+
+        assertEquals(350, price.getCents());
+        assertEquals(Money.parse("7.00"), price.times(2));
+        assertEquals(Money.parse("4.25"), price.plus(Money.ofCents(75)));
+        assertEquals(Money.parse("-0.50"), price.minus(Money.parse("4.00")));
+        assertTrue(price.minus(price).isZero());
+        assertEquals(0, price.compareTo(Money.of(new BigDecimal("3.5"))));
+    }
+
+    @Test
+    @DisplayName("Test Rounding Matches BigDecimal HALF_UP")
+    public void testRounding() {
+        String[] amounts = {"2.345", "2.344", "-2.345", "0.005", "3.9999", "1"};
+        for (String amount : amounts) {
+            BigDecimal expected = new BigDecimal(amount).setScale(2, RoundingMode.HALF_UP);
+            assertEquals(expected, Money.parse(amount).toBigDecimal(), amount);
+        }
+
+        long[][] divisions = {{1000, 3}, {1001, 2}, {-1001, 2}, {5, 2}, {-5, 2}, {999, -4}, {0, 7}};
+        for (long[] d : divisions) {
+            BigDecimal expected = BigDecimal.valueOf(d[0], 2).divide(BigDecimal.valueOf(d[1]), 2, RoundingMode.HALF_UP);
+            assertEquals(expected, Money.ofCents(d[0]).dividedBy(d[1]).toBigDecimal(), d[0] + "/" + d[1]);
+        }
+        assertThrows(IllegalArgumentException.class, () -> Money.ofCents(100).dividedBy(0));
+    }
+
+    @Test
+    @DisplayName("Test Text Form Matches Scale-2 BigDecimal")
+    public void testToString() {
+        assertEquals("3.50", Money.parse("3.5").toString());
+        assertEquals("0.05", Money.ofCents(5).toString());
+        assertEquals("-0.05", Money.ofCents(-5).toString());
+        assertEquals("-12.30", Money.ofCents(-1230).toString());
+        assertEquals("0.00", Money.ZERO.toString());
+    }
+
+    @Test
+    @DisplayName("Test Validation")
+    public void testValidation() {
+        assertThrows(IllegalArgumentException.class, () -> Money.of(null));
+        assertThrows(IllegalArgumentException.class, () -> Money.parse(" "));
+        assertThrows(NumberFormatException.class, () -> Money.parse("abc"));
+        assertThrows(ArithmeticException.class, () -> Money.ofCents(Long.MAX_VALUE).plus(Money.ofCents(1)));
+        assertNull(Money.ofNullable(null));
+    }
+
+    @Test
+    @DisplayName("Test Models Keep Their BigDecimal Accessors")
+    public void testModelAccessors() {
+        Order order = new Order(1, new BigDecimal("9.999"));
+        assertEquals(new BigDecimal("10.00"), order.getTotalAmount());
+        assertEquals(1000, order.getTotalMoney().getCents());
+
+        OrderItem item = new OrderItem(1, 1, 2, OrderItem.SugarLevel.LOW, OrderItem.MilkLevel.LOW,
+                                       OrderItem.Size.MEDIUM, new BigDecimal("7.00"));
+        assertEquals(Money.ofCents(700), item.getItemPriceMoney());
+
+        User user = new User();
+        user.setBalanceMoney(Money.parse("12.34"));
+        assertEquals(new BigDecimal("12.34"), user.getBalance());
+        assertThrows(IllegalArgumentException.class, () -> user.setBalanceMoney(Money.ofCents(-1)));
+    }
+}
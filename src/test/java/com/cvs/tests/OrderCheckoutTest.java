@@ -0,0 +1,226 @@
+package com.cvs.tests;
+
+import com.cvs.dao.IngredientDAO;
+import com.cvs.dao.InventoryEngine;
+import com.cvs.dao.RecipeDAO;
+import com.cvs.dao.WalletDAO;
+import com.cvs.models.CoffeeMenu;
+import com.cvs.models.Ingredient;
+import com.cvs.models.Order;
+import com.cvs.models.OrderEvent;
+import com.cvs.models.OrderItem;
+import com.cvs.models.Payment;
+import com.cvs.service.IdempotencyStore;
+import com.cvs.service.OrderEventBus;
+import com.cvs.service.OrderService;
+import com.cvs.service.PreparationEngine;
+import com.cvs.service.PricingEngine;
+import com.cvs.service.RecipeBook;
+import com.cvs.service.UserService;
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+public class OrderCheckoutTest {
+    private static final int BEANS = 1;
+    private static final int MILK = 2;
+
+    private String url;
+    private Connection conn;
+    private InventoryEngine inventory;
+    private final List<OrderEvent> events = new ArrayList<>();
+    private OrderService orderService;
+
+    @BeforeEach
+    public void setUp() throws SQLException {
+        url = TestDatabase.newUrl("checkout", "LOCK_TIMEOUT=5000");
+        // Held open for the whole test so the in-memory database outlives the service's connections
+        conn = DriverManager.getConnection(url, "sa", "");
+        try (Statement stmt = conn.createStatement()) {
+            TestDatabase.createTables(conn, "users", "wallet_ledger", "wallet_snapshots", "ingredients", "stock_leases", "inventory_journal", "recipe_ingredients", "orders", "order_items", "order_rollup_hourly", "sales_rollup_hourly", "payments", "idempotency_keys");
+            stmt.execute("INSERT INTO users (user_id, name, email, password, balance) VALUES " +
+                         "(1, 'John Doe', 'john@example.com', 'pw', 10.00), (2, 'Jane Smith', 'jane@example.com', 'pw', 1.00)");
+            stmt.execute("INSERT INTO ingredients (name, quantity, unit, min_threshold) VALUES " +
+                         "('Coffee Beans', 100, 'grams', 10), ('Milk', 2000, 'ml', 50)");
+            // A medium espresso takes 18 g of beans; a high-milk one adds 200 ml of milk
+            stmt.execute("INSERT INTO recipe_ingredients (coffee_id, size, sugar_level, milk_level, ingredient_id, amount) VALUES " +
+                         "(1, 'MEDIUM', NULL, NULL, 1, 18), (NULL, 'MEDIUM', NULL, 'HIGH', 2, 200)");
+        }
+
+        IngredientDAO ingredientDAO = new IngredientDAO();
+        inventory = new InventoryEngine(new InventoryEngine.StockStore() {
+            @Override
+            public List<Ingredient> loadIngredients() throws SQLException {
+                return ingredientDAO.loadIngredients(conn);
+            }
+
+            @Override
+            public Map<Integer, Long> loadLeases() throws SQLException {
+                return ingredientDAO.loadLeases(conn);
+            }
+
+            @Override
+            public int claim(int ingredientId, int needed, int percent) throws SQLException {
+                return ingredientDAO.claim(ingredientId, needed, percent, conn);
+            }
+
+            @Override
+            public boolean setQuantity(int ingredientId, int quantity) throws SQLException {
+                return ingredientDAO.setQuantity(ingredientId, quantity, conn);
+            }
+
+            @Override
+            public int flushJournal(int batchSize) throws SQLException {
+                return ingredientDAO.flushJournal(batchSize, conn);
+            }
+        });
+        RecipeDAO recipeDAO = new RecipeDAO();
+        RecipeBook recipeBook = new RecipeBook(() -> {
+            try {
+                return recipeDAO.getAllRecipeIngredients(conn);
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        PricingEngine pricing = new PricingEngine(() -> Arrays.asList(
+            new CoffeeMenu(1, "Espresso", new BigDecimal("2.50"), "Strong black coffee", true),
+            new CoffeeMenu(5, "Mocha", new BigDecimal("4.00"), "Chocolate flavored coffee", false)));
+        PreparationEngine preparation = new PreparationEngine(1, 10, new long[] {1, 1, 1}, orderId -> true);
+        OrderEventBus eventBus = new OrderEventBus();
+        eventBus.subscribe(events::add);
+        // Nothing is stored for any key yet, as when another kiosk commits it after this one looked
+        IdempotencyStore idempotency = new IdempotencyStore((key, userId) -> null, 100, 60000);
+
+        orderService = new OrderService(new UserService(), pricing, recipeBook, inventory, preparation, eventBus,
+                                        idempotency, () -> DriverManager.getConnection(url, "sa", ""));
+    }
+
+    @AfterEach
+    public void tearDown() throws SQLException {
+        conn.close();
+    }
+
+    @Test
+    @DisplayName("Test Checkout Commits Order, Items, Payment, Stock And Wallet Together")
+    public void testCheckout() throws SQLException {
+        Order order = orderService.checkout(1, cart(2, OrderItem.MilkLevel.HIGH), Payment.PaymentType.WALLET, "key-1");
+
+        assertNotNull(order);
+        assertEquals(Order.OrderStatus.PREPARING, order.getOrderStatus());
+        assertEquals(0, new BigDecimal("6.00").compareTo(order.getTotalAmount()), "Two cups at 2.50 plus the milk fee");
+        assertEquals(1, count("SELECT COUNT(*) FROM orders WHERE order_id = " + order.getOrderId()));
+        assertEquals(1, count("SELECT COUNT(*) FROM order_items WHERE order_id = " + order.getOrderId()));
+        assertEquals(1, count("SELECT COUNT(*) FROM payments WHERE payment_type = 'WALLET' AND payment_status = 'SUCCESS' " +
+                              "AND order_id = " + order.getOrderId()));
+        assertEquals(36, count("SELECT SUM(amount) FROM inventory_journal WHERE ingredient_id = " + BEANS));
+        assertEquals(400, count("SELECT SUM(amount) FROM inventory_journal WHERE ingredient_id = " + MILK));
+        assertEquals(-600, count("SELECT SUM(amount * 100) FROM wallet_ledger WHERE user_id = 1 AND order_id = " + order.getOrderId()));
+        assertEquals(1, count("SELECT COUNT(*) FROM idempotency_keys WHERE idem_key = 'key-1'"));
+
+        assertEquals(0, new BigDecimal("4.00").compareTo(walletBalance(1)));
+        assertEquals(64, counter(BEANS));
+        assertEquals(1600, counter(MILK));
+        assertEquals(1, events.size());
+    }
+
+    @Test
+    @DisplayName("Test Insufficient Balance Releases The Stock Reservation")
+    public void testInsufficientBalance() throws SQLException {
+        assertNull(orderService.checkout(2, cart(1, OrderItem.MilkLevel.NO_MILK), Payment.PaymentType.WALLET));
+
+        assertNothingCommitted();
+        assertEquals(0, new BigDecimal("1.00").compareTo(walletBalance(2)));
+        assertEquals(100, counter(BEANS), "The reservation is given back");
+    }
+
+    @Test
+    @DisplayName("Test Cart With An Unknown Or Unavailable Coffee Is Rejected")
+    public void testUnsellableCoffee() throws SQLException {
+        for (int coffeeId : new int[] {99, 5}) {
+            List<OrderItem> items = cart(1, OrderItem.MilkLevel.NO_MILK);
+            items.add(new OrderItem(0, coffeeId, 1, OrderItem.SugarLevel.NO_SUGAR, OrderItem.MilkLevel.NO_MILK,
+                                    OrderItem.Size.MEDIUM, BigDecimal.ZERO));
+            assertNull(orderService.checkout(1, items, Payment.PaymentType.WALLET));
+        }
+
+        assertNothingCommitted();
+        assertEquals(0, new BigDecimal("10.00").compareTo(walletBalance(1)));
+        assertEquals(100, counter(BEANS));
+    }
+
+    @Test
+    @DisplayName("Test Duplicate Idempotency Key Rolls Back And Releases The Stock")
+    public void testDuplicateKey() throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("INSERT INTO idempotency_keys (idem_key, user_id, order_id) VALUES ('key-1', 1, 999)");
+        }
+
+        assertNull(orderService.checkout(1, cart(1, OrderItem.MilkLevel.HIGH), Payment.PaymentType.WALLET, "key-1"));
+
+        assertNothingCommitted();
+        assertEquals(0, new BigDecimal("10.00").compareTo(walletBalance(1)), "The debit rolled back with the order");
+        assertEquals(100, counter(BEANS));
+        assertEquals(2000, counter(MILK));
+    }
+
+    @Test
+    @DisplayName("Test Failing Insert Rolls Back And Releases The Stock")
+    public void testFailingInsert() throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("ALTER TABLE payments RENAME TO payments_offline");
+        }
+
+        assertNull(orderService.checkout(1, cart(1, OrderItem.MilkLevel.NO_MILK), Payment.PaymentType.CARD));
+
+        assertEquals(0, count("SELECT COUNT(*) FROM orders"));
+        assertEquals(0, count("SELECT COUNT(*) FROM inventory_journal"));
+        assertEquals(100, counter(BEANS));
+
+        // The released stock sells normally afterwards
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("ALTER TABLE payments_offline RENAME TO payments");
+        }
+        assertNotNull(orderService.checkout(1, cart(1, OrderItem.MilkLevel.NO_MILK), Payment.PaymentType.WALLET));
+        assertEquals(82, counter(BEANS));
+    }
+
+    private void assertNothingCommitted() throws SQLException {
+        assertEquals(0, count("SELECT COUNT(*) FROM orders"));
+        assertEquals(0, count("SELECT COUNT(*) FROM order_items"));
+        assertEquals(0, count("SELECT COUNT(*) FROM payments"));
+        assertEquals(0, count("SELECT COUNT(*) FROM inventory_journal"));
+        assertEquals(0, count("SELECT COUNT(*) FROM wallet_ledger"));
+        assertTrue(events.isEmpty());
+    }
+
+    private int counter(int ingredientId) {
+        return inventory.getAllIngredients().stream()
+            .filter(i -> i.getIngredientId() == ingredientId).findFirst().get().getQuantity();
+    }
+
+    private BigDecimal walletBalance(int userId) throws SQLException {
+        return new WalletDAO().loadBalance(userId, conn).toBigDecimal();
+    }
+
+    private int count(String sql) throws SQLException {
+        try (Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery(sql)) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+
+    private static List<OrderItem> cart(int cups, OrderItem.MilkLevel milk) {
+        return new ArrayList<>(Arrays.asList(
+            new OrderItem(0, 1, cups, OrderItem.SugarLevel.NO_SUGAR, milk, OrderItem.Size.MEDIUM, BigDecimal.ZERO)));
+    }
+}
@@ -0,0 +1,176 @@
+package com.cvs.tests;
+
+import com.cvs.dao.OrderDAO;
+import com.cvs.gui.DataLoader;
+import com.cvs.gui.OrdersTableModel;
+import com.cvs.models.Order;
+import com.cvs.models.OrderEvent;
+import com.cvs.service.OrderChangeFeed;
+import com.cvs.service.OrderEventBus;
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+public class OrderEventsTest {
+    private static final LocalDateTime BASE = LocalDateTime.of(2024, 3, 1, 12, 0);
+
+    private Connection conn;
+    private OrderEventBus bus;
+    private List<OrderEvent> received;
+
+    @BeforeEach
+    public void setUp() throws SQLException {
+        conn = TestDatabase.open("events", "orders");
+        bus = new OrderEventBus();
+        received = new ArrayList<>();
+        bus.subscribe(received::add);
+    }
+
+    @AfterEach
+    public void tearDown() throws SQLException {
+        conn.close();
+    }
+
+    @Test
+    @DisplayName("Test Bus Delivers Past A Failing Listener")
+    public void testBus() {
+        bus.subscribe(event -> { throw new IllegalStateException("broken listener"); });
+        List<OrderEvent> late = new ArrayList<>();
+        Runnable unsubscribe = bus.subscribe(late::add);
+
+        bus.publish(OrderEvent.statusUpdated(7, Order.OrderStatus.READY));
+        unsubscribe.run();
+        bus.publish(OrderEvent.statusUpdated(7, Order.OrderStatus.DELIVERED));
+
+        assertEquals(2, received.size());
+        assertEquals(1, late.size());
+        assertEquals(2, bus.getListenerCount());
+    }
+
+    @Test
+    @DisplayName("Test Change Feed Publishes Only Deltas")
+    public void testChangeFeed() throws SQLException {
+        insertOrder(1, BASE);
+        OrderChangeFeed feed = new OrderChangeFeed(new OrderDAO(), bus, 1000, 2000);
+
+        // First poll only finds the starting point
+        assertEquals(0, feed.poll(conn));
+
+        insertOrder(2, BASE.plusSeconds(1));
+        insertOrder(3, BASE.plusSeconds(1));
+        assertEquals(2, feed.poll(conn));
+        assertEquals(OrderEvent.Type.CHANGED, received.get(0).getType());
+        assertEquals(2, received.get(0).getOrderId());
+
+        // The lookback window is rescanned but nothing is published twice
+        assertEquals(0, feed.poll(conn));
+
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "UPDATE orders SET order_status = 'READY', updated_at = ? WHERE order_id = 1")) {
+            stmt.setTimestamp(1, Timestamp.valueOf(BASE.plusSeconds(2)));
+            stmt.executeUpdate();
+        }
+        // A change stamped inside the window but committed late is still picked up
+        insertOrder(4, BASE.plusNanos(500_000_000));
+        assertEquals(2, feed.poll(conn));
+        assertEquals(4, received.get(2).getOrderId());
+        assertEquals(Order.OrderStatus.READY, received.get(3).getOrderStatus());
+        assertEquals(4, received.size());
+    }
+
+    @Test
+    @DisplayName("Test Screens Share One Running Feed")
+    public void testSharedFeed() {
+        OrderChangeFeed feed = new OrderChangeFeed(new OrderDAO(), bus, 60000, 2000);
+        Runnable first = feed.acquire();
+        Runnable second = feed.acquire();
+        assertTrue(feed.isRunning());
+
+        first.run();
+        first.run();
+        assertTrue(feed.isRunning(), "Releasing one handle twice must not stop the other screen's feed");
+        second.run();
+        assertFalse(feed.isRunning());
+        assertSame(OrderChangeFeed.getInstance(), OrderChangeFeed.getInstance());
+    }
+
+    @Test
+    @DisplayName("Test Only One Node Claims A Preparing Order")
+    public void testPreparationClaim() throws SQLException {
+        OrderDAO orderDAO = new OrderDAO();
+        insertOrder(1, BASE);
+        insertOrder(2, BASE);
+        OrderChangeFeed feed = new OrderChangeFeed(orderDAO, bus, 1000, 2000);
+        assertEquals(0, feed.poll(conn));
+
+        assertTrue(orderDAO.claimForPreparation(1, "node-a", conn));
+        assertTrue(orderDAO.claimForPreparation(1, "node-a", conn), "A restarted node keeps its orders");
+        assertFalse(orderDAO.claimForPreparation(1, "node-b", conn));
+        assertTrue(orderDAO.claimForPreparation(2, "node-b", conn));
+        assertEquals(0, feed.poll(conn), "A claim is not an order change");
+
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("UPDATE orders SET order_status = 'CANCELLED', prep_node = NULL WHERE order_id = 2");
+        }
+        assertFalse(orderDAO.claimForPreparation(2, "node-a", conn), "Only PREPARING orders are claimed");
+    }
+
+    @Test
+    @DisplayName("Test Orders Table Applies Events In Place")
+    public void testTableModelApply() throws InterruptedException {
+        List<Order> page = List.of(order(11, BASE.plusMinutes(2)), order(10, BASE.plusMinutes(1)));
+        ExecutorService worker = Executors.newSingleThreadExecutor();
+        try {
+            OrdersTableModel model = new OrdersTableModel((time, id, limit) -> time == null ? page : List.of(), 50,
+                                                          new DataLoader(worker, Runnable::run));
+            model.reset();
+            long deadline = System.currentTimeMillis() + 5000;
+            while (model.getRowCount() < 2 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            assertEquals(2, model.getRowCount());
+
+            model.apply(OrderEvent.created(order(12, BASE.plusMinutes(3))));
+            assertEquals(3, model.getRowCount());
+            assertEquals(12, model.getOrderAt(0).getOrderId());
+
+            model.apply(OrderEvent.statusUpdated(10, Order.OrderStatus.DELIVERED));
+            assertEquals(Order.OrderStatus.DELIVERED, model.getOrderAt(2).getOrderStatus());
+
+            // Older than the top row and not loaded: left for paging
+            model.apply(OrderEvent.created(order(5, BASE)));
+            assertEquals(3, model.getRowCount());
+        } finally {
+            worker.shutdownNow();
+        }
+    }
+
+    private void insertOrder(int id, LocalDateTime updatedAt) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "INSERT INTO orders (order_id, user_id, total_amount, payment_status, order_status, order_time, updated_at) " +
+                "VALUES (?, 1, 3.50, 'COMPLETED', 'PREPARING', ?, ?)")) {
+            stmt.setInt(1, id);
+            stmt.setTimestamp(2, Timestamp.valueOf(updatedAt));
+            stmt.setTimestamp(3, Timestamp.valueOf(updatedAt));
+            stmt.executeUpdate();
+        }
+    }
+
+    private static Order order(int id, LocalDateTime time) {
+        Order order = new Order(1, new BigDecimal("3.50"));
+        order.setOrderId(id);
+        order.setOrderTime(time);
+        return order;
+    }
+}
@@ -0,0 +1,58 @@
+package com.cvs.tests;
+
+import com.cvs.dao.OrderItemDAO;
+import com.cvs.models.OrderItem;
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+public class OrderItemDAOTest {
+    private Connection conn;
+    private OrderItemDAO orderItemDAO;
+
+    @BeforeEach
+    public void setUp() throws SQLException {
+        conn = TestDatabase.open("items", "order_items");
+        orderItemDAO = new OrderItemDAO();
+    }
+
+    @AfterEach
+    public void tearDown() throws SQLException {
+        conn.close();
+    }
+
+    @Test
+    @DisplayName("Test Batch Insert Maps Generated Keys")
+    public void testCreateOrderItemsBatch() throws SQLException {
+        List<OrderItem> items = new ArrayList<>();
+        for (int i = 1; i <= 10; i++) {
+            items.add(new OrderItem(7, i, i, OrderItem.SugarLevel.LOW, OrderItem.MilkLevel.HIGH,
+                                    OrderItem.Size.LARGE, new BigDecimal("3.25")));
+        }
+
+        assertTrue(orderItemDAO.createOrderItems(items, conn));
+
+        for (int i = 0; i < items.size(); i++) {
+            assertEquals(i + 1, items.get(i).getOrderItemId(), "Generated key should map back in insert order");
+        }
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COUNT(*), SUM(quantity) FROM order_items WHERE order_id = 7")) {
+            assertTrue(rs.next());
+            assertEquals(10, rs.getInt(1));
+            assertEquals(55, rs.getInt(2));
+        }
+    }
+
+    @Test
+    @DisplayName("Test Batch Insert With Empty List")
+    public void testCreateOrderItemsEmpty() {
+        assertTrue(orderItemDAO.createOrderItems(new ArrayList<>(), conn));
+    }
+}
@@ -0,0 +1,91 @@
+package com.cvs.tests;
+
+import com.cvs.dao.OrderDAO;
+import com.cvs.models.Order;
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+public class OrderPaginationTest {
+    private static final int ORDER_COUNT = 102;
+    private static final LocalDateTime BASE = LocalDateTime.of(2024, 6, 15, 9, 0);
+
+    private Connection conn;
+    private OrderDAO orderDAO;
+
+    @BeforeEach
+    public void setUp() throws SQLException {
+        conn = TestDatabase.open("paging", "orders");
+        // Groups of three orders share a timestamp so the id tie-breaker matters
+        String sql = "INSERT INTO orders (user_id, total_amount, payment_status, order_status, order_time) " +
+                     "VALUES (1, 3.50, 'COMPLETED', 'DELIVERED', ?)";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            for (int i = 0; i < ORDER_COUNT; i++) {
+                stmt.setTimestamp(1, Timestamp.valueOf(BASE.plusMinutes(i / 3)));
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        }
+        orderDAO = new OrderDAO();
+    }
+
+    @AfterEach
+    public void tearDown() throws SQLException {
+        conn.close();
+    }
+
+    @Test
+    @DisplayName("Test Keyset Pages Cover Every Order Once In Order")
+    public void testWalkAllPages() {
+        List<Order> seen = new ArrayList<>();
+        LocalDateTime beforeTime = null;
+        int beforeId = 0;
+        int pages = 0;
+        while (true) {
+            List<Order> page = orderDAO.getOrdersPage(beforeTime, beforeId, 10, conn);
+            pages++;
+            seen.addAll(page);
+            if (page.size() < 10) {
+                break;
+            }
+            Order last = page.get(page.size() - 1);
+            beforeTime = last.getOrderTime();
+            beforeId = last.getOrderId();
+        }
+
+        assertEquals(11, pages);
+        assertEquals(ORDER_COUNT, seen.size());
+        Set<Integer> ids = new HashSet<>();
+        for (int i = 0; i < seen.size(); i++) {
+            assertTrue(ids.add(seen.get(i).getOrderId()), "No order should appear twice");
+            if (i > 0) {
+                Order previous = seen.get(i - 1);
+                Order current = seen.get(i);
+                int byTime = previous.getOrderTime().compareTo(current.getOrderTime());
+                assertTrue(byTime > 0 || (byTime == 0 && previous.getOrderId() > current.getOrderId()),
+                    "Orders should be newest first with id as tie-breaker");
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Test Page Boundary Inside A Timestamp Group")
+    public void testBoundaryInsideTie() {
+        List<Order> first = orderDAO.getOrdersPage(null, 0, 2, conn);
+        assertEquals(first.get(0).getOrderTime(), first.get(1).getOrderTime());
+
+        Order last = first.get(1);
+        List<Order> next = orderDAO.getOrdersPage(last.getOrderTime(), last.getOrderId(), 2, conn);
+        assertEquals(last.getOrderId() - 1, next.get(0).getOrderId());
+        assertEquals(last.getOrderTime(), next.get(0).getOrderTime());
+    }
+}
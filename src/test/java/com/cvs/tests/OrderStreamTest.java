@@ -0,0 +1,93 @@
+package com.cvs.tests;
+
+import com.cvs.dao.OrderDAO;
+import com.cvs.models.Order;
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+public class OrderStreamTest {
+    private static final int ORDER_COUNT = 1200;
+
+    private Connection conn;
+    private OrderDAO orderDAO;
+
+    @BeforeEach
+    public void setUp() throws SQLException {
+        conn = TestDatabase.open("stream", "orders");
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "INSERT INTO orders (user_id, total_amount, payment_status, order_status, order_time) " +
+                "VALUES (?, ?, 'COMPLETED', 'DELIVERED', ?)")) {
+            LocalDateTime base = LocalDateTime.of(2024, 1, 1, 8, 0);
+            for (int i = 1; i <= ORDER_COUNT; i++) {
+                stmt.setInt(1, i % 7 + 1);
+                stmt.setBigDecimal(2, new BigDecimal("3.50"));
+                stmt.setTimestamp(3, Timestamp.valueOf(base.plusMinutes(i)));
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        }
+        orderDAO = new OrderDAO();
+    }
+
+    @AfterEach
+    public void tearDown() throws SQLException {
+        conn.close();
+    }
+
+    @Test
+    @DisplayName("Test Stream Visits Every Order In Id Order")
+    public void testStreamAllOrders() throws SQLException {
+        try (Stream<Order> orders = orderDAO.streamAllOrders(conn)) {
+            List<Integer> ids = orders.map(Order::getOrderId).collect(Collectors.toList());
+            assertEquals(ORDER_COUNT, ids.size());
+            for (int i = 0; i < ids.size(); i++) {
+                assertEquals(i + 1, ids.get(i));
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Test Early Close Releases The Cursor")
+    public void testEarlyClose() throws SQLException {
+        List<PreparedStatement> statements = new ArrayList<>();
+        Connection tracking = (Connection) Proxy.newProxyInstance(getClass().getClassLoader(),
+            new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+                Object result;
+                try {
+                    result = method.invoke(conn, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+                if (result instanceof PreparedStatement) {
+                    statements.add((PreparedStatement) result);
+                }
+                return result;
+            });
+        try (Stream<Order> orders = orderDAO.streamAllOrders(tracking)) {
+            assertEquals(10, orders.limit(10).count());
+            assertEquals(1, statements.size());
+            assertFalse(statements.get(0).isClosed());
+        }
+        assertTrue(statements.get(0).isClosed(), "Closing the stream early should close the DAO's statement");
+
+        // Connection stays with the caller and is still usable
+        assertFalse(conn.isClosed());
+        try (Stream<Order> orders = orderDAO.streamAllOrders(conn)) {
+            assertEquals(0, new BigDecimal("4200.00").compareTo(
+                orders.map(Order::getTotalAmount).reduce(BigDecimal.ZERO, BigDecimal::add)));
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package com.cvs.tests;
+
+import com.cvs.models.Order;
+import com.cvs.models.OrderItem;
+import com.cvs.models.PreparationStats;
+import com.cvs.service.PreparationEngine;
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class PreparationEngineTest {
+    // SMALL, MEDIUM, LARGE
+    private static final long[] BREW_MS = {10, 20, 30};
+
+    private List<Integer> ready;
+    private CountDownLatch readyLatch;
+    private PreparationEngine engine;
+
+    @BeforeEach
+    public void setUp() {
+        ready = new CopyOnWriteArrayList<>();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        if (engine != null) {
+            engine.stop();
+        }
+    }
+
+    @Test
+    @DisplayName("Test Orders Become Ready Once Every Item Is Brewed")
+    public void testOrdersBecomeReady() throws InterruptedException {
+        engine = newEngine(2, 10, 3);
+        engine.start();
+
+        assertTrue(engine.submit(order(1, item(OrderItem.Size.LARGE, 1), item(OrderItem.Size.SMALL, 2))));
+        assertTrue(engine.submit(order(2, item(OrderItem.Size.MEDIUM, 1))));
+        assertTrue(engine.submit(order(3, item(OrderItem.Size.SMALL, 1))));
+
+        assertTrue(readyLatch.await(5, TimeUnit.SECONDS));
+        assertEquals(3, ready.size());
+        assertTrue(ready.containsAll(Arrays.asList(1, 2, 3)));
+
+        PreparationStats stats = engine.getStats();
+        assertEquals(3, stats.getOrdersCompleted());
+        assertEquals(4, Arrays.stream(stats.getItemsPerStation()).sum());
+        for (double utilization : stats.getStationUtilization()) {
+            assertTrue(utilization > 0.0 && utilization <= 1.0);
+        }
+        assertEquals(0, stats.getQueueDepth());
+    }
+
+    @Test
+    @DisplayName("Test Full Queue Rejects Orders")
+    public void testBoundedQueue() throws InterruptedException {
+        engine = newEngine(1, 2, 2);
+
+        // Not started yet, so nothing drains the queue
+        assertTrue(engine.submit(order(1, item(OrderItem.Size.SMALL, 1))));
+        assertTrue(engine.submit(order(2, item(OrderItem.Size.SMALL, 1))));
+        assertFalse(engine.submit(order(3, item(OrderItem.Size.SMALL, 1))));
+        assertFalse(engine.submit(order(4)), "Nothing to brew");
+
+        PreparationStats stats = engine.getStats();
+        assertEquals(2, stats.getQueueDepth());
+        assertEquals(1, stats.getOrdersRejected());
+
+        engine.start();
+        assertTrue(readyLatch.await(5, TimeUnit.SECONDS));
+        assertEquals(Arrays.asList(1, 2), ready);
+        assertTrue(engine.getStats().getMaxWaitMs() >= 0);
+    }
+
+    @Test
+    @DisplayName("Test Start Re-queues Orders Left Preparing")
+    public void testRequeueOnStart() throws InterruptedException {
+        readyLatch = new CountDownLatch(2);
+        List<Order> pending = Arrays.asList(order(7, item(OrderItem.Size.SMALL, 1)), order(8, item(OrderItem.Size.MEDIUM, 1)));
+        engine = new PreparationEngine(1, 10, BREW_MS, orderId -> {
+            ready.add(orderId);
+            readyLatch.countDown();
+            return true;
+        }, () -> pending);
+        engine.start();
+
+        assertTrue(engine.submit(order(7, item(OrderItem.Size.SMALL, 1))), "Already queued counts as accepted");
+        assertTrue(readyLatch.await(5, TimeUnit.SECONDS));
+        Thread.sleep(100);
+        assertEquals(Arrays.asList(7, 8), ready);
+        assertEquals(2, engine.getStats().getOrdersSubmitted(), "Duplicate submit should not queue the order twice");
+    }
+
+    @Test
+    @DisplayName("Test Orders Turned Away By A Full Queue Are Queued Once It Drains")
+    public void testRetryAfterFullQueue() throws InterruptedException {
+        readyLatch = new CountDownLatch(3);
+        // Stands in for the orders table: PREPARING until the engine marks them ready
+        List<Order> preparing = new CopyOnWriteArrayList<>(Arrays.asList(
+            order(1, item(OrderItem.Size.SMALL, 1)), order(2, item(OrderItem.Size.SMALL, 1)),
+            order(3, item(OrderItem.Size.SMALL, 1))));
+        engine = new PreparationEngine(1, 1, BREW_MS, orderId -> {
+            preparing.removeIf(order -> order.getOrderId() == orderId);
+            ready.add(orderId);
+            readyLatch.countDown();
+            return true;
+        }, () -> new ArrayList<>(preparing), orderId -> true);
+
+        assertTrue(engine.submit(preparing.get(0)));
+        assertFalse(engine.submit(preparing.get(1)), "Queue full");
+        engine.start();
+
+        assertTrue(readyLatch.await(5, TimeUnit.SECONDS));
+        assertEquals(Arrays.asList(1, 2, 3), ready);
+        assertTrue(engine.getStats().getOrdersRejected() >= 1);
+    }
+
+    @Test
+    @DisplayName("Test Orders Claimed By Another Node Are Not Queued")
+    public void testClaimedElsewhere() throws InterruptedException {
+        readyLatch = new CountDownLatch(1);
+        engine = new PreparationEngine(1, 10, BREW_MS, orderId -> {
+            ready.add(orderId);
+            readyLatch.countDown();
+            return true;
+        }, ArrayList::new, orderId -> orderId != 5);
+        engine.start();
+
+        assertFalse(engine.submit(order(5, item(OrderItem.Size.SMALL, 1))));
+        assertTrue(engine.submit(order(6, item(OrderItem.Size.SMALL, 1))));
+        assertTrue(readyLatch.await(5, TimeUnit.SECONDS));
+        assertEquals(Arrays.asList(6), ready);
+        assertEquals(0, engine.getStats().getOrdersRejected(), "Not a queue overflow");
+    }
+
+    @Test
+    @DisplayName("Test Invalid Configuration")
+    public void testValidation() {
+        assertThrows(IllegalArgumentException.class, () -> new PreparationEngine(0, 10, BREW_MS, id -> true));
+        assertThrows(IllegalArgumentException.class, () -> new PreparationEngine(2, 10, new long[]{10}, id -> true));
+    }
+
+    private PreparationEngine newEngine(int stations, int capacity, int expectedReady) {
+        readyLatch = new CountDownLatch(expectedReady);
+        return new PreparationEngine(stations, capacity, BREW_MS, orderId -> {
+            ready.add(orderId);
+            readyLatch.countDown();
+            return true;
+        });
+    }
+
+    private static Order order(int orderId, OrderItem... items) {
+        Order order = new Order(1, new BigDecimal("5.00"));
+        order.setOrderId(orderId);
+        order.setOrderStatus(Order.OrderStatus.PREPARING);
+        order.setOrderItems(new ArrayList<>(Arrays.asList(items)));
+        return order;
+    }
+
+    private static OrderItem item(OrderItem.Size size, int quantity) {
+        return new OrderItem(0, 1, quantity, OrderItem.SugarLevel.LOW, OrderItem.MilkLevel.LOW, size,
+                             new BigDecimal("2.50"));
+    }
+}
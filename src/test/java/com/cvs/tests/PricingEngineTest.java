@@ -0,0 +1,112 @@
+package com.cvs.tests;
+
+import com.cvs.models.CoffeeMenu;
+import com.cvs.models.OrderItem;
+import com.cvs.service.PricingEngine;
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class PricingEngineTest {
+    private List<CoffeeMenu> menu;
+    private AtomicInteger loads;
+    private PricingEngine engine;
+
+    @BeforeEach
+    public void setUp() {
+        menu = new ArrayList<>();
+        menu.add(new CoffeeMenu(1, "Espresso", new BigDecimal("2.50"), "Strong black coffee", true));
+        menu.add(new CoffeeMenu(2, "Cappuccino", new BigDecimal("3.50"), "Espresso with steamed milk foam", true));
+        menu.add(new CoffeeMenu(5, "Mocha", new BigDecimal("2.25"), "Chocolate flavored coffee", false));
+        loads = new AtomicInteger();
+        engine = new PricingEngine(() -> {
+            loads.incrementAndGet();
+            return menu;
+        });
+    }
+
+    @Test
+    @DisplayName("Test Prices Match BigDecimal Formula")
+    public void testMatchesLegacyFormula() {
+        for (CoffeeMenu coffee : menu) {
+            for (OrderItem.Size size : OrderItem.Size.values()) {
+                for (OrderItem.SugarLevel sugar : OrderItem.SugarLevel.values()) {
+                    for (OrderItem.MilkLevel milk : OrderItem.MilkLevel.values()) {
+                        BigDecimal expected = legacyPrice(coffee.getPrice(), size, sugar, milk);
+                        BigDecimal actual = engine.unitPrice(coffee.getCoffeeId(), size, sugar, milk);
+                        assertEquals(0, expected.compareTo(actual),
+                            String.format("%s %s/%s/%s", coffee.getName(), size, sugar, milk));
+                    }
+                }
+            }
+        }
+        assertEquals(1, loads.get(), "Menu should be loaded once for all lookups");
+    }
+
+    @Test
+    @DisplayName("Test Line Price Rounds Once To Cents")
+    public void testLinePriceRounding() {
+        // 2.25 x 1.3 = 2.925 per cup
+        assertEquals(2925, engine.unitPriceMills(5, OrderItem.Size.LARGE, OrderItem.SugarLevel.LOW, OrderItem.MilkLevel.LOW));
+        assertEquals(293, engine.linePriceCents(5, OrderItem.Size.LARGE, OrderItem.SugarLevel.LOW, OrderItem.MilkLevel.LOW, 1));
+        assertEquals(585, engine.linePriceCents(5, OrderItem.Size.LARGE, OrderItem.SugarLevel.LOW, OrderItem.MilkLevel.LOW, 2));
+
+        BigDecimal legacyLine = legacyPrice(new BigDecimal("2.25"), OrderItem.Size.LARGE, OrderItem.SugarLevel.LOW, OrderItem.MilkLevel.LOW)
+            .multiply(BigDecimal.valueOf(3)).setScale(2, RoundingMode.HALF_UP);
+        assertEquals(legacyLine.unscaledValue().longValue(),
+            engine.linePriceCents(5, OrderItem.Size.LARGE, OrderItem.SugarLevel.LOW, OrderItem.MilkLevel.LOW, 3));
+    }
+
+    @Test
+    @DisplayName("Test Unknown Coffee Prices As Zero")
+    public void testUnknownCoffee() {
+        assertEquals(-1, engine.unitPriceMills(99, OrderItem.Size.SMALL, OrderItem.SugarLevel.LOW, OrderItem.MilkLevel.LOW));
+        assertEquals(0, engine.linePriceCents(99, OrderItem.Size.SMALL, OrderItem.SugarLevel.LOW, OrderItem.MilkLevel.LOW, 2));
+        assertEquals(BigDecimal.ZERO, engine.unitPrice(99, OrderItem.Size.SMALL, OrderItem.SugarLevel.LOW, OrderItem.MilkLevel.LOW));
+    }
+
+    @Test
+    @DisplayName("Test Only Listed Available Coffees Are Sellable")
+    public void testSellable() {
+        assertTrue(engine.isSellable(1));
+        assertFalse(engine.isSellable(5), "Unavailable coffees keep a price but can't be sold");
+        assertFalse(engine.isSellable(99));
+
+        // A failed menu load leaves an empty table, which must sell nothing
+        engine.rebuild(new ArrayList<>());
+        assertFalse(engine.isSellable(1));
+    }
+
+    @Test
+    @DisplayName("Test Rebuild Swaps The Table")
+    public void testRebuild() {
+        assertEquals(250, engine.linePriceCents(1, OrderItem.Size.MEDIUM, OrderItem.SugarLevel.LOW, OrderItem.MilkLevel.LOW, 1));
+
+        List<CoffeeMenu> updated = new ArrayList<>();
+        updated.add(new CoffeeMenu(1, "Espresso", new BigDecimal("2.75"), "Strong black coffee", true));
+        engine.rebuild(updated);
+        assertEquals(275, engine.linePriceCents(1, OrderItem.Size.MEDIUM, OrderItem.SugarLevel.LOW, OrderItem.MilkLevel.LOW, 1));
+
+        engine.rebuild(menu);
+        assertEquals(250, engine.linePriceCents(1, OrderItem.Size.MEDIUM, OrderItem.SugarLevel.LOW, OrderItem.MilkLevel.LOW, 1));
+        assertEquals(1, loads.get());
+    }
+
+    static BigDecimal legacyPrice(BigDecimal basePrice, OrderItem.Size size, OrderItem.SugarLevel sugar, OrderItem.MilkLevel milk) {
+        BigDecimal multiplier = size == OrderItem.Size.SMALL ? new BigDecimal("0.8")
+            : size == OrderItem.Size.LARGE ? new BigDecimal("1.3") : BigDecimal.ONE;
+        BigDecimal fee = BigDecimal.ZERO;
+        if (sugar == OrderItem.SugarLevel.HIGH) {
+            fee = fee.add(new BigDecimal("0.25"));
+        }
+        if (milk == OrderItem.MilkLevel.HIGH) {
+            fee = fee.add(new BigDecimal("0.50"));
+        }
+        return basePrice.multiply(multiplier).add(fee);
+    }
+}
@@ -0,0 +1,167 @@
+package com.cvs.tests;
+
+import com.cvs.dao.IngredientDAO;
+import com.cvs.dao.InventoryEngine;
+import com.cvs.dao.OrderDAO;
+import com.cvs.dao.RecipeDAO;
+import com.cvs.models.Ingredient;
+import com.cvs.models.Order;
+import com.cvs.models.OrderItem;
+import com.cvs.service.RecipeBook;
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+public class RecipeStockTest {
+    private static final int BEANS = 1;
+    private static final int MILK = 2;
+    private static final int SUGAR = 3;
+
+    private Connection conn;
+    private IngredientDAO ingredientDAO;
+    private InventoryEngine inventory;
+    private RecipeBook recipeBook;
+
+    @BeforeEach
+    public void setUp() throws SQLException {
+        conn = TestDatabase.open("recipes", "ingredients", "stock_leases", "inventory_journal", "recipe_ingredients", "orders", "order_items", "order_rollup_hourly", "sales_rollup_hourly");
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("INSERT INTO ingredients (name, quantity, unit, min_threshold) VALUES " +
+                         "('Coffee Beans', 100, 'grams', 10), ('Milk', 500, 'ml', 50), ('Sugar', 40, 'grams', 5)");
+            // Coffee 1 is a latte; coffee 2 has no base recipe; sugar and milk additions apply to both
+            stmt.execute("INSERT INTO recipe_ingredients (coffee_id, size, sugar_level, milk_level, ingredient_id, amount) VALUES " +
+                         "(1, 'MEDIUM', NULL, NULL, 1, 18), (1, 'MEDIUM', NULL, NULL, 2, 200), (1, 'LARGE', NULL, NULL, 1, 23), " +
+                         "(NULL, 'MEDIUM', 'HIGH', NULL, 3, 12), (NULL, 'MEDIUM', NULL, 'HIGH', 2, 60)");
+        }
+        ingredientDAO = new IngredientDAO("test-node");
+        inventory = new InventoryEngine(new InventoryEngine.StockStore() {
+            @Override
+            public List<Ingredient> loadIngredients() throws SQLException {
+                return ingredientDAO.loadIngredients(conn);
+            }
+
+            @Override
+            public Map<Integer, Long> loadLeases() throws SQLException {
+                return ingredientDAO.loadLeases(conn);
+            }
+
+            @Override
+            public int claim(int ingredientId, int needed, int percent) throws SQLException {
+                return ingredientDAO.claim(ingredientId, needed, percent, conn);
+            }
+
+            @Override
+            public boolean setQuantity(int ingredientId, int quantity) throws SQLException {
+                return ingredientDAO.setQuantity(ingredientId, quantity, conn);
+            }
+
+            @Override
+            public int flushJournal(int batchSize) throws SQLException {
+                return ingredientDAO.flushJournal(batchSize, conn);
+            }
+        });
+        RecipeDAO recipeDAO = new RecipeDAO();
+        recipeBook = new RecipeBook(() -> {
+            try {
+                return recipeDAO.getAllRecipeIngredients(conn);
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+    }
+
+    @AfterEach
+    public void tearDown() throws SQLException {
+        conn.close();
+    }
+
+    @Test
+    @DisplayName("Test Requirements Sum Base Recipe And Additions")
+    public void testRequirements() {
+        Map<Integer, Integer> required = recipeBook.requirements(Arrays.asList(
+            item(1, 2, OrderItem.Size.MEDIUM, OrderItem.SugarLevel.HIGH, OrderItem.MilkLevel.HIGH),
+            item(2, 1, OrderItem.Size.MEDIUM, OrderItem.SugarLevel.HIGH, OrderItem.MilkLevel.LOW),
+            item(1, 1, OrderItem.Size.LARGE, OrderItem.SugarLevel.NO_SUGAR, OrderItem.MilkLevel.NO_MILK)));
+
+        assertEquals(Arrays.asList(BEANS, MILK, SUGAR), new ArrayList<>(required.keySet()), "Ascending ingredient ids");
+        assertEquals(2 * 18 + 23, required.get(BEANS));
+        assertEquals(2 * (200 + 60), required.get(MILK));
+        assertEquals(3 * 12, required.get(SUGAR));
+    }
+
+    @Test
+    @DisplayName("Test Reservation Journals Every Ingredient")
+    public void testReserveStock() throws SQLException {
+        Map<Integer, Integer> required = recipeBook.requirements(Arrays.asList(
+            item(1, 1, OrderItem.Size.MEDIUM, OrderItem.SugarLevel.HIGH, OrderItem.MilkLevel.NO_MILK)));
+
+        assertTrue(inventory.reserve(required));
+        ingredientDAO.appendJournal(required, conn);
+        inventory.confirm(required);
+        assertEquals(82, quantity(BEANS));
+        assertEquals(300, quantity(MILK));
+        assertEquals(28, quantity(SUGAR));
+    }
+
+    @Test
+    @DisplayName("Test Short Stock Rejects The Order Before It Is Inserted")
+    public void testShortStockRejected() throws SQLException {
+        OrderDAO orderDAO = new OrderDAO();
+        List<OrderItem> items = new ArrayList<>(Arrays.asList(
+            item(1, 2, OrderItem.Size.MEDIUM, OrderItem.SugarLevel.HIGH, OrderItem.MilkLevel.NO_MILK),
+            item(2, 2, OrderItem.Size.MEDIUM, OrderItem.SugarLevel.HIGH, OrderItem.MilkLevel.NO_MILK)));
+        // Beans and milk are fine, but four high-sugar cups need 48 g of the 40 g of sugar
+        Map<Integer, Integer> required = recipeBook.requirements(items);
+
+        conn.setAutoCommit(false);
+        boolean placed = inventory.reserve(required) && orderDAO.insertOrder(order(items), conn);
+        if (placed) {
+            ingredientDAO.appendJournal(required, conn);
+            conn.commit();
+        } else {
+            conn.rollback();
+        }
+        conn.setAutoCommit(true);
+
+        assertFalse(placed);
+        assertEquals(100, quantity(BEANS), "Nothing is journaled for a short cart");
+        assertEquals(500, quantity(MILK));
+        assertEquals(40, quantity(SUGAR));
+        try (Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM orders")) {
+            rs.next();
+            assertEquals(0, rs.getInt(1));
+        }
+
+        Map<Integer, Integer> first = recipeBook.requirements(items.subList(0, 1));
+        assertTrue(inventory.reserve(first));
+        ingredientDAO.appendJournal(first, conn);
+        inventory.confirm(first);
+        assertEquals(16, quantity(SUGAR));
+    }
+
+    // Available stock: the pool plus the leases, less the unflushed journal
+    private int quantity(int ingredientId) throws SQLException {
+        return ingredientDAO.loadIngredients(conn).stream()
+            .filter(i -> i.getIngredientId() == ingredientId).findFirst().get().getQuantity();
+    }
+
+    private static Order order(List<OrderItem> items) {
+        Order order = new Order(1, new BigDecimal("10.00"));
+        order.setOrderItems(items);
+        return order;
+    }
+
+    private static OrderItem item(int coffeeId, int quantity, OrderItem.Size size,
+                                  OrderItem.SugarLevel sugar, OrderItem.MilkLevel milk) {
+        return new OrderItem(0, coffeeId, quantity, sugar, milk, size, new BigDecimal("3.00"));
+    }
+}
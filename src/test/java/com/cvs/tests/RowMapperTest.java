@@ -0,0 +1,94 @@
+package com.cvs.tests;
+
+import com.cvs.dao.EnumCodec;
+import com.cvs.dao.OrderDAO;
+import com.cvs.dao.RowMapper;
+import com.cvs.models.Order;
+import com.cvs.models.OrderItem;
+import com.cvs.models.Payment;
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+public class RowMapperTest {
+    private Connection conn;
+
+    @BeforeEach
+    public void setUp() throws SQLException {
+        conn = TestDatabase.open("rowmapper", "orders");
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("INSERT INTO orders (user_id, total_amount, payment_status, order_status) VALUES " +
+                         "(1, 3.50, 'COMPLETED', 'READY'), (2, 7.25, 'PENDING', 'PLACED')");
+        }
+    }
+
+    @AfterEach
+    public void tearDown() throws SQLException {
+        conn.close();
+    }
+
+    @Test
+    @DisplayName("Test Codecs Decode Every Constant")
+    public void testCodecsRoundTrip() {
+        assertRoundTrip(EnumCodec.PAYMENT_STATUS, Order.PaymentStatus.values());
+        assertRoundTrip(EnumCodec.ORDER_STATUS, Order.OrderStatus.values());
+        assertRoundTrip(EnumCodec.SUGAR_LEVEL, OrderItem.SugarLevel.values());
+        assertRoundTrip(EnumCodec.MILK_LEVEL, OrderItem.MilkLevel.values());
+        assertRoundTrip(EnumCodec.SIZE, OrderItem.Size.values());
+        assertRoundTrip(EnumCodec.PAYMENT_TYPE, Payment.PaymentType.values());
+        assertRoundTrip(EnumCodec.PAYMENT_RESULT, Payment.PaymentStatus.values());
+    }
+
+    @Test
+    @DisplayName("Test Codecs Reject What valueOf Rejects")
+    public void testCodecsRejectUnknown() {
+        String[] invalid = {"pending", "PENDINGX", "PENDIN", "", "LOW ", "SMALLER", "X"};
+        for (String value : invalid) {
+            assertThrows(IllegalArgumentException.class, () -> EnumCodec.PAYMENT_STATUS.decode(value), value);
+            assertThrows(IllegalArgumentException.class, () -> EnumCodec.SIZE.decode(value), value);
+        }
+        assertThrows(IllegalArgumentException.class, () -> EnumCodec.ORDER_STATUS.decode(null));
+    }
+
+    @Test
+    @DisplayName("Test Mapper Resolves Columns By Name Once")
+    public void testMapAll() throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            // Column order differs from the table; the mapper should not care
+            ResultSet rs = stmt.executeQuery("SELECT order_time, order_status, payment_status, total_amount, user_id, " +
+                                             "order_id FROM orders ORDER BY order_id");
+            List<Order> orders = OrderDAO.ORDER_ROWS.mapAll(rs);
+
+            assertEquals(2, orders.size());
+            assertEquals(1, orders.get(0).getOrderId());
+            assertEquals(Order.PaymentStatus.COMPLETED, orders.get(0).getPaymentStatus());
+            assertEquals(Order.OrderStatus.READY, orders.get(0).getOrderStatus());
+            assertEquals(new BigDecimal("7.25"), orders.get(1).getTotalAmount());
+            assertEquals(2, orders.get(1).getUserId());
+            assertNotNull(orders.get(1).getOrderTime());
+        }
+    }
+
+    @Test
+    @DisplayName("Test Missing Column Fails At Bind")
+    public void testMissingColumn() throws SQLException {
+        RowMapper<String> mapper = new RowMapper<>((rs, c) -> rs.getString(c[0]), "no_such_column");
+        try (Statement stmt = conn.createStatement()) {
+            ResultSet rs = stmt.executeQuery("SELECT * FROM orders");
+            assertThrows(SQLException.class, () -> mapper.bind(rs));
+        }
+    }
+
+    private static <E extends Enum<E>> void assertRoundTrip(EnumCodec<E> codec, E[] constants) {
+        for (E constant : constants) {
+            // A fresh String, as a driver would hand back
+            assertSame(constant, codec.decode(new String(constant.name().toCharArray())));
+        }
+    }
+}
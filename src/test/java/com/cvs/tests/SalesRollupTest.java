@@ -0,0 +1,230 @@
+package com.cvs.tests;
+
+import com.cvs.dao.OrderDAO;
+import com.cvs.dao.SalesRollupDAO;
+import com.cvs.models.CoffeeSales;
+import com.cvs.models.Order;
+import com.cvs.models.OrderItem;
+import com.cvs.models.SalesSummary;
+import com.cvs.utils.SalesRollupBackfill;
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class SalesRollupTest {
+    private static final LocalDateTime BASE = LocalDateTime.of(2024, 6, 15, 9, 0);
+
+    private Connection conn;
+    private OrderDAO orderDAO;
+    private SalesRollupDAO rollupDAO;
+
+    @BeforeEach
+    public void setUp() throws SQLException {
+        conn = TestDatabase.open("rollup", "orders", "order_items", "order_rollup_hourly", "sales_rollup_hourly");
+        orderDAO = new OrderDAO();
+        rollupDAO = new SalesRollupDAO();
+
+        // Two orders in the 09:00 bucket, one at 10:00, one the next day
+        placeOrder(BASE.plusMinutes(5), Order.PaymentStatus.COMPLETED,
+                   item(1, 2, OrderItem.Size.LARGE, "6.50"), item(2, 1, OrderItem.Size.SMALL, "2.00"));
+        placeOrder(BASE.plusMinutes(40), Order.PaymentStatus.PENDING, item(1, 1, OrderItem.Size.LARGE, "3.25"));
+        placeOrder(BASE.plusHours(1).plusMinutes(1), Order.PaymentStatus.COMPLETED,
+                   item(1, 1, OrderItem.Size.LARGE, "3.25"), item(1, 1, OrderItem.Size.LARGE, "3.75"));
+        placeOrder(BASE.plusDays(1), Order.PaymentStatus.COMPLETED, item(2, 3, OrderItem.Size.MEDIUM, "7.50"));
+    }
+
+    @AfterEach
+    public void tearDown() throws SQLException {
+        conn.close();
+    }
+
+    @Test
+    @DisplayName("Test Rollup Matches Raw Orders")
+    public void testRollupMatchesOrders() {
+        LocalDateTime from = BASE;
+        LocalDateTime to = BASE.plusDays(2);
+        SalesSummary fromRollup = rollupDAO.getSalesSummary(from, to, conn);
+        SalesSummary fromOrders = orderDAO.getSalesSummary(from, to, conn);
+
+        assertEquals(fromOrders.getTotalOrders(), fromRollup.getTotalOrders());
+        assertEquals(fromOrders.getCompletedOrders(), fromRollup.getCompletedOrders());
+        assertEquals(0, fromOrders.getCompletedRevenue().compareTo(fromRollup.getCompletedRevenue()));
+        assertEquals(4, fromRollup.getTotalOrders());
+        assertEquals(0, new BigDecimal("23.00").compareTo(fromRollup.getCompletedRevenue()));
+        assertEquals(0, new BigDecimal("23.00").compareTo(rollupDAO.getCompletedRevenue(conn)));
+    }
+
+    @Test
+    @DisplayName("Test Top Sellers Count Orders Not Lines")
+    public void testTopSellers() {
+        List<CoffeeSales> sellers = rollupDAO.getTopSellers(BASE, BASE.plusHours(2), 5, conn);
+
+        assertEquals(2, sellers.size());
+        CoffeeSales top = sellers.get(0);
+        assertEquals(1, top.getCoffeeId());
+        assertEquals(4, top.getQuantity(), "Pending order should not count as sold");
+        assertEquals(2, top.getOrderCount(), "Two lines of the same coffee and size in one order count once");
+        assertEquals(0, new BigDecimal("13.50").compareTo(top.getRevenue()));
+    }
+
+    @Test
+    @DisplayName("Test Status Changes Move Rollup Rows")
+    public void testStatusChangesMoveRollup() throws SQLException {
+        assertTrue(orderDAO.updateStatuses(2, null, Order.PaymentStatus.COMPLETED, conn));
+        assertTrue(orderDAO.updateStatuses(2, Order.OrderStatus.DELIVERED, null, conn));
+
+        SalesSummary summary = rollupDAO.getSalesSummary(BASE, BASE.plusHours(1), conn);
+        assertEquals(2, summary.getCompletedOrders());
+        assertEquals(0, summary.getPaymentStatusCount(Order.PaymentStatus.PENDING));
+        assertEquals(1, summary.getOrderStatusCount(Order.OrderStatus.DELIVERED));
+        assertEquals(0, new BigDecimal("11.75").compareTo(summary.getCompletedRevenue()));
+
+        CoffeeSales top = rollupDAO.getTopSellers(BASE, BASE.plusHours(1), 1, conn).get(0);
+        assertEquals(3, top.getQuantity());
+        assertFalse(orderDAO.updateStatuses(99, Order.OrderStatus.READY, null, conn));
+    }
+
+    @Test
+    @DisplayName("Test Opposite Status Moves Upsert Rows In The Same Order")
+    public void testMoveOrderKeyOrder() throws SQLException {
+        List<String> upserted = new ArrayList<>();
+        Connection recording = (Connection) Proxy.newProxyInstance(getClass().getClassLoader(),
+            new Class<?>[] {Connection.class}, (proxy, method, args) -> {
+                Object result = method.invoke(conn, args);
+                if (method.getName().equals("prepareStatement")
+                        && ((String) args[0]).startsWith("INSERT INTO order_rollup_hourly")) {
+                    PreparedStatement stmt = (PreparedStatement) result;
+                    return Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] {PreparedStatement.class},
+                        (stmtProxy, stmtMethod, stmtArgs) -> {
+                            if (stmtMethod.getName().equals("setString") && (int) stmtArgs[0] == 2) {
+                                upserted.add((String) stmtArgs[1]);
+                            }
+                            return stmtMethod.invoke(stmt, stmtArgs);
+                        });
+                }
+                return result;
+            });
+
+        Order placed = rollupOrder(Order.OrderStatus.PLACED);
+        Order preparing = rollupOrder(Order.OrderStatus.PREPARING);
+        rollupDAO.moveOrder(preparing, placed, recording);
+        rollupDAO.moveOrder(placed, preparing, recording);
+
+        assertEquals(Arrays.asList("PLACED", "PREPARING", "PLACED", "PREPARING"), upserted);
+    }
+
+    @Test
+    @DisplayName("Test Backfill Rebuilds Identical Rollups")
+    public void testBackfill() throws SQLException {
+        orderDAO.updateStatuses(2, Order.OrderStatus.CANCELLED, Order.PaymentStatus.FAILED, conn);
+        List<String> live = dumpRollups();
+
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("DELETE FROM order_rollup_hourly");
+            stmt.execute("DELETE FROM sales_rollup_hourly");
+        }
+        int orders = SalesRollupBackfill.backfill(BASE.minusDays(1), BASE.plusDays(3), conn);
+
+        assertEquals(4, orders);
+        assertEquals(live, dumpRollups());
+
+        // Re-running is idempotent
+        SalesRollupBackfill.backfill(BASE.minusDays(1), BASE.plusDays(3), conn);
+        assertEquals(live, dumpRollups());
+    }
+
+    @Test
+    @DisplayName("Test Orders In One Hour Spread Over Shards")
+    public void testShardedRows() throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM order_rollup_hourly WHERE bucket_hour = '2024-06-15 09:00:00'");
+            rs.next();
+            assertEquals(2, rs.getInt(1), "Orders 1 and 2 should land on different rows");
+        }
+        orderDAO.updateStatuses(1, Order.OrderStatus.PREPARING, null, conn);
+        assertEquals(2, rollupDAO.getSalesSummary(BASE, BASE.plusHours(1), conn).getTotalOrders());
+    }
+
+    @Test
+    @DisplayName("Test Removing A User's Orders Matches A Rebuild")
+    public void testRemoveOrdersOf() throws SQLException {
+        Order other = new Order(2, new BigDecimal("4.00"));
+        other.setPaymentStatus(Order.PaymentStatus.COMPLETED);
+        other.setOrderTime(BASE.plusMinutes(20));
+        other.setOrderItems(new ArrayList<>(Arrays.asList(item(1, 1, OrderItem.Size.LARGE, "4.00"))));
+        assertTrue(orderDAO.insertOrder(other, conn));
+
+        assertEquals(1, rollupDAO.removeOrdersOf(2, conn));
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("DELETE FROM order_items WHERE order_id = " + other.getOrderId());
+            stmt.execute("DELETE FROM orders WHERE user_id = 2");
+        }
+        List<String> afterRemove = dumpRollups();
+
+        SalesRollupBackfill.backfill(BASE.minusDays(1), BASE.plusDays(3), conn);
+        assertEquals(dumpRollups(), afterRemove);
+        assertEquals(4, rollupDAO.getSalesSummary(BASE, BASE.plusDays(2), conn).getTotalOrders());
+    }
+
+    @Test
+    @DisplayName("Test Rebuild Requires Whole Hours")
+    public void testRebuildValidation() {
+        assertThrows(IllegalArgumentException.class,
+            () -> rollupDAO.rebuild(BASE.plusMinutes(30), BASE.plusHours(2), conn));
+        assertThrows(IllegalArgumentException.class,
+            () -> rollupDAO.rebuild(BASE.plusHours(2), BASE, conn));
+    }
+
+    private void placeOrder(LocalDateTime orderTime, Order.PaymentStatus paymentStatus, OrderItem... items) throws SQLException {
+        BigDecimal total = Arrays.stream(items).map(OrderItem::getItemPrice).reduce(BigDecimal.ZERO, BigDecimal::add);
+        Order order = new Order(1, total);
+        order.setPaymentStatus(paymentStatus);
+        order.setOrderTime(orderTime);
+        order.setOrderItems(new ArrayList<>(Arrays.asList(items)));
+        assertTrue(orderDAO.insertOrder(order, conn));
+    }
+
+    private static Order rollupOrder(Order.OrderStatus status) {
+        Order order = new Order(1, new BigDecimal("3.50"));
+        order.setOrderId(1);
+        order.setOrderTime(BASE);
+        order.setOrderStatus(status);
+        order.setPaymentStatus(Order.PaymentStatus.COMPLETED);
+        return order;
+    }
+
+    private static OrderItem item(int coffeeId, int quantity, OrderItem.Size size, String linePrice) {
+        return new OrderItem(0, coffeeId, quantity, OrderItem.SugarLevel.LOW, OrderItem.MilkLevel.LOW, size,
+                             new BigDecimal(linePrice));
+    }
+
+    private List<String> dumpRollups() throws SQLException {
+        List<String> rows = new ArrayList<>();
+        try (Statement stmt = conn.createStatement()) {
+            ResultSet rs = stmt.executeQuery("SELECT * FROM order_rollup_hourly WHERE order_count <> 0 " +
+                                             "ORDER BY bucket_hour, order_status, payment_status, shard");
+            while (rs.next()) {
+                rows.add(rs.getTimestamp(1) + "|" + rs.getString(2) + "|" + rs.getString(3) + "|" + rs.getInt(4) + "|" +
+                         rs.getInt(5) + "|" + rs.getLong(6));
+            }
+            rs = stmt.executeQuery("SELECT * FROM sales_rollup_hourly WHERE order_count <> 0 " +
+                                   "ORDER BY bucket_hour, coffee_id, size, payment_status, shard");
+            while (rs.next()) {
+                rows.add(rs.getTimestamp(1) + "|" + rs.getInt(2) + "|" + rs.getString(3) + "|" + rs.getString(4) + "|" +
+                         rs.getInt(5) + "|" + rs.getInt(6) + "|" + rs.getInt(7) + "|" + rs.getLong(8));
+            }
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,88 @@
+package com.cvs.tests;
+
+import com.cvs.dao.OrderDAO;
+import com.cvs.models.Order;
+import com.cvs.models.SalesSummary;
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+public class SalesSummaryTest {
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 6, 15, 12, 0);
+
+    private Connection conn;
+    private OrderDAO orderDAO;
+
+    @BeforeEach
+    public void setUp() throws SQLException {
+        conn = TestDatabase.open("sales", "orders");
+        // Outside every window
+        insertOrder(new BigDecimal("99.00"), Order.PaymentStatus.COMPLETED, Order.OrderStatus.DELIVERED, NOW.minusDays(40));
+        // Inside the weekly window
+        insertOrder(new BigDecimal("4.00"), Order.PaymentStatus.COMPLETED, Order.OrderStatus.DELIVERED, NOW.minusDays(3));
+        insertOrder(new BigDecimal("3.50"), Order.PaymentStatus.COMPLETED, Order.OrderStatus.PREPARING, NOW.minusHours(2));
+        insertOrder(new BigDecimal("2.50"), Order.PaymentStatus.FAILED, Order.OrderStatus.CANCELLED, NOW.minusHours(1));
+        insertOrder(new BigDecimal("5.25"), Order.PaymentStatus.COMPLETED, Order.OrderStatus.PREPARING, NOW.minusMinutes(5));
+        orderDAO = new OrderDAO();
+    }
+
+    @AfterEach
+    public void tearDown() throws SQLException {
+        conn.close();
+    }
+
+    @Test
+    @DisplayName("Test Summary Covers Only The Window")
+    public void testSummaryWindow() {
+        SalesSummary summary = orderDAO.getSalesSummary(NOW.minusDays(7), NOW, conn);
+
+        assertEquals(4, summary.getTotalOrders());
+        assertEquals(3, summary.getCompletedOrders());
+        assertEquals(0, new BigDecimal("12.75").compareTo(summary.getCompletedRevenue()));
+        assertEquals(new BigDecimal("4.25"), summary.getAverageOrderValue());
+        assertEquals(75.0, summary.getSuccessRate(), 0.001);
+        assertEquals(2, summary.getOrderStatusCount(Order.OrderStatus.PREPARING));
+        assertEquals(1, summary.getOrderStatusCount(Order.OrderStatus.CANCELLED));
+        assertEquals(0, summary.getOrderStatusCount(Order.OrderStatus.PLACED));
+        assertEquals(1, summary.getPaymentStatusCount(Order.PaymentStatus.FAILED));
+    }
+
+    @Test
+    @DisplayName("Test Empty Window")
+    public void testEmptyWindow() {
+        SalesSummary summary = orderDAO.getSalesSummary(NOW.plusDays(1), NOW.plusDays(2), conn);
+
+        assertEquals(0, summary.getTotalOrders());
+        assertEquals(BigDecimal.ZERO, summary.getAverageOrderValue());
+        assertEquals(0.0, summary.getSuccessRate());
+    }
+
+    @Test
+    @DisplayName("Test Recent Orders Are Newest First And Limited")
+    public void testRecentOrders() {
+        List<Order> recent = orderDAO.getRecentOrders(NOW.minusDays(7), NOW, 2, conn);
+
+        assertEquals(2, recent.size());
+        assertEquals(0, new BigDecimal("5.25").compareTo(recent.get(0).getTotalAmount()));
+        assertEquals(0, new BigDecimal("2.50").compareTo(recent.get(1).getTotalAmount()));
+    }
+
+    private void insertOrder(BigDecimal total, Order.PaymentStatus paymentStatus, Order.OrderStatus orderStatus,
+                             LocalDateTime orderTime) throws SQLException {
+        String sql = "INSERT INTO orders (user_id, total_amount, payment_status, order_status, order_time) VALUES (1, ?, ?, ?, ?)";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setBigDecimal(1, total);
+            stmt.setString(2, paymentStatus.name());
+            stmt.setString(3, orderStatus.name());
+            stmt.setTimestamp(4, Timestamp.valueOf(orderTime));
+            stmt.executeUpdate();
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.cvs.tests;
+
+import com.cvs.utils.ConnectionPool;
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+public class StatementCacheTest {
+    private static final String SELECT_SQL = "SELECT name FROM users WHERE user_id = ?";
+
+    private ConnectionPool pool;
+
+    @BeforeEach
+    public void setUp() throws SQLException {
+        String url = "jdbc:h2:mem:stmt_" + System.nanoTime() + ";DB_CLOSE_DELAY=-1";
+        pool = new ConnectionPool(url, "sa", "", 1, 0, 1000, 600000, 1, 0, 2);
+        try (Connection conn = pool.getConnection(); Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE TABLE users (user_id INT AUTO_INCREMENT PRIMARY KEY, name VARCHAR(100))");
+            stmt.execute("INSERT INTO users (name) VALUES ('John Doe'), ('Jane Smith')");
+        }
+    }
+
+    @AfterEach
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Test
+    @DisplayName("Test Repeated SQL Hits The Cache")
+    public void testCacheHits() throws SQLException {
+        assertEquals("John Doe", findName(1));
+        assertEquals("Jane Smith", findName(2));
+        assertEquals("John Doe", findName(1));
+
+        ConnectionPool.PoolStats stats = pool.getStats();
+        assertEquals(1, stats.getStatementCacheMisses());
+        assertEquals(2, stats.getStatementCacheHits());
+    }
+
+    @Test
+    @DisplayName("Test Nested Use Of The Same SQL")
+    public void testNestedStatements() throws SQLException {
+        try (Connection conn = pool.getConnection();
+             PreparedStatement outer = conn.prepareStatement(SELECT_SQL);
+             PreparedStatement inner = conn.prepareStatement(SELECT_SQL)) {
+            assertNotSame(outer, inner);
+            outer.setInt(1, 1);
+            inner.setInt(1, 2);
+            ResultSet outerRs = outer.executeQuery();
+            ResultSet innerRs = inner.executeQuery();
+            assertTrue(outerRs.next());
+            assertTrue(innerRs.next());
+            assertEquals("John Doe", outerRs.getString(1));
+            assertEquals("Jane Smith", innerRs.getString(1));
+            assertSame(conn, outer.getConnection());
+        }
+    }
+
+    @Test
+    @DisplayName("Test Generated Keys Statements Are Cached Separately")
+    public void testGeneratedKeys() throws SQLException {
+        String sql = "INSERT INTO users (name) VALUES (?)";
+        for (int i = 0; i < 3; i++) {
+            try (Connection conn = pool.getConnection();
+                 PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+                stmt.setString(1, "User " + i);
+                stmt.executeUpdate();
+                ResultSet keys = stmt.getGeneratedKeys();
+                assertTrue(keys.next());
+                assertEquals(3 + i, keys.getInt(1));
+            }
+        }
+        assertEquals(2, pool.getStats().getStatementCacheHits());
+    }
+
+    @Test
+    @DisplayName("Test Closed Statement Is Unusable")
+    public void testClosedStatement() throws SQLException {
+        try (Connection conn = pool.getConnection()) {
+            PreparedStatement stmt = conn.prepareStatement(SELECT_SQL);
+            stmt.close();
+            assertTrue(stmt.isClosed());
+            assertThrows(SQLException.class, stmt::executeQuery);
+        }
+    }
+
+    @Test
+    @DisplayName("Test Least Recently Used Statement Is Evicted")
+    public void testEviction() throws SQLException {
+        findName(1);
+        try (Connection conn = pool.getConnection()) {
+            conn.prepareStatement("SELECT COUNT(*) FROM users").close();
+            conn.prepareStatement("SELECT MAX(user_id) FROM users").close();
+        }
+        findName(1);
+
+        ConnectionPool.PoolStats stats = pool.getStats();
+        assertEquals(4, stats.getStatementCacheMisses(), "Cache of size 2 should have evicted the first statement");
+        assertEquals(0, stats.getStatementCacheHits());
+    }
+
+    private String findName(int userId) throws SQLException {
+        try (Connection conn = pool.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(SELECT_SQL)) {
+            stmt.setInt(1, userId);
+            ResultSet rs = stmt.executeQuery();
+            return rs.next() ? rs.getString(1) : null;
+        }
+    }
+}
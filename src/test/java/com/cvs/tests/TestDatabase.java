@@ -0,0 +1,83 @@
+package com.cvs.tests;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// In-memory H2 databases for DAO tests, built from the CREATE TABLE statements in database_schema.sql
+// so tests run against the real columns. Foreign keys are left out: tests insert only the rows they need.
+public final class TestDatabase {
+    private static final Pattern CREATE_TABLE = Pattern.compile("CREATE TABLE (\\w+) \\(");
+    private static final Map<String, String> TABLES = loadSchema();
+
+    private TestDatabase() {}
+
+    // A fresh database each call; options are appended to the URL, e.g. "LOCK_TIMEOUT=5000"
+    public static String newUrl(String name, String... options) {
+        StringBuilder url = new StringBuilder("jdbc:h2:mem:").append(name).append('_').append(System.nanoTime())
+            .append(";MODE=MySQL");
+        for (String option : options) {
+            url.append(';').append(option);
+        }
+        return url.toString();
+    }
+
+    public static Connection open(String name, String... tables) throws SQLException {
+        Connection conn = DriverManager.getConnection(newUrl(name), "sa", "");
+        createTables(conn, tables);
+        return conn;
+    }
+
+    public static void createTables(Connection conn, String... tables) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            for (String table : tables) {
+                String ddl = TABLES.get(table);
+                if (ddl == null) {
+                    throw new IllegalArgumentException("No table " + table + " in database_schema.sql");
+                }
+                stmt.execute(ddl);
+            }
+        }
+    }
+
+    private static Map<String, String> loadSchema() {
+        Path schema = Paths.get(System.getProperty("basedir", "."), "database_schema.sql");
+        String sql;
+        try {
+            sql = new String(Files.readAllBytes(schema), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read " + schema, e);
+        }
+        Map<String, String> tables = new HashMap<>();
+        for (String statement : sql.replaceAll("--[^\\n]*", "").split(";")) {
+            Matcher matcher = CREATE_TABLE.matcher(statement);
+            if (matcher.find()) {
+                tables.put(matcher.group(1).toLowerCase(Locale.ROOT), withoutForeignKeys(statement.trim()));
+            }
+        }
+        return tables;
+    }
+
+    private static String withoutForeignKeys(String ddl) {
+        StringBuilder kept = new StringBuilder();
+        for (String line : ddl.split("\\n")) {
+            if (!line.trim().startsWith("FOREIGN KEY")) {
+                kept.append(line).append('\n');
+            }
+        }
+        // The last remaining definition may now end with a dangling comma
+        return kept.toString().replaceAll(",\\s*\\)\\s*$", "\n)");
+    }
+}
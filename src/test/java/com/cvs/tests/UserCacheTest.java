@@ -0,0 +1,144 @@
+package com.cvs.tests;
+
+import com.cvs.dao.UserCache;
+import com.cvs.models.User;
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class UserCacheTest {
+    private final Map<Integer, User> rows = new HashMap<>();
+    private final AtomicInteger loads = new AtomicInteger();
+    private final AtomicLong clock = new AtomicLong(1000);
+    private Runnable duringLoad = () -> { };
+    private UserCache cache;
+
+    @BeforeEach
+    public void setUp() {
+        for (int id = 1; id <= 3; id++) {
+            rows.put(id, new User(id, "User " + id, "user" + id + "@cvs.com", "hash", new BigDecimal("10.00")));
+        }
+        cache = new UserCache(new UserCache.UserSource() {
+            @Override
+            public User loadUser(int userId) {
+                loads.incrementAndGet();
+                duringLoad.run();
+                User row = rows.get(userId);
+                return row != null ? new User(userId, row.getName(), row.getEmail(), row.getPassword(), row.getBalance()) : null;
+            }
+
+            @Override
+            public User loadUserByEmail(String email) throws SQLException {
+                for (User row : rows.values()) {
+                    if (row.getEmail().equals(email)) {
+                        return loadUser(row.getUserId());
+                    }
+                }
+                loads.incrementAndGet();
+                return null;
+            }
+        }, 2, 60000, clock::get);
+    }
+
+    @Test
+    @DisplayName("Test Id And Email Lookups Share Entries")
+    public void testLookups() {
+        assertEquals("User 1", cache.getById(1).getName());
+        assertEquals(1, cache.getByEmail("user1@cvs.com").getUserId());
+        assertEquals(1, cache.getById(1).getUserId());
+
+        assertEquals(1, loads.get());
+        assertEquals(2, cache.getHits());
+        assertEquals(1, cache.getMisses());
+        assertNull(cache.getByEmail("nobody@cvs.com"));
+        assertNull(cache.getByEmail("nobody@cvs.com"), "Missing users are not cached");
+        assertEquals(3, loads.get());
+    }
+
+    @Test
+    @DisplayName("Test Callers Get Defensive Copies")
+    public void testDefensiveCopies() {
+        User first = cache.getById(1);
+        first.setBalance(new BigDecimal("999.00"));
+        first.setName("Changed");
+
+        User second = cache.getById(1);
+        assertNotSame(first, second);
+        assertEquals(0, new BigDecimal("10.00").compareTo(second.getBalance()));
+        assertEquals("User 1", second.getName());
+    }
+
+    @Test
+    @DisplayName("Test LRU Eviction And TTL Expiry")
+    public void testEviction() {
+        cache.getById(1);
+        cache.getById(2);
+        cache.getById(1);
+        // User 2 is least recently used and makes room for user 3
+        cache.getById(3);
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.getEvictions());
+
+        loads.set(0);
+        cache.getByEmail("user1@cvs.com");
+        assertEquals(0, loads.get());
+        cache.getByEmail("user2@cvs.com");
+        assertEquals(1, loads.get(), "Evicted user's email index goes with it");
+
+        // Reloading user 2 pushed out user 3; user 1 is still cached but past its TTL
+        clock.addAndGet(60000);
+        cache.getById(1);
+        assertEquals(2, loads.get());
+        assertEquals(1, cache.getExpirations());
+    }
+
+    @Test
+    @DisplayName("Test Balance Writes Update Or Drop Entries")
+    public void testWrites() {
+        cache.getById(1);
+        cache.getById(2);
+
+        rows.get(1).setBalance(new BigDecimal("4.50"));
+        cache.updateBalance(1, new BigDecimal("4.50"));
+        assertEquals(0, new BigDecimal("4.50").compareTo(cache.getById(1).getBalance()));
+
+        cache.invalidate(2);
+        loads.set(0);
+        assertEquals(2, cache.getByEmail("user2@cvs.com").getUserId());
+        assertEquals(2, cache.getById(2).getUserId());
+        assertEquals(1, loads.get(), "Invalidated user is loaded once, then cached again");
+        assertEquals(0.4, cache.getHitRate(), 0.0001);
+    }
+
+    @Test
+    @DisplayName("Test Only Writes To The Same User Stop A Load Being Cached")
+    public void testConcurrentWrites() {
+        duringLoad = () -> cache.updateBalance(2, new BigDecimal("1.00"));
+        cache.getById(1);
+        duringLoad = () -> { };
+        loads.set(0);
+        cache.getById(1);
+        assertEquals(0, loads.get(), "A write to another user should not stop user 1 being cached");
+
+        cache.invalidate(1);
+        duringLoad = () -> cache.invalidate(1);
+        cache.getById(1);
+        duringLoad = () -> { };
+        loads.set(0);
+        cache.getById(1);
+        assertEquals(1, loads.get(), "A load that overlapped a write to the same user is not cached");
+
+        duringLoad = () -> cache.invalidateAll();
+        cache.getById(3);
+        duringLoad = () -> { };
+        loads.set(0);
+        cache.getById(3);
+        assertEquals(1, loads.get(), "invalidateAll during a load drops it too");
+    }
+}
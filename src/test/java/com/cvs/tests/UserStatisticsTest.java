@@ -0,0 +1,79 @@
+package com.cvs.tests;
+
+import com.cvs.dao.OrderDAO;
+import com.cvs.dao.UserDAO;
+import com.cvs.models.BalanceSummary;
+import com.cvs.models.TopCustomer;
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+public class UserStatisticsTest {
+    private Connection conn;
+    private UserDAO userDAO;
+    private OrderDAO orderDAO;
+
+    @BeforeEach
+    public void setUp() throws SQLException {
+        conn = TestDatabase.open("userstats", "users", "orders", "wallet_snapshots");
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("INSERT INTO users (name, email, password, balance) VALUES " +
+                         "('John Doe', 'john@example.com', 'pw', 50.00), ('Jane Smith', 'jane@example.com', 'pw', 75.00), " +
+                         "('Sam Lee', 'sam@example.com', 'pw', 10.01), ('No Orders', 'none@example.com', 'pw', 0.00)");
+            stmt.execute("INSERT INTO orders (user_id, total_amount) VALUES (2, 3.00), (2, 4.00), (2, 2.50), " +
+                         "(1, 3.50), (3, 4.00), (3, 4.50)");
+        }
+        userDAO = new UserDAO();
+        orderDAO = new OrderDAO();
+    }
+
+    @AfterEach
+    public void tearDown() throws SQLException {
+        conn.close();
+    }
+
+    @Test
+    @DisplayName("Test Balance Summary Aggregates In SQL")
+    public void testBalanceSummary() throws SQLException {
+        BalanceSummary summary = userDAO.getBalanceSummary(conn);
+
+        assertEquals(4, summary.getUserCount());
+        assertEquals(0, new BigDecimal("135.01").compareTo(summary.getTotalBalance()));
+        assertEquals(new BigDecimal("33.75"), summary.getAverageBalance());
+
+        // A wallet write the sync hasn't copied to users.balance yet still counts
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("INSERT INTO wallet_snapshots (user_id, balance) VALUES (1, 40.00)");
+        }
+        assertEquals(0, new BigDecimal("125.01").compareTo(userDAO.getBalanceSummary(conn).getTotalBalance()));
+    }
+
+    @Test
+    @DisplayName("Test Top Customers Come Back Named And Ranked")
+    public void testTopCustomers() {
+        List<TopCustomer> top = orderDAO.getTopCustomers(2, conn);
+
+        assertEquals(2, top.size());
+        assertEquals("Jane Smith", top.get(0).getName());
+        assertEquals(3, top.get(0).getOrderCount());
+        assertEquals("Sam Lee", top.get(1).getName());
+        assertEquals(2, top.get(1).getOrderCount());
+    }
+
+    @Test
+    @DisplayName("Test Empty Tables")
+    public void testEmpty() throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("DELETE FROM orders");
+            stmt.execute("DELETE FROM users");
+        }
+        assertEquals(0, userDAO.getBalanceSummary(conn).getUserCount());
+        assertEquals(BigDecimal.ZERO, userDAO.getBalanceSummary(conn).getAverageBalance());
+        assertTrue(orderDAO.getTopCustomers(5, conn).isEmpty());
+    }
+}
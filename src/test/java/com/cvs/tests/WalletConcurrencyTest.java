@@ -0,0 +1,225 @@
+package com.cvs.tests;
+
+import com.cvs.dao.UserDAO;
+import com.cvs.dao.WalletDAO;
+import com.cvs.dao.WalletLedger;
+import com.cvs.models.LedgerEntry;
+import com.cvs.models.Money;
+import com.cvs.service.UserService;
+import com.cvs.utils.ConnectionPool;
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class WalletConcurrencyTest {
+    private static final int THREADS = 16;
+    private static final int OPERATIONS = 400;
+
+    private ConnectionPool pool;
+    private UserDAO userDAO;
+    private UserService userService;
+    private WalletDAO walletDAO;
+    private WalletLedger wallet;
+    private final AtomicInteger inserts = new AtomicInteger();
+
+    @BeforeEach
+    public void setUp() throws SQLException {
+        String url = TestDatabase.newUrl("wallet", "DB_CLOSE_DELAY=-1", "LOCK_TIMEOUT=30000");
+        pool = new ConnectionPool(url, "sa", "", THREADS, 0, 30000, 600000, 1, 0, 16);
+        try (Connection conn = pool.getConnection(); Statement stmt = conn.createStatement()) {
+            TestDatabase.createTables(conn, "users", "wallet_ledger", "wallet_snapshots");
+            stmt.execute("INSERT INTO users (user_id, name, email, password, balance) VALUES " +
+                         "(1, 'John Doe', 'john@example.com', 'pw', 150.00)");
+        }
+        walletDAO = new WalletDAO();
+        wallet = newWallet();
+        userDAO = new UserDAO(wallet);
+        userService = new UserService(userDAO);
+    }
+
+    // Each instance stands in for one kiosk; they share only the database
+    private WalletLedger newWallet() {
+        return new WalletLedger(new WalletLedger.LedgerStore() {
+            @Override
+            public Money loadBalance(int userId) throws SQLException {
+                try (Connection conn = pool.getConnection()) {
+                    return walletDAO.loadBalance(userId, conn);
+                }
+            }
+
+            @Override
+            public List<Money> appendEntries(List<LedgerEntry> entries) throws SQLException {
+                inserts.incrementAndGet();
+                try (Connection conn = pool.getConnection()) {
+                    conn.setAutoCommit(false);
+                    try {
+                        List<Money> balances = walletDAO.appendEntries(entries, conn);
+                        conn.commit();
+                        return balances;
+                    } catch (SQLException e) {
+                        conn.rollback();
+                        throw e;
+                    } finally {
+                        conn.setAutoCommit(true);
+                    }
+                }
+            }
+
+            @Override
+            public Money adjustTo(int userId, Money target) throws SQLException {
+                try (Connection conn = pool.getConnection()) {
+                    return walletDAO.adjustTo(userId, target, conn);
+                }
+            }
+
+            @Override
+            public int syncBalances(int batchSize) throws SQLException {
+                try (Connection conn = pool.getConnection()) {
+                    return walletDAO.syncBalances(batchSize, conn);
+                }
+            }
+        }, 64);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Test
+    @DisplayName("Concurrency Test: Parallel Debits Never Overdraw Or Lose Updates")
+    public void testParallelDebits() throws Exception {
+        AtomicInteger accepted = new AtomicInteger();
+        List<BigDecimal> reportedBalances = runConcurrently(OPERATIONS, () -> {
+            BigDecimal newBalance = userDAO.debitBalance(1, BigDecimal.ONE);
+            if (newBalance != null) {
+                accepted.incrementAndGet();
+            }
+            return newBalance;
+        });
+
+        assertEquals(150, accepted.get(), "Exactly the funded debits should succeed");
+        assertEquals(0, new BigDecimal("0.00").compareTo(ledgerBalance()), "Balance should be fully drained, never negative");
+        assertEquals(150, reportedBalances.stream().distinct().count(),
+            "Each accepted debit should observe its own resulting balance");
+        assertEquals(150, countLedgerRows(), "Every accepted debit is one ledger entry");
+
+        System.out.printf("✅ Wallet debits: %d accepted of %d attempted, in %d inserts%n",
+                          accepted.get(), OPERATIONS, inserts.get());
+    }
+
+    @Test
+    @DisplayName("Concurrency Test: Mixed Credits And Debits Balance Out")
+    public void testMixedCreditsAndDebits() throws Exception {
+        AtomicInteger debits = new AtomicInteger();
+        AtomicInteger credits = new AtomicInteger();
+        AtomicInteger counter = new AtomicInteger();
+        runConcurrently(OPERATIONS, () -> {
+            boolean credit = counter.incrementAndGet() % 2 == 0;
+            BigDecimal amount = new BigDecimal("2.50");
+            boolean applied = credit ? userService.addBalance(1, amount) : userService.deductBalance(1, amount);
+            if (applied) {
+                (credit ? credits : debits).incrementAndGet();
+            }
+            return null;
+        });
+
+        BigDecimal expected = new BigDecimal("150.00")
+            .add(new BigDecimal("2.50").multiply(BigDecimal.valueOf(credits.get())))
+            .subtract(new BigDecimal("2.50").multiply(BigDecimal.valueOf(debits.get())));
+        assertEquals(0, expected.compareTo(ledgerBalance()), "Final balance should reflect every accepted change");
+        assertEquals(0, expected.compareTo(wallet.getBalance(1).toBigDecimal()));
+        assertEquals(OPERATIONS / 2, credits.get(), "Credits should always succeed");
+
+        // The sync copies it to users.balance without changing the wallet balance
+        wallet.syncBalances(50);
+        assertEquals(0, expected.compareTo(readBalance()));
+        assertEquals(0, expected.compareTo(ledgerBalance()));
+    }
+
+    @Test
+    @DisplayName("Concurrency Test: Two Kiosks Cannot Overdraw One Wallet")
+    public void testTwoInstances() throws Exception {
+        UserService otherKiosk = new UserService(new UserDAO(newWallet()));
+        AtomicInteger accepted = new AtomicInteger();
+        AtomicInteger counter = new AtomicInteger();
+        runConcurrently(OPERATIONS, () -> {
+            UserService kiosk = counter.incrementAndGet() % 2 == 0 ? userService : otherKiosk;
+            if (kiosk.deductBalance(1, BigDecimal.ONE)) {
+                accepted.incrementAndGet();
+            }
+            return null;
+        });
+
+        assertEquals(150, accepted.get(), "The kiosks together should accept exactly the funded debits");
+        assertEquals(0, new BigDecimal("0.00").compareTo(ledgerBalance()));
+        assertEquals(150, countLedgerRows());
+    }
+
+    @Test
+    @DisplayName("Test Debit Validation")
+    public void testDebitValidation() {
+        assertThrows(IllegalArgumentException.class, () -> userDAO.debitBalance(1, BigDecimal.ZERO));
+        assertThrows(IllegalArgumentException.class, () -> userDAO.debitBalance(-1, BigDecimal.ONE));
+        assertThrows(IllegalArgumentException.class, () -> userDAO.creditBalance(1, new BigDecimal("-5.00")));
+    }
+
+    private List<BigDecimal> runConcurrently(int operations, Callable<BigDecimal> task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<BigDecimal>> futures = new ArrayList<>();
+        for (int i = 0; i < operations; i++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                return task.call();
+            }));
+        }
+        start.countDown();
+
+        List<BigDecimal> results = new ArrayList<>();
+        for (Future<BigDecimal> future : futures) {
+            BigDecimal result = future.get(60, TimeUnit.SECONDS);
+            if (result != null) {
+                results.add(result);
+            }
+        }
+        executor.shutdown();
+        return results;
+    }
+
+    // The opening balance plus every ledger entry, which must match the running balance
+    private BigDecimal ledgerBalance() throws SQLException {
+        try (Connection conn = pool.getConnection(); Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT 150.00 + COALESCE(SUM(amount), 0) FROM wallet_ledger WHERE user_id = 1")) {
+            rs.next();
+            BigDecimal fromLedger = rs.getBigDecimal(1);
+            assertEquals(0, fromLedger.compareTo(walletDAO.loadBalance(1, conn).toBigDecimal()), "Ledger and running balance agree");
+            return fromLedger;
+        }
+    }
+
+    private int countLedgerRows() throws SQLException {
+        try (Connection conn = pool.getConnection(); Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM wallet_ledger")) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+
+    private BigDecimal readBalance() throws SQLException {
+        try (Connection conn = pool.getConnection(); Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT balance FROM users WHERE user_id = 1")) {
+            rs.next();
+            return rs.getBigDecimal(1);
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package com.cvs.tests;
+
+import com.cvs.dao.WalletDAO;
+import com.cvs.dao.WalletLedger;
+import com.cvs.models.LedgerEntry;
+import com.cvs.models.Money;
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+public class WalletLedgerTest {
+    private String url;
+    private Connection conn;
+    private WalletDAO walletDAO;
+    private boolean failWrites;
+
+    @BeforeEach
+    public void setUp() throws SQLException {
+        url = TestDatabase.newUrl("ledger", "LOCK_TIMEOUT=5000");
+        conn = DriverManager.getConnection(url, "sa", "");
+        try (Statement stmt = conn.createStatement()) {
+            TestDatabase.createTables(conn, "users", "wallet_ledger", "wallet_snapshots");
+            stmt.execute("INSERT INTO users (user_id, name, email, password, balance) VALUES " +
+                         "(1, 'John Doe', 'john@example.com', 'pw', 20.00), (2, 'Jane Smith', 'jane@example.com', 'pw', 5.00)");
+        }
+        walletDAO = new WalletDAO();
+    }
+
+    @AfterEach
+    public void tearDown() throws SQLException {
+        conn.close();
+    }
+
+    @Test
+    @DisplayName("Test Running Balance Is Kept In Place And Synced To Users")
+    public void testRunningBalance() throws SQLException {
+        WalletLedger wallet = newWallet();
+        assertEquals(Money.parse("30.00"), wallet.credit(1, Money.parse("10.00"), LedgerEntry.EntryType.TOP_UP));
+        assertEquals(Money.parse("26.50"), wallet.debit(1, Money.parse("3.50"), LedgerEntry.EntryType.PAYMENT));
+        assertEquals(Money.parse("26.50"), scalar("SELECT balance FROM wallet_snapshots WHERE user_id = 1"));
+        assertEquals(Money.parse("20.00"), scalar("SELECT balance FROM users WHERE user_id = 1"), "Users row is not updated per change");
+
+        assertEquals(1, wallet.syncBalances(1));
+        assertEquals(Money.parse("26.50"), scalar("SELECT balance FROM users WHERE user_id = 1"));
+        assertEquals(0, wallet.syncBalances(1), "Nothing left to sync");
+
+        wallet.debit(1, Money.parse("6.50"), LedgerEntry.EntryType.PAYMENT);
+        assertEquals(Money.parse("20.00"), scalar("SELECT 20.00 + SUM(amount) FROM wallet_ledger WHERE user_id = 1"),
+                     "The ledger adds up to the running balance");
+        // A fresh instance (a restart) reads the running balance
+        assertEquals(Money.parse("20.00"), newWallet().getBalance(1));
+        assertEquals(Money.parse("20.00"), walletDAO.loadBalance(1, conn));
+        assertEquals(Money.parse("5.00"), walletDAO.loadBalance(2, conn), "No snapshot yet means users.balance");
+        assertNull(walletDAO.loadBalance(99, conn));
+    }
+
+    @Test
+    @DisplayName("Test Failed Writes Leave The Balance Unchanged")
+    public void testFailedWrites() {
+        WalletLedger wallet = newWallet();
+        assertEquals(Money.parse("20.00"), wallet.getBalance(1));
+
+        failWrites = true;
+        assertNull(wallet.debit(1, Money.parse("5.00"), LedgerEntry.EntryType.PAYMENT));
+        assertNull(wallet.credit(1, Money.parse("5.00"), LedgerEntry.EntryType.TOP_UP));
+        assertNull(wallet.adjustTo(1, Money.parse("1.00")));
+        assertEquals(Money.parse("20.00"), wallet.getBalance(1));
+
+        failWrites = false;
+        assertNull(wallet.debit(1, Money.parse("20.01"), LedgerEntry.EntryType.PAYMENT), "Cannot overdraw");
+        assertNull(wallet.credit(99, Money.parse("1.00"), LedgerEntry.EntryType.TOP_UP), "No such user");
+        assertNull(wallet.getBalance(99));
+    }
+
+    @Test
+    @DisplayName("Test Adjustments, Checkout Debits And The Audit Trail")
+    public void testAdjustmentsAndHistory() throws SQLException {
+        WalletLedger wallet = newWallet();
+        assertEquals(Money.parse("12.00"), wallet.adjustTo(1, Money.parse("12.00")));
+        assertEquals(Money.parse("15.00"), wallet.adjustTo(1, Money.parse("15.00")));
+
+        // Checkout debits in its own transaction, with the order id
+        assertEquals(Money.parse("11.00"), walletDAO.debit(1, Money.parse("4.00"), 42, conn));
+        assertNull(walletDAO.debit(1, Money.parse("11.01"), 43, conn));
+
+        List<LedgerEntry> history = walletDAO.getEntries(1, 10, conn);
+        assertEquals(3, history.size());
+        assertEquals(LedgerEntry.EntryType.PAYMENT, history.get(0).getEntryType());
+        assertEquals(Integer.valueOf(42), history.get(0).getOrderId());
+        assertEquals(Money.parse("3.00"), history.get(1).getAmount());
+        assertEquals(Money.parse("-8.00"), history.get(2).getAmount());
+        assertNull(history.get(2).getOrderId());
+        assertEquals(wallet.getBalance(1), walletDAO.loadBalance(1, conn));
+    }
+
+    @Test
+    @DisplayName("Test Sync Picks Up A Checkout That Commits Late")
+    public void testLateCommitIsSynced() throws SQLException {
+        WalletLedger wallet = newWallet();
+        try (Connection checkout = DriverManager.getConnection(url, "sa", "")) {
+            // A slow checkout is still open while the sync runs
+            checkout.setAutoCommit(false);
+            assertEquals(Money.parse("4.00"), walletDAO.debit(2, Money.parse("1.00"), 7, checkout));
+            wallet.credit(1, Money.parse("1.00"), LedgerEntry.EntryType.TOP_UP);
+
+            assertEquals(1, wallet.syncBalances(10));
+            assertEquals(Money.parse("21.00"), scalar("SELECT balance FROM users WHERE user_id = 1"));
+            checkout.commit();
+        }
+
+        assertEquals(1, wallet.syncBalances(10));
+        assertEquals(Money.parse("4.00"), scalar("SELECT balance FROM users WHERE user_id = 2"));
+        assertEquals(Money.parse("4.00"), scalar("SELECT balance FROM wallet_snapshots WHERE user_id = 2"));
+    }
+
+    private WalletLedger newWallet() {
+        return new WalletLedger(new WalletLedger.LedgerStore() {
+            @Override
+            public Money loadBalance(int userId) throws SQLException {
+                return walletDAO.loadBalance(userId, conn);
+            }
+
+            @Override
+            public List<Money> appendEntries(List<LedgerEntry> entries) throws SQLException {
+                if (failWrites) {
+                    throw new SQLException("Ledger unavailable");
+                }
+                conn.setAutoCommit(false);
+                try {
+                    List<Money> balances = walletDAO.appendEntries(entries, conn);
+                    conn.commit();
+                    return balances;
+                } finally {
+                    conn.setAutoCommit(true);
+                }
+            }
+
+            @Override
+            public Money adjustTo(int userId, Money target) throws SQLException {
+                if (failWrites) {
+                    throw new SQLException("Ledger unavailable");
+                }
+                return walletDAO.adjustTo(userId, target, conn);
+            }
+
+            @Override
+            public int syncBalances(int batchSize) throws SQLException {
+                return walletDAO.syncBalances(batchSize, conn);
+            }
+        }, 10);
+    }
+
+    private Money scalar(String sql) throws SQLException {
+        try (Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery(sql)) {
+            rs.next();
+            return Money.of(rs.getBigDecimal(1));
+        }
+    }
+}